@@ -26,6 +26,12 @@ if [[ ! -f "build/libs/Javalang-analyzing-cli-${VERSION}-all.jar" ]]; then
     exit 1
 fi
 
+# Record a class-data-sharing archive for faster startup (optional; needs a JDK with CDS)
+echo "⚡ Building CDS archive..."
+if ! ./gradlew cdsArchive; then
+    echo "⚠️  CDS archive could not be built; releasing without it"
+fi
+
 # Get JAR file size
 JAR_SIZE=$(ls -lh "build/libs/Javalang-analyzing-cli-${VERSION}-all.jar" | awk '{print $5}')
 echo "📦 JAR file size: $JAR_SIZE"
@@ -39,6 +45,9 @@ mkdir -p "$RELEASE_DIR"
 # Copy files to release directory
 echo "📋 Copying release files..."
 cp "build/libs/Javalang-analyzing-cli-${VERSION}-all.jar" "$RELEASE_DIR/"
+if [[ -f "build/libs/Javalang-analyzing-cli-${VERSION}-all.jsa" ]]; then
+    cp "build/libs/Javalang-analyzing-cli-${VERSION}-all.jsa" "$RELEASE_DIR/"
+fi
 cp README.md "$RELEASE_DIR/"
 cp CHANGELOG.md "$RELEASE_DIR/"
 cp LICENSE "$RELEASE_DIR/"
@@ -71,12 +80,24 @@ cat > "$RELEASE_DIR/run.sh" << EOF
 # Javalang-analyzing-cli Quick Start Script
 
 JAR_FILE="Javalang-analyzing-cli-${VERSION}-all.jar"
+CDS_FILE="Javalang-analyzing-cli-${VERSION}-all.jsa"
 
 if [[ ! -f "\$JAR_FILE" ]]; then
     echo "Error: \$JAR_FILE not found in current directory"
     exit 1
 fi
 
+# --cds as the first argument starts the JVM with the bundled class-data-sharing archive
+CDS_OPTS=""
+if [[ "\$1" == "--cds" ]]; then
+    shift
+    if [[ -f "\$CDS_FILE" ]]; then
+        CDS_OPTS="-XX:SharedArchiveFile=\$CDS_FILE -Xshare:auto"
+    else
+        echo "Warning: \$CDS_FILE not found, starting without it"
+    fi
+fi
+
 echo "🚀 Javalang-analyzing-cli v${VERSION}"
 echo "Usage examples:"
 echo ""
@@ -89,10 +110,13 @@ echo ""
 echo "3. Use configuration file:"
 echo "   java -jar \$JAR_FILE ParseTestCaseToLlmContext --config analyzer.yml"
 echo ""
+echo "4. Faster startup with the CDS archive:"
+echo "   ./run.sh --cds ParseTestCaseToLlmContext --project /path/to/project"
+echo ""
 
 # If arguments are provided, execute directly
 if [[ \$# -gt 0 ]]; then
-    java -jar "\$JAR_FILE" "\$@"
+    java \$CDS_OPTS -jar "\$JAR_FILE" "\$@"
 fi
 EOF
 
@@ -102,6 +126,7 @@ cat > "$RELEASE_DIR/run.bat" << EOF
 REM Javalang-analyzing-cli Quick Start Script
 
 set JAR_FILE=Javalang-analyzing-cli-${VERSION}-all.jar
+set CDS_FILE=Javalang-analyzing-cli-${VERSION}-all.jsa
 
 if not exist "%JAR_FILE%" (
     echo Error: %JAR_FILE% not found in current directory
@@ -120,10 +145,27 @@ echo.
 echo 3. Use configuration file:
 echo    java -jar %JAR_FILE% ParseTestCaseToLlmContext --config analyzer.yml
 echo.
+echo 4. Faster startup with the CDS archive:
+echo    run.bat --cds ParseTestCaseToLlmContext --project C:\path\to\project
+echo.
+
+REM --cds as the first argument starts the JVM with the bundled class-data-sharing archive
+set CDS_OPTS=
+if "%~1"=="--cds" (
+    if exist "%CDS_FILE%" set CDS_OPTS=-XX:SharedArchiveFile=%CDS_FILE% -Xshare:auto
+    shift
+)
+set ARGS=
+:collect
+if "%~1"=="" goto run
+set ARGS=%ARGS% %1
+shift
+goto collect
+:run
 
 REM If arguments are provided, execute directly
-if "%~1" neq "" (
-    java -jar "%JAR_FILE%" %*
+if not "%ARGS%"=="" (
+    java %CDS_OPTS% -jar "%JAR_FILE%"%ARGS%
 )
 EOF
 
@@ -142,7 +184,8 @@ cat > "$RELEASE_DIR/RELEASE_NOTES.md" << EOF
 - **CHANGELOG.md** - Version change log
 - **LICENSE** - Open source license
 - **analyzer.yml** - Example configuration file
-- **run.sh** / **run.bat** - Quick start scripts
+- **run.sh** / **run.bat** - Quick start scripts (`--cds` uses the CDS archive)
+- **Javalang-analyzing-cli-${VERSION}-all.jsa** - Class-data-sharing archive for faster startup (if built)
 
 ## 🚀 Quick Start
 
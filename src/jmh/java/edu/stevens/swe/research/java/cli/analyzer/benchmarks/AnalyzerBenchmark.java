@@ -0,0 +1,38 @@
+package edu.stevens.swe.research.java.cli.analyzer.benchmarks;
+
+import edu.stevens.swe.research.java.cli.analyzer.core.TestCaseAnalyzer;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TestCaseAnalyzer#analyzeTestCase} over every test of the generated test class: the DFS through the
+ * shared helper and the production call chain, and the same analysis replaying memoized helper summaries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AnalyzerBenchmark {
+
+    @Benchmark
+    public void analyzeTestClass(AnalyzerState state, Blackhole blackhole) throws Exception {
+        state.projectCtx.getMethodSummaryCache().clear();
+        analyzeAll(state, blackhole);
+    }
+
+    @Benchmark
+    public void analyzeTestClassMemoized(AnalyzerState state, Blackhole blackhole) throws Exception {
+        analyzeAll(state, blackhole);
+    }
+
+    private static void analyzeAll(AnalyzerState state, Blackhole blackhole) throws Exception {
+        for (MethodDeclaration method : state.testMethods) {
+            blackhole.consume(state.testCaseAnalyzer.analyzeTestCase(
+                    state.testFile.compilationUnit, method, state.testFile.originalSource));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package edu.stevens.swe.research.java.cli.analyzer.benchmarks;
+
+import edu.stevens.swe.research.java.cli.analyzer.ProjectCtx;
+import edu.stevens.swe.research.java.cli.analyzer.core.AstParserUtil;
+import edu.stevens.swe.research.java.cli.analyzer.core.TestCaseAnalyzer;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generated project with a ready analyzer, shared by the benchmarks of one trial. The parser environment,
+ * source index and caches are warmed up once here, as they are after the first test file of a real run;
+ * benchmarks that measure a cold path clear the cache it would hit on every invocation.
+ */
+@State(Scope.Benchmark)
+public class AnalyzerState {
+
+    @Param({"20"})
+    public int productionClasses;
+
+    BenchmarkProject project;
+    ProjectCtx projectCtx;
+    AstParserUtil astParserUtil;
+    TestCaseAnalyzer testCaseAnalyzer;
+    AstParserUtil.ParseResult testFile;
+    List<MethodDeclaration> testMethods = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        project = BenchmarkProject.generate(productionClasses);
+        projectCtx = new ProjectCtx(project.root, "java");
+        astParserUtil = new AstParserUtil(projectCtx);
+        testCaseAnalyzer = new TestCaseAnalyzer(astParserUtil, projectCtx);
+        testFile = astParserUtil.parse(project.testFile.toString());
+        for (Object type : testFile.compilationUnit.types()) {
+            for (MethodDeclaration method : ((TypeDeclaration) type).getMethods()) {
+                if (method.getName().getIdentifier().startsWith("test")) {
+                    testMethods.add(method);
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        project.delete();
+    }
+}
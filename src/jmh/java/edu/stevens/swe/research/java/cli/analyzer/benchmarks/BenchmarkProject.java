@@ -0,0 +1,128 @@
+package edu.stevens.swe.research.java.cli.analyzer.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Small Maven project generated into a temporary directory for the benchmarks: a chain of production
+ * services calling each other and one test class whose tests go through a shared test helper.
+ */
+final class BenchmarkProject {
+
+    static final String PACKAGE = "bench.app";
+
+    final Path root;
+    final Path testFile;
+    final List<Path> productionFiles = new ArrayList<>();
+    final List<String> productionClassNames = new ArrayList<>();
+
+    private BenchmarkProject(Path root) {
+        this.root = root;
+        this.testFile = root.resolve("src/test/java/bench/app/ServiceChainTest.java");
+    }
+
+    /**
+     * Generates the project with the given number of chained production classes.
+     */
+    static BenchmarkProject generate(int productionClasses) throws IOException {
+        BenchmarkProject project = new BenchmarkProject(Files.createTempDirectory("analyzer-bench"));
+        write(project.root.resolve("pom.xml"), pom());
+        Path mainDir = project.root.resolve("src/main/java/bench/app");
+        for (int i = 0; i < productionClasses; i++) {
+            Path file = mainDir.resolve("Service" + i + ".java");
+            write(file, productionClass(i, i + 1 < productionClasses));
+            project.productionFiles.add(file);
+            project.productionClassNames.add(PACKAGE + ".Service" + i);
+        }
+        write(project.testFile, testClass(productionClasses));
+        return project;
+    }
+
+    /**
+     * Source of a class with one method of the given number of statements, each holding three invocations.
+     */
+    static String methodWithStatements(int statements) {
+        StringBuilder source = new StringBuilder("class Huge {\n    void run() {\n");
+        for (int i = 0; i < statements; i++) {
+            source.append("        assertEquals(expected").append(i).append("(), service.call(").append(i).append("));\n");
+        }
+        return source.append("    }\n}\n").toString();
+    }
+
+    void delete() throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static String pom() {
+        return "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                + "  <modelVersion>4.0.0</modelVersion>\n"
+                + "  <groupId>bench</groupId>\n"
+                + "  <artifactId>bench-app</artifactId>\n"
+                + "  <version>1.0</version>\n"
+                + "</project>\n";
+    }
+
+    private static String productionClass(int index, boolean hasNext) {
+        StringBuilder source = new StringBuilder("package " + PACKAGE + ";\n\n");
+        source.append("public class Service").append(index).append(" {\n");
+        source.append("    private int calls;\n\n");
+        source.append("    public int compute(int value) {\n");
+        source.append("        calls++;\n");
+        source.append("        int scaled = normalize(value) * ").append(index + 2).append(";\n");
+        if (hasNext) {
+            source.append("        return new Service").append(index + 1).append("().compute(scaled);\n");
+        } else {
+            source.append("        return scaled;\n");
+        }
+        source.append("    }\n\n");
+        source.append("    private int normalize(int value) {\n");
+        source.append("        return Math.abs(value) % 1000;\n");
+        source.append("    }\n\n");
+        source.append("    public int getCalls() {\n");
+        source.append("        return calls;\n");
+        source.append("    }\n");
+        source.append("}\n");
+        return source.toString();
+    }
+
+    private static String testClass(int productionClasses) {
+        StringBuilder source = new StringBuilder("package " + PACKAGE + ";\n\n");
+        source.append("import org.junit.jupiter.api.BeforeEach;\n");
+        source.append("import org.junit.jupiter.api.Test;\n\n");
+        source.append("import static org.junit.jupiter.api.Assertions.assertEquals;\n\n");
+        source.append("public class ServiceChainTest {\n");
+        source.append("    private Service0 service;\n\n");
+        source.append("    @BeforeEach\n");
+        source.append("    void setUp() {\n");
+        source.append("        service = new Service0();\n");
+        source.append("    }\n\n");
+        for (int i = 0; i < productionClasses; i++) {
+            source.append("    @Test\n");
+            source.append("    void testCompute").append(i).append("() {\n");
+            source.append("        int result = computeTwice(").append(i).append(");\n");
+            source.append("        assertEquals(result, new Service").append(i).append("().compute(").append(i).append(") * 2);\n");
+            source.append("        assertEquals(2, service.getCalls());\n");
+            source.append("    }\n\n");
+        }
+        source.append("    private int computeTwice(int value) {\n");
+        source.append("        return service.compute(value) + service.compute(value);\n");
+        source.append("    }\n");
+        source.append("}\n");
+        return source.toString();
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,259 @@
+package edu.stevens.swe.research.java.cli.analyzer.benchmarks;
+
+import com.google.gson.GsonBuilder;
+import edu.stevens.swe.research.java.cli.analyzer.LogData;
+import edu.stevens.swe.research.java.cli.analyzer.ProjectCtx;
+import edu.stevens.swe.research.java.cli.analyzer.TaskManager;
+import edu.stevens.swe.research.java.cli.analyzer.TaskResult;
+import edu.stevens.swe.research.java.cli.analyzer.core.MetricsRegistry;
+import edu.stevens.swe.research.java.cli.analyzer.core.SourceIndex;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end throughput benchmark: generates a synthetic project with {@link SyntheticProjectGenerator},
+ * runs ParseTestCaseToLlmContext on it the way the CLI does, and reports tests per second, peak heap
+ * and the wall time of each phase. Run through {@code ./gradlew e2eBenchmark -Pe2eArgs="--tests 10000"}.
+ */
+@Command(name = "e2e-benchmark", mixinStandardHelpOptions = true,
+        description = "Generates a synthetic project and measures end-to-end analysis throughput.")
+public class EndToEndBenchmark implements Callable<Integer> {
+
+    private static final String TASK_NAME = "ParseTestCaseToLlmContext";
+
+    @Option(names = {"--tests"}, description = "Total number of tests; derives the module and class counts (e.g. 1000, 10000, 100000).")
+    private Integer tests;
+
+    @Option(names = {"--build"}, defaultValue = "maven", description = "Build system of the generated project: maven or gradle.")
+    private String buildSystem;
+
+    @Option(names = {"--modules"}, defaultValue = "1", description = "Number of modules (ignored with --tests).")
+    private int modules;
+
+    @Option(names = {"--classes-per-module"}, defaultValue = "10", description = "Test classes per module (ignored with --tests).")
+    private int classesPerModule;
+
+    @Option(names = {"--tests-per-class"}, defaultValue = "10", description = "Test methods per test class.")
+    private int testsPerClass;
+
+    @Option(names = {"--helper-depth"}, defaultValue = "3", description = "Test helper calls between a test and production code.")
+    private int helperDepth;
+
+    @Option(names = {"--inner-classes"}, defaultValue = "1", description = "Nested classes per production component.")
+    private int innerClasses;
+
+    @Option(names = {"--mock-percent"}, defaultValue = "30", description = "Percentage of tests that use Mockito.")
+    private int mockPercent;
+
+    @Option(names = {"--asserts-per-test"}, defaultValue = "2", description = "Assertions per test.")
+    private int assertsPerTest;
+
+    @Option(names = {"--threads"}, defaultValue = "0", description = "Analyzer threads. 0 means use CPU cores.")
+    private int threads;
+
+    @Option(names = {"--format"}, defaultValue = "json", description = "Output format of the analysis (json, ndjson, zip).")
+    private String format;
+
+    @Option(names = {"--project-dir"}, description = "Directory to generate into. Default: a new temporary directory.")
+    private File projectDir;
+
+    @Option(names = {"--reuse"}, description = "Analyze the project already in --project-dir instead of generating it.")
+    private boolean reuse;
+
+    @Option(names = {"--keep"}, description = "Keep the generated project and its output after the run.")
+    private boolean keep;
+
+    @Option(names = {"--result-file"}, description = "Also write the report as JSON to this file.")
+    private File resultFile;
+
+    /**
+     * Measurements of one run, printed at the end and optionally written as JSON.
+     */
+    public static class Report {
+        public String buildSystem;
+        public int generatedTests;
+        public int threads;
+        public String format;
+        public int totalTestCases;
+        public int processedTestCases;
+        public double testsPerSecond;
+        public long peakHeapMb;
+        public Map<String, Long> phaseMillis = new LinkedHashMap<>();
+        public MetricsRegistry.Snapshot metrics; // Analyzer-internal parse/resolve/dfs/write breakdown
+    }
+
+    @Override
+    public Integer call() throws Exception {
+        SyntheticProjectGenerator.Config config = new SyntheticProjectGenerator.Config();
+        config.buildSystem = buildSystem;
+        config.testsPerClass = testsPerClass;
+        config.helperDepth = helperDepth;
+        config.innerClasses = innerClasses;
+        config.mockPercent = mockPercent;
+        config.assertsPerTest = assertsPerTest;
+        if (tests != null) {
+            config.withTotalTests(tests);
+        } else {
+            config.modules = modules;
+            config.testClassesPerModule = classesPerModule;
+        }
+
+        Path root = projectDir != null ? projectDir.toPath().toAbsolutePath() : Files.createTempDirectory("synthetic-project");
+        Report report = new Report();
+        report.buildSystem = buildSystem;
+        report.generatedTests = config.totalTests();
+        report.threads = threads;
+        report.format = format;
+
+        HeapSampler heapSampler = new HeapSampler();
+        heapSampler.start();
+        try {
+            if (!reuse) {
+                long start = System.nanoTime();
+                new SyntheticProjectGenerator(config).generate(root);
+                report.phaseMillis.put("generate", millisSince(start));
+                System.out.println("Generated " + config.totalTests() + " tests in " + config.modules + " modules at " + root);
+            }
+            // Collect garbage left by generation so the peak reflects the analysis
+            System.gc();
+            heapSampler.reset();
+            runAnalysis(root, report);
+        } finally {
+            heapSampler.interrupt();
+            heapSampler.join();
+            if (!keep && !reuse) {
+                deleteRecursively(root);
+            }
+        }
+        report.peakHeapMb = heapSampler.peakBytes / (1024 * 1024);
+
+        printReport(report);
+        if (resultFile != null) {
+            try (Writer writer = Files.newBufferedWriter(resultFile.toPath(), StandardCharsets.UTF_8)) {
+                new GsonBuilder().setPrettyPrinting().create().toJson(report, writer);
+            }
+        }
+        return report.processedTestCases > 0 ? 0 : 1;
+    }
+
+    private void runAnalysis(Path root, Report report) throws IOException {
+        Path outputDir = root.resolve("AAA");
+        LogData logData = new LogData(root.getFileName().toString(), TASK_NAME);
+        ProjectCtx projectCtx = new ProjectCtx(root, "java");
+        projectCtx.setOutputDirectory(outputDir);
+        projectCtx.setLogData(logData);
+        projectCtx.setOutputFormat(format);
+
+        long start = System.nanoTime();
+        TaskManager taskManager = new TaskManager(projectCtx, threads);
+        report.phaseMillis.put("startup", millisSince(start));
+        try {
+            start = System.nanoTime();
+            SourceIndex.forProject(projectCtx);
+            report.phaseMillis.put("index", millisSince(start));
+
+            start = System.nanoTime();
+            TaskResult result = taskManager.executeTask(TASK_NAME);
+            long analyzeMillis = millisSince(start);
+            report.phaseMillis.put("analyze", analyzeMillis);
+            logData.finish(result != null ? "COMPLETED" : "FAILED");
+
+            start = System.nanoTime();
+            logData.writeToFile(outputDir, root.getFileName().toString());
+            report.phaseMillis.put("writeLog", millisSince(start));
+
+            report.metrics = logData.getMetrics();
+            report.totalTestCases = logData.getTotalTestCases();
+            report.processedTestCases = logData.getProcessedTestCases();
+            report.testsPerSecond = analyzeMillis > 0 ? report.processedTestCases * 1000.0 / analyzeMillis : 0;
+        } finally {
+            taskManager.shutdown();
+        }
+    }
+
+    private static void printReport(Report report) {
+        System.out.println();
+        System.out.println("=== End-to-end benchmark ===");
+        System.out.println("Build system:     " + report.buildSystem);
+        System.out.println("Generated tests:  " + report.generatedTests);
+        System.out.println("Analyzed tests:   " + report.processedTestCases + " of " + report.totalTestCases);
+        System.out.println("Threads:          " + (report.threads == 0 ? "Default (CPU Cores)" : report.threads));
+        System.out.println("Format:           " + report.format);
+        System.out.printf("Throughput:       %.1f tests/sec%n", report.testsPerSecond);
+        System.out.println("Peak heap:        " + report.peakHeapMb + " MB");
+        for (Map.Entry<String, Long> phase : report.phaseMillis.entrySet()) {
+            System.out.printf("  %-15s %8d ms%n", phase.getKey(), phase.getValue());
+        }
+        if (report.metrics != null) {
+            System.out.println("Analyzer phases (summed over threads; nested phases overlap):");
+            for (Map.Entry<String, MetricsRegistry.TimerStats> timer : report.metrics.timers.entrySet()) {
+                MetricsRegistry.TimerStats stats = timer.getValue();
+                System.out.printf("  %-15s %8.0f ms total, %8d calls, p95 %.3f ms%n", timer.getKey(), stats.totalMs, stats.count, stats.p95Ms);
+            }
+        }
+    }
+
+    private static long millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Samples used heap every few milliseconds; polling catches the peak between collections,
+     * which the per-pool peak counters of the JVM over- or under-state depending on the collector.
+     */
+    private static class HeapSampler extends Thread {
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private volatile long peakBytes;
+
+        HeapSampler() {
+            super("heap-sampler");
+            setDaemon(true);
+        }
+
+        void reset() {
+            peakBytes = 0;
+        }
+
+        @Override
+        public void run() {
+            while (!isInterrupted()) {
+                peakBytes = Math.max(peakBytes, memory.getHeapMemoryUsage().getUsed());
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        System.exit(new CommandLine(new EndToEndBenchmark()).execute(args));
+    }
+}
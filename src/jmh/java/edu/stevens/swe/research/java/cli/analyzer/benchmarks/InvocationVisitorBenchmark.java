@@ -0,0 +1,52 @@
+package edu.stevens.swe.research.java.cli.analyzer.benchmarks;
+
+import edu.stevens.swe.research.java.cli.analyzer.visitors.InvocationVisitor;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collecting and ordering the invocations of one method body, from a typical test to a generated one
+ * with thousands of assertions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class InvocationVisitorBenchmark {
+
+    @Param({"10", "5000"})
+    public int statements;
+
+    private MethodDeclaration method;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        parser.setSource(BenchmarkProject.methodWithStatements(statements).toCharArray());
+        CompilationUnit cu = (CompilationUnit) parser.createAST(null);
+        method = ((TypeDeclaration) cu.types().get(0)).getMethods()[0];
+    }
+
+    @Benchmark
+    public List<ASTNode> visit() {
+        InvocationVisitor visitor = new InvocationVisitor();
+        method.accept(visitor);
+        return visitor.getMethods();
+    }
+}
@@ -0,0 +1,28 @@
+package edu.stevens.swe.research.java.cli.analyzer.benchmarks;
+
+import edu.stevens.swe.research.java.cli.analyzer.core.AstParserUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AstParserUtil#parse} of a production file: a full binding-resolved parse and a cache hit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParseBenchmark {
+
+    @Benchmark
+    public AstParserUtil.ParseResult parseUncached(AnalyzerState state) throws Exception {
+        state.astParserUtil.getCompilationUnitCache().clear();
+        return state.astParserUtil.parse(state.project.productionFiles.get(0).toString());
+    }
+
+    @Benchmark
+    public AstParserUtil.ParseResult parseCached(AnalyzerState state) throws Exception {
+        return state.astParserUtil.parse(state.project.productionFiles.get(0).toString());
+    }
+}
@@ -0,0 +1,49 @@
+package edu.stevens.swe.research.java.cli.analyzer.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import edu.stevens.swe.research.java.cli.analyzer.core.TestCaseAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gson serialization of one analysis result, pretty-printed as in the json format and compact as in ndjson.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private final Gson prettyGson = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create();
+    private final Gson compactGson = new GsonBuilder().disableHtmlEscaping().create();
+    private TestCaseAnalyzer.AnalysisResult result;
+
+    @Setup(Level.Trial)
+    public void setUp(AnalyzerState state) throws Exception {
+        result = state.testCaseAnalyzer.analyzeTestCase(
+                state.testFile.compilationUnit, state.testMethods.get(0), state.testFile.originalSource);
+    }
+
+    @Benchmark
+    public String pretty() {
+        StringWriter writer = new StringWriter();
+        prettyGson.toJson(result, writer);
+        return writer.toString();
+    }
+
+    @Benchmark
+    public String compact() {
+        StringWriter writer = new StringWriter();
+        compactGson.toJson(result, writer);
+        return writer.toString();
+    }
+}
@@ -0,0 +1,34 @@
+package edu.stevens.swe.research.java.cli.analyzer.benchmarks;
+
+import edu.stevens.swe.research.java.cli.analyzer.core.SourceIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolving a class name to its source file through the project-wide index, and building the index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SourceLookupBenchmark {
+
+    @Benchmark
+    public String lookupExisting(AnalyzerState state) {
+        String className = state.project.productionClassNames.get(state.productionClasses / 2);
+        return state.testCaseAnalyzer.getSourceFilePathForClass(className, state.project.root.toString());
+    }
+
+    @Benchmark
+    public String lookupMissing(AnalyzerState state) {
+        return state.testCaseAnalyzer.getSourceFilePathForClass("bench.app.Missing", state.project.root.toString());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public SourceIndex buildIndex(AnalyzerState state) {
+        return SourceIndex.build(state.projectCtx);
+    }
+}
@@ -0,0 +1,293 @@
+package edu.stevens.swe.research.java.cli.analyzer.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes a configurable multi-module Maven or Gradle project to disk, shaped like the projects the analyzer
+ * struggles with: many test classes per module, tests reaching production code through chains of test
+ * helpers, nested production classes, and a mix of plain and Mockito-based tests.
+ *
+ * Every module has the same layout, under package {@code synth.m<module>}:
+ * production components implementing a shared {@code Processor} interface (each with a nested
+ * {@code Validator} class per requested inner class), a {@code Repository} that mock-based tests stub,
+ * a {@code TestSupport} helper chain of the requested depth, and one test class per component.
+ * Generation is deterministic, so the same configuration always yields the same project.
+ */
+public class SyntheticProjectGenerator {
+
+    /**
+     * Shape of the generated project.
+     */
+    public static class Config {
+        public String buildSystem = "maven"; // maven or gradle
+        public int modules = 1;
+        public int testClassesPerModule = 10;
+        public int testsPerClass = 10;
+        public int helperDepth = 3; // TestSupport methods between a test and production code
+        public int innerClasses = 1; // Nested Validator classes per production component
+        public int mockPercent = 30; // Share of tests that stub the repository with Mockito
+        public int assertsPerTest = 2;
+
+        public int totalTests() {
+            return modules * testClassesPerModule * testsPerClass;
+        }
+
+        /**
+         * Splits a total test count into modules of at most 50 test classes of {@link #testsPerClass} tests.
+         */
+        public Config withTotalTests(int tests) {
+            int classes = Math.max(1, (tests + testsPerClass - 1) / testsPerClass);
+            modules = Math.max(1, (classes + 49) / 50);
+            testClassesPerModule = (classes + modules - 1) / modules;
+            return this;
+        }
+    }
+
+    private final Config config;
+
+    public SyntheticProjectGenerator(Config config) {
+        if (!"maven".equals(config.buildSystem) && !"gradle".equals(config.buildSystem)) {
+            throw new IllegalArgumentException("Unsupported build system: " + config.buildSystem + " (expected maven or gradle)");
+        }
+        this.config = config;
+    }
+
+    /**
+     * Generates the project into the directory, which is created if needed.
+     */
+    public void generate(Path projectRoot) throws IOException {
+        Files.createDirectories(projectRoot);
+        if ("gradle".equals(config.buildSystem)) {
+            write(projectRoot.resolve("settings.gradle"), gradleSettings());
+            write(projectRoot.resolve("build.gradle"), gradleRootBuild());
+        } else {
+            write(projectRoot.resolve("pom.xml"), mavenRootPom());
+        }
+        for (int module = 0; module < config.modules; module++) {
+            generateModule(projectRoot.resolve(moduleName(module)), module);
+        }
+    }
+
+    private void generateModule(Path moduleRoot, int module) throws IOException {
+        if ("maven".equals(config.buildSystem)) {
+            write(moduleRoot.resolve("pom.xml"), mavenModulePom(module));
+        }
+        String packageName = packageName(module);
+        String packagePath = packageName.replace('.', '/');
+        Path mainDir = moduleRoot.resolve("src/main/java").resolve(packagePath);
+        Path testDir = moduleRoot.resolve("src/test/java").resolve(packagePath);
+
+        write(mainDir.resolve("Processor.java"), processor(packageName));
+        write(mainDir.resolve("Repository.java"), repository(packageName));
+        write(mainDir.resolve("InMemoryRepository.java"), inMemoryRepository(packageName));
+        write(testDir.resolve("TestSupport.java"), testSupport(packageName));
+        for (int component = 0; component < config.testClassesPerModule; component++) {
+            write(mainDir.resolve("Component" + component + ".java"), component(packageName, component));
+            write(testDir.resolve("Component" + component + "Test.java"), testClass(packageName, component));
+        }
+    }
+
+    private static String moduleName(int module) {
+        return String.format("module-%03d", module);
+    }
+
+    private static String packageName(int module) {
+        return String.format("synth.m%03d", module);
+    }
+
+    private String mavenRootPom() {
+        StringBuilder pom = new StringBuilder();
+        pom.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+        pom.append("  <modelVersion>4.0.0</modelVersion>\n");
+        pom.append("  <groupId>synth</groupId>\n");
+        pom.append("  <artifactId>synthetic-parent</artifactId>\n");
+        pom.append("  <version>1.0</version>\n");
+        pom.append("  <packaging>pom</packaging>\n");
+        pom.append("  <modules>\n");
+        for (int module = 0; module < config.modules; module++) {
+            pom.append("    <module>").append(moduleName(module)).append("</module>\n");
+        }
+        pom.append("  </modules>\n");
+        pom.append("</project>\n");
+        return pom.toString();
+    }
+
+    private String mavenModulePom(int module) {
+        return "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                + "  <modelVersion>4.0.0</modelVersion>\n"
+                + "  <parent>\n"
+                + "    <groupId>synth</groupId>\n"
+                + "    <artifactId>synthetic-parent</artifactId>\n"
+                + "    <version>1.0</version>\n"
+                + "  </parent>\n"
+                + "  <artifactId>" + moduleName(module) + "</artifactId>\n"
+                + "  <dependencies>\n"
+                + "    <dependency>\n"
+                + "      <groupId>org.junit.jupiter</groupId>\n"
+                + "      <artifactId>junit-jupiter</artifactId>\n"
+                + "      <version>5.10.0</version>\n"
+                + "      <scope>test</scope>\n"
+                + "    </dependency>\n"
+                + "    <dependency>\n"
+                + "      <groupId>org.mockito</groupId>\n"
+                + "      <artifactId>mockito-core</artifactId>\n"
+                + "      <version>5.11.0</version>\n"
+                + "      <scope>test</scope>\n"
+                + "    </dependency>\n"
+                + "  </dependencies>\n"
+                + "</project>\n";
+    }
+
+    private String gradleSettings() {
+        StringBuilder settings = new StringBuilder("rootProject.name = 'synthetic'\n\n");
+        for (int module = 0; module < config.modules; module++) {
+            settings.append("include '").append(moduleName(module)).append("'\n");
+        }
+        return settings.toString();
+    }
+
+    private static String gradleRootBuild() {
+        return "subprojects {\n"
+                + "    apply plugin: 'java'\n\n"
+                + "    repositories {\n"
+                + "        mavenCentral()\n"
+                + "    }\n\n"
+                + "    dependencies {\n"
+                + "        testImplementation 'org.junit.jupiter:junit-jupiter:5.10.0'\n"
+                + "        testImplementation 'org.mockito:mockito-core:5.11.0'\n"
+                + "    }\n"
+                + "}\n";
+    }
+
+    private static String processor(String packageName) {
+        return "package " + packageName + ";\n\n"
+                + "public interface Processor {\n"
+                + "    int process(int value);\n"
+                + "}\n";
+    }
+
+    private static String repository(String packageName) {
+        return "package " + packageName + ";\n\n"
+                + "public interface Repository {\n"
+                + "    int find(int key);\n\n"
+                + "    void save(int key, int value);\n"
+                + "}\n";
+    }
+
+    private static String inMemoryRepository(String packageName) {
+        return "package " + packageName + ";\n\n"
+                + "import java.util.HashMap;\n"
+                + "import java.util.Map;\n\n"
+                + "public class InMemoryRepository implements Repository {\n"
+                + "    private final Map<Integer, Integer> values = new HashMap<>();\n\n"
+                + "    @Override\n"
+                + "    public int find(int key) {\n"
+                + "        return values.getOrDefault(key, key);\n"
+                + "    }\n\n"
+                + "    @Override\n"
+                + "    public void save(int key, int value) {\n"
+                + "        values.put(key, value);\n"
+                + "    }\n"
+                + "}\n";
+    }
+
+    private String component(String packageName, int component) {
+        String name = "Component" + component;
+        StringBuilder source = new StringBuilder("package " + packageName + ";\n\n");
+        source.append("public class ").append(name).append(" implements Processor {\n");
+        source.append("    private final Repository repository;\n\n");
+        source.append("    public ").append(name).append("(Repository repository) {\n");
+        source.append("        this.repository = repository;\n");
+        source.append("    }\n\n");
+        source.append("    @Override\n");
+        source.append("    public int process(int value) {\n");
+        source.append("        int stored = repository.find(value);\n");
+        for (int inner = 0; inner < config.innerClasses; inner++) {
+            source.append("        stored = new Validator").append(inner).append("(").append(inner + 1).append(").check(stored);\n");
+        }
+        source.append("        repository.save(value, stored);\n");
+        source.append("        return transform(stored);\n");
+        source.append("    }\n\n");
+        source.append("    private int transform(int value) {\n");
+        source.append("        return value * ").append(component + 2).append(" % 1000;\n");
+        source.append("    }\n");
+        for (int inner = 0; inner < config.innerClasses; inner++) {
+            String validator = "Validator" + inner;
+            source.append("\n    public static class ").append(validator).append(" {\n");
+            source.append("        private final int limit;\n\n");
+            source.append("        public ").append(validator).append("(int limit) {\n");
+            source.append("            this.limit = limit;\n");
+            source.append("        }\n\n");
+            source.append("        public int check(int value) {\n");
+            source.append("            return value < limit ? limit : value;\n");
+            source.append("        }\n");
+            source.append("    }\n");
+        }
+        source.append("}\n");
+        return source.toString();
+    }
+
+    private String testSupport(String packageName) {
+        StringBuilder source = new StringBuilder("package " + packageName + ";\n\n");
+        source.append("final class TestSupport {\n\n");
+        source.append("    private TestSupport() {\n");
+        source.append("    }\n");
+        for (int level = 0; level < config.helperDepth; level++) {
+            source.append("\n    static int level").append(level).append("(Processor processor, int value) {\n");
+            if (level + 1 < config.helperDepth) {
+                source.append("        return level").append(level + 1).append("(processor, value + 1);\n");
+            } else {
+                source.append("        return processor.process(value);\n");
+            }
+            source.append("    }\n");
+        }
+        return source.append("}\n").toString();
+    }
+
+    private String testClass(String packageName, int component) {
+        String name = "Component" + component;
+        StringBuilder source = new StringBuilder("package " + packageName + ";\n\n");
+        source.append("import org.junit.jupiter.api.Test;\n");
+        source.append("import org.mockito.Mockito;\n\n");
+        source.append("import static org.junit.jupiter.api.Assertions.assertEquals;\n");
+        source.append("import static org.junit.jupiter.api.Assertions.assertTrue;\n\n");
+        source.append("public class ").append(name).append("Test {\n");
+        for (int test = 0; test < config.testsPerClass; test++) {
+            source.append("\n    @Test\n");
+            source.append("    void testProcess").append(test).append("() {\n");
+            if (isMockTest(test)) {
+                source.append("        Repository repository = Mockito.mock(Repository.class);\n");
+                source.append("        Mockito.when(repository.find(").append(test).append(")).thenReturn(").append(test + 1).append(");\n");
+            } else {
+                source.append("        Repository repository = new InMemoryRepository();\n");
+            }
+            source.append("        ").append(name).append(" processor = new ").append(name).append("(repository);\n");
+            source.append("        int result = ").append(config.helperDepth > 0 ? "TestSupport.level0(processor, " + test + ")" : "processor.process(" + test + ")").append(";\n");
+            for (int assertion = 0; assertion < config.assertsPerTest; assertion++) {
+                if (assertion % 2 == 0) {
+                    source.append("        assertEquals(result, processor.process(").append(test + config.helperDepth).append("));\n");
+                } else {
+                    source.append("        assertTrue(result >= ").append(assertion).append(" || result < 0);\n");
+                }
+            }
+            if (isMockTest(test)) {
+                source.append("        Mockito.verify(repository, Mockito.atLeastOnce()).save(Mockito.anyInt(), Mockito.anyInt());\n");
+            }
+            source.append("    }\n");
+        }
+        return source.append("}\n").toString();
+    }
+
+    // Spreads the mock-based tests evenly over the class
+    private boolean isMockTest(int test) {
+        return (test + 1) * config.mockPercent / 100 != test * config.mockPercent / 100;
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
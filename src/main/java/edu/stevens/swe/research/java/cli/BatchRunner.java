@@ -0,0 +1,169 @@
+package edu.stevens.swe.research.java.cli;
+
+import edu.stevens.swe.research.java.cli.analyzer.Log;
+import edu.stevens.swe.research.java.cli.analyzer.LogData;
+import edu.stevens.swe.research.java.cli.analyzer.ProjectCtx;
+import edu.stevens.swe.research.java.cli.analyzer.TaskManager;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs one task over every project of a manifest inside a single JVM. All projects share one worker
+ * pool for their per-file jobs, and several projects are in flight at a time, so the pool stays busy
+ * while one project is still discovering files and another is finishing its tail. The pool is a plain
+ * thread pool, so cancelling a job interrupts its worker and the analysis stops at its next check.
+ * Every project gets its own ProjectCtx, TaskManager and LogData, exactly as a separate run would, and
+ * writes its formatted result to {@code <project>-result.<ext>} next to its log.
+ *
+ * Manifest format: one project per line, optionally followed by a tab and its output directory;
+ * blank lines and lines starting with '#' are skipped, relative paths are resolved against the
+ * manifest's directory.
+ */
+class BatchRunner {
+
+    /**
+     * One manifest line.
+     */
+    static class Entry {
+        final Path projectDir;
+        final Path outputDir; // null for the default <project>/AAA
+
+        Entry(Path projectDir, Path outputDir) {
+            this.projectDir = projectDir;
+            this.outputDir = outputDir;
+        }
+    }
+
+    private final List<String> args;
+    private final int threads;
+    private final int parallelProjects;
+    private final Set<Main> running = ConcurrentHashMap.newKeySet(); // Projects whose log is still open
+    private final Set<Main> finished = ConcurrentHashMap.newKeySet();
+
+    BatchRunner(List<String> args, int threads, int parallelProjects) {
+        this.args = args;
+        this.threads = threads;
+        this.parallelProjects = Math.max(1, parallelProjects);
+    }
+
+    static List<Entry> readManifest(Path manifest) throws IOException {
+        Path base = manifest.toAbsolutePath().getParent();
+        List<Entry> entries = new ArrayList<>();
+        for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] columns = trimmed.split("\t");
+            Path projectDir = base.resolve(columns[0].trim()).normalize();
+            Path outputDir = columns.length > 1 && !columns[1].trim().isEmpty() ? base.resolve(columns[1].trim()).normalize() : null;
+            entries.add(new Entry(projectDir, outputDir));
+        }
+        return entries;
+    }
+
+    /**
+     * Analyzes all projects, writing each project's formatted result as it completes.
+     * Returns 0 if every project succeeded.
+     */
+    int run(List<Entry> entries) {
+        int poolSize = threads <= 0 ? Runtime.getRuntime().availableProcessors() : threads;
+        ExecutorService workers = Executors.newFixedThreadPool(poolSize);
+        ExecutorService drivers = Executors.newFixedThreadPool(Math.min(parallelProjects, Math.max(1, entries.size())));
+        Log.info("Batch: " + entries.size() + " projects, " + parallelProjects + " at a time on a shared pool of " + poolSize + " workers");
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (Main project : running) {
+                project.writeInterruptedLog();
+            }
+        }));
+
+        AtomicInteger failed = new AtomicInteger();
+        long start = System.nanoTime();
+        List<Future<?>> pending = new ArrayList<>();
+        for (Entry entry : entries) {
+            pending.add(drivers.submit(() -> {
+                int exitCode = runProject(entry, workers);
+                if (exitCode != 0) {
+                    failed.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> future : pending) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                Log.error("Error in batch project: " + e.getCause());
+                failed.incrementAndGet();
+            } catch (InterruptedException e) {
+                Log.error("Interrupted while waiting for batch projects.");
+                pending.forEach(f -> f.cancel(true));
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        drivers.shutdown();
+        workers.shutdown();
+
+        long testsFound = 0;
+        long testsProcessed = 0;
+        for (Main project : finished) {
+            LogData logData = project.getLogData();
+            testsFound += logData.getTotalTestCases();
+            testsProcessed += logData.getProcessedTestCases();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Log.info("Batch finished: %d/%d projects completed (%d failed) in %.1f s; %d test cases found, %d processed, %.1f tests/s",
+                entries.size() - failed.get(), entries.size(), failed.get(), seconds, testsFound, testsProcessed,
+                seconds > 0 ? testsProcessed / seconds : 0.0);
+        return failed.get() == 0 ? 0 : 1;
+    }
+
+    /**
+     * Runs the batch's command line for one project, as a separate CLI invocation would.
+     */
+    private int runProject(Entry entry, ExecutorService workers) {
+        if (!Files.isDirectory(entry.projectDir)) {
+            Log.error("Error: Batch project " + entry.projectDir + " is not a directory; skipping it.");
+            return 1;
+        }
+        Main project = new Main();
+        new CommandLine(project).setCaseInsensitiveEnumValuesAllowed(true).parseArgs(args.toArray(new String[0]));
+        project.prepareForBatch(entry.projectDir, entry.outputDir);
+        running.add(project);
+        TaskManager taskManager = null;
+        try {
+            project.printBanner();
+            ProjectCtx projectCtx = new ProjectCtx(entry.projectDir, project.getLanguage());
+            project.configure(projectCtx);
+            taskManager = new TaskManager(projectCtx, workers);
+            int exitCode = project.runTask(projectCtx, taskManager, project::openOutput);
+            if (exitCode == 0) {
+                Log.info("Result of " + entry.projectDir + " written to " + project.getOutputFile());
+            }
+            return exitCode;
+        } catch (Exception e) {
+            Log.error("Error during analysis of " + entry.projectDir + ": " + e.getMessage());
+            return 1;
+        } finally {
+            running.remove(project);
+            finished.add(project);
+            if (taskManager != null) {
+                taskManager.shutdown(); // Leaves the shared pool running
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package edu.stevens.swe.research.java.cli;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import edu.stevens.swe.research.java.cli.analyzer.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Thin client of the analyzer daemon ({@link ServeCommand}). Sends the command line unchanged, together
+ * with the working directory its relative paths refer to, and prints the formatted result the daemon
+ * returns exactly as a local run would.
+ */
+public class DaemonClient {
+
+    /**
+     * One analysis request: the CLI arguments and the directory they were given in.
+     */
+    static class Request {
+        String workingDirectory;
+        List<String> args = new ArrayList<>();
+    }
+
+    /**
+     * The daemon's answer: the exit code a local run would return and its formatted result.
+     */
+    static class Response {
+        int exitCode;
+        String output = "";
+    }
+
+    private DaemonClient() {
+    }
+
+    /**
+     * Runs the request on the daemon at the given localhost port and writes the result to the output
+     * file, or to stdout if there is none. Returns the exit code.
+     */
+    public static int forward(int port, List<String> args, File outputFile) {
+        Gson gson = new Gson();
+        Request request = new Request();
+        request.workingDirectory = Path.of("").toAbsolutePath().toString();
+        request.args = args;
+
+        Response response;
+        try {
+            HttpURLConnection connection = (HttpURLConnection) URI.create("http://127.0.0.1:" + port + "/run").toURL().openConnection();
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json; charset=utf-8");
+            try (OutputStream body = connection.getOutputStream()) {
+                body.write(gson.toJson(request).getBytes(StandardCharsets.UTF_8));
+            }
+            InputStream answer = connection.getResponseCode() < 400 ? connection.getInputStream() : connection.getErrorStream();
+            try (Reader reader = new InputStreamReader(answer, StandardCharsets.UTF_8)) {
+                response = gson.fromJson(reader, Response.class);
+            }
+        } catch (ConnectException e) {
+            Log.error("Error: No analyzer daemon on port " + port + "; start one with 'serve --port " + port + "'.");
+            return 1;
+        } catch (IOException | JsonParseException e) {
+            Log.error("Error talking to the analyzer daemon on port " + port + ": " + e.getMessage());
+            return 1;
+        }
+        if (response == null) {
+            Log.error("Error: Empty response from the analyzer daemon on port " + port + ".");
+            return 1;
+        }
+
+        try (OutputStream os = (outputFile != null) ? new FileOutputStream(outputFile) : System.out) {
+            os.write(response.output.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            Log.error("Error formatting or writing results: " + e.getMessage());
+            return 1;
+        }
+        return response.exitCode;
+    }
+}
@@ -3,17 +3,24 @@ package edu.stevens.swe.research.java.cli;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
 import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
+import picocli.CommandLine.Model.CommandSpec;
 
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.concurrent.Callable;
 
 import edu.stevens.swe.research.java.cli.analyzer.ProjectCtx;
 import edu.stevens.swe.research.java.cli.analyzer.TaskManager;
 import edu.stevens.swe.research.java.cli.analyzer.TaskResult;
 import edu.stevens.swe.research.java.cli.analyzer.ResultFormatter;
+import edu.stevens.swe.research.java.cli.analyzer.Log;
 import edu.stevens.swe.research.java.cli.analyzer.LogData;
 
 @Command(name = "analyzer", mixinStandardHelpOptions = true, version = "Analyzer CLI 1.3.2",
@@ -23,7 +30,7 @@ public class Main implements Callable<Integer> {
     @Parameters(index = "0", description = "The task to execute (e.g., DetectAAA).")
     private String taskName;
 
-    @Option(names = {"--project"}, required = true, description = "Absolute path to the project directory.")
+    @Option(names = {"--project"}, description = "Absolute path to the project directory. Required unless --batch is given.")
     private File projectDir;
 
     @Option(names = {"--threads"}, defaultValue = "0", description = "Number of threads to use. 0 means use CPU cores.")
@@ -32,7 +39,7 @@ public class Main implements Callable<Integer> {
     @Option(names = {"--config"}, description = "Path to the YAML/JSON configuration file.")
     private File configFile;
 
-    @Option(names = {"--format"}, defaultValue = "json", description = "Output format (json, csv, md, console).")
+    @Option(names = {"--format"}, defaultValue = "json", description = "Output format (json, csv, md, console). ndjson or zip also bundle per-test output into one file; columnar writes it as dictionary-encoded column files.")
     private String outputFormat;
 
     @Option(names = {"--lang"}, defaultValue = "java", description = "Programming language (java, go, python).")
@@ -44,9 +51,54 @@ public class Main implements Callable<Integer> {
     @Option(names = {"--output-dir"}, description = "Directory for task output files. Default: <project>/AAA")
     private File outputDir;
 
+    @Option(names = {"--parse-batch-size"}, defaultValue = "0", description = "Test files parsed together in one shared JDT environment. 0 parses file by file.")
+    private int parseBatchSize;
+
+    @Option(names = {"--incremental"}, description = "Re-analyze only tests whose source or expanded dependencies changed since the last run (json format only).")
+    private boolean incremental;
+
+    @Option(names = {"--dedupe"}, description = "Store method bodies, lifecycle methods and statement sequences once in <output-dir>/objects and reference them by SHA-256 from each test record.")
+    private boolean dedupe;
+
+    @Option(names = {"--call-graph-index"}, description = "Keep the call graph of every analyzed test in a memory-mapped index in the project's temp directory, merged with the previous run's.")
+    private boolean callGraphIndex;
+
+    @Option(names = {"--git-range"}, description = "Analyze only tests changed in, or reaching code changed in, this git revision range (e.g. HEAD~1..HEAD).")
+    private String gitRange;
+
+    @Option(names = {"--log-level"}, defaultValue = "INFO", description = "Console log level: ${COMPLETION-CANDIDATES}. DEBUG prints per-file and per-test progress.")
+    private Log.Level logLevel;
+
+    @Option(names = {"--max-memory-mb"}, defaultValue = "0", description = "Heap ceiling in MB to plan the run around: unresolved cases spill to disk, the AST cache is sized from it and ASTs are released per file. 0 disables it.")
+    private int maxMemoryMb;
+
+    @Option(names = {"--max-dfs-depth"}, defaultValue = "0", description = "Deepest nesting of test-utility calls expanded per test; deeper calls get a TRUNCATED_DEPTH marker. 0 is unlimited.")
+    private int maxDfsDepth;
+
+    @Option(names = {"--max-expanded-methods"}, defaultValue = "0", description = "Test-utility bodies expanded per test; further calls get a TRUNCATED_BUDGET marker. 0 is unlimited.")
+    private int maxExpandedMethods;
+
+    @Option(names = {"--test-timeout-ms"}, defaultValue = "0", description = "Wall-clock budget of one test's analysis; the rest of the test gets a TRUNCATED_TIMEOUT marker. 0 is unlimited.")
+    private long testTimeoutMs;
+
+    @Option(names = {"--status-port"}, defaultValue = "0", description = "Serve live progress as JSON on http://127.0.0.1:<port>/status during the run. 0 disables it.")
+    private int statusPort;
+
     @Option(names = {"--plugin-path"}, description = "Path to the directory containing plugin JARs.")
     private File pluginPath;
 
+    @Option(names = {"--daemon-port"}, defaultValue = "0", description = "Send this request to an analyzer started with 'serve' on this localhost port instead of analyzing in this JVM. 0 analyzes locally.")
+    private int daemonPort;
+
+    @Option(names = {"--batch"}, description = "Analyze every project listed in this manifest (one project per line, optionally a tab and its output directory) in one JVM.")
+    private File batchManifest;
+
+    @Option(names = {"--batch-parallel"}, defaultValue = "2", description = "Projects analyzed at the same time in batch mode; all of them share one --threads pool.")
+    private int batchParallel;
+
+    @Spec
+    private CommandSpec spec;
+
     private TaskManager taskManager;
     private LogData logData;
     private volatile boolean normalExit = false; // Flag to track normal exit
@@ -57,27 +109,116 @@ public class Main implements Callable<Integer> {
 
     @Override
     public Integer call() throws Exception {
+        if (daemonPort > 0) {
+            return DaemonClient.forward(daemonPort, spec.commandLine().getParseResult().originalArgs(), outputFile);
+        }
+
+        if (batchManifest != null) {
+            Log.setLevel(logLevel);
+            List<BatchRunner.Entry> entries;
+            try {
+                entries = BatchRunner.readManifest(batchManifest.toPath());
+            } catch (IOException e) {
+                Log.error("Error reading batch manifest " + batchManifest + ": " + e.getMessage());
+                return 1;
+            }
+            if (entries.isEmpty()) {
+                Log.error("Error: Batch manifest " + batchManifest + " lists no projects.");
+                return 1;
+            }
+            return new BatchRunner(spec.commandLine().getParseResult().originalArgs(), threads, batchParallel).run(entries);
+        }
+        if (projectDir == null) {
+            throw new ParameterException(spec.commandLine(), "Missing required option: '--project=<projectDir>' (or --batch=<batchManifest>)");
+        }
+
         // Extract project name from directory
+        Log.setLevel(logLevel);
+        Log.setInfoToStderr(outputFile == null); // The result goes to stdout and must stay parseable
         String projectName = projectDir.getName();
         
         // Initialize logging
         logData = new LogData(projectName, taskName);
-        
-        System.out.println("Analyzer CLI starting...");
-        System.out.println("Task: " + taskName);
-        System.out.println("Project Directory: " + projectDir.getAbsolutePath());
-        System.out.println("Project Name: " + projectName);
-        System.out.println("Language: " + language);
-        System.out.println("Threads: " + (threads == 0 ? "Default (CPU Cores)" : threads));
+        printBanner();
+
+        // Add shutdown hook to handle interruption
+        Runtime.getRuntime().addShutdownHook(new Thread(this::writeInterruptedLog));
+
+        try {
+            // 1. Create ProjectCtx
+            ProjectCtx projectCtx = new ProjectCtx(projectDir.toPath(), language);
+            configure(projectCtx);
+            // TODO: Populate ProjectCtx further from configFile if provided
+            // For example, load source roots, classpath, specific task configs etc.
+
+            // 2. Initialize TaskManager
+            this.taskManager = new TaskManager(projectCtx, threads);
+            if (statusPort > 0) {
+                taskManager.startStatusServer(statusPort);
+            }
+
+            // 3-5. Execute the task, format the result and write the log
+            int exitCode = runTask(projectCtx, taskManager, this::openOutput);
+            normalExit = true; // Mark as normal exit
+            return exitCode;
+        } catch (Exception e) {
+            return fail(e);
+        } finally {
+            if (taskManager != null) {
+                taskManager.shutdown(); // Shutdown the executor service
+            }
+        }
+    }
+
+    /**
+     * Marks the log as interrupted and writes it, unless the run finished normally.
+     */
+    void writeInterruptedLog() {
+        if (logData != null && !normalExit) {
+            try {
+                logData.finish("INTERRUPTED", "Process was interrupted by user");
+                logData.writeToFile(outputDir.toPath(), projectDir.getName());
+            } catch (Exception e) {
+                Log.error("Error writing log during shutdown: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Prints the run header and fills in the default output directory.
+     */
+    void printBanner() {
+        Log.info("Analyzer CLI starting...");
+        Log.info("Task: " + taskName);
+        Log.info("Project Directory: " + projectDir.getAbsolutePath());
+        Log.debug("Project Name: " + projectDir.getName());
+        Log.debug("Language: " + language);
+        Log.debug("Threads: " + (threads == 0 ? "Default (CPU Cores)" : threads));
         if (configFile != null) {
-            System.out.println("Config File: " + configFile.getAbsolutePath());
+            Log.debug("Config File: " + configFile.getAbsolutePath());
+        }
+        if (incremental) {
+            Log.debug("Incremental: enabled");
+        }
+        if (gitRange != null) {
+            Log.debug("Git Range: " + gitRange);
+        }
+        if (parseBatchSize > 1) {
+            Log.debug("Parse Batch Size: " + parseBatchSize);
+        }
+        Log.debug("Output Format: " + outputFormat);
+        if (maxMemoryMb > 0) {
+            long heapLimitMb = Runtime.getRuntime().maxMemory() / (1024 * 1024);
+            Log.info("Memory ceiling: " + maxMemoryMb + " MB (JVM heap limit " + heapLimitMb + " MB)");
+            if (heapLimitMb > maxMemoryMb) {
+                Log.warn("Warning: The JVM may grow beyond --max-memory-mb; start it with -Xmx" + maxMemoryMb + "m to enforce the ceiling.");
+            }
         }
-        System.out.println("Output Format: " + outputFormat);
         if (outputFile != null) {
-            System.out.println("Output File: " + outputFile.getAbsolutePath());
+            Log.debug("Output File: " + outputFile.getAbsolutePath());
         }
         if (pluginPath != null) {
-            System.out.println("Plugin Path: " + pluginPath.getAbsolutePath());
+            Log.debug("Plugin Path: " + pluginPath.getAbsolutePath());
             // TODO: Add logic to load plugins from pluginPath if ServiceLoader doesn't suffice
             // (e.g., if plugins are not on the main classpath)
         }
@@ -86,42 +227,47 @@ public class Main implements Callable<Integer> {
         if (outputDir == null) {
             outputDir = new File(projectDir, "AAA");
         }
-        System.out.println("Output Directory: " + outputDir.getAbsolutePath());
-
-        // Add shutdown hook to handle interruption
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            if (logData != null && !normalExit) {
-                try {
-                    logData.finish("INTERRUPTED", "Process was interrupted by user");
-                    logData.writeToFile(outputDir.toPath(), projectName);
-                } catch (Exception e) {
-                    System.err.println("Error writing log during shutdown: " + e.getMessage());
-                }
-            }
-        }));
-
-        try {
-            // 1. Create ProjectCtx
-            ProjectCtx projectCtx = new ProjectCtx(projectDir.toPath(), language);
-            // Set the output directory in ProjectCtx
-            projectCtx.setOutputDirectory(outputDir.toPath());
-            // Add log data to project context for tasks to access
-            projectCtx.setLogData(logData);
-            // TODO: Populate ProjectCtx further from configFile if provided
-            // For example, load source roots, classpath, specific task configs etc.
+        Log.info("Output Directory: " + outputDir.getAbsolutePath());
+    }
 
-            // 2. Initialize TaskManager
-            this.taskManager = new TaskManager(projectCtx, threads);
+    /**
+     * Applies the per-request options to a project context, which may be fresh or kept warm by the daemon.
+     */
+    void configure(ProjectCtx projectCtx) {
+        // Set the output directory in ProjectCtx
+        projectCtx.setOutputDirectory(outputDir.toPath());
+        // Add log data to project context for tasks to access
+        projectCtx.setLogData(logData);
+        projectCtx.setParseBatchSize(parseBatchSize);
+        projectCtx.setOutputFormat(outputFormat);
+        projectCtx.setIncremental(incremental);
+        projectCtx.setDedupeOutput(dedupe);
+        projectCtx.setCallGraphIndex(callGraphIndex);
+        projectCtx.setGitRange(gitRange);
+        projectCtx.setMaxMemoryMb(maxMemoryMb);
+        projectCtx.setMaxDfsDepth(maxDfsDepth);
+        projectCtx.setMaxExpandedMethods(maxExpandedMethods);
+        projectCtx.setTestTimeoutMs(testTimeoutMs);
+    }
 
-            // 3. Get the specified task
-            // AnalyzerTask task = taskManager.getTask(taskName); // This is done in TaskManager.executeTask
+    /**
+     * Executes the task and streams its result to the stream the supplier opens, then writes the analysis log.
+     * The output is opened before the task runs, so cases the task pushes to the project context's case
+     * writer are written as they are found. Shared by the CLI and the daemon; returns the process exit code.
+     */
+    int runTask(ProjectCtx projectCtx, TaskManager taskManager, Callable<OutputStream> output) {
+        String projectName = projectDir.getName();
+        ResultFormatter formatter = new ResultFormatter(outputFormat);
+        try (OutputStream os = output.call();
+             ResultFormatter.CaseWriter cases = formatter.open(os, projectCtx.getProjectPath().toString(), taskName)) {
+            projectCtx.setCaseWriter(cases);
 
-            // 4. Execute the task
-            System.out.println("Executing task via TaskManager: " + taskName);
+            // Execute the task
+            Log.debug("Executing task via TaskManager: " + taskName);
             TaskResult result = taskManager.executeTask(taskName);
 
             if (result == null) {
-                System.err.println("Task execution failed or returned null result for task: " + taskName);
+                Log.error("Task execution failed or returned null result for task: " + taskName);
                 logData.finish("FAILED", "Task execution returned null result");
                 // Create a minimal result to avoid NullPointerException with formatter
                 result = new TaskResult(projectCtx.getProjectPath().toString(), taskName + " [Execution Failed]");
@@ -129,51 +275,124 @@ public class Main implements Callable<Integer> {
                 logData.finish("COMPLETED");
             }
 
-            // 5. Format and output results
-            ResultFormatter formatter = new ResultFormatter(outputFormat);
-            try (OutputStream os = (outputFile != null) ? new FileOutputStream(outputFile) : System.out) {
-                formatter.format(result, os); // Use the actual result from taskManager
-            } catch (Exception e) {
-                System.err.println("Error formatting or writing results: " + e.getMessage());
-                e.printStackTrace();
-                logData.finish("FAILED", "Error formatting results: " + e.getMessage());
-                return 1;
-            }
-
-            // Write log file
+            // Cases the task collected instead of streaming, then the summary
             try {
-                logData.writeToFile(outputDir.toPath(), projectName);
+                for (TaskResult.TestCaseResult testCase : result.getCases()) {
+                    cases.writeCase(testCase);
+                }
+                cases.finish(result.getTask());
             } catch (Exception e) {
-                System.err.println("Error writing analysis log: " + e.getMessage());
-                e.printStackTrace();
-                // Don't fail the entire process for log writing issues
+                return formattingFailed(e);
             }
+        } catch (IOException e) {
+            return formattingFailed(e);
+        } catch (Exception e) {
+            return fail(e);
+        } finally {
+            projectCtx.setCaseWriter(null);
+        }
 
-            System.out.println("Analysis finished.");
-            normalExit = true; // Mark as normal exit
-            return 0;
-
+        // Write log file
+        try {
+            logData.writeToFile(outputDir.toPath(), projectName);
         } catch (Exception e) {
-            System.err.println("Error during analysis: " + e.getMessage());
+            Log.error("Error writing analysis log: " + e.getMessage());
             e.printStackTrace();
-            if (logData != null) {
-                try {
-                    logData.finish("FAILED", "Unexpected error: " + e.getMessage());
-                    logData.writeToFile(outputDir.toPath(), projectName);
-                } catch (Exception logException) {
-                    System.err.println("Error writing error log: " + logException.getMessage());
-                }
-            }
-            return 1;
-        } finally {
-            if (taskManager != null) {
-                taskManager.shutdown(); // Shutdown the executor service
+            // Don't fail the entire process for log writing issues
+        }
+
+        Log.info("Analysis finished.");
+        return 0;
+    }
+
+    /**
+     * Opens --output-file, creating its directory if needed, or stdout if none was given.
+     */
+    OutputStream openOutput() throws IOException {
+        if (outputFile == null) {
+            return System.out;
+        }
+        File parent = outputFile.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Could not create directory " + parent);
+        }
+        return new FileOutputStream(outputFile);
+    }
+
+    private int formattingFailed(Exception e) {
+        Log.error("Error formatting or writing results: " + e.getMessage());
+        e.printStackTrace();
+        logData.finish("FAILED", "Error formatting results: " + e.getMessage());
+        return 1;
+    }
+
+    private int fail(Exception e) {
+        Log.error("Error during analysis: " + e.getMessage());
+        e.printStackTrace();
+        if (logData != null) {
+            try {
+                logData.finish("FAILED", "Unexpected error: " + e.getMessage());
+                logData.writeToFile(outputDir.toPath(), projectDir.getName());
+            } catch (Exception logException) {
+                Log.error("Error writing error log: " + logException.getMessage());
             }
         }
+        return 1;
+    }
+
+    /**
+     * Prepares a request received by the daemon: relative paths are resolved against the client's
+     * working directory, and a fresh log is started.
+     */
+    void prepareForDaemon(Path clientDirectory) {
+        projectDir = resolve(clientDirectory, projectDir);
+        outputDir = resolve(clientDirectory, outputDir);
+        outputFile = null; // The client writes the formatted result itself
+        configFile = resolve(clientDirectory, configFile);
+        pluginPath = resolve(clientDirectory, pluginPath);
+        logData = new LogData(projectDir.getName(), taskName);
+    }
+
+    /**
+     * Points a copy of the batch command line at one project of the manifest; its formatted result
+     * goes to {@code <project>-result.<ext>} in the project's output directory instead of --output-file.
+     */
+    void prepareForBatch(Path project, Path projectOutputDir) {
+        projectDir = project.toFile();
+        outputDir = projectOutputDir == null ? new File(projectDir, "AAA") : projectOutputDir.toFile();
+        outputFile = new File(outputDir, projectDir.getName().replaceAll("[^a-zA-Z0-9._-]", "_") + "-result."
+                + new ResultFormatter(outputFormat).getFileExtension());
+        batchManifest = null;
+        logData = new LogData(projectDir.getName(), taskName);
+    }
+
+    private static File resolve(Path directory, File file) {
+        return file == null || file.isAbsolute() ? file : directory.resolve(file.toPath()).normalize().toFile();
+    }
+
+    File getOutputFile() {
+        return outputFile;
+    }
+
+    File getProjectDir() {
+        return projectDir;
+    }
+
+    String getLanguage() {
+        return language;
+    }
+
+    LogData getLogData() {
+        return logData;
     }
 
     public static void main(String[] args) {
-        int exitCode = new CommandLine(new Main()).execute(args);
+        if (args.length > 0 && args[0].equals("serve")) {
+            int exitCode = new CommandLine(new ServeCommand()).setCaseInsensitiveEnumValuesAllowed(true)
+                    .execute(java.util.Arrays.copyOfRange(args, 1, args.length));
+            System.exit(exitCode);
+        }
+        int exitCode = new CommandLine(new Main()).setCaseInsensitiveEnumValuesAllowed(true).execute(args);
         System.exit(exitCode);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,194 @@
+package edu.stevens.swe.research.java.cli;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.stevens.swe.research.java.cli.analyzer.Log;
+import edu.stevens.swe.research.java.cli.analyzer.ProjectCtx;
+import edu.stevens.swe.research.java.cli.analyzer.TaskManager;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Long-lived analyzer process. Keeps one worker pool and, per project, the ProjectCtx (parse caches,
+ * method summaries, parser configuration) and TaskManager (loaded plugins) warm across requests, so
+ * repeated small jobs skip JVM startup, JIT warmup, plugin scanning and project detection.
+ *
+ * Requests come from {@code --daemon-port} clients over HTTP on the loopback interface and are served
+ * one at a time; each request still fans out over the shared pool.
+ */
+@Command(name = "serve", mixinStandardHelpOptions = true, version = "Analyzer CLI 1.3.2",
+        description = "Runs the analyzer as a localhost daemon that answers requests sent with --daemon-port.")
+public class ServeCommand implements Callable<Integer> {
+
+    @Option(names = {"--port"}, defaultValue = "7781", description = "Localhost port to listen on.")
+    private int port;
+
+    @Option(names = {"--threads"}, defaultValue = "0", description = "Worker threads shared by all requests. 0 means use CPU cores.")
+    private int threads;
+
+    @Option(names = {"--max-projects"}, defaultValue = "8", description = "Projects whose caches are kept warm; the least recently used one is dropped beyond this.")
+    private int maxProjects;
+
+    @Option(names = {"--log-level"}, defaultValue = "INFO", description = "Console log level of the daemon: ${COMPLETION-CANDIDATES}.")
+    private Log.Level logLevel;
+
+    /**
+     * Warm state of one project.
+     */
+    private static class WarmProject {
+        final ProjectCtx projectCtx;
+        final TaskManager taskManager;
+
+        WarmProject(ProjectCtx projectCtx, TaskManager taskManager) {
+            this.projectCtx = projectCtx;
+            this.taskManager = taskManager;
+        }
+    }
+
+    private final Gson gson = new Gson();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private final Map<Path, WarmProject> projects = new LinkedHashMap<>(16, 0.75f, true); // access order, request thread only
+    private ExecutorService executorService;
+
+    @Override
+    public Integer call() throws Exception {
+        Log.setLevel(logLevel);
+        executorService = Executors.newFixedThreadPool(threads <= 0 ? Runtime.getRuntime().availableProcessors() : threads);
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/run", exchange -> handle(exchange, this::run));
+        server.createContext("/shutdown", exchange -> {
+            boolean post = "POST".equals(exchange.getRequestMethod());
+            handle(exchange, request -> new DaemonClient.Response());
+            if (post) {
+                stopped.countDown(); // After the answer is sent, so stopping the server cannot cut it off
+            }
+        });
+        server.setExecutor(Executors.newSingleThreadExecutor()); // One request at a time: Log and System.out are global
+        server.start();
+        Log.info("Analyzer daemon listening on http://127.0.0.1:" + server.getAddress().getPort() + " (POST /run, POST /shutdown)");
+
+        stopped.await();
+        server.stop(0);
+        for (WarmProject project : projects.values()) {
+            project.taskManager.shutdown();
+        }
+        projects.clear();
+        executorService.shutdown();
+        Log.info("Analyzer daemon stopped.");
+        return 0;
+    }
+
+    /**
+     * Runs one CLI request against the warm state of its project.
+     */
+    private DaemonClient.Response run(DaemonClient.Request request) {
+        DaemonClient.Response response = new DaemonClient.Response();
+        Main main = new Main();
+        try {
+            new CommandLine(main).setCaseInsensitiveEnumValuesAllowed(true).parseArgs(request.args.toArray(new String[0]));
+        } catch (CommandLine.ParameterException e) {
+            response.exitCode = 2;
+            response.output = e.getMessage() + System.lineSeparator();
+            return response;
+        }
+        main.prepareForDaemon(Path.of(request.workingDirectory));
+        main.printBanner();
+
+        WarmProject project = warmProject(main.getProjectDir().toPath(), main.getLanguage());
+        project.projectCtx.beginRun();
+        main.configure(project.projectCtx);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.exitCode = main.runTask(project.projectCtx, project.taskManager, () -> output);
+        response.output = output.toString(StandardCharsets.UTF_8);
+        return response;
+    }
+
+    private WarmProject warmProject(Path projectDir, String language) {
+        Path key = projectDir.toAbsolutePath().normalize();
+        WarmProject project = projects.get(key);
+        if (project != null && project.projectCtx.getLanguage().equals(language)) {
+            Log.info("Reusing warm caches of " + key);
+            return project;
+        }
+        if (project != null) {
+            project.taskManager.shutdown();
+        }
+        ProjectCtx projectCtx = new ProjectCtx(key, language);
+        project = new WarmProject(projectCtx, new TaskManager(projectCtx, executorService));
+        projects.put(key, project);
+
+        while (projects.size() > Math.max(1, maxProjects)) {
+            Map.Entry<Path, WarmProject> eldest = projects.entrySet().iterator().next();
+            Log.info("Dropping warm caches of " + eldest.getKey());
+            eldest.getValue().taskManager.shutdown();
+            projects.remove(eldest.getKey());
+        }
+        return project;
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        DaemonClient.Response handle(DaemonClient.Request request);
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "{\"error\":\"Method not allowed\"}");
+                return;
+            }
+            DaemonClient.Request request;
+            try (Reader reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+                request = gson.fromJson(reader, DaemonClient.Request.class);
+            } catch (JsonParseException e) {
+                request = null;
+            }
+            if (request == null) {
+                request = new DaemonClient.Request();
+            }
+            if (request.workingDirectory == null) {
+                request.workingDirectory = Path.of("").toAbsolutePath().toString();
+            }
+            DaemonClient.Response response;
+            try {
+                response = handler.handle(request);
+            } catch (RuntimeException e) {
+                Log.error("Error serving daemon request: " + e);
+                response = new DaemonClient.Response();
+                response.exitCode = 1;
+                response.output = "Error during analysis: " + e.getMessage() + System.lineSeparator();
+            }
+            respond(exchange, 200, gson.toJson(response));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
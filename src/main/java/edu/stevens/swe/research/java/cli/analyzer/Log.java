@@ -0,0 +1,97 @@
+package edu.stevens.swe.research.java.cli.analyzer;
+
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * Leveled console logging for the analyzer. INFO and DEBUG go to stdout, WARN and ERROR to stderr;
+ * while the result itself is written to stdout, INFO and DEBUG go to stderr as well.
+ * The default level is INFO, which prints one-off run messages only; per-file, per-test and
+ * per-invocation messages are DEBUG. The format variants build their message only when the level
+ * is enabled, so disabled hot-path logging costs a level check.
+ */
+public final class Log {
+
+    public enum Level {
+        ERROR, WARN, INFO, DEBUG
+    }
+
+    private static volatile Level level = Level.INFO;
+    private static volatile boolean infoToStderr = false;
+
+    private Log() {
+    }
+
+    public static Level getLevel() {
+        return level;
+    }
+
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+    }
+
+    /**
+     * Sends INFO and DEBUG to stderr, e.g. while a result document is written to stdout.
+     */
+    public static void setInfoToStderr(boolean toStderr) {
+        infoToStderr = toStderr;
+    }
+
+    public static boolean isEnabled(Level messageLevel) {
+        return messageLevel.ordinal() <= level.ordinal();
+    }
+
+    public static boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    public static void error(String message) {
+        print(Level.ERROR, System.err, message);
+    }
+
+    public static void error(String format, Object... args) {
+        if (isEnabled(Level.ERROR)) {
+            print(Level.ERROR, System.err, String.format(Locale.ROOT, format, args));
+        }
+    }
+
+    public static void warn(String message) {
+        print(Level.WARN, System.err, message);
+    }
+
+    public static void warn(String format, Object... args) {
+        if (isEnabled(Level.WARN)) {
+            print(Level.WARN, System.err, String.format(Locale.ROOT, format, args));
+        }
+    }
+
+    public static void info(String message) {
+        print(Level.INFO, infoStream(), message);
+    }
+
+    public static void info(String format, Object... args) {
+        if (isEnabled(Level.INFO)) {
+            print(Level.INFO, infoStream(), String.format(Locale.ROOT, format, args));
+        }
+    }
+
+    public static void debug(String message) {
+        print(Level.DEBUG, infoStream(), message);
+    }
+
+    public static void debug(String format, Object... args) {
+        if (isEnabled(Level.DEBUG)) {
+            print(Level.DEBUG, infoStream(), String.format(Locale.ROOT, format, args));
+        }
+    }
+
+    private static PrintStream infoStream() {
+        return infoToStderr ? System.err : System.out;
+    }
+
+    private static void print(Level messageLevel, PrintStream stream, String message) {
+        if (isEnabled(messageLevel)) {
+            stream.println(message);
+        }
+    }
+}
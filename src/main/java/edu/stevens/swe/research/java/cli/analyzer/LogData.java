@@ -2,19 +2,35 @@ package edu.stevens.swe.research.java.cli.analyzer;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import edu.stevens.swe.research.java.cli.analyzer.core.MetricsRegistry;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Data structure for logging analysis session information
+ * Data structure for logging analysis session information.
+ * In memory-bounded runs the unresolved and truncated cases are spilled to NDJSON files as they are
+ * reported and streamed back into the log when it is written, instead of being kept on the heap.
  */
 public class LogData {
+    private static final Gson SPILL_GSON = new Gson(); // Compact, one record per line
+
     private String projectName;
     private String taskName;
     private LocalDateTime startTime;
@@ -22,10 +38,17 @@ public class LogData {
     private long durationMs;
     private int totalTestCases;
     private int processedTestCases;
+    private int unchangedTestCases; // Reused from the previous run in incremental mode
     private int unresolvedInvocationCount;
     private List<UnresolvedCase> unresolvedCases;
+    private List<TruncatedCase> truncatedCases; // Tests whose analysis hit a budget or a call cycle; null if none
+    private CacheStats compilationUnitCache;
+    private CacheStats methodSummaryCache;
+    private MetricsRegistry.Snapshot metrics; // Phase timers, counters and histograms of the run
     private String status; // "COMPLETED", "INTERRUPTED", "FAILED"
     private String errorMessage;
+    private transient Spill unresolvedSpill; // Unresolved cases reported while spilling; null if kept in memory
+    private transient Spill truncatedSpill; // Truncated cases reported while spilling; null if kept in memory
 
     public LogData(String projectName, String taskName) {
         this.projectName = projectName;
@@ -46,7 +69,41 @@ public class LogData {
         this.errorMessage = errorMessage;
     }
 
-    public void addUnresolvedCase(String className, String methodName, String fileName, int startLine, int endLine, List<String> unresolvedInvocations) {
+    /**
+     * Writes unresolved and truncated cases reported from now on to NDJSON files in the given directory
+     * instead of keeping them in memory. The files are deleted once the log has been written.
+     */
+    public synchronized void spillCases(Path directory) throws IOException {
+        if (unresolvedSpill != null) {
+            return;
+        }
+        Spill unresolved = new Spill(directory.resolve("unresolved-cases.ndjson"));
+        Spill truncated = null;
+        try {
+            truncated = new Spill(directory.resolve("truncated-cases.ndjson"));
+            for (UnresolvedCase unresolvedCase : unresolvedCases) {
+                unresolved.write(unresolvedCase);
+            }
+            if (truncatedCases != null) {
+                for (TruncatedCase truncatedCase : truncatedCases) {
+                    truncated.write(truncatedCase);
+                }
+            }
+        } catch (IOException e) {
+            unresolved.discard();
+            if (truncated != null) {
+                truncated.discard();
+            }
+            throw e;
+        }
+        unresolvedCases.clear();
+        truncatedCases = null;
+        this.unresolvedSpill = unresolved;
+        this.truncatedSpill = truncated;
+    }
+
+    // Synchronized because tasks may report unresolved cases from several worker threads
+    public synchronized void addUnresolvedCase(String className, String methodName, String fileName, int startLine, int endLine, List<String> unresolvedInvocations) {
         UnresolvedCase unresolvedCase = new UnresolvedCase();
         unresolvedCase.className = className;
         unresolvedCase.methodName = methodName;
@@ -56,11 +113,32 @@ public class LogData {
         unresolvedCase.unresolvedInvocations = new ArrayList<>(unresolvedInvocations);
         unresolvedCase.unresolvedCount = unresolvedInvocations.size();
         
-        this.unresolvedCases.add(unresolvedCase);
         this.unresolvedInvocationCount += unresolvedInvocations.size();
+        if (unresolvedSpill != null && unresolvedSpill.tryWrite(unresolvedCase)) {
+            return;
+        }
+        this.unresolvedCases.add(unresolvedCase);
     }
 
-    public void writeToFile(Path outputDir, String projectName) throws IOException {
+    // Synchronized like addUnresolvedCase; created on first use so complete runs log no empty array
+    public synchronized void addTruncatedCase(String className, String methodName, String fileName, int startLine, int endLine, List<String> truncations) {
+        TruncatedCase truncatedCase = new TruncatedCase();
+        truncatedCase.className = className;
+        truncatedCase.methodName = methodName;
+        truncatedCase.fileName = fileName;
+        truncatedCase.startLine = startLine;
+        truncatedCase.endLine = endLine;
+        truncatedCase.truncations = new ArrayList<>(truncations);
+        if (truncatedSpill != null && truncatedSpill.tryWrite(truncatedCase)) {
+            return;
+        }
+        if (this.truncatedCases == null) {
+            this.truncatedCases = new ArrayList<>();
+        }
+        this.truncatedCases.add(truncatedCase);
+    }
+
+    public synchronized void writeToFile(Path outputDir, String projectName) throws IOException {
         // Sanitize project name for cross-platform filename compatibility
         String sanitizedProjectName = projectName.replaceAll("[^a-zA-Z0-9._-]", "_");
         String logFileName = sanitizedProjectName + "-log.json";
@@ -72,10 +150,63 @@ public class LogData {
                 .create();
         
         try (FileWriter writer = new FileWriter(logFilePath.toFile())) {
-            gson.toJson(this, writer);
+            if (unresolvedSpill == null) {
+                gson.toJson(this, writer);
+            } else {
+                writeStreaming(gson, writer);
+            }
+        } finally {
+            discardSpills(); // Cases reported after this are kept in memory
         }
         
-        System.out.println("Analysis log written to: " + logFilePath);
+        Log.info("Analysis log written to: " + logFilePath);
+    }
+
+    /**
+     * Writes the same document as {@code gson.toJson(this)}, but copies the spilled cases into their
+     * arrays one record at a time.
+     */
+    private void writeStreaming(Gson gson, Writer writer) throws IOException {
+        JsonObject fields = gson.toJsonTree(this).getAsJsonObject(); // The case lists hold only unspilled entries
+        JsonWriter json = gson.newJsonWriter(writer);
+        json.beginObject();
+        for (Map.Entry<String, JsonElement> field : fields.entrySet()) {
+            json.name(field.getKey());
+            if (field.getKey().equals("unresolvedCases")) {
+                writeCases(gson, json, unresolvedSpill, field.getValue());
+                if (!fields.has("truncatedCases") && truncatedSpill.records > 0) {
+                    // The in-memory list is null, so gson left out the field that follows the unresolved cases
+                    json.name("truncatedCases");
+                    writeCases(gson, json, truncatedSpill, new JsonArray());
+                }
+            } else if (field.getKey().equals("truncatedCases")) {
+                writeCases(gson, json, truncatedSpill, field.getValue());
+            } else {
+                gson.toJson(field.getValue(), json);
+            }
+        }
+        json.endObject();
+        json.flush();
+    }
+
+    private static void writeCases(Gson gson, JsonWriter json, Spill spill, JsonElement inMemory) throws IOException {
+        json.beginArray();
+        spill.copyTo(gson, json);
+        for (JsonElement element : inMemory.getAsJsonArray()) {
+            gson.toJson(element, json);
+        }
+        json.endArray();
+    }
+
+    private void discardSpills() {
+        if (unresolvedSpill != null) {
+            unresolvedSpill.discard();
+            unresolvedSpill = null;
+        }
+        if (truncatedSpill != null) {
+            truncatedSpill.discard();
+            truncatedSpill = null;
+        }
     }
 
     // Getters and setters
@@ -100,12 +231,27 @@ public class LogData {
     public int getProcessedTestCases() { return processedTestCases; }
     public void setProcessedTestCases(int processedTestCases) { this.processedTestCases = processedTestCases; }
     
+    public int getUnchangedTestCases() { return unchangedTestCases; }
+    public void setUnchangedTestCases(int unchangedTestCases) { this.unchangedTestCases = unchangedTestCases; }
+    
     public int getUnresolvedInvocationCount() { return unresolvedInvocationCount; }
     public void setUnresolvedInvocationCount(int unresolvedInvocationCount) { this.unresolvedInvocationCount = unresolvedInvocationCount; }
     
     public List<UnresolvedCase> getUnresolvedCases() { return unresolvedCases; }
     public void setUnresolvedCases(List<UnresolvedCase> unresolvedCases) { this.unresolvedCases = unresolvedCases; }
     
+    public List<TruncatedCase> getTruncatedCases() { return truncatedCases; }
+    public void setTruncatedCases(List<TruncatedCase> truncatedCases) { this.truncatedCases = truncatedCases; }
+
+    public CacheStats getCompilationUnitCache() { return compilationUnitCache; }
+    public void setCompilationUnitCache(CacheStats compilationUnitCache) { this.compilationUnitCache = compilationUnitCache; }
+
+    public CacheStats getMethodSummaryCache() { return methodSummaryCache; }
+    public void setMethodSummaryCache(CacheStats methodSummaryCache) { this.methodSummaryCache = methodSummaryCache; }
+
+    public MetricsRegistry.Snapshot getMetrics() { return metrics; }
+    public void setMetrics(MetricsRegistry.Snapshot metrics) { this.metrics = metrics; }
+
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
     
@@ -125,6 +271,92 @@ public class LogData {
         public List<String> unresolvedInvocations;
     }
 
+    /**
+     * Inner class for test cases whose expansion was cut short; each truncation is the marker statement it left
+     */
+    public static class TruncatedCase {
+        public String className;
+        public String methodName;
+        public String fileName;
+        public int startLine;
+        public int endLine;
+        public List<String> truncations;
+    }
+
+    /**
+     * NDJSON file the cases of one list are appended to while the run is memory-bounded
+     */
+    private static class Spill {
+        private final Path file;
+        private final Writer writer;
+        private int records;
+
+        Spill(Path file) throws IOException {
+            this.file = file;
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        }
+
+        void write(Object record) throws IOException {
+            writer.write(SPILL_GSON.toJson(record));
+            writer.write('\n');
+            records++;
+        }
+
+        // False if the record could not be written, in which case the caller keeps it in memory
+        boolean tryWrite(Object record) {
+            try {
+                write(record);
+                return true;
+            } catch (IOException e) {
+                Log.warn("Warning: Could not spill case to " + file + ", keeping it in memory: " + e.getMessage());
+                return false;
+            }
+        }
+
+        void copyTo(Gson gson, JsonWriter json) throws IOException {
+            writer.flush();
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isEmpty()) {
+                        gson.toJson(JsonParser.parseString(line), json);
+                    }
+                }
+            }
+        }
+
+        void discard() {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                Log.warn("Warning: Could not close " + file + ": " + e.getMessage());
+            }
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                Log.warn("Warning: Could not delete " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Inner class for cache effectiveness counters
+     */
+    public static class CacheStats {
+        public long hits;
+        public long misses;
+        public long evictions;
+        public double hitRate;
+
+        public CacheStats(long hits, long misses, long evictions) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            long lookups = hits + misses;
+            this.hitRate = lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+    }
+
     /**
      * Custom adapter for LocalDateTime serialization
      */
@@ -1,8 +1,17 @@
 package edu.stevens.swe.research.java.cli.analyzer;
 
+import edu.stevens.swe.research.java.cli.analyzer.core.CompilationUnitCache;
+import edu.stevens.swe.research.java.cli.analyzer.core.MethodSummaryCache;
+import edu.stevens.swe.research.java.cli.analyzer.core.MetricsRegistry;
+import edu.stevens.swe.research.java.cli.analyzer.core.ParserConfig;
+import edu.stevens.swe.research.java.cli.analyzer.core.ProgressTracker;
+import edu.stevens.swe.research.java.cli.analyzer.core.SourceIndex;
+import edu.stevens.swe.research.java.cli.analyzer.core.SymbolTable;
+
 import java.io.File;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Represents the context of the project being analyzed.
@@ -17,6 +26,25 @@ public class ProjectCtx {
     private Path tempDir;
     private Path outputDirectory; // Directory for task output files
     private LogData logData; // Added for logging support
+    private ExecutorService executorService; // Shared worker pool provided by TaskManager
+    private SourceIndex sourceIndex; // Type name -> source file index, built once per run
+    private CompilationUnitCache compilationUnitCache; // Parsed ASTs shared across DFS expansions
+    private MethodSummaryCache methodSummaryCache; // Memoized test-utility expansions shared across tests
+    private SymbolTable symbolTable; // Interned method signatures; kept with the summaries that refer to its IDs
+    private MetricsRegistry metricsRegistry; // Phase timers and counters reported in the analysis log
+    private ProgressTracker progressTracker; // Live progress published over JMX and the status endpoint
+    private ParserConfig parserConfig; // Parser environment detected once by parser-core
+    private int parseBatchSize = 0; // Files per ASTParser.createASTs call; 0 or 1 parses file by file
+    private String outputFormat = "json"; // Format of per-test-case output: json, ndjson, zip or columnar
+    private boolean incremental = false; // Re-analyze only tests whose file or dependencies changed
+    private boolean dedupeOutput = false; // Store bodies and statement sequences once in <output>/objects
+    private boolean callGraphIndex = false; // Keep the tests' call graphs in <tempDir>/call-graph.idx
+    private String gitRange; // Analyze only tests affected by this git revision range; null analyzes all
+    private int maxMemoryMb = 0; // Heap ceiling the run is planned around; 0 keeps the unbounded defaults
+    private int maxDfsDepth = 0; // Deepest test-utility nesting expanded per test; 0 is unlimited
+    private int maxExpandedMethods = 0; // Test-utility bodies expanded per test; 0 is unlimited
+    private long testTimeoutMs = 0; // Wall-clock budget of one test's DFS; 0 is unlimited
+    private volatile ResultFormatter.CaseWriter caseWriter; // Formatted output of the running command; null when nobody streams
 
     public ProjectCtx(Path projectPath, String language) {
         this.projectPath = projectPath;
@@ -93,5 +121,218 @@ public class ProjectCtx {
         this.logData = logData;
     }
 
+    /**
+     * Returns the worker pool tasks may use to analyze files concurrently.
+     * May be null when the context is used outside of TaskManager, in which case tasks run sequentially.
+     */
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    public void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
+    public SourceIndex getSourceIndex() {
+        return sourceIndex;
+    }
+
+    public void setSourceIndex(SourceIndex sourceIndex) {
+        this.sourceIndex = sourceIndex;
+    }
+
+    /**
+     * Prepares a context that is reused for another run, as the daemon does for repeated requests.
+     * Run-scoped state (metrics, progress, the source index) starts over, and so does the parser
+     * configuration if the build files changed. The parse caches stay warm only while no .java file of
+     * the project changed: a cached AST carries bindings resolved against the other files, and a memoized
+     * summary carries the classification of its calls, both of which an edit elsewhere can make stale.
+     * The symbol table is dropped with the summaries that refer to its IDs, so it never outgrows one
+     * version of the sources.
+     */
+    public synchronized void beginRun() {
+        this.metricsRegistry = null;
+        this.progressTracker = null;
+        SourceIndex previousIndex = this.sourceIndex;
+        this.sourceIndex = null; // Reloaded from disk, re-scanning only changed files
+        if (compilationUnitCache != null || methodSummaryCache != null || symbolTable != null) {
+            SourceIndex currentIndex = SourceIndex.forProject(this);
+            if (previousIndex == null || previousIndex.getFingerprint() != currentIndex.getFingerprint()) {
+                Log.info("Project sources changed since the previous run, dropping cached ASTs and method summaries");
+                dropParseCaches();
+            }
+        }
+        if (methodSummaryCache != null) {
+            methodSummaryCache.beginRun(); // Summaries are checked against the sources again on first use
+        }
+        if (parserConfig != null && !parserConfig.isCurrent(projectPath)) {
+            this.parserConfig = null;
+        }
+    }
+
+    // Rebuilt on next use, sized from the memory ceiling in effect then
+    private void dropParseCaches() {
+        this.compilationUnitCache = null;
+        this.methodSummaryCache = null;
+        this.symbolTable = null;
+    }
+
+    public synchronized CompilationUnitCache getCompilationUnitCache() {
+        if (this.compilationUnitCache == null) {
+            this.compilationUnitCache = isMemoryBounded()
+                    ? new CompilationUnitCache(CompilationUnitCache.weightForHeapBytes(maxMemoryMb * 1024L * 1024L / 4))
+                    : new CompilationUnitCache();
+        }
+        return compilationUnitCache;
+    }
+
+    public synchronized void setCompilationUnitCache(CompilationUnitCache compilationUnitCache) {
+        this.compilationUnitCache = compilationUnitCache;
+    }
+
+    public synchronized MethodSummaryCache getMethodSummaryCache() {
+        if (this.methodSummaryCache == null) {
+            this.methodSummaryCache = isMemoryBounded()
+                    ? new MethodSummaryCache(maxMemoryMb * 1024L * 1024L / 8)
+                    : new MethodSummaryCache();
+        }
+        return methodSummaryCache;
+    }
+
+    public synchronized SymbolTable getSymbolTable() {
+        if (this.symbolTable == null) {
+            this.symbolTable = new SymbolTable();
+        }
+        return symbolTable;
+    }
+
+    public synchronized MetricsRegistry getMetricsRegistry() {
+        if (this.metricsRegistry == null) {
+            this.metricsRegistry = new MetricsRegistry();
+        }
+        return metricsRegistry;
+    }
+
+    public synchronized ProgressTracker getProgressTracker() {
+        if (this.progressTracker == null) {
+            this.progressTracker = new ProgressTracker(this);
+        }
+        return progressTracker;
+    }
+
+    public ParserConfig getParserConfig() {
+        return parserConfig;
+    }
+
+    public void setParserConfig(ParserConfig parserConfig) {
+        this.parserConfig = parserConfig;
+    }
+
+    public int getParseBatchSize() {
+        return parseBatchSize;
+    }
+
+    public void setParseBatchSize(int parseBatchSize) {
+        this.parseBatchSize = parseBatchSize;
+    }
+
+    public String getOutputFormat() {
+        return outputFormat;
+    }
+
+    public void setOutputFormat(String outputFormat) {
+        this.outputFormat = outputFormat;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public boolean isDedupeOutput() {
+        return dedupeOutput;
+    }
+
+    public void setDedupeOutput(boolean dedupeOutput) {
+        this.dedupeOutput = dedupeOutput;
+    }
+
+    public boolean isCallGraphIndex() {
+        return callGraphIndex;
+    }
+
+    public void setCallGraphIndex(boolean callGraphIndex) {
+        this.callGraphIndex = callGraphIndex;
+    }
+
+    public String getGitRange() {
+        return gitRange;
+    }
+
+    public void setGitRange(String gitRange) {
+        this.gitRange = gitRange;
+    }
+
+    public int getMaxMemoryMb() {
+        return maxMemoryMb;
+    }
+
+    /**
+     * Sets the heap ceiling the caches are sized from; caches built for a different ceiling are dropped.
+     */
+    public synchronized void setMaxMemoryMb(int maxMemoryMb) {
+        if (maxMemoryMb != this.maxMemoryMb) {
+            dropParseCaches();
+        }
+        this.maxMemoryMb = maxMemoryMb;
+    }
+
+    /**
+     * True if a memory ceiling was configured: unresolved cases are spilled to disk, the AST cache is
+     * sized from the ceiling and a test file's AST is released once its tests have been emitted.
+     */
+    public boolean isMemoryBounded() {
+        return maxMemoryMb > 0;
+    }
+
+    public int getMaxDfsDepth() {
+        return maxDfsDepth;
+    }
+
+    public void setMaxDfsDepth(int maxDfsDepth) {
+        this.maxDfsDepth = maxDfsDepth;
+    }
+
+    public int getMaxExpandedMethods() {
+        return maxExpandedMethods;
+    }
+
+    public void setMaxExpandedMethods(int maxExpandedMethods) {
+        this.maxExpandedMethods = maxExpandedMethods;
+    }
+
+    public long getTestTimeoutMs() {
+        return testTimeoutMs;
+    }
+
+    public void setTestTimeoutMs(long testTimeoutMs) {
+        this.testTimeoutMs = testTimeoutMs;
+    }
+
+    /**
+     * Writer the running command streams cases to, or null when the task is executed without one
+     * (e.g. from a benchmark). Cases written here must not also be added to the returned TaskResult.
+     */
+    public ResultFormatter.CaseWriter getCaseWriter() {
+        return caseWriter;
+    }
+
+    public void setCaseWriter(ResultFormatter.CaseWriter caseWriter) {
+        this.caseWriter = caseWriter;
+    }
+
     // TODO: Add methods to help resolve files or paths within the project context
 } 
\ No newline at end of file
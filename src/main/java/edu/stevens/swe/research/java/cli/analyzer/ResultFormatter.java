@@ -1,194 +1,399 @@
 package edu.stevens.swe.research.java.cli.analyzer;
 
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
-// TODO: Add a JSON library like Jackson or Gson for JSON formatting if not already a dependency.
-// import com.fasterxml.jackson.databind.ObjectMapper; 
-// import com.fasterxml.jackson.databind.SerializationFeature;
 
 /**
- * Formats TaskResult objects into various output formats (JSON, CSV, Markdown, Console).
+ * Formats task results into various output formats (JSON, CSV, Markdown, Console).
+ *
+ * Output is push-based: {@link #open} writes the header and returns a {@link CaseWriter} that writes
+ * each case as soon as it is pushed, so a task can stream its cases while it runs and neither the
+ * formatter nor the task has to hold them all. {@link #format} writes a complete TaskResult the same way.
  */
 public class ResultFormatter {
 
+    /**
+     * Receives the cases of one task run and writes them immediately. Safe to call from several worker threads.
+     */
+    public interface CaseWriter extends Closeable {
+
+        void writeCase(TaskResult.TestCaseResult testCase) throws IOException;
+
+        /**
+         * Writes the trailer; the summary is reported when it differs from the task named in the header.
+         * Called once, before {@link #close()}; closing an unfinished writer finishes it without a summary.
+         */
+        void finish(String summary) throws IOException;
+
+        int getCaseCount();
+    }
+
     private final String formatType; // "json", "csv", "md", "console"
 
     public ResultFormatter(String formatType) {
         this.formatType = formatType != null ? formatType.toLowerCase() : "console";
     }
 
+    /**
+     * File name extension of the formatted output, e.g. {@code json}.
+     */
+    public String getFileExtension() {
+        switch (formatType) {
+            case "json":
+            case "ndjson":
+            case "zip":
+            case "columnar":
+                return "json";
+            case "csv":
+                return "csv";
+            case "md":
+            case "markdown":
+                return "md";
+            default:
+                return "txt";
+        }
+    }
+
+    /**
+     * Writes the header for a run of the task on the project and returns the writer for its cases.
+     * The writer closes the stream when it is closed.
+     */
+    public CaseWriter open(OutputStream outputStream, String project, String task) throws IOException {
+        PrintWriter writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)));
+        StreamingCaseWriter caseWriter;
+        switch (formatType) {
+            case "json":
+            case "ndjson": // Per-test output is bundled; the task summary is still plain JSON
+            case "zip":
+            case "columnar":
+                caseWriter = new JsonCaseWriter(writer, project, task);
+                break;
+            case "csv":
+                caseWriter = new CsvCaseWriter(writer, project, task);
+                break;
+            case "md":
+            case "markdown":
+                caseWriter = new MarkdownCaseWriter(writer, project, task);
+                break;
+            case "console":
+            default:
+                caseWriter = new ConsoleCaseWriter(writer, project, task);
+                break;
+        }
+        caseWriter.begin();
+        return caseWriter;
+    }
+
     public void format(TaskResult result, OutputStream outputStream) throws IOException {
-        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8))) {
-            switch (formatType) {
-                case "json":
-                    formatJson(result, writer);
-                    break;
-                case "csv":
-                    formatCsv(result, writer);
-                    break;
-                case "md":
-                case "markdown":
-                    formatMarkdown(result, writer);
-                    break;
-                case "console":
-                default:
-                    formatConsole(result, writer);
-                    break;
+        try (CaseWriter writer = open(outputStream, result.getProject(), result.getTask())) {
+            if (result.getCases() != null) {
+                for (TaskResult.TestCaseResult tc : result.getCases()) {
+                    writer.writeCase(tc);
+                }
             }
+            writer.finish(result.getTask());
+        }
+    }
+
+    /**
+     * Common lifecycle of the format writers: cases are serialized under one lock and flushed one by one.
+     */
+    private abstract static class StreamingCaseWriter implements CaseWriter {
+        protected final PrintWriter writer;
+        protected final String project;
+        protected final String task;
+        private int cases = 0;
+        private boolean finished = false;
+        private boolean closed = false;
+
+        StreamingCaseWriter(PrintWriter writer, String project, String task) {
+            this.writer = writer;
+            this.project = project;
+            this.task = task;
+        }
+
+        protected abstract void writeHeader() throws IOException;
+
+        protected abstract void writeCaseBody(TaskResult.TestCaseResult tc, int index) throws IOException;
+
+        protected abstract void writeTrailer(String summary, int caseCount) throws IOException;
+
+        void begin() throws IOException {
+            writeHeader();
+            flush();
+        }
+
+        @Override
+        public synchronized void writeCase(TaskResult.TestCaseResult testCase) throws IOException {
+            if (finished) {
+                throw new IllegalStateException("Case written after the results were finished");
+            }
+            writeCaseBody(testCase, cases++);
+            flush();
+        }
+
+        @Override
+        public synchronized void finish(String summary) throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            writeTrailer(summary != null && !summary.equals(task) ? summary : null, cases);
+            flush();
+        }
+
+        @Override
+        public synchronized int getCaseCount() {
+            return cases;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            try {
+                finish(null);
+            } finally {
+                closed = true;
+                writer.close();
+            }
+        }
+
+        private void flush() throws IOException {
             writer.flush();
+            if (writer.checkError()) {
+                throw new IOException("Error writing " + getClass().getSimpleName() + " output");
+            }
+        }
+    }
+
+    private static final class JsonCaseWriter extends StreamingCaseWriter {
+        private final JsonWriter json;
+
+        JsonCaseWriter(PrintWriter writer, String project, String task) {
+            super(writer, project, task);
+            this.json = new JsonWriter(writer);
+            json.setIndent("  ");
+        }
+
+        @Override
+        protected void writeHeader() throws IOException {
+            json.beginObject();
+            json.name("project").value(project);
+            json.name("task").value(task);
+            json.name("cases").beginArray();
+        }
+
+        @Override
+        protected void writeCaseBody(TaskResult.TestCaseResult tc, int index) throws IOException {
+            json.beginObject();
+            json.name("class").value(tc.getClazz());
+            json.name("method").value(tc.getMethod());
+            json.name("file").value(tc.getFile());
+            json.name("startLine").value(tc.getStartLine());
+            json.name("endLine").value(tc.getEndLine());
+            json.name("issues").beginArray();
+            if (tc.getIssues() != null) {
+                for (TaskResult.Issue issue : tc.getIssues()) {
+                    json.beginObject();
+                    json.name("rule").value(issue.getRule());
+                    json.name("startLine").value(issue.getStartLine());
+                    json.name("endLine").value(issue.getEndLine());
+                    json.endObject();
+                }
+            }
+            json.endArray();
+            json.endObject();
+            json.flush();
+        }
+
+        @Override
+        protected void writeTrailer(String summary, int caseCount) throws IOException {
+            json.endArray();
+            if (summary != null) {
+                json.name("summary").value(summary);
+            }
+            json.endObject();
+            json.flush();
+            writer.println();
+            Log.debug("JSON output written.");
         }
     }
 
-    private void formatJson(TaskResult result, PrintWriter writer) throws IOException {
-        // TODO: Implement JSON formatting using a library like Jackson or Gson
-        // ObjectMapper objectMapper = new ObjectMapper();
-        // objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
-        // writer.write(objectMapper.writeValueAsString(result));
-        writer.println("{\n  \"project\": \"" + result.getProject() + "\",");
-        writer.println("  \"task\": \"" + result.getTask() + "\",");
-        writer.println("  \"cases\": [" );
-        List<TaskResult.TestCaseResult> cases = result.getCases();
-        for (int i = 0; i < cases.size(); i++) {
-            TaskResult.TestCaseResult tc = cases.get(i);
-            writer.println("    {");
-            writer.println("      \"class\": \"" + tc.getClazz() + "\",");
-            writer.println("      \"method\": \"" + tc.getMethod() + "\",");
-            writer.println("      \"file\": \"" + tc.getFile() + "\",");
-            writer.println("      \"startLine\": " + tc.getStartLine() + ",");
-            writer.println("      \"endLine\": " + tc.getEndLine() + ",");
-            writer.println("      \"issues\": [" );
+    private static final class CsvCaseWriter extends StreamingCaseWriter {
+
+        CsvCaseWriter(PrintWriter writer, String project, String task) {
+            super(writer, project, task);
+        }
+
+        @Override
+        protected void writeHeader() {
+            writer.println("Project,Task,CaseClass,CaseMethod,CaseFile,CaseStartLine,CaseEndLine,IssueRule,IssueStartLine,IssueEndLine");
+        }
+
+        @Override
+        protected void writeCaseBody(TaskResult.TestCaseResult tc, int index) {
             List<TaskResult.Issue> issues = tc.getIssues();
-            for (int j = 0; j < issues.size(); j++) {
-                TaskResult.Issue issue = issues.get(j);
-                writer.println("        {");
-                writer.println("          \"rule\": \"" + issue.getRule() + "\",");
-                writer.println("          \"startLine\": " + issue.getStartLine() + ",");
-                writer.println("          \"endLine\": " + issue.getEndLine());
-                writer.print("        }");
-                if (j < issues.size() - 1) {
-                    writer.println(",");
-                } else {
-                    writer.println();
+            if (issues != null && !issues.isEmpty()) {
+                for (TaskResult.Issue issue : issues) {
+                    writeCasePrefix(tc);
+                    writer.print(escapeCsv(issue.getRule()) + ",");
+                    writer.print(issue.getStartLine() + ",");
+                    writer.println(issue.getEndLine());
                 }
+            } else {
+                // Output case even if no issues, if desired
+                writeCasePrefix(tc);
+                writer.println(",,"); // No issue data
             }
-            writer.println("      ]");
-            writer.print("    }");
-            if (i < cases.size() - 1) {
-                writer.println(",");
+        }
+
+        private void writeCasePrefix(TaskResult.TestCaseResult tc) {
+            writer.print(escapeCsv(project) + ",");
+            writer.print(escapeCsv(task) + ",");
+            writer.print(escapeCsv(tc.getClazz()) + ",");
+            writer.print(escapeCsv(tc.getMethod()) + ",");
+            writer.print(escapeCsv(tc.getFile()) + ",");
+            writer.print(tc.getStartLine() + ",");
+            writer.print(tc.getEndLine() + ",");
+        }
+
+        @Override
+        protected void writeTrailer(String summary, int caseCount) {
+            // CSV has no place for a summary; the rows are the result
+            Log.debug("CSV output generated.");
+        }
+    }
+
+    private static final class MarkdownCaseWriter extends StreamingCaseWriter {
+
+        MarkdownCaseWriter(PrintWriter writer, String project, String task) {
+            super(writer, project, task);
+        }
+
+        @Override
+        protected void writeHeader() {
+            writer.println("# Analysis Report");
+            writer.println("## Task: " + escapeMarkdown(task));
+            writer.println("### Project: " + escapeMarkdown(project));
+            writer.println();
+        }
+
+        @Override
+        protected void writeCaseBody(TaskResult.TestCaseResult tc, int index) {
+            if (index == 0) {
+                writer.println("## Test Cases Analyzed:");
+            }
+            writer.println("### Case: " + codeSpan(tc.getClazz() + "::" + tc.getMethod()));
+            writer.println("- **File**: " + codeSpan(tc.getFile()));
+            writer.println("- **Lines**: " + tc.getStartLine() + " - " + tc.getEndLine());
+            if (tc.getIssues() != null && !tc.getIssues().isEmpty()) {
+                writer.println("- **Issues Found**:");
+                writer.println("  | Rule ID       | Start Line | End Line   |");
+                writer.println("  |---------------|------------|------------|");
+                for (TaskResult.Issue issue : tc.getIssues()) {
+                    writer.printf("  | %-13s | %-10d | %-10d |\n",
+                        escapeMarkdown(issue.getRule()), issue.getStartLine(), issue.getEndLine());
+                }
             } else {
-                writer.println();
+                writer.println("- No issues found in this case.");
+            }
+            writer.println();
+        }
+
+        @Override
+        protected void writeTrailer(String summary, int caseCount) {
+            if (caseCount == 0) {
+                writer.println("No test cases were processed or no issues found overall.");
+            }
+            if (summary != null) {
+                writer.println("## Summary");
+                writer.println(escapeMarkdown(summary));
             }
+            Log.debug("Markdown output generated.");
         }
-        writer.println("  ]");
-        writer.println("}");
-        System.out.println("JSON output (manual basic) written. Consider using a library for robust JSON.");
     }
 
-    private void formatCsv(TaskResult result, PrintWriter writer) {
-        // Header
-        writer.println("Project,Task,CaseClass,CaseMethod,CaseFile,CaseStartLine,CaseEndLine,IssueRule,IssueStartLine,IssueEndLine");
-        if (result.getCases() != null) {
-            for (TaskResult.TestCaseResult tc : result.getCases()) {
-                if (tc.getIssues() != null && !tc.getIssues().isEmpty()) {
-                    for (TaskResult.Issue issue : tc.getIssues()) {
-                        writer.print(escapeCsv(result.getProject()) + ",");
-                        writer.print(escapeCsv(result.getTask()) + ",");
-                        writer.print(escapeCsv(tc.getClazz()) + ",");
-                        writer.print(escapeCsv(tc.getMethod()) + ",");
-                        writer.print(escapeCsv(tc.getFile()) + ",");
-                        writer.print(tc.getStartLine() + ",");
-                        writer.print(tc.getEndLine() + ",");
-                        writer.print(escapeCsv(issue.getRule()) + ",");
-                        writer.print(issue.getStartLine() + ",");
-                        writer.println(issue.getEndLine());
-                    }
-                } else {
-                    // Output case even if no issues, if desired
-                    writer.print(escapeCsv(result.getProject()) + ",");
-                    writer.print(escapeCsv(result.getTask()) + ",");
-                    writer.print(escapeCsv(tc.getClazz()) + ",");
-                    writer.print(escapeCsv(tc.getMethod()) + ",");
-                    writer.print(escapeCsv(tc.getFile()) + ",");
-                    writer.print(tc.getStartLine() + ",");
-                    writer.print(tc.getEndLine() + ",");
-                    writer.println(",,"); // No issue data
+    private static final class ConsoleCaseWriter extends StreamingCaseWriter {
+
+        ConsoleCaseWriter(PrintWriter writer, String project, String task) {
+            super(writer, project, task);
+        }
+
+        @Override
+        protected void writeHeader() {
+            writer.println("===========================================");
+            writer.println("          ANALYSIS TASK REPORT             ");
+            writer.println("===========================================");
+            writer.println("Project: " + project);
+            writer.println("Task: " + task);
+            writer.println("-------------------------------------------");
+        }
+
+        @Override
+        protected void writeCaseBody(TaskResult.TestCaseResult tc, int index) {
+            writer.println("Case: " + tc.getClazz() + "::" + tc.getMethod());
+            writer.println("  File: " + tc.getFile() + " (Lines: " + tc.getStartLine() + "-" + tc.getEndLine() + ")");
+            if (tc.getIssues() != null && !tc.getIssues().isEmpty()) {
+                writer.println("  Issues:");
+                for (TaskResult.Issue issue : tc.getIssues()) {
+                    writer.println("    - Rule: " + issue.getRule() +
+                               " (Lines: " + issue.getStartLine() + "-" + issue.getEndLine() + ")");
                 }
+            } else {
+                writer.println("  No issues found in this case.");
+            }
+            writer.println("---");
+        }
+
+        @Override
+        protected void writeTrailer(String summary, int caseCount) {
+            if (caseCount == 0) {
+                writer.println("No test cases processed or no findings.");
+            }
+            if (summary != null) {
+                writer.println("Summary: " + summary);
             }
+            writer.println("===========================================");
+            Log.debug("Console output generated.");
         }
-        System.out.println("CSV output generated.");
     }
 
-    private String escapeCsv(String data) {
+    private static String escapeCsv(String data) {
         if (data == null) return "";
         String escapedData = data.replaceAll("\\R", " "); // Replace newlines with space
-        if (data.contains(",") || data.contains("\"") || data.contains("\n")) {
+        if (data.contains(",") || data.contains("\"") || data.contains("\n") || data.contains("\r")) {
             escapedData = "\"" + escapedData.replace("\"", "\"\"") + "\"";
         }
         return escapedData;
     }
 
-    private void formatMarkdown(TaskResult result, PrintWriter writer) {
-        writer.println("# Analysis Report");
-        writer.println("## Task: " + result.getTask());
-        writer.println("### Project: " + result.getProject());
-        writer.println();
-
-        if (result.getCases() != null && !result.getCases().isEmpty()) {
-            writer.println("## Test Cases Analyzed:");
-            for (TaskResult.TestCaseResult tc : result.getCases()) {
-                writer.println("### Case: `" + tc.getClazz() + "::" + tc.getMethod() + "`");
-                writer.println("- **File**: `" + tc.getFile() + "`");
-                writer.println("- **Lines**: " + tc.getStartLine() + " - " + tc.getEndLine());
-                if (tc.getIssues() != null && !tc.getIssues().isEmpty()) {
-                    writer.println("- **Issues Found**:");
-                    writer.println("  | Rule ID       | Start Line | End Line   |");
-                    writer.println("  |---------------|------------|------------|");
-                    for (TaskResult.Issue issue : tc.getIssues()) {
-                        writer.printf("  | %-13s | %-10d | %-10d |\n", 
-                            issue.getRule(), issue.getStartLine(), issue.getEndLine());
-                    }
-                } else {
-                    writer.println("- No issues found in this case.");
-                }
-                writer.println();
-            }
-        } else {
-            writer.println("No test cases were processed or no issues found overall.");
-        }
-        System.out.println("Markdown output generated.");
+    /**
+     * Keeps a value on one line and out of the table and code span syntax.
+     */
+    private static String escapeMarkdown(String data) {
+        if (data == null) return "";
+        return data.replaceAll("\\R", " ").replace("|", "\\|").replace("`", "\\`");
     }
 
-    private void formatConsole(TaskResult result, PrintWriter writer) {
-        writer.println("===========================================");
-        writer.println("          ANALYSIS TASK REPORT             ");
-        writer.println("===========================================");
-        writer.println("Project: " + result.getProject());
-        writer.println("Task: " + result.getTask());
-        writer.println("-------------------------------------------");
-
-        if (result.getCases() == null || result.getCases().isEmpty()) {
-            writer.println("No test cases processed or no findings.");
-        } else {
-            for (TaskResult.TestCaseResult tc : result.getCases()) {
-                writer.println("Case: " + tc.getClazz() + "::" + tc.getMethod());
-                writer.println("  File: " + tc.getFile() + " (Lines: " + tc.getStartLine() + "-" + tc.getEndLine() + ")");
-                if (tc.getIssues() != null && !tc.getIssues().isEmpty()) {
-                    writer.println("  Issues:");
-                    for (TaskResult.Issue issue : tc.getIssues()) {
-                        writer.println("    - Rule: " + issue.getRule() +
-                                   " (Lines: " + issue.getStartLine() + "-" + issue.getEndLine() + ")");
-                    }
-                } else {
-                    writer.println("  No issues found in this case.");
-                }
-                writer.println("---");
-            }
+    /**
+     * Wraps a value in a code span whose fence is longer than any backtick run inside it.
+     */
+    private static String codeSpan(String data) {
+        String value = data != null ? data.replaceAll("\\R", " ") : "";
+        String fence = "`";
+        while (value.contains(fence)) {
+            fence += "`";
         }
-        writer.println("===========================================");
-        System.out.println("Console output generated.");
+        return fence.length() > 1 ? fence + " " + value + " " + fence : fence + value + fence;
     }
-} 
\ No newline at end of file
+}
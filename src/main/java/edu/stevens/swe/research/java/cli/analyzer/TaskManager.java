@@ -1,48 +1,169 @@
 package edu.stevens.swe.research.java.cli.analyzer;
 
+import edu.stevens.swe.research.java.cli.analyzer.core.ProgressTracker;
+import edu.stevens.swe.research.java.cli.analyzer.core.StatusServer;
 import edu.stevens.swe.research.java.cli.analyzer.spi.AnalyzerTask;
 import edu.stevens.swe.research.java.cli.analyzer.spi.AstVisitor;
 import edu.stevens.swe.research.java.cli.analyzer.spi.Collector;
 import edu.stevens.swe.research.java.parser.core.ResearchParser; // For parser-core facade
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Manages the lifecycle of analysis tasks, including loading plugins (via SPI),
- * scheduling tasks, and managing thread pools.
+ * scheduling tasks, and managing thread pools. Plugins are loaded lazily: a task lookup instantiates
+ * only the matching provider, and visitors and collectors are loaded when first requested.
  */
 public class TaskManager {
     private final Map<String, AnalyzerTask> taskRegistry = new HashMap<>();
     private final Map<String, AstVisitor> visitorRegistry = new HashMap<>();
     private final Map<String, Collector> collectorRegistry = new HashMap<>();
     private final ExecutorService executorService;
+    private final boolean ownsExecutor; // False if the pool was injected and outlives this TaskManager
     private final ProjectCtx projectCtx; // Project context for tasks
-    private final ResearchParser parserFacade; // Parser facade for visitors
+    private ResearchParser parserFacade; // Parser facade for visitors, created when they are loaded
+    private boolean visitorsLoaded = false;
+    private boolean collectorsLoaded = false;
+    private ObjectName progressBeanName; // JMX name of the published ProgressTracker, null if not registered
+    private StatusServer statusServer; // Optional localhost status endpoint
 
     public TaskManager(ProjectCtx projectCtx, int numThreads) {
+        this(projectCtx, Executors.newFixedThreadPool(numThreads <= 0 ? Runtime.getRuntime().availableProcessors() : numThreads), true);
+    }
+
+    /**
+     * Runs tasks on a pool owned by the caller, e.g. one pool shared by all projects of the daemon.
+     * {@link #shutdown()} leaves that pool running.
+     */
+    public TaskManager(ProjectCtx projectCtx, ExecutorService executorService) {
+        this(projectCtx, executorService, false);
+    }
+
+    private TaskManager(ProjectCtx projectCtx, ExecutorService executorService, boolean ownsExecutor) {
         this.projectCtx = projectCtx;
-        if (numThreads <= 0) {
-            this.executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-        } else {
-            this.executorService = Executors.newFixedThreadPool(numThreads);
+        this.executorService = executorService;
+        this.ownsExecutor = ownsExecutor;
+        // Hand the pool to tasks so they can fan out per-file work
+        this.projectCtx.setExecutorService(this.executorService);
+        // Plugins are loaded on first lookup, so a run instantiates only the task it executes
+    }
+
+    /**
+     * Publishes the run's ProgressTracker as a JMX bean, including the depth of the worker queue.
+     * Called for every task, since a context reused across runs gets a new tracker each time.
+     */
+    private void registerProgress() {
+        unregisterProgress();
+        ProgressTracker progress = projectCtx.getProgressTracker();
+        if (executorService instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) executorService;
+            // A pool shared by a batch run or the daemon counts the jobs of all its projects
+            progress.setWorkQueue(() -> pool.getQueue().size());
         }
-        this.parserFacade = new ResearchParser(); // Initialize parser facade
-        loadPlugins();
+        try {
+            ObjectName name = new ObjectName("edu.stevens.swe.research.java.cli.analyzer:type=Progress,project="
+                    + ObjectName.quote(progress.getProjectName()));
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (!server.isRegistered(name)) {
+                server.registerMBean(progress, name);
+                progressBeanName = name;
+            }
+        } catch (JMException e) {
+            Log.warn("Warning: Could not register progress MBean: " + e.getMessage());
+        }
+    }
+
+    private void unregisterProgress() {
+        if (progressBeanName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(progressBeanName);
+            } catch (JMException e) {
+                Log.warn("Warning: Could not unregister progress MBean: " + e.getMessage());
+            }
+            progressBeanName = null;
+        }
+    }
+
+    /**
+     * Serves the progress as JSON on http://127.0.0.1:port/status until {@link #shutdown()}.
+     */
+    public void startStatusServer(int port) {
+        try {
+            statusServer = new StatusServer(port, projectCtx.getProgressTracker());
+            statusServer.start();
+        } catch (IOException e) {
+            Log.warn("Warning: Could not start status endpoint on port " + port + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the task with the given name, instantiating only its provider. Providers are matched
+     * by class name first ({@code <name>Task}, checked without loading the provider); only if none
+     * matches are the remaining providers instantiated one by one and asked for their name.
+     */
+    public synchronized AnalyzerTask getTask(String name) {
+        AnalyzerTask task = taskRegistry.get(name);
+        if (task == null) {
+            task = loadTask(name);
+        }
+        if (task == null) {
+            Log.error("Error: Task '" + name + "' not found.");
+            // Consider throwing a specific exception like TaskNotFoundException
+        }
+        return task;
     }
 
-    private void loadPlugins() {
-        // Load AnalyzerTask plugins
-        ServiceLoader<AnalyzerTask> taskLoader = ServiceLoader.load(AnalyzerTask.class);
-        for (AnalyzerTask task : taskLoader) {
-            taskRegistry.put(task.getName(), task);
-            System.out.println("Registered AnalyzerTask: " + task.getName());
+    private AnalyzerTask loadTask(String name) {
+        List<ServiceLoader.Provider<AnalyzerTask>> others = new ArrayList<>();
+        for (ServiceLoader.Provider<AnalyzerTask> provider : (Iterable<ServiceLoader.Provider<AnalyzerTask>>) ServiceLoader.load(AnalyzerTask.class).stream()::iterator) {
+            if (provider.type().getSimpleName().equals(name + "Task")) {
+                AnalyzerTask task = registerTask(provider.get());
+                if (name.equals(task.getName())) {
+                    return task;
+                }
+            } else {
+                others.add(provider);
+            }
+        }
+        for (ServiceLoader.Provider<AnalyzerTask> provider : others) {
+            AnalyzerTask task = registerTask(provider.get());
+            if (name.equals(task.getName())) {
+                return task;
+            }
         }
+        return null;
+    }
+
+    private AnalyzerTask registerTask(AnalyzerTask task) {
+        AnalyzerTask registered = taskRegistry.putIfAbsent(task.getName(), task);
+        if (registered != null) {
+            return registered;
+        }
+        Log.debug("Registered AnalyzerTask: " + task.getName());
+        return task;
+    }
 
-        // Load AstVisitor plugins
+    /**
+     * Loads all AstVisitor plugins on first use; visitors are only known by name once instantiated.
+     */
+    private void loadVisitors() {
+        if (visitorsLoaded) {
+            return;
+        }
+        visitorsLoaded = true;
+        this.parserFacade = new ResearchParser(); // Initialize parser facade
         ServiceLoader<AstVisitor> visitorLoader = ServiceLoader.load(AstVisitor.class);
         for (AstVisitor visitor : visitorLoader) {
             // AstVisitor SPI doesn't have a getName() yet, we might need to add it or use class name
@@ -55,46 +176,47 @@ public class TaskManager {
             // System.out.println("Registered AstVisitor: " + visitorName);
             String visitorName = visitor.getName();
             if (visitorName == null || visitorName.trim().isEmpty()) {
-                System.err.println("Warning: AstVisitor " + visitor.getClass().getName() + " has null or empty name. Skipping registration.");
+                Log.warn("Warning: AstVisitor " + visitor.getClass().getName() + " has null or empty name. Skipping registration.");
                 continue;
             }
             if (visitorRegistry.containsKey(visitorName)) {
-                System.err.println("Warning: Duplicate AstVisitor name '" + visitorName + "' found. Class: " + visitor.getClass().getName() + ". Previous one was: " + visitorRegistry.get(visitorName).getClass().getName() + ". Skipping this one.");
+                Log.warn("Warning: Duplicate AstVisitor name '" + visitorName + "' found. Class: " + visitor.getClass().getName() + ". Previous one was: " + visitorRegistry.get(visitorName).getClass().getName() + ". Skipping this one.");
                 continue;
             }
             visitorRegistry.put(visitorName, visitor);
-            System.out.println("Registered AstVisitor: " + visitorName + " (Class: " + visitor.getClass().getName() + ")");
+            Log.debug("Registered AstVisitor: " + visitorName + " (Class: " + visitor.getClass().getName() + ")");
         }
+    }
 
-        // Load Collector plugins
+    /**
+     * Loads all Collector plugins on first use.
+     */
+    private void loadCollectors() {
+        if (collectorsLoaded) {
+            return;
+        }
+        collectorsLoaded = true;
         ServiceLoader<Collector> collectorLoader = ServiceLoader.load(Collector.class);
         for (Collector collector : collectorLoader) {
             collectorRegistry.put(collector.getName(), collector);
-            System.out.println("Registered Collector: " + collector.getName());
-        }
-    }
-
-    public AnalyzerTask getTask(String name) {
-        AnalyzerTask task = taskRegistry.get(name);
-        if (task == null) {
-            System.err.println("Error: Task '" + name + "' not found.");
-            // Consider throwing a specific exception like TaskNotFoundException
+            Log.debug("Registered Collector: " + collector.getName());
         }
-        return task;
     }
 
-    public AstVisitor getVisitor(String name) {
+    public synchronized AstVisitor getVisitor(String name) {
+        loadVisitors();
         AstVisitor visitor = visitorRegistry.get(name);
         if (visitor == null) {
-            System.err.println("Error: AST Visitor '" + name + "' not found.");
+            Log.error("Error: AST Visitor '" + name + "' not found.");
         }
         return visitor;
     }
 
-    public Collector getCollector(String name) {
+    public synchronized Collector getCollector(String name) {
+        loadCollectors();
         Collector collector = collectorRegistry.get(name);
         if (collector == null) {
-            System.err.println("Error: Collector '" + name + "' not found.");
+            Log.error("Error: Collector '" + name + "' not found.");
         }
         return collector;
     }
@@ -102,13 +224,14 @@ public class TaskManager {
     public TaskResult executeTask(String taskName /*, other params like config */) {
         AnalyzerTask task = getTask(taskName);
         if (task != null) {
-            System.out.println("Executing task: " + taskName);
+            Log.debug("Executing task: " + taskName);
+            registerProgress();
             try {
                 // TODO: Initialize task with specific configurations if needed
                 // ((ConfigurableTask) task).configure(taskSpecificConfigs);
                 return task.execute(this.projectCtx);
             } catch (Exception e) {
-                System.err.println("Error executing task " + taskName + ": " + e.getMessage());
+                Log.error("Error executing task " + taskName + ": " + e.getMessage());
                 e.printStackTrace();
                 // Return an error TaskResult or null, or rethrow a custom exception
                 TaskResult errorResult = new TaskResult(projectCtx.getProjectPath().toString(), taskName);
@@ -117,25 +240,33 @@ public class TaskManager {
                 return errorResult; // Or null
             }
         }
-        System.err.println("Task execution failed for: " + taskName + " (task not found or other issue)");
+        Log.error("Task execution failed for: " + taskName + " (task not found or other issue)");
         return new TaskResult(projectCtx.getProjectPath().toString(), taskName); // Return empty result
     }
 
     public void shutdown() {
-        System.out.println("Shutting down TaskManager executor service...");
+        Log.debug("Shutting down TaskManager executor service...");
+        if (statusServer != null) {
+            statusServer.stop();
+        }
+        unregisterProgress();
+        if (!ownsExecutor) {
+            Log.debug("TaskManager shut down; the shared executor keeps running.");
+            return;
+        }
         executorService.shutdown();
         try {
             if (!executorService.awaitTermination(60, java.util.concurrent.TimeUnit.SECONDS)) {
                 executorService.shutdownNow();
                 if (!executorService.awaitTermination(60, java.util.concurrent.TimeUnit.SECONDS)) {
-                    System.err.println("Executor service did not terminate.");
+                    Log.error("Executor service did not terminate.");
                 }
             }
         } catch (InterruptedException ie) {
             executorService.shutdownNow();
             Thread.currentThread().interrupt();
         }
-        System.out.println("TaskManager shut down.");
+        Log.debug("TaskManager shut down.");
     }
 
     // TODO: Add methods for result processing and formatting
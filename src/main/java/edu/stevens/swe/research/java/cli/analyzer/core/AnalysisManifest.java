@@ -0,0 +1,274 @@
+package edu.stevens.swe.research.java.cli.analyzer.core;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import edu.stevens.swe.research.java.cli.analyzer.Log;
+import edu.stevens.swe.research.java.cli.analyzer.ProjectCtx;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Manifest of the previous run used by incremental analysis. For every test file it records the file's
+ * content hash and, per emitted test, the output name and the content hashes of every source file the
+ * DFS expanded into. A test whose file and dependencies still hash the same is not analyzed again.
+ *
+ * The manifest read at startup is never modified; entries for this run are collected separately and
+ * replace it on {@link #save(ProjectCtx)}, so tests that disappeared are simply not carried over.
+ */
+public class AnalysisManifest {
+
+    private static final String MANIFEST_FILE_NAME = "analysis-manifest.json";
+    private static final int FORMAT_VERSION = 2;
+
+    /**
+     * Everything recorded for one test method.
+     */
+    public static class TestEntry {
+        public String key; // method name and start line, stable while the file is unchanged
+        public String outputName;
+        public String className;
+        public String methodName;
+        public String signature; // rendered signature, the test's name in the call graph index
+        public int startLine;
+        public int endLine;
+        public Map<String, String> dependencies = new TreeMap<>(); // project-relative path -> content hash
+        public List<String> expandedMethods = new ArrayList<>(); // project-relative "path#startLine-endLine"
+        public List<String> unresolvedInvocations = new ArrayList<>();
+    }
+
+    /**
+     * Everything recorded for one test file.
+     */
+    public static class FileEntry {
+        public String hash;
+        public Map<String, TestEntry> tests = new TreeMap<>();
+    }
+
+    private static class Stored {
+        int version = FORMAT_VERSION;
+        String projectPath;
+        Map<String, FileEntry> files = new TreeMap<>();
+    }
+
+    private final Path projectPath;
+    private final Map<String, FileEntry> previousFiles;
+    private final Map<String, FileEntry> files = new ConcurrentHashMap<>();
+    private final Map<Path, String> hashCache = new ConcurrentHashMap<>(); // Each file is hashed at most once per run
+
+    private AnalysisManifest(Path projectPath, Map<String, FileEntry> previousFiles) {
+        this.projectPath = projectPath.toAbsolutePath().normalize();
+        this.previousFiles = previousFiles;
+    }
+
+    /**
+     * Loads the manifest of the previous run. Without one, every test counts as changed.
+     */
+    public static AnalysisManifest load(ProjectCtx projectCtx) {
+        Path file = projectCtx.getTempDir().resolve(MANIFEST_FILE_NAME);
+        Map<String, FileEntry> previous = new TreeMap<>();
+        if (Files.isRegularFile(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                Stored stored = new Gson().fromJson(reader, Stored.class);
+                if (stored != null && stored.version == FORMAT_VERSION && stored.files != null
+                        && projectCtx.getProjectPath().toAbsolutePath().normalize().toString().equals(stored.projectPath)) {
+                    previous = stored.files;
+                }
+            } catch (IOException | JsonParseException e) {
+                Log.warn("Warning: Ignoring unreadable analysis manifest " + file + ": " + e.getMessage());
+            }
+        }
+        Log.info("Incremental analysis: previous manifest covers " + previous.size() + " test files.");
+        return new AnalysisManifest(projectCtx.getProjectPath(), previous);
+    }
+
+    public void save(ProjectCtx projectCtx) {
+        Stored stored = new Stored();
+        stored.projectPath = projectPath.toString();
+        stored.files = new TreeMap<>(files);
+        Path file = projectCtx.getTempDir().resolve(MANIFEST_FILE_NAME);
+        Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            gson.toJson(stored, writer);
+        } catch (IOException e) {
+            Log.warn("Warning: Could not save analysis manifest to " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * If neither the test file nor any dependency of its tests changed and all outputs still exist,
+     * carries the file's entry over to this run and returns it; otherwise returns null.
+     */
+    public FileEntry reuseFile(Path testFile, Path outputDir) {
+        FileEntry previous = previousFiles.get(relativize(testFile));
+        if (previous == null || !previous.hash.equals(contentHash(testFile))) {
+            return null;
+        }
+        for (TestEntry test : previous.tests.values()) {
+            if (!isCurrent(test, outputDir)) {
+                return null;
+            }
+        }
+        files.put(relativize(testFile), previous);
+        return previous;
+    }
+
+    /**
+     * Returns the previous entry of one test if its file is unchanged and its dependencies are current,
+     * carrying it over to this run; otherwise returns null and the test has to be analyzed.
+     */
+    public TestEntry reuseTest(Path testFile, String key, Path outputDir) {
+        FileEntry previous = previousFiles.get(relativize(testFile));
+        if (previous == null || !previous.hash.equals(contentHash(testFile))) {
+            return null;
+        }
+        TestEntry test = previous.tests.get(key);
+        if (test == null || !isCurrent(test, outputDir)) {
+            return null;
+        }
+        record(testFile, test);
+        return test;
+    }
+
+    /**
+     * The entry the previous run recorded for a test file, or null.
+     */
+    public FileEntry previousFile(Path testFile) {
+        return previousFiles.get(relativize(testFile));
+    }
+
+    /**
+     * Carries a previous test entry over to this run at the test's current position in its file.
+     */
+    public TestEntry carryOver(Path testFile, TestEntry previous, String key, int startLine, int endLine) {
+        TestEntry moved = new TestEntry();
+        moved.key = key;
+        moved.outputName = previous.outputName;
+        moved.className = previous.className;
+        moved.methodName = previous.methodName;
+        moved.signature = previous.signature;
+        moved.startLine = startLine;
+        moved.endLine = endLine;
+        moved.dependencies = previous.dependencies;
+        moved.expandedMethods = previous.expandedMethods;
+        moved.unresolvedInvocations = previous.unresolvedInvocations;
+        record(testFile, moved);
+        return moved;
+    }
+
+    /**
+     * Makes sure the test file has an entry in this run, even if it declares no tests,
+     * so an unchanged helper-only file is not parsed again next time.
+     */
+    public void recordFile(Path testFile) {
+        files.computeIfAbsent(relativize(testFile), k -> {
+            FileEntry created = new FileEntry();
+            created.hash = contentHash(testFile);
+            return created;
+        });
+    }
+
+    /**
+     * Records a freshly analyzed test together with the hashes of the files its analysis read.
+     */
+    public void record(Path testFile, TestEntry test) {
+        FileEntry entry = files.computeIfAbsent(relativize(testFile), k -> {
+            FileEntry created = new FileEntry();
+            created.hash = contentHash(testFile);
+            return created;
+        });
+        synchronized (entry) {
+            entry.tests.put(test.key, test);
+        }
+    }
+
+    public TestEntry newTestEntry(String key, String outputName, List<String> dependencyFiles, List<String> expandedMethods) {
+        TestEntry test = new TestEntry();
+        test.key = key;
+        test.outputName = outputName;
+        for (String dependency : new HashSet<>(dependencyFiles)) {
+            Path path = Path.of(dependency);
+            test.dependencies.put(relativize(path), contentHash(path));
+        }
+        for (String method : new LinkedHashSet<>(expandedMethods)) {
+            int separator = method.lastIndexOf('#');
+            test.expandedMethods.add(relativize(Path.of(method.substring(0, separator))) + method.substring(separator));
+        }
+        return test;
+    }
+
+    /**
+     * Output names written by the previous run that this run did not produce or carry over.
+     */
+    public Set<String> staleOutputs() {
+        Set<String> current = new HashSet<>();
+        for (FileEntry entry : files.values()) {
+            for (TestEntry test : entry.tests.values()) {
+                current.add(test.outputName);
+            }
+        }
+        Set<String> stale = new HashSet<>();
+        for (FileEntry entry : previousFiles.values()) {
+            for (TestEntry test : entry.tests.values()) {
+                if (!current.contains(test.outputName)) {
+                    stale.add(test.outputName);
+                }
+            }
+        }
+        return stale;
+    }
+
+    private boolean isCurrent(TestEntry test, Path outputDir) {
+        if (!Files.isRegularFile(outputDir.resolve(test.outputName))) {
+            return false;
+        }
+        for (Map.Entry<String, String> dependency : test.dependencies.entrySet()) {
+            if (!dependency.getValue().equals(contentHash(projectPath.resolve(dependency.getKey())))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * SHA-256 of the file content, or an empty string if the file cannot be read (e.g. it was deleted).
+     */
+    public String contentHash(Path file) {
+        return hashCache.computeIfAbsent(file.toAbsolutePath().normalize(), path -> {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(path));
+                StringBuilder hex = new StringBuilder(digest.length * 2);
+                for (byte b : digest) {
+                    hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+                }
+                return hex.toString();
+            } catch (IOException | NoSuchAlgorithmException e) {
+                return "";
+            }
+        });
+    }
+
+    /**
+     * Path of a file relative to the project, with '/' separators, as used for manifest keys.
+     */
+    public String relativize(Path file) {
+        Path absolute = file.toAbsolutePath().normalize();
+        Path relative = absolute.startsWith(projectPath) ? projectPath.relativize(absolute) : absolute;
+        return relative.toString().replace('\\', '/');
+    }
+}
@@ -1,16 +1,22 @@
 package edu.stevens.swe.research.java.cli.analyzer.core;
 
+import edu.stevens.swe.research.java.cli.analyzer.Log;
 import edu.stevens.swe.research.java.cli.analyzer.ProjectCtx;
 import edu.stevens.swe.research.java.parser.core.ResearchParser;
 import edu.stevens.swe.research.java.parser.core.utils.exceptions.ProjectDetectionException;
 import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class AstParserUtil {
 
@@ -27,34 +33,167 @@ public class AstParserUtil {
 
     private final ProjectCtx projectCtx;
     private final ResearchParser researchParser;
+    private final CompilationUnitCache compilationUnitCache;
+    private final MetricsRegistry.Timer parseTimer;
+    private final MetricsRegistry.Timer parseBatchTimer;
+    private volatile boolean parserConfigResolved = false;
 
     public AstParserUtil(ProjectCtx projectCtx) {
         this.projectCtx = projectCtx;
         this.researchParser = new ResearchParser();
+        this.compilationUnitCache = projectCtx.getCompilationUnitCache();
+        this.parseTimer = projectCtx.getMetricsRegistry().timer(MetricsRegistry.PARSE);
+        this.parseBatchTimer = projectCtx.getMetricsRegistry().timer(MetricsRegistry.PARSE_BATCH);
         // Manual configuration of sourcepath, classpath, encodings is removed
         // as parser-core (ResearchParser) is expected to handle this.
     }
 
+    public CompilationUnitCache getCompilationUnitCache() {
+        return compilationUnitCache;
+    }
+
+    /**
+     * Returns the binding-resolved AST of the file, served from the shared CompilationUnitCache
+     * when the file was already parsed and has not changed since.
+     */
     public ParseResult parse(String filePath) throws IOException, ProjectDetectionException {
         Path path = Paths.get(filePath);
-        String sourceCodeString = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        return compilationUnitCache.get(path, () -> parseUncached(path));
+    }
+
+    /**
+     * Receives each compilation unit of a batch parse as soon as JDT has finished it.
+     */
+    @FunctionalInterface
+    public interface BatchConsumer {
+        void accept(Path sourceFile, ParseResult parseResult) throws Exception;
+    }
 
-        // Get the pre-configured parser from parser-core
-        ASTParser parser = researchParser.getParser(projectCtx.getProjectPath());
+    /**
+     * Parses several files with a single {@link ASTParser#createASTs} call so they share one JDT
+     * binding environment and name lookup, instead of re-initializing it for every file.
+     * Each unit is handed to the consumer as soon as it is resolved and is also offered to the
+     * CompilationUnitCache, so later DFS expansions into these files hit the cache.
+     * Files that the batch did not deliver are returned so the caller can fall back to {@link #parse}.
+     */
+    public List<Path> parseBatch(List<Path> files, BatchConsumer consumer) throws ProjectDetectionException {
+        List<Path> undelivered = new ArrayList<>(files);
+        if (files.isEmpty()) {
+            return undelivered;
+        }
+        ASTParser parser = newParser();
+
+        String[] sourcePaths = new String[files.size()];
+        String[] encodings = new String[files.size()];
+        Map<String, Path> requestedFiles = new HashMap<>();
+        for (int i = 0; i < files.size(); i++) {
+            sourcePaths[i] = files.get(i).toAbsolutePath().toString();
+            encodings[i] = StandardCharsets.UTF_8.name();
+            requestedFiles.put(sourcePaths[i], files.get(i));
+        }
 
-        // DEBUG: Print detected parser configuration
+        FileASTRequestor requestor = new FileASTRequestor() {
+            @Override
+            public void acceptAST(String sourceFilePath, CompilationUnit ast) {
+                Path file = requestedFiles.getOrDefault(sourceFilePath, Paths.get(sourceFilePath));
+                undelivered.remove(file);
+                try {
+                    String source = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+                    ParseResult result = new ParseResult(ast, source);
+                    compilationUnitCache.offer(file, result);
+                    consumer.accept(file, result);
+                } catch (Exception e) {
+                    Log.error("Error processing batch-parsed file " + file + ": " + e.getMessage());
+                }
+            }
+        };
+
+        long start = parseBatchTimer.start();
         try {
-            System.out.println("DEBUG: Parser-core detected configuration for project: " + projectCtx.getProjectPath());
-            String configDetails = researchParser.getDetectedParserConfigAsString(projectCtx.getProjectPath());
-            System.out.println(configDetails);
-        } catch (Exception e) {
-            System.err.println("DEBUG: Failed to get/print parser-core config details: " + e.getMessage());
+            parser.createASTs(sourcePaths, encodings, new String[0], requestor, null);
+        } catch (IllegalStateException e) {
+            // createASTs requires a classpath/sourcepath environment; parser-core may not have set one
+            Log.warn("Warning: Batch parsing unavailable (" + e.getMessage() + "), falling back to per-file parsing.");
+        } finally {
+            parseBatchTimer.stop(start);
         }
-        // END DEBUG
+        return undelivered;
+    }
 
+    private ASTParser newParser() throws ProjectDetectionException {
+        ParserConfig parserConfig = resolveParserConfig();
+        if (parserConfig != null) {
+            return parserConfig.newParser();
+        }
+
+        // The configuration could not be captured, so ask parser-core for every parse.
+        // ResearchParser is not documented as thread-safe, so detection is serialized;
+        // the expensive createAST call still runs concurrently.
+        ASTParser parser;
+        synchronized (researchParser) {
+            parser = researchParser.getParser(projectCtx.getProjectPath());
+        }
         if (parser == null) {
             throw new ProjectDetectionException("Failed to get ASTParser from ResearchParser for project: " + projectCtx.getProjectPath());
         }
+        return parser;
+    }
+
+    /**
+     * Returns the project's parser configuration, detecting it with parser-core only once per project:
+     * a snapshot persisted by an earlier run is reused while the build files are unchanged, otherwise
+     * parser-core runs once and its result is captured, stored in ProjectCtx and saved to disk.
+     * Returns null if the detected configuration cannot be captured.
+     */
+    private ParserConfig resolveParserConfig() throws ProjectDetectionException {
+        if (parserConfigResolved) {
+            return projectCtx.getParserConfig();
+        }
+        synchronized (researchParser) {
+            if (parserConfigResolved) {
+                return projectCtx.getParserConfig();
+            }
+            ParserConfig parserConfig = projectCtx.getParserConfig();
+            if (parserConfig == null) {
+                parserConfig = ParserConfig.load(projectCtx);
+                if (parserConfig != null) {
+                    Log.info("Reusing saved parser configuration for project: " + projectCtx.getProjectPath() + " " + parserConfig);
+                }
+            }
+            if (parserConfig == null) {
+                ASTParser detected = researchParser.getParser(projectCtx.getProjectPath());
+                if (detected == null) {
+                    throw new ProjectDetectionException("Failed to get ASTParser from ResearchParser for project: " + projectCtx.getProjectPath());
+                }
+
+                // Print detected parser configuration (once per project)
+                if (Log.isDebugEnabled()) {
+                    try {
+                        Log.debug("DEBUG: Parser-core detected configuration for project: " + projectCtx.getProjectPath());
+                        Log.debug(researchParser.getDetectedParserConfigAsString(projectCtx.getProjectPath()));
+                    } catch (Exception e) {
+                        Log.debug("DEBUG: Failed to get/print parser-core config details: " + e.getMessage());
+                    }
+                }
+
+                parserConfig = ParserConfig.capture(detected, projectCtx.getProjectPath());
+                if (parserConfig != null) {
+                    parserConfig.save(projectCtx);
+                }
+            }
+            if (parserConfig != null) {
+                parserConfig.applyTo(projectCtx);
+                projectCtx.setParserConfig(parserConfig);
+            }
+            parserConfigResolved = true;
+            return parserConfig;
+        }
+    }
+
+    private ParseResult parseUncached(Path path) throws IOException, ProjectDetectionException {
+        String sourceCodeString = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        ASTParser parser = newParser();
+        long start = parseTimer.start();
 
         // Set the source code for the specific file to be parsed
         parser.setSource(sourceCodeString.toCharArray());
@@ -64,6 +203,7 @@ public class AstParserUtil {
         parser.setUnitName(path.toAbsolutePath().toString());
         
         CompilationUnit cu = (CompilationUnit) parser.createAST(null);
+        parseTimer.stop(start);
         return new ParseResult(cu, sourceCodeString);
     }
-} 
\ No newline at end of file
+}
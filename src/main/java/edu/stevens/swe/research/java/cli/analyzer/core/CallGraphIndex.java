@@ -0,0 +1,724 @@
+package edu.stevens.swe.research.java.cli.analyzer.core;
+
+import edu.stevens.swe.research.java.cli.analyzer.Log;
+import edu.stevens.swe.research.java.cli.analyzer.ProjectCtx;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Call graph of every analyzed test, persisted as one memory-mapped file so later runs and other tools
+ * can ask what a test reaches, or which tests reach a declaration, without parsing anything.
+ *
+ * Nodes are the methods statement sequences refer to, named by their rendered signature and sorted by
+ * name, so a node is found by binary search on the mapped file. Tests and the test utilities the DFS
+ * expands have outgoing edges in CSR form (one row-pointer array, one edge array); each edge carries the
+ * statement kind it was classified as and the line span of the call. Production methods are leaves, as
+ * their bodies are not expanded. Tests, test utilities and production methods carry their source span.
+ *
+ * The file is written by an {@link Update} at the end of a run and merged with the previous index: tests
+ * analyzed again replace their old entries, tests of files the run skipped are carried over, and tests
+ * of removed files disappear.
+ */
+public class CallGraphIndex {
+
+    public static final String FILE_NAME = "call-graph.idx";
+
+    private static final int MAGIC = 0x4A434749; // "JCGI"
+    private static final int VERSION = 1;
+    private static final int HEADER_INTS = 6; // magic, version, nodes, edges, strings, kinds
+    private static final int NODE_INTS = 4; // file, start line, end line, flags
+    private static final int EDGE_INTS = 4; // target, kind, start line, end line
+
+    public static final int TEST = 1; // A test method, root of a call graph
+    public static final int TEST_UTILITY = 1 << 1; // A test-source method the DFS expanded
+    public static final int PRODUCTION = 1 << 2; // A production method; its calls are not recorded
+    public static final int PARTIAL = 1 << 3; // Outgoing edges are incomplete: every expansion was truncated
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final int nodes;
+    private final int edges;
+    private final int strings;
+    private final int nodeBase;
+    private final int rowBase;
+    private final int edgeBase;
+    private final int stringOffsetBase;
+    private final int stringBase;
+    private final StatementSequence.Kind[] kinds;
+    private int[] reverseRows; // Callers in CSR form, built on the first reverse query
+    private int[] reverseEdges;
+
+    private CallGraphIndex(Path file, ByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_INTS * 4 || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a call graph index: " + file);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported call graph index version " + buffer.getInt(4) + ": " + file);
+        }
+        nodes = buffer.getInt(8);
+        edges = buffer.getInt(12);
+        strings = buffer.getInt(16);
+        int kindCount = buffer.getInt(20);
+        if (nodes < 0 || edges < 0 || strings < 0 || kindCount < 0) {
+            throw new IOException("Corrupt call graph index: " + file);
+        }
+        // Section offsets are computed in longs, so damaged counts cannot wrap around into the file
+        long[] bases = sectionBases(nodes, edges, kindCount, strings);
+        long stringData = bases[5];
+        if (stringData > buffer.capacity() || stringData + buffer.getInt((int) (bases[4] + strings * 4L)) != buffer.capacity()) {
+            throw new IOException("Truncated call graph index: " + file);
+        }
+        nodeBase = (int) bases[0];
+        rowBase = (int) bases[1];
+        edgeBase = (int) bases[2];
+        int kindBase = (int) bases[3];
+        stringOffsetBase = (int) bases[4];
+        stringBase = (int) stringData;
+        kinds = new StatementSequence.Kind[kindCount];
+        for (int i = 0; i < kindCount; i++) {
+            try {
+                kinds[i] = StatementSequence.Kind.valueOf(string(buffer.getInt(kindBase + i * 4)));
+            } catch (IllegalArgumentException e) {
+                kinds[i] = StatementSequence.Kind.RAW; // Written by a version with more kinds
+            }
+        }
+    }
+
+    /**
+     * Byte offsets of the node, row, edge, kind, string offset and string sections.
+     */
+    private static long[] sectionBases(long nodes, long edges, long kinds, long strings) {
+        long nodeBase = HEADER_INTS * 4L;
+        long rowBase = nodeBase + nodes * NODE_INTS * 4;
+        long edgeBase = rowBase + (nodes + 1) * 4;
+        long kindBase = edgeBase + edges * EDGE_INTS * 4;
+        long stringOffsetBase = kindBase + kinds * 4;
+        return new long[]{nodeBase, rowBase, edgeBase, kindBase, stringOffsetBase, stringOffsetBase + (strings + 1) * 4};
+    }
+
+    /**
+     * Maps an index file read-only.
+     */
+    public static CallGraphIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new CallGraphIndex(file, buffer);
+        }
+    }
+
+    /**
+     * Maps the project's index, or returns null if no run has written one yet.
+     */
+    public static CallGraphIndex load(ProjectCtx projectCtx) throws IOException {
+        Path file = projectCtx.getTempDir().resolve(FILE_NAME);
+        return Files.isRegularFile(file) ? open(file) : null;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int size() {
+        return nodes;
+    }
+
+    public int edgeCount() {
+        return edges;
+    }
+
+    /**
+     * The node with the given signature, e.g. {@code a.b.CalcTest.testAdd()}, or -1.
+     */
+    public int find(String signature) {
+        int low = 0;
+        int high = nodes - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = string(mid).compareTo(signature);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public String name(int node) {
+        return string(checkedNode(node));
+    }
+
+    /**
+     * Project-relative source file of the node, or null if it is not a project method.
+     */
+    public String file(int node) {
+        int file = nodeField(node, 0);
+        return file < 0 ? null : string(file);
+    }
+
+    public int startLine(int node) {
+        return nodeField(node, 1);
+    }
+
+    public int endLine(int node) {
+        return nodeField(node, 2);
+    }
+
+    public int flags(int node) {
+        return nodeField(node, 3);
+    }
+
+    public boolean isTest(int node) {
+        return (flags(node) & TEST) != 0;
+    }
+
+    /**
+     * First of the node's outgoing edges; they run up to {@link #edgeEnd(int)}, in call order.
+     */
+    public int edgeStart(int node) {
+        return buffer.getInt(rowBase + checkedNode(node) * 4);
+    }
+
+    public int edgeEnd(int node) {
+        return buffer.getInt(rowBase + (checkedNode(node) + 1) * 4);
+    }
+
+    public int target(int edge) {
+        return edgeField(edge, 0);
+    }
+
+    public StatementSequence.Kind kind(int edge) {
+        return kinds[edgeField(edge, 1)];
+    }
+
+    public int edgeStartLine(int edge) {
+        return edgeField(edge, 2);
+    }
+
+    public int edgeEndLine(int edge) {
+        return edgeField(edge, 3);
+    }
+
+    /**
+     * Every test node.
+     */
+    public BitSet tests() {
+        BitSet tests = new BitSet(nodes);
+        for (int node = 0; node < nodes; node++) {
+            if (isTest(node)) {
+                tests.set(node);
+            }
+        }
+        return tests;
+    }
+
+    /**
+     * Nodes reachable from the node, itself included.
+     */
+    public BitSet reachableFrom(int node) {
+        BitSet seen = new BitSet(nodes);
+        int[] queue = new int[16];
+        int head = 0;
+        int tail = 0;
+        seen.set(checkedNode(node));
+        queue[tail++] = node;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int edge = edgeStart(current), end = edgeEnd(current); edge < end; edge++) {
+                int next = target(edge);
+                if (!seen.get(next)) {
+                    seen.set(next);
+                    if (tail == queue.length) {
+                        queue = Arrays.copyOf(queue, tail * 2);
+                    }
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return seen;
+    }
+
+    /**
+     * Nodes declared in the file whose source span overlaps the given lines.
+     *
+     * @param file project-relative path with '/' separators
+     */
+    public BitSet declaredIn(String file, int startLine, int endLine) {
+        BitSet declared = new BitSet(nodes);
+        for (int node = 0; node < nodes; node++) {
+            if (startLine(node) <= endLine && endLine(node) >= startLine && file.equals(file(node))) {
+                declared.set(node);
+            }
+        }
+        return declared;
+    }
+
+    /**
+     * Tests from which any of the nodes is reachable, e.g. the tests affected by a change to them.
+     */
+    public BitSet testsReaching(BitSet targets) {
+        buildReverse();
+        BitSet seen = (BitSet) targets.clone();
+        Deque<Integer> queue = new ArrayDeque<>();
+        targets.stream().forEach(queue::add);
+        BitSet tests = new BitSet(nodes);
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            if (isTest(current)) {
+                tests.set(current);
+            }
+            for (int i = reverseRows[current]; i < reverseRows[current + 1]; i++) {
+                int caller = reverseEdges[i];
+                if (!seen.get(caller)) {
+                    seen.set(caller);
+                    queue.add(caller);
+                }
+            }
+        }
+        return tests;
+    }
+
+    private synchronized void buildReverse() {
+        if (reverseRows != null) {
+            return;
+        }
+        int[] rows = new int[nodes + 1];
+        for (int edge = 0; edge < edges; edge++) {
+            rows[target(edge) + 1]++;
+        }
+        for (int node = 0; node < nodes; node++) {
+            rows[node + 1] += rows[node];
+        }
+        int[] callers = new int[edges];
+        int[] fill = Arrays.copyOf(rows, nodes);
+        for (int node = 0; node < nodes; node++) {
+            for (int edge = edgeStart(node), end = edgeEnd(node); edge < end; edge++) {
+                callers[fill[target(edge)]++] = node;
+            }
+        }
+        reverseEdges = callers;
+        reverseRows = rows;
+    }
+
+    private int nodeField(int node, int field) {
+        return buffer.getInt(nodeBase + (checkedNode(node) * NODE_INTS + field) * 4);
+    }
+
+    private int edgeField(int edge, int field) {
+        if (edge < 0 || edge >= edges) {
+            throw new IndexOutOfBoundsException("Edge: " + edge + ", Edges: " + edges);
+        }
+        return buffer.getInt(edgeBase + (edge * EDGE_INTS + field) * 4);
+    }
+
+    private int checkedNode(int node) {
+        if (node < 0 || node >= nodes) {
+            throw new IndexOutOfBoundsException("Node: " + node + ", Nodes: " + nodes);
+        }
+        return node;
+    }
+
+    private String string(int index) {
+        int start = buffer.getInt(stringOffsetBase + index * 4);
+        int end = buffer.getInt(stringOffsetBase + (index + 1) * 4);
+        byte[] bytes = new byte[end - start];
+        buffer.get(stringBase + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Opens an update of the project's index for one run. The previous index is read, never modified.
+     */
+    public static Update update(ProjectCtx projectCtx) {
+        Path file = projectCtx.getTempDir().resolve(FILE_NAME);
+        CallGraphIndex previous = null;
+        try {
+            previous = load(projectCtx);
+        } catch (IOException e) {
+            Log.warn("Warning: Ignoring unreadable call graph index " + file + ": " + e.getMessage());
+        }
+        return new Update(projectCtx.getProjectPath(), file, previous);
+    }
+
+    /**
+     * One outgoing edge while the graph is built.
+     */
+    static final class Edge {
+        final String target;
+        final StatementSequence.Kind kind;
+        final int startLine;
+        final int endLine;
+
+        Edge(String target, StatementSequence.Kind kind, int startLine, int endLine) {
+            this.target = target;
+            this.kind = kind;
+            this.startLine = startLine;
+            this.endLine = endLine;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Edge)) return false;
+            Edge other = (Edge) o;
+            return target.equals(other.target) && kind == other.kind && startLine == other.startLine && endLine == other.endLine;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(target, kind, startLine, endLine);
+        }
+    }
+
+    /**
+     * One node while the graph is built.
+     */
+    static final class Node {
+        String file;
+        int startLine;
+        int endLine;
+        int flags;
+        boolean expanded; // At least one complete expansion contributed its edges
+        final Set<Edge> edges = new LinkedHashSet<>();
+
+        synchronized void declare(String file, int startLine, int endLine, int flags) {
+            if (file != null && this.file == null) {
+                this.file = file;
+                this.startLine = startLine;
+                this.endLine = endLine;
+            }
+            this.flags |= flags;
+        }
+
+        synchronized void addEdges(List<Edge> calls, boolean complete) {
+            edges.addAll(calls); // Every expansion of a body yields the same calls, or a prefix of them
+            expanded |= complete;
+        }
+    }
+
+    /**
+     * Collects the call graphs of the tests analyzed in one run and writes the merged index. Thread-safe.
+     */
+    public static class Update {
+        private final Path projectPath;
+        private final Path file;
+        private final CallGraphIndex previous;
+        private final Map<String, Node> nodes = new ConcurrentHashMap<>();
+        private final Set<String> analyzedFiles = ConcurrentHashMap.newKeySet();
+        private final Map<String, int[]> keptTests = new ConcurrentHashMap<>(); // signature -> current span
+
+        Update(Path projectPath, Path file, CallGraphIndex previous) {
+            this.projectPath = projectPath.toAbsolutePath().normalize();
+            this.file = file;
+            this.previous = previous;
+        }
+
+        /**
+         * Marks a test file as analyzed in this run; its tests from the previous index are dropped unless
+         * recorded again or kept.
+         */
+        public void recordFile(Path testFile) {
+            analyzedFiles.add(relativize(testFile));
+        }
+
+        /**
+         * Keeps a test the run did not analyze again, at its current position, with its previous call graph.
+         *
+         * @param signature the test's rendered signature, as recorded by {@link #recordTest}
+         */
+        public void keepTest(String signature, int startLine, int endLine) {
+            keptTests.put(signature, new int[]{startLine, endLine});
+        }
+
+        /**
+         * Adds the call graph of an analyzed test, rebuilt from its statement sequence: the statements one
+         * level deeper that precede a statement are the body of the method it calls.
+         */
+        public void recordTest(Path testFile, int startLine, int endLine, TestCaseAnalyzer.AnalysisResult result) {
+            StatementSequence statements = result.getStatements();
+            Map<Integer, String> declarations = result.getDeclarations();
+            List<List<Integer>> pending = new ArrayList<>(); // Statements per depth whose caller is not known yet
+            for (int i = 0; i < statements.size(); i++) {
+                int depth = statements.depth(i);
+                while (pending.size() <= depth + 1) {
+                    pending.add(new ArrayList<>());
+                }
+                StatementSequence.Kind kind = statements.kind(i);
+                if (kind == StatementSequence.Kind.RAW || isMarker(kind)) {
+                    pending.get(depth).add(i); // Markers stay in their caller's body to flag it as incomplete
+                    continue;
+                }
+                Node callee = node(statements.payload(i));
+                int flags = flagsOf(kind);
+                String declaration = flags != 0 ? declarations.get(statements.symbol(i)) : null;
+                if (declaration != null) {
+                    int separator = declaration.lastIndexOf('#');
+                    int dash = declaration.indexOf('-', separator);
+                    callee.declare(relativize(Path.of(declaration.substring(0, separator))),
+                            Integer.parseInt(declaration.substring(separator + 1, dash)), Integer.parseInt(declaration.substring(dash + 1)), flags);
+                } else {
+                    callee.declare(null, 0, 0, flags);
+                }
+                List<Integer> body = pending.get(depth + 1);
+                if ((flags & TEST_UTILITY) != 0) {
+                    addBody(callee, statements, body);
+                }
+                body.clear();
+                pending.get(depth).add(i);
+            }
+            Node test = node(result.getEntrySignature());
+            test.declare(relativize(testFile), startLine, endLine, TEST);
+            addBody(test, statements, pending.isEmpty() ? List.of() : pending.get(0));
+        }
+
+        private void addBody(Node caller, StatementSequence statements, List<Integer> body) {
+            List<Edge> calls = new ArrayList<>(body.size());
+            boolean complete = true;
+            for (int i : body) {
+                StatementSequence.Kind kind = statements.kind(i);
+                if (isMarker(kind)) {
+                    complete = false; // The expansion was cut short here
+                } else if (kind != StatementSequence.Kind.RAW) {
+                    calls.add(new Edge(statements.payload(i), kind, statements.startLine(i), statements.endLine(i)));
+                }
+            }
+            caller.addEdges(calls, complete);
+        }
+
+        private Node node(String name) {
+            return nodes.computeIfAbsent(name, k -> new Node());
+        }
+
+        /**
+         * Merges this run into the previous index and replaces the file. Returns the written index.
+         */
+        public CallGraphIndex save() throws IOException {
+            Map<String, Node> merged = new HashMap<>(nodes);
+            if (previous != null) {
+                carryOver(merged);
+            }
+            for (Node node : merged.values()) {
+                if ((node.flags & (TEST | TEST_UTILITY)) != 0 && !node.expanded) {
+                    node.flags |= PARTIAL;
+                }
+            }
+            write(merged);
+            return open(file);
+        }
+
+        /**
+         * Copies the previous tests this run kept or did not reach, and whatever they reach that this run
+         * did not expand, into the merged graph.
+         */
+        private void carryOver(Map<String, Node> merged) {
+            Deque<Integer> queue = new ArrayDeque<>();
+            BitSet seen = new BitSet(previous.size());
+            BitSet tests = previous.tests();
+            for (int test = tests.nextSetBit(0); test >= 0; test = tests.nextSetBit(test + 1)) {
+                String name = previous.name(test);
+                Node current = nodes.get(name);
+                if (current != null && (current.flags & TEST) != 0) {
+                    continue; // Analyzed again
+                }
+                String testFile = previous.file(test);
+                int[] span = keptTests.get(name);
+                if (span == null && (analyzedFiles.contains(testFile) || !Files.isRegularFile(projectPath.resolve(testFile)))) {
+                    continue; // Removed from its file, or the file is gone
+                }
+                Node kept = copy(test, merged);
+                if (span != null) {
+                    kept.startLine = span[0];
+                    kept.endLine = span[1];
+                }
+                seen.set(test);
+                queue.add(test);
+            }
+            while (!queue.isEmpty()) {
+                int caller = queue.poll();
+                for (int edge = previous.edgeStart(caller), end = previous.edgeEnd(caller); edge < end; edge++) {
+                    int callee = previous.target(edge);
+                    if (seen.get(callee)) {
+                        continue;
+                    }
+                    seen.set(callee);
+                    Node current = merged.get(previous.name(callee));
+                    if (current == null || !current.expanded) {
+                        copy(callee, merged);
+                        queue.add(callee); // Its calls come from the previous index too
+                    }
+                }
+            }
+        }
+
+        private Node copy(int node, Map<String, Node> merged) {
+            Node copy = merged.computeIfAbsent(previous.name(node), k -> new Node());
+            copy.declare(previous.file(node), previous.startLine(node), previous.endLine(node), previous.flags(node) & ~PARTIAL);
+            if (!copy.expanded) {
+                List<Edge> calls = new ArrayList<>();
+                for (int edge = previous.edgeStart(node), end = previous.edgeEnd(node); edge < end; edge++) {
+                    calls.add(new Edge(previous.name(previous.target(edge)), previous.kind(edge),
+                            previous.edgeStartLine(edge), previous.edgeEndLine(edge)));
+                }
+                copy.addEdges(calls, (previous.flags(node) & PARTIAL) == 0);
+            }
+            return copy;
+        }
+
+        private void write(Map<String, Node> merged) throws IOException {
+            List<String> names = new ArrayList<>(merged.keySet());
+            names.sort(null);
+            Map<String, Integer> ids = new HashMap<>();
+            for (String name : names) {
+                ids.put(name, ids.size());
+            }
+            List<String> strings = new ArrayList<>(names);
+            Map<String, Integer> stringIds = new HashMap<>(ids);
+            Map<StatementSequence.Kind, Integer> kindIds = new LinkedHashMap<>();
+            long edgeCount = 0;
+            for (String name : names) {
+                Node node = merged.get(name);
+                if (node.file != null) {
+                    stringIds.computeIfAbsent(node.file, k -> { strings.add(k); return strings.size() - 1; });
+                }
+                for (Edge edge : node.edges) {
+                    kindIds.computeIfAbsent(edge.kind, k -> kindIds.size());
+                }
+                edgeCount += node.edges.size();
+            }
+            List<Integer> kindStrings = new ArrayList<>();
+            for (StatementSequence.Kind kind : kindIds.keySet()) {
+                kindStrings.add(stringIds.computeIfAbsent(kind.name(), k -> { strings.add(k); return strings.size() - 1; }));
+            }
+            List<byte[]> encoded = new ArrayList<>(strings.size());
+            long stringBytes = 0;
+            for (String string : strings) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                encoded.add(bytes);
+                stringBytes += bytes.length;
+            }
+            long size = sectionBases(names.size(), edgeCount, kindIds.size(), strings.size())[5] + stringBytes;
+            if (size > Integer.MAX_VALUE) { // Offsets in the file and in the mapped buffer are ints
+                throw new IOException(String.format("Call graph of %d nodes and %d edges exceeds the %d byte index limit",
+                        names.size(), edgeCount, Integer.MAX_VALUE));
+            }
+
+            Files.createDirectories(file.getParent());
+            Path temporary = Files.createTempFile(file.getParent(), FILE_NAME, ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    out.writeInt(names.size());
+                    out.writeInt((int) edgeCount);
+                    out.writeInt(strings.size());
+                    out.writeInt(kindIds.size());
+                    for (String name : names) {
+                        Node node = merged.get(name);
+                        out.writeInt(node.file != null ? stringIds.get(node.file) : -1);
+                        out.writeInt(node.startLine);
+                        out.writeInt(node.endLine);
+                        out.writeInt(node.flags);
+                    }
+                    int row = 0;
+                    out.writeInt(row);
+                    for (String name : names) {
+                        row += merged.get(name).edges.size();
+                        out.writeInt(row);
+                    }
+                    for (String name : names) {
+                        for (Edge edge : merged.get(name).edges) {
+                            Integer target = ids.get(edge.target);
+                            if (target == null) { // Not expanded and not recorded: only possible for a damaged previous index
+                                throw new IOException("Call graph edge to unknown node " + edge.target);
+                            }
+                            out.writeInt(target);
+                            out.writeInt(kindIds.get(edge.kind));
+                            out.writeInt(edge.startLine);
+                            out.writeInt(edge.endLine);
+                        }
+                    }
+                    for (int kindString : kindStrings) {
+                        out.writeInt(kindString);
+                    }
+                    int offset = 0;
+                    out.writeInt(offset);
+                    for (byte[] bytes : encoded) {
+                        offset += bytes.length;
+                        out.writeInt(offset);
+                    }
+                    for (byte[] bytes : encoded) {
+                        out.write(bytes);
+                    }
+                }
+                try {
+                    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        }
+
+        private String relativize(Path path) {
+            Path absolute = path.toAbsolutePath().normalize();
+            Path relative = absolute.startsWith(projectPath) ? projectPath.relativize(absolute) : absolute;
+            return relative.toString().replace('\\', '/');
+        }
+    }
+
+    private static int flagsOf(StatementSequence.Kind kind) {
+        switch (kind) {
+            case PRODUCTION:
+            case GET:
+            case SET:
+                return PRODUCTION;
+            case TEST:
+            case TEST_GET:
+            case TEST_SET:
+                return TEST_UTILITY;
+            default:
+                return 0;
+        }
+    }
+
+    private static boolean isMarker(StatementSequence.Kind kind) {
+        switch (kind) {
+            case CYCLE:
+            case TRUNCATED_DEPTH:
+            case TRUNCATED_BUDGET:
+            case TRUNCATED_TIMEOUT:
+            case TRUNCATED_CANCELLED:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package edu.stevens.swe.research.java.cli.analyzer.core;
+
+import edu.stevens.swe.research.java.parser.core.utils.exceptions.ProjectDetectionException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, thread-safe cache of binding-resolved compilation units.
+ * Entries are keyed by absolute path and validated against the file's modification time;
+ * eviction is least-recently-used, weighted by source length so a few huge files cannot pin the heap.
+ * Concurrent requests for the same file share a single parse.
+ *
+ * Cached ASTs are only read after construction. JDT's binding resolver is internally synchronized,
+ * so a cached unit can be traversed and resolved from several worker threads.
+ */
+public class CompilationUnitCache {
+
+    // Default budget in source characters; a resolved AST typically costs 20-40x its source size
+    public static final long DEFAULT_MAX_WEIGHT = 8L * 1024 * 1024;
+
+    // Heap bytes assumed per cached source character, at the upper end of the range above
+    private static final long BYTES_PER_SOURCE_CHAR = 40;
+
+    /**
+     * Parses a file on a cache miss.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        AstParserUtil.ParseResult load() throws IOException, ProjectDetectionException;
+    }
+
+    private static class Entry {
+        final long lastModified;
+        final AstParserUtil.ParseResult result;
+        final long weight;
+
+        Entry(long lastModified, AstParserUtil.ParseResult result) {
+            this.lastModified = lastModified;
+            this.result = result;
+            this.weight = Math.max(1, result.originalSource.length());
+        }
+    }
+
+    private final long maxWeight;
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(64, 0.75f, true); // access order
+    private final Map<Path, FutureTask<AstParserUtil.ParseResult>> inFlight = new ConcurrentHashMap<>();
+    private long currentWeight = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public CompilationUnitCache() {
+        this(DEFAULT_MAX_WEIGHT);
+    }
+
+    public CompilationUnitCache(long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Budget in source characters whose resolved ASTs fit into the given number of heap bytes.
+     */
+    public static long weightForHeapBytes(long heapBytes) {
+        return Math.max(0, heapBytes / BYTES_PER_SOURCE_CHAR);
+    }
+
+    /**
+     * Returns the cached parse result for the file if it is still current, otherwise parses it with the loader.
+     */
+    public AstParserUtil.ParseResult get(Path path, Loader loader) throws IOException, ProjectDetectionException {
+        Path key = path.toAbsolutePath().normalize();
+        long lastModified = Files.getLastModifiedTime(key).toMillis();
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.lastModified == lastModified) {
+                    hits.incrementAndGet();
+                    return entry.result;
+                }
+                // Stale entry: the file changed since it was parsed
+                entries.remove(key);
+                currentWeight -= entry.weight;
+            }
+        }
+
+        FutureTask<AstParserUtil.ParseResult> task = new FutureTask<>(loader::load);
+        FutureTask<AstParserUtil.ParseResult> existing = inFlight.putIfAbsent(key, task);
+        if (existing != null) {
+            // Another worker is already parsing this file
+            hits.incrementAndGet();
+            return await(existing);
+        }
+
+        misses.incrementAndGet();
+        try {
+            task.run();
+            AstParserUtil.ParseResult result = await(task);
+            if (result.compilationUnit != null) {
+                put(key, new Entry(lastModified, result));
+            }
+            return result;
+        } finally {
+            inFlight.remove(key, task);
+        }
+    }
+
+    /**
+     * Adds a unit that was parsed elsewhere (e.g. by a batch parse) so later lookups can reuse it.
+     */
+    public void offer(Path path, AstParserUtil.ParseResult result) throws IOException {
+        if (result.compilationUnit == null) {
+            return;
+        }
+        Path key = path.toAbsolutePath().normalize();
+        put(key, new Entry(Files.getLastModifiedTime(key).toMillis(), result));
+    }
+
+    private synchronized void put(Path key, Entry entry) {
+        if (maxWeight <= 0 || entry.weight > maxWeight) {
+            return; // Cache disabled or file larger than the whole budget
+        }
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            currentWeight -= previous.weight;
+        }
+        currentWeight += entry.weight;
+
+        Iterator<Map.Entry<Path, Entry>> eldest = entries.entrySet().iterator();
+        while (currentWeight > maxWeight && eldest.hasNext()) {
+            Map.Entry<Path, Entry> victim = eldest.next();
+            if (victim.getKey().equals(key)) {
+                continue;
+            }
+            currentWeight -= victim.getValue().weight;
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static AstParserUtil.ParseResult await(FutureTask<AstParserUtil.ParseResult> task) throws IOException, ProjectDetectionException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for parse", e);
+        } catch (CancellationException e) {
+            throw new IOException("Parse was cancelled", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof ProjectDetectionException) {
+                throw (ProjectDetectionException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Drops the cached unit of one file, e.g. once all tests declared in it have been emitted.
+     */
+    public synchronized void invalidate(Path path) {
+        Entry entry = entries.remove(path.toAbsolutePath().normalize());
+        if (entry != null) {
+            currentWeight -= entry.weight;
+        }
+    }
+
+    /**
+     * Drops all cached units, e.g. when the caller wants their memory back.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        currentWeight = 0;
+    }
+
+    public long getHits() { return hits.get(); }
+
+    public long getMisses() { return misses.get(); }
+
+    public long getEvictions() { return evictions.get(); }
+
+    public synchronized int size() { return entries.size(); }
+
+    public synchronized long getCurrentWeight() { return currentWeight; }
+
+    public long getMaxWeight() { return maxWeight; }
+}
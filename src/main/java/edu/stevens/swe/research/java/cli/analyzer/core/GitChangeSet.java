@@ -0,0 +1,242 @@
+package edu.stevens.swe.research.java.cli.analyzer.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Changed line ranges of the Java files in a git revision range, read from {@code git diff -U0} of the
+ * local repository. Paths are relative to the project directory. Changes are matched on the new side of
+ * the diff, where the current parse sees them; line spans recorded by an earlier run (old side) are first
+ * followed through the hunks to their new-side position with {@link #toNewLine}.
+ */
+public class GitChangeSet {
+
+    private static final Pattern HUNK_HEADER = Pattern.compile("^@@ -(\\d+)(?:,(\\d+))? \\+(\\d+)(?:,(\\d+))? @@");
+
+    private final String range;
+    private final Map<String, List<int[]>> oldRanges = new HashMap<>();
+    private final Map<String, List<int[]>> newRanges = new HashMap<>();
+    private final Map<String, List<int[]>> hunks = new HashMap<>(); // old path -> {oldStart, oldCount, newStart, newCount}
+    private final Map<String, String> newPaths = new HashMap<>(); // old path -> new path, null if deleted
+
+    private GitChangeSet(String range) {
+        this.range = range;
+    }
+
+    /**
+     * Runs git in the project directory. The range is passed to {@code git diff} unchanged, so
+     * {@code A..B} compares two revisions and a single revision compares it with the working tree.
+     */
+    public static GitChangeSet compute(Path projectPath, String range) throws IOException {
+        List<String> command = Arrays.asList("git", "-c", "core.quotepath=off", "diff", "-U0", "--no-color", "--no-ext-diff",
+                "--relative", range, "--", "*.java");
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .directory(projectPath.toFile())
+                .redirectError(ProcessBuilder.Redirect.INHERIT);
+        Process process = builder.start();
+
+        GitChangeSet changes;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            changes = parse(range, reader);
+        }
+        try {
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw new IOException("git diff " + range + " failed with exit code " + exitCode);
+            }
+        } catch (InterruptedException e) {
+            process.destroy();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running git diff " + range, e);
+        }
+        return changes;
+    }
+
+    /**
+     * Reads {@code git diff -U0} output. File headers are only recognized between hunks; inside a hunk the
+     * line counts of its header decide which lines belong to it, so removed or added content that starts
+     * with {@code --} or {@code ++} is not mistaken for a header.
+     */
+    static GitChangeSet parse(String range, BufferedReader reader) throws IOException {
+        GitChangeSet changes = new GitChangeSet(range);
+        String oldPath = null;
+        String newPath = null;
+        int oldRemaining = 0;
+        int newRemaining = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (oldRemaining > 0 || newRemaining > 0) {
+                if (line.startsWith("-")) {
+                    oldRemaining--;
+                } else if (line.startsWith("+")) {
+                    newRemaining--;
+                } else if (line.startsWith(" ")) {
+                    oldRemaining--;
+                    newRemaining--;
+                }
+                // "\ No newline at end of file" belongs to the hunk but counts for neither side
+                continue;
+            }
+            if (line.startsWith("diff ")) {
+                oldPath = null;
+                newPath = null;
+            } else if (line.startsWith("rename from ")) {
+                // A rename without content changes has no ---/+++ lines
+                oldPath = line.substring("rename from ".length());
+            } else if (line.startsWith("rename to ") && oldPath != null) {
+                changes.newPaths.put(oldPath, line.substring("rename to ".length()));
+            } else if (line.startsWith("--- ")) {
+                oldPath = stripPrefix(line.substring(4));
+            } else if (line.startsWith("+++ ")) {
+                newPath = stripPrefix(line.substring(4));
+                if (oldPath != null) {
+                    changes.newPaths.put(oldPath, newPath);
+                }
+            } else if (line.startsWith("@@")) {
+                Matcher matcher = HUNK_HEADER.matcher(line);
+                if (!matcher.find()) {
+                    continue;
+                }
+                int oldStart = Integer.parseInt(matcher.group(1));
+                int oldCount = matcher.group(2) != null ? Integer.parseInt(matcher.group(2)) : 1;
+                int newStart = Integer.parseInt(matcher.group(3));
+                int newCount = matcher.group(4) != null ? Integer.parseInt(matcher.group(4)) : 1;
+                if (oldPath != null) {
+                    addRange(changes.oldRanges, oldPath, oldStart, oldCount);
+                    changes.hunks.computeIfAbsent(oldPath, k -> new ArrayList<>()).add(new int[]{oldStart, oldCount, newStart, newCount});
+                }
+                if (newPath != null) {
+                    addRange(changes.newRanges, newPath, newStart, newCount);
+                }
+                oldRemaining = oldCount;
+                newRemaining = newCount;
+            }
+        }
+        return changes;
+    }
+
+    private static String stripPrefix(String path) {
+        if (path.equals("/dev/null")) {
+            return null;
+        }
+        return path.startsWith("a/") || path.startsWith("b/") ? path.substring(2) : path;
+    }
+
+    private static void addRange(Map<String, List<int[]>> ranges, String path, int start, int count) {
+        // A pure insertion or deletion has count 0 and sits between line start and start + 1
+        int[] lines = count == 0 ? new int[]{Math.max(1, start), start + 1} : new int[]{start, start + count - 1};
+        ranges.computeIfAbsent(path, k -> new ArrayList<>()).add(lines);
+    }
+
+    /**
+     * True if the file (project-relative, '/'-separated) was changed, added or deleted.
+     */
+    public boolean isChanged(String path) {
+        return oldRanges.containsKey(path) || newRanges.containsKey(path) || newPaths.containsKey(path);
+    }
+
+    /**
+     * True if lines start..end (inclusive) of the new version of the file were changed.
+     */
+    public boolean touchesNew(String path, int start, int end) {
+        return overlaps(newRanges.get(path), start, end);
+    }
+
+    /**
+     * True if lines start..end of the old version of the file, followed to the new version, overlap a
+     * new-side change, or if the file was deleted or renamed.
+     */
+    public boolean touchesOld(String path, int start, int end) {
+        if (!isChanged(path)) {
+            return false;
+        }
+        if (!path.equals(newPaths.get(path))) {
+            return true;
+        }
+        return touchesNew(path, toNewLine(path, start), toNewLine(path, end));
+    }
+
+    /**
+     * Position in the new version of the file of an old-side line. Lines inside a changed hunk map to the
+     * start of the hunk's new side.
+     */
+    public int toNewLine(String path, int oldLine) {
+        List<int[]> fileHunks = hunks.get(path);
+        if (fileHunks == null) {
+            return oldLine;
+        }
+        int shift = 0;
+        for (int[] hunk : fileHunks) {
+            int oldStart = hunk[0], oldCount = hunk[1], newStart = hunk[2], newCount = hunk[3];
+            // With a count of 0 the start is the line before the insertion or deletion point
+            int oldNext = oldCount == 0 ? oldStart + 1 : oldStart + oldCount;
+            int newNext = newCount == 0 ? newStart + 1 : newStart + newCount;
+            if (oldLine < (oldCount == 0 ? oldNext : oldStart)) {
+                break;
+            }
+            if (oldLine < oldNext) {
+                return Math.max(1, newStart);
+            }
+            shift = newNext - oldNext;
+        }
+        return oldLine + shift;
+    }
+
+    /**
+     * True if some new-side change of the file lies outside all of the given line spans.
+     */
+    public boolean hasChangesOutside(String path, List<int[]> spans) {
+        List<int[]> changed = newRanges.get(path);
+        if (changed == null) {
+            return false;
+        }
+        for (int[] lines : changed) {
+            boolean covered = false;
+            for (int[] span : spans) {
+                if (span[0] <= lines[0] && lines[1] <= span[1]) {
+                    covered = true;
+                    break;
+                }
+            }
+            if (!covered) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean overlaps(List<int[]> ranges, int start, int end) {
+        if (ranges == null) {
+            return false;
+        }
+        for (int[] lines : ranges) {
+            if (lines[0] <= end && start <= lines[1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getChangedFileCount() {
+        Set<String> files = new HashSet<>(oldRanges.keySet());
+        files.addAll(newRanges.keySet());
+        files.addAll(newPaths.keySet());
+        return files.size();
+    }
+
+    public String getRange() {
+        return range;
+    }
+}
@@ -0,0 +1,330 @@
+package edu.stevens.swe.research.java.cli.analyzer.core;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Memo table of fully expanded test-utility methods, shared by all test cases of a run.
+ * When many tests call the same helper, its DFS expansion (statement subsequence and the production
+ * implementations it reaches) is computed once and replayed at each caller's depth.
+ *
+ * Summaries are keyed by the method's binding key and remember the modification times of every source
+ * file the expansion read. Sources are taken to be stable while a run lasts: each file is stat'ed at most
+ * once per run, and a summary is checked against those stamps the first time a run uses it, so lookups
+ * after that cost no file system access. A summary is discarded once one of its files has changed.
+ * Expansions that were cut short by a per-test budget or a call cycle depend on the caller's state and
+ * are never stored.
+ *
+ * The table is bounded: eviction is least-recently-used, weighted by the estimated heap size of each
+ * summary, so a long-lived context (e.g. one kept warm by the daemon) does not grow without limit.
+ */
+public class MethodSummaryCache {
+
+    // Default budget in estimated heap bytes of the stored summaries
+    public static final long DEFAULT_MAX_WEIGHT = 64L * 1024 * 1024;
+
+    /**
+     * Expansion of one method body, with statement indentation relative to the method's own depth.
+     */
+    public static class MethodSummary {
+        final StatementSequence statements; // Depths relative to the method
+        final List<String> productionImplementations;
+        final Set<String> invokedSignatures;
+        final List<String> dependencyFiles;
+        final List<String> expandedMethods;
+        final Map<Integer, String> declarations; // Locations of the methods the statements refer to
+        final Map<String, Long> fileStamps;
+        final List<String> expansionKeys; // Test-utility bodies expanded, the method itself first
+        final List<Integer> expansionLevels; // Depth of each of them relative to the method
+        final Set<String> expansionKeySet;
+        final int depth; // Deepest relative expansion level
+        final long weight; // Estimated heap bytes
+        volatile int validatedRun; // Last run in which the file stamps were checked
+
+        MethodSummary(StatementSequence statements, List<String> productionImplementations, Set<String> invokedSignatures,
+                      List<String> dependencyFiles, List<String> expandedMethods, Map<Integer, String> declarations,
+                      Map<String, Long> fileStamps, List<String> expansionKeys, List<Integer> expansionLevels) {
+            this.statements = statements;
+            this.productionImplementations = productionImplementations;
+            this.invokedSignatures = invokedSignatures;
+            this.dependencyFiles = dependencyFiles;
+            this.expandedMethods = expandedMethods;
+            this.declarations = declarations;
+            this.fileStamps = fileStamps;
+            this.expansionKeys = expansionKeys;
+            this.expansionLevels = expansionLevels;
+            this.expansionKeySet = new HashSet<>(expansionKeys);
+            int deepest = 0;
+            for (int expansionLevel : expansionLevels) {
+                deepest = Math.max(deepest, expansionLevel);
+            }
+            this.depth = deepest;
+            long estimate = 256 + 24L * statements.size();
+            for (String implementation : productionImplementations) {
+                estimate += 40 + 2L * implementation.length();
+            }
+            this.weight = estimate;
+        }
+
+        /**
+         * True if replaying this summary for the given entry test would differ from a fresh expansion:
+         * the expansion calls the entry method, which a fresh DFS reports as RECURSIVE_TO_ENTRY.
+         */
+        public boolean dependsOnEntry(String entryMethodSignature) {
+            return invokedSignatures.contains(entryMethodSignature);
+        }
+
+        /**
+         * True if replaying this summary at the given depth would differ from a fresh expansion: it would
+         * exceed the per-test depth or expansion budget, or expand a method the caller is already inside.
+         *
+         * @param maxDepth deepest level that may be expanded, 0 for no limit
+         * @param maxExpansions test-utility bodies a test may expand, 0 for no limit
+         */
+        public boolean exceeds(TestCaseAnalyzer.AnalysisResult result, int level, int maxDepth, int maxExpansions) {
+            if (maxDepth > 0 && level + depth > maxDepth) {
+                return true;
+            }
+            if (maxExpansions > 0 && result.expansionKeyLog.size() + expansionKeys.size() > maxExpansions) {
+                return true;
+            }
+            for (String key : result.expansionPath) {
+                if (expansionKeySet.contains(key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Appends this expansion to the result, indented for the given depth.
+         */
+        public void replay(TestCaseAnalyzer.AnalysisResult result, int level) {
+            result.statements.appendFrom(statements, 0, statements.size(), level);
+            result.productionFunctionImplementations.addAll(productionImplementations);
+            result.invokedSignatureLog.addAll(invokedSignatures);
+            result.dependencyLog.addAll(dependencyFiles);
+            result.expandedMethodLog.addAll(expandedMethods);
+            result.declarationLog.putAll(declarations);
+            result.expansionKeyLog.addAll(expansionKeys);
+            for (int expansionLevel : expansionLevels) {
+                result.expansionLevelLog.add(level + expansionLevel);
+            }
+        }
+
+        boolean isCurrent(MethodSummaryCache cache) {
+            for (Map.Entry<String, Long> stamp : fileStamps.entrySet()) {
+                if (cache.stamp(stamp.getKey()) != stamp.getValue()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Positions in an AnalysisResult where the expansion of a method started.
+     */
+    public static class Mark {
+        final int statementStart;
+        final int implementationStart;
+        final int invokedStart;
+        final int dependencyStart;
+        final int expandedStart;
+        final int expansionStart;
+        final int truncationStart;
+
+        Mark(TestCaseAnalyzer.AnalysisResult result) {
+            this.statementStart = result.statements.size();
+            this.implementationStart = result.productionFunctionImplementations.size();
+            this.invokedStart = result.invokedSignatureLog.size();
+            this.dependencyStart = result.dependencyLog.size();
+            this.expandedStart = result.expandedMethodLog.size();
+            this.expansionStart = result.expansionKeyLog.size();
+            this.truncationStart = result.truncationLog.size();
+        }
+    }
+
+    private static final long MISSING_FILE = Long.MIN_VALUE;
+
+    private final long maxWeight;
+    private final LinkedHashMap<String, MethodSummary> summaries = new LinkedHashMap<>(64, 0.75f, true); // access order
+    private long currentWeight = 0;
+    private volatile int run = 0;
+    private final Map<String, Long> runStamps = new ConcurrentHashMap<>(); // File modification times seen this run
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public MethodSummaryCache() {
+        this(DEFAULT_MAX_WEIGHT);
+    }
+
+    public MethodSummaryCache(long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Starts another run over the same sources: every summary is checked against the files once more
+     * before it is used again.
+     */
+    public void beginRun() {
+        runStamps.clear();
+        run++;
+    }
+
+    public Mark mark(TestCaseAnalyzer.AnalysisResult result) {
+        return new Mark(result);
+    }
+
+    /**
+     * Returns the summary for the method if one exists and all files it was derived from are unchanged.
+     */
+    public MethodSummary get(String bindingKey) {
+        MethodSummary summary;
+        synchronized (this) {
+            summary = summaries.get(bindingKey);
+        }
+        int currentRun = run;
+        if (summary != null && summary.validatedRun != currentRun) {
+            if (summary.isCurrent(this)) {
+                summary.validatedRun = currentRun;
+            } else {
+                remove(bindingKey, summary);
+                summary = null;
+            }
+        }
+        if (summary == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return summary;
+    }
+
+    /**
+     * Modification time of the file as first seen in this run.
+     */
+    private long stamp(String file) {
+        return runStamps.computeIfAbsent(file, f -> {
+            try {
+                return Files.getLastModifiedTime(Paths.get(f)).toMillis();
+            } catch (IOException e) {
+                return MISSING_FILE;
+            }
+        });
+    }
+
+    private synchronized void put(String bindingKey, MethodSummary summary) {
+        if (summary.weight > maxWeight) {
+            return; // Cache disabled or summary larger than the whole budget
+        }
+        MethodSummary previous = summaries.put(bindingKey, summary);
+        if (previous != null) {
+            currentWeight -= previous.weight;
+        }
+        currentWeight += summary.weight;
+
+        Iterator<Map.Entry<String, MethodSummary>> eldest = summaries.entrySet().iterator();
+        while (currentWeight > maxWeight && eldest.hasNext()) {
+            Map.Entry<String, MethodSummary> victim = eldest.next();
+            if (victim.getKey().equals(bindingKey)) {
+                continue;
+            }
+            currentWeight -= victim.getValue().weight;
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private synchronized void remove(String bindingKey, MethodSummary summary) {
+        if (summaries.get(bindingKey) == summary) {
+            summaries.remove(bindingKey);
+            currentWeight -= summary.weight;
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records everything the result gained since the mark as the expansion of the method.
+     *
+     * @param level the method's own depth
+     * @param ownSourceFile the file declaring the method, which the summary also depends on
+     * @param entryMethodSignature the test being analyzed; expansions that call it are specific to it and not stored
+     * @return the summary, or null if the expansion was truncated or cannot be validated later
+     */
+    public MethodSummary capture(String bindingKey, TestCaseAnalyzer.AnalysisResult result, Mark mark, int level,
+                                 String ownSourceFile, String entryMethodSignature) {
+        if (result.truncationLog.size() > mark.truncationStart || result.stopped) {
+            return null;
+        }
+        StatementSequence statements = result.statements.slice(mark.statementStart, result.statements.size(), -level);
+        List<String> implementations = new ArrayList<>(
+                result.productionFunctionImplementations.subList(mark.implementationStart, result.productionFunctionImplementations.size()));
+        Set<String> invoked = new HashSet<>(result.invokedSignatureLog.subList(mark.invokedStart, result.invokedSignatureLog.size()));
+        List<String> dependencies = new ArrayList<>(new HashSet<>(result.dependencyLog.subList(mark.dependencyStart, result.dependencyLog.size())));
+        List<String> expanded = new ArrayList<>(new HashSet<>(result.expandedMethodLog.subList(mark.expandedStart, result.expandedMethodLog.size())));
+
+        Map<Integer, String> declarations = new HashMap<>();
+        for (int i = 0; i < statements.size(); i++) {
+            String declaration = result.declarationLog.get(statements.symbol(i));
+            if (declaration != null) {
+                declarations.put(statements.symbol(i), declaration);
+            }
+        }
+
+        List<String> expansionKeys = new ArrayList<>(result.expansionKeyLog.subList(mark.expansionStart, result.expansionKeyLog.size()));
+        List<Integer> expansionLevels = new ArrayList<>();
+        for (int expansionLevel : result.expansionLevelLog.subList(mark.expansionStart, result.expansionLevelLog.size())) {
+            expansionLevels.add(expansionLevel - level);
+        }
+
+        Map<String, Long> stamps = new HashMap<>();
+        stamps.put(ownSourceFile, stamp(ownSourceFile));
+        for (String dependency : dependencies) {
+            stamps.put(dependency, stamp(dependency));
+        }
+        if (stamps.containsValue(MISSING_FILE)) {
+            return null; // Cannot validate it later, so do not memoize
+        }
+
+        MethodSummary summary = new MethodSummary(statements, implementations, invoked, dependencies, expanded, declarations, stamps,
+                expansionKeys, expansionLevels);
+        summary.validatedRun = run;
+        if (!summary.dependsOnEntry(entryMethodSignature)) {
+            put(bindingKey, summary);
+        }
+        return summary;
+    }
+
+    /**
+     * Drops all summaries, e.g. to measure the expansion they would otherwise replay.
+     */
+    public synchronized void clear() {
+        summaries.clear();
+        currentWeight = 0;
+    }
+
+    public long getHits() { return hits.get(); }
+
+    public long getMisses() { return misses.get(); }
+
+    public long getEvictions() { return evictions.get(); }
+
+    public synchronized int size() { return summaries.size(); }
+
+    public synchronized long getCurrentWeight() { return currentWeight; }
+
+    public long getMaxWeight() { return maxWeight; }
+}
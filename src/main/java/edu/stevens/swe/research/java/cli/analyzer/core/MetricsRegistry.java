@@ -0,0 +1,189 @@
+package edu.stevens.swe.research.java.cli.analyzer.core;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters, timers and histograms of one run, cheap enough to update from every worker thread on the
+ * hot path: updates are lock-free adders and a fixed array of power-of-two buckets.
+ * A {@link #snapshot()} is written to the analysis log, giving a per-phase time breakdown of the run.
+ *
+ * Phase timers may nest (a DFS expansion parses and resolves dependencies), so their totals overlap.
+ */
+public class MetricsRegistry {
+
+    // Phase timers
+    public static final String PARSE = "parse";             // Binding-resolved parse of one file
+    public static final String PARSE_BATCH = "parseBatch";  // One ASTParser.createASTs call over several files
+    public static final String RESOLVE = "resolve";         // Finding the source file and declaration of a called method
+    public static final String DFS = "dfs";                 // analyzeTestCase of one test method
+    public static final String WRITE = "write";             // Handing one result to the output sink
+
+    private static final int BUCKETS = 64;
+
+    /**
+     * Monotonic count.
+     */
+    public static class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    /**
+     * Distribution of non-negative values in power-of-two buckets: bucket 0 holds 0, bucket i holds
+     * [2^(i-1), 2^i). Quantiles are reported as the upper bound of their bucket, capped at the maximum.
+     */
+    public static class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        public void record(long value) {
+            long clamped = Math.max(0, value);
+            buckets.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(clamped)));
+            count.increment();
+            sum.add(clamped);
+            max.accumulate(clamped);
+        }
+
+        long quantile(double q) {
+            long total = count.sum();
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(q * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    long upperBound = i == 0 ? 0 : (i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+                    return Math.min(upperBound, max.get());
+                }
+            }
+            return max.get();
+        }
+    }
+
+    /**
+     * Histogram of elapsed nanoseconds, reported in milliseconds.
+     */
+    public static class Timer {
+        private final Histogram nanos = new Histogram();
+
+        public long start() {
+            return System.nanoTime();
+        }
+
+        public void stop(long startNanos) {
+            nanos.record(System.nanoTime() - startNanos);
+        }
+
+        public void record(long elapsedNanos) {
+            nanos.record(elapsedNanos);
+        }
+    }
+
+    /**
+     * Serialized form of a timer.
+     */
+    public static class TimerStats {
+        public long count;
+        public double totalMs;
+        public double meanMs;
+        public double p50Ms;
+        public double p95Ms;
+        public double p99Ms;
+        public double maxMs;
+    }
+
+    /**
+     * Serialized form of a histogram.
+     */
+    public static class HistogramStats {
+        public long count;
+        public long sum;
+        public double mean;
+        public long p50;
+        public long p95;
+        public long p99;
+        public long max;
+    }
+
+    /**
+     * Point-in-time copy of all metrics, as written to the analysis log.
+     */
+    public static class Snapshot {
+        public Map<String, TimerStats> timers = new TreeMap<>();
+        public Map<String, Long> counters = new TreeMap<>();
+        public Map<String, HistogramStats> histograms = new TreeMap<>();
+    }
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, k -> new Counter());
+    }
+
+    public Timer timer(String name) {
+        return timers.computeIfAbsent(name, k -> new Timer());
+    }
+
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, k -> new Histogram());
+    }
+
+    public Snapshot snapshot() {
+        Snapshot snapshot = new Snapshot();
+        for (Map.Entry<String, Counter> counter : counters.entrySet()) {
+            snapshot.counters.put(counter.getKey(), counter.getValue().get());
+        }
+        for (Map.Entry<String, Timer> timer : timers.entrySet()) {
+            Histogram nanos = timer.getValue().nanos;
+            TimerStats stats = new TimerStats();
+            stats.count = nanos.count.sum();
+            stats.totalMs = toMillis(nanos.sum.sum());
+            stats.meanMs = stats.count == 0 ? 0 : toMillis(nanos.sum.sum() / stats.count);
+            stats.p50Ms = toMillis(nanos.quantile(0.50));
+            stats.p95Ms = toMillis(nanos.quantile(0.95));
+            stats.p99Ms = toMillis(nanos.quantile(0.99));
+            stats.maxMs = toMillis(nanos.max.get());
+            snapshot.timers.put(timer.getKey(), stats);
+        }
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            HistogramStats stats = new HistogramStats();
+            stats.count = histogram.count.sum();
+            stats.sum = histogram.sum.sum();
+            stats.mean = stats.count == 0 ? 0 : Math.round(stats.sum * 100.0 / stats.count) / 100.0;
+            stats.p50 = histogram.quantile(0.50);
+            stats.p95 = histogram.quantile(0.95);
+            stats.p99 = histogram.quantile(0.99);
+            stats.max = histogram.max.get();
+            snapshot.histograms.put(entry.getKey(), stats);
+        }
+        return snapshot;
+    }
+
+    // Milliseconds with microsecond precision
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
@@ -0,0 +1,232 @@
+package edu.stevens.swe.research.java.cli.analyzer.core;
+
+import edu.stevens.swe.research.java.cli.analyzer.Log;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the test sources of a project. Modules are enumerated from the build files
+ * ({@code settings.gradle} includes and {@code pom.xml} modules, so modules outside the project directory
+ * are found too), and each module tree is walked once: excluded directories are skipped instead of
+ * traversed unless a build file declares them as modules, and test files are handed to the caller as soon
+ * as they are visited.
+ */
+public class ModuleDiscovery {
+
+    private static final Pattern GRADLE_INCLUDE = Pattern.compile("\\binclude(Flat|Build)?\\b\\s*\\(?((?:\\s*['\"][^'\"]+['\"]\\s*,?)+)\\)?");
+    private static final Pattern GRADLE_PROJECT_DIR = Pattern.compile(
+            "project\\(\\s*['\"]([^'\"]+)['\"]\\s*\\)\\.projectDir\\s*=\\s*(?:file|new\\s+File)\\(\\s*(?:(?:settingsDir|rootDir)\\s*,\\s*)?['\"]([^'\"]+)['\"]");
+    private static final Pattern QUOTED = Pattern.compile("['\"]([^'\"]+)['\"]");
+    private static final Pattern MAVEN_MODULE = Pattern.compile("<module>\\s*([^<]+?)\\s*</module>");
+    private static final Pattern LINE_COMMENT = Pattern.compile("//[^\\n]*");
+    private static final Pattern BLOCK_COMMENT = Pattern.compile("(?s)/\\*.*?\\*/|<!--.*?-->");
+
+    /**
+     * Receives test sources in traversal order. All calls happen on the thread running the walk.
+     */
+    public interface TestSourceListener {
+        void testDirectoryStarted(Path testRoot);
+
+        void testFile(Path testRoot, Path javaFile);
+
+        void testDirectoryFinished(Path testRoot);
+    }
+
+    private ModuleDiscovery() {
+    }
+
+    /**
+     * Directories that never contain project sources (build outputs, VCS metadata, hidden tool folders).
+     */
+    public static boolean isExcludedDirectory(Path dir) {
+        String dirName = dir.getFileName() == null ? "" : dir.getFileName().toString();
+        return dirName.startsWith(".") ||
+               dirName.equals("target") ||
+               dirName.equals("build") ||
+               dirName.equals("bin") ||
+               dirName.equals("out") ||
+               dirName.equals("node_modules");
+    }
+
+    /**
+     * True if a walk can skip the directory: it is excluded and no declared module lies at or below it.
+     */
+    public static boolean isPruned(Path dir, Set<Path> modules) {
+        if (!isExcludedDirectory(dir)) {
+            return false;
+        }
+        Path absolute = dir.toAbsolutePath().normalize();
+        for (Path module : modules) {
+            if (module.startsWith(absolute)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Standard Maven/Gradle test source roots: {@code src/test/java} and {@code src/test/<set>/java}.
+     */
+    public static boolean isTestDirectory(Path dir) {
+        String normalizedPath = dir.toString().replace('\\', '/');
+        return normalizedPath.endsWith("/src/test/java")
+                || (normalizedPath.contains("/src/test/") && normalizedPath.endsWith("/java"));
+    }
+
+    /**
+     * The project root followed by every module directory its build files declare, transitively.
+     */
+    public static Set<Path> findAllModules(Path projectRoot) {
+        Path root = projectRoot.toAbsolutePath().normalize();
+        Set<Path> modules = new LinkedHashSet<>();
+        modules.add(root);
+        Deque<Path> pending = new ArrayDeque<>();
+        pending.add(root);
+        Set<Path> visited = new HashSet<>();
+        while (!pending.isEmpty()) {
+            Path module = pending.poll();
+            if (!visited.add(module)) {
+                continue;
+            }
+            for (Path declared : declaredModules(module)) {
+                if (Files.isDirectory(declared) && modules.add(declared)) {
+                    pending.add(declared);
+                }
+            }
+        }
+        return modules;
+    }
+
+    /**
+     * Walks the project and every declared module, skipping excluded subtrees, and reports each test source
+     * root and its .java files as they are found. A module nested inside another one is walked on its own,
+     * even below an excluded directory, and skipped by the enclosing walk. Test roots nested inside another
+     * test root are not reported separately.
+     */
+    public static void walkTestSources(Path projectRoot, TestSourceListener listener) {
+        Set<Path> modules = findAllModules(projectRoot);
+        if (modules.size() > 1) {
+            Log.info("Discovered " + (modules.size() - 1) + " modules from build files.");
+        }
+        for (Path moduleRoot : modules) {
+            try {
+                Files.walkFileTree(moduleRoot, new SimpleFileVisitor<Path>() {
+                    private Path currentTestRoot;
+
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                        if (!dir.equals(moduleRoot) && (modules.contains(dir) || isExcludedDirectory(dir))) {
+                            return FileVisitResult.SKIP_SUBTREE;
+                        }
+                        if (currentTestRoot == null && isTestDirectory(dir)) {
+                            currentTestRoot = dir;
+                            listener.testDirectoryStarted(dir);
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        if (currentTestRoot != null && attrs.isRegularFile() && file.getFileName().toString().endsWith(".java")) {
+                            listener.testFile(currentTestRoot, file);
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                        Log.warn("Warning: Could not read " + file + ": " + exc.getMessage());
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+                        if (dir.equals(currentTestRoot)) {
+                            listener.testDirectoryFinished(dir);
+                            currentTestRoot = null;
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                Log.error("Error walking module directory " + moduleRoot + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Module directories declared by the Gradle settings and Maven POM of one directory.
+     */
+    static List<Path> declaredModules(Path dir) {
+        List<Path> modules = new ArrayList<>();
+        for (String settingsName : new String[]{"settings.gradle", "settings.gradle.kts"}) {
+            String settings = readWithoutComments(dir.resolve(settingsName));
+            if (settings == null) {
+                continue;
+            }
+            Matcher include = GRADLE_INCLUDE.matcher(settings);
+            while (include.find()) {
+                String kind = include.group(1);
+                Matcher quoted = QUOTED.matcher(include.group(2));
+                while (quoted.find()) {
+                    String name = quoted.group(1);
+                    if ("Build".equals(kind)) {
+                        modules.add(dir.resolve(name).normalize());
+                    } else if ("Flat".equals(kind)) {
+                        modules.add(dir.resolveSibling(name).normalize());
+                    } else {
+                        modules.add(dir.resolve(gradlePathToDirectory(name)).normalize());
+                    }
+                }
+            }
+            Matcher projectDir = GRADLE_PROJECT_DIR.matcher(settings);
+            while (projectDir.find()) {
+                modules.add(dir.resolve(projectDir.group(2)).normalize());
+            }
+        }
+
+        String pom = readWithoutComments(dir.resolve("pom.xml"));
+        if (pom != null) {
+            Matcher module = MAVEN_MODULE.matcher(pom);
+            while (module.find()) {
+                modules.add(dir.resolve(module.group(1)).normalize());
+            }
+        }
+        return modules;
+    }
+
+    private static String gradlePathToDirectory(String gradlePath) {
+        String path = gradlePath.startsWith(":") ? gradlePath.substring(1) : gradlePath;
+        return path.replace(':', '/');
+    }
+
+    private static String readWithoutComments(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            content = BLOCK_COMMENT.matcher(content).replaceAll("");
+            // Line comments are only stripped outside of XML, where "//" appears in URLs
+            return file.getFileName().toString().endsWith(".xml") ? content : LINE_COMMENT.matcher(content).replaceAll("");
+        } catch (IOException e) {
+            Log.warn("Warning: Could not read build file " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package edu.stevens.swe.research.java.cli.analyzer.core;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import edu.stevens.swe.research.java.cli.analyzer.Log;
+import edu.stevens.swe.research.java.cli.analyzer.ProjectCtx;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Snapshot of the parser environment that parser-core detects for a project: classpath, source roots,
+ * compiler options and binding flags. Detection (build files, dependency resolution, source roots) is
+ * expensive, so it is done once per project, and the snapshot is used to create fresh ASTParsers.
+ *
+ * parser-core only hands out a configured ASTParser, which has no getters, so {@link #capture} reads the
+ * parser's fields. That read is checked rather than trusted: the binding flags are located by toggling the
+ * public setters on probe parsers, and a parser rebuilt from the snapshot must read back identically, so a
+ * JDT version that stores its configuration differently falls back to parser-core with a warning instead
+ * of producing differently configured parsers.
+ *
+ * The snapshot is persisted under {@link ProjectCtx#getTempDir()} together with the modification times of
+ * the build files of every module it was derived from; a later run reuses it as long as those files are unchanged.
+ */
+public class ParserConfig {
+
+    private static final String CONFIG_FILE_NAME = "parser-config.json";
+    private static final int FORMAT_VERSION = 2;
+    private static final List<String> BUILD_FILE_NAMES = Arrays.asList(
+            "pom.xml", "build.gradle", "build.gradle.kts", "settings.gradle", "settings.gradle.kts", "gradle.properties");
+
+    private int version = FORMAT_VERSION;
+    private String projectPath;
+    private Map<String, Long> buildFileStamps = new TreeMap<>();
+    private int apiLevel = AST.getJLSLatest();
+    private int astKind = ASTParser.K_COMPILATION_UNIT;
+    private List<String> classpath = new ArrayList<>();
+    private List<String> sourcepath = new ArrayList<>();
+    private List<String> sourcepathEncodings;
+    private boolean includeRunningVmBootclasspath;
+    private boolean resolveBindings;
+    private boolean bindingsRecovery;
+    private boolean statementsRecovery;
+    private Map<String, String> compilerOptions = new HashMap<>();
+
+    private ParserConfig() {
+    }
+
+    /**
+     * Configuration that resolves bindings against the given source roots and the running VM's JDK only,
+     * for callers that parse without project detection (e.g. tests).
+     */
+    static ParserConfig forSourceRoots(Path projectPath, List<Path> sourceRoots) {
+        ParserConfig config = new ParserConfig();
+        config.projectPath = projectPath.toAbsolutePath().toString();
+        for (Path sourceRoot : sourceRoots) {
+            config.sourcepath.add(sourceRoot.toAbsolutePath().toString());
+        }
+        config.sourcepathEncodings = new ArrayList<>(Collections.nCopies(sourceRoots.size(), StandardCharsets.UTF_8.name()));
+        config.includeRunningVmBootclasspath = true;
+        config.resolveBindings = true;
+        config.bindingsRecovery = true;
+        config.compilerOptions = JavaCore.getOptions();
+        JavaCore.setComplianceOptions(JavaCore.latestSupportedJavaVersion(), config.compilerOptions);
+        return config;
+    }
+
+    /**
+     * Reads the environment out of a parser configured by parser-core, or returns null if this JDT version
+     * does not store it the way the capture expects (parser-core is then consulted per parse).
+     */
+    public static ParserConfig capture(ASTParser parser, Path projectPath) {
+        try {
+            ParserConfig config = read(parser);
+            // The snapshot must configure a parser exactly like the one it was read from
+            if (!config.sameParserAs(read(config.newParser()))) {
+                throw new IllegalStateException("a parser rebuilt from the snapshot reads back differently");
+            }
+            config.projectPath = projectPath.toAbsolutePath().toString();
+            config.buildFileStamps = collectBuildFileStamps(projectPath);
+            return config;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            Log.warn("Warning: Could not capture parser configuration from JDT " + jdtVersion() + " (" + e
+                    + "); parser-core will be consulted per parse.");
+            return null;
+        }
+    }
+
+    private static ParserConfig read(ASTParser parser) throws ReflectiveOperationException {
+        ParserConfig config = new ParserConfig();
+        config.apiLevel = readField(parser, "apiLevel", int.class);
+        config.astKind = readField(parser, "astKind", int.class);
+        String[] classpaths = readField(parser, "classpaths", String[].class);
+        String[] sourcepaths = readField(parser, "sourcepaths", String[].class);
+        String[] encodings = readField(parser, "sourcepathsEncodings", String[].class);
+        Map<?, ?> options = readField(parser, "compilerOptions", Map.class);
+        int bits = readField(parser, "bits", int.class);
+
+        config.classpath = classpaths != null ? new ArrayList<>(Arrays.asList(classpaths)) : new ArrayList<>();
+        config.sourcepath = sourcepaths != null ? new ArrayList<>(Arrays.asList(sourcepaths)) : new ArrayList<>();
+        config.sourcepathEncodings = encodings != null ? new ArrayList<>(Arrays.asList(encodings)) : null;
+        FlagMasks masks = FlagMasks.get();
+        config.resolveBindings = (bits & masks.resolveBindings) != 0;
+        config.bindingsRecovery = (bits & masks.bindingsRecovery) != 0;
+        config.statementsRecovery = (bits & masks.statementsRecovery) != 0;
+        config.includeRunningVmBootclasspath = (bits & masks.includeRunningVmBootclasspath) != 0;
+        config.compilerOptions = new HashMap<>();
+        if (options != null) {
+            for (Map.Entry<?, ?> option : options.entrySet()) {
+                config.compilerOptions.put((String) option.getKey(), (String) option.getValue());
+            }
+        }
+        return config;
+    }
+
+    private static <T> T readField(ASTParser parser, String name, Class<T> type) throws ReflectiveOperationException {
+        Field field = ASTParser.class.getDeclaredField(name);
+        if (field.getType() != type) {
+            throw new NoSuchFieldException("ASTParser." + name + " is a " + field.getType().getName() + ", not a " + type.getName());
+        }
+        field.setAccessible(true);
+        @SuppressWarnings("unchecked")
+        T value = (T) (type.isPrimitive() ? field.get(parser) : type.cast(field.get(parser)));
+        return value;
+    }
+
+    /**
+     * Where ASTParser keeps each boolean setting in its private flag word, found by calling the public
+     * setter both ways on two fresh parsers and comparing the results.
+     */
+    private static final class FlagMasks {
+        private static FlagMasks instance;
+
+        final int resolveBindings;
+        final int bindingsRecovery;
+        final int statementsRecovery;
+        final int includeRunningVmBootclasspath;
+
+        private FlagMasks() throws ReflectiveOperationException {
+            resolveBindings = mask(parser -> parser.setResolveBindings(true), parser -> parser.setResolveBindings(false));
+            bindingsRecovery = mask(parser -> parser.setBindingsRecovery(true), parser -> parser.setBindingsRecovery(false));
+            statementsRecovery = mask(parser -> parser.setStatementsRecovery(true), parser -> parser.setStatementsRecovery(false));
+            includeRunningVmBootclasspath = mask(parser -> parser.setEnvironment(new String[0], new String[0], null, true),
+                    parser -> parser.setEnvironment(new String[0], new String[0], null, false));
+        }
+
+        static synchronized FlagMasks get() throws ReflectiveOperationException {
+            if (instance == null) {
+                instance = new FlagMasks();
+            }
+            return instance;
+        }
+
+        private static int mask(Consumer<ASTParser> enable, Consumer<ASTParser> disable) throws ReflectiveOperationException {
+            ASTParser enabled = ASTParser.newParser(AST.getJLSLatest());
+            ASTParser disabled = ASTParser.newParser(AST.getJLSLatest());
+            enable.accept(enabled);
+            disable.accept(disabled);
+            int mask = readField(enabled, "bits", int.class) & ~readField(disabled, "bits", int.class);
+            if (Integer.bitCount(mask) != 1) {
+                throw new NoSuchFieldException("ASTParser.bits does not hold the setting in one flag");
+            }
+            return mask;
+        }
+    }
+
+    private boolean sameParserAs(ParserConfig other) {
+        return apiLevel == other.apiLevel && astKind == other.astKind
+                && classpath.equals(other.classpath) && sourcepath.equals(other.sourcepath)
+                && Objects.equals(sourcepathEncodings, other.sourcepathEncodings)
+                && includeRunningVmBootclasspath == other.includeRunningVmBootclasspath
+                && resolveBindings == other.resolveBindings && bindingsRecovery == other.bindingsRecovery
+                && statementsRecovery == other.statementsRecovery && compilerOptions.equals(other.compilerOptions);
+    }
+
+    private static String jdtVersion() {
+        String version = ASTParser.class.getPackage().getImplementationVersion();
+        return version != null ? version : "(unknown version)";
+    }
+
+    /**
+     * Creates a new parser with this environment. ASTParser instances reset themselves after each
+     * createAST call, so callers need one per parse (or per createASTs batch).
+     */
+    public ASTParser newParser() {
+        ASTParser parser = ASTParser.newParser(apiLevel);
+        parser.setKind(astKind);
+        parser.setCompilerOptions(new HashMap<>(compilerOptions));
+        String[] encodings = sourcepathEncodings != null ? sourcepathEncodings.toArray(new String[0]) : null;
+        parser.setEnvironment(classpath.toArray(new String[0]), sourcepath.toArray(new String[0]), encodings, includeRunningVmBootclasspath);
+        parser.setResolveBindings(resolveBindings);
+        parser.setBindingsRecovery(bindingsRecovery);
+        parser.setStatementsRecovery(statementsRecovery);
+        return parser;
+    }
+
+    /**
+     * Fills the source roots, classpath and JDK path of the project context from this configuration.
+     */
+    public void applyTo(ProjectCtx projectCtx) {
+        projectCtx.setSourceRoots(sourcepath.stream().map(Paths::get).collect(Collectors.toList()));
+        projectCtx.setClasspath(classpath.stream().map(Paths::get).collect(Collectors.toList()));
+        if (includeRunningVmBootclasspath) {
+            projectCtx.setJdkPath(Paths.get(System.getProperty("java.home")));
+        }
+    }
+
+    /**
+     * Loads the persisted configuration of the project, or returns null if there is none or it is stale.
+     */
+    public static ParserConfig load(ProjectCtx projectCtx) {
+        Path file = projectCtx.getTempDir().resolve(CONFIG_FILE_NAME);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            ParserConfig config = new Gson().fromJson(reader, ParserConfig.class);
+            if (config == null || config.version != FORMAT_VERSION
+                    || !projectCtx.getProjectPath().toAbsolutePath().toString().equals(config.projectPath)
+                    || config.apiLevel <= 0 || config.apiLevel > AST.getJLSLatest()) {
+                return null;
+            }
+            if (!collectBuildFileStamps(projectCtx.getProjectPath()).equals(config.buildFileStamps)) {
+                Log.info("Build files changed since the parser configuration was saved; re-detecting.");
+                return null;
+            }
+            return config;
+        } catch (IOException | JsonParseException e) {
+            Log.warn("Warning: Ignoring unreadable parser configuration " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * True while the project's build files are unchanged since this configuration was detected.
+     */
+    public boolean isCurrent(Path projectPath) {
+        return collectBuildFileStamps(projectPath).equals(buildFileStamps);
+    }
+
+    public void save(ProjectCtx projectCtx) {
+        Path file = projectCtx.getTempDir().resolve(CONFIG_FILE_NAME);
+        Gson gson = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create();
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            gson.toJson(this, writer);
+        } catch (IOException e) {
+            Log.warn("Warning: Could not save parser configuration to " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Modification times of the build files of the project root and of every module its build files declare.
+     */
+    private static Map<String, Long> collectBuildFileStamps(Path projectPath) {
+        Path root = projectPath.toAbsolutePath().normalize();
+        Map<String, Long> stamps = new TreeMap<>();
+        for (Path module : ModuleDiscovery.findAllModules(root)) {
+            addBuildFileStamps(root, module, stamps);
+        }
+        return stamps;
+    }
+
+    private static void addBuildFileStamps(Path projectPath, Path dir, Map<String, Long> stamps) {
+        for (String name : BUILD_FILE_NAMES) {
+            Path buildFile = dir.resolve(name);
+            try {
+                if (Files.isRegularFile(buildFile)) {
+                    stamps.put(projectPath.relativize(buildFile).toString().replace('\\', '/'), Files.getLastModifiedTime(buildFile).toMillis());
+                }
+            } catch (IOException e) {
+                // Treat unreadable build files as absent; a later change will still invalidate the snapshot
+            }
+        }
+    }
+
+    public List<String> getClasspath() { return classpath; }
+
+    public List<String> getSourcepath() { return sourcepath; }
+
+    @Override
+    public String toString() {
+        return "ParserConfig{jls=" + apiLevel + ", sourcepath=" + sourcepath.size() + " entries, classpath=" + classpath.size()
+                + " entries, includeRunningVm=" + includeRunningVmBootclasspath + ", resolveBindings=" + resolveBindings
+                + ", compliance=" + compilerOptions.get("org.eclipse.jdt.core.compiler.compliance") + "}";
+    }
+}
@@ -0,0 +1,40 @@
+package edu.stevens.swe.research.java.cli.analyzer.core;
+
+/**
+ * Live progress of an analysis run, published over JMX by TaskManager under
+ * {@code edu.stevens.swe.research.java.cli.analyzer:type=Progress,project=<name>}.
+ */
+public interface ProgressMXBean {
+
+    String getProjectName();
+
+    long getElapsedSeconds();
+
+    boolean isDiscoveryComplete();
+
+    long getFilesDiscovered();
+
+    long getFilesCompleted();
+
+    long getTestsFound();
+
+    long getTestsProcessed();
+
+    long getTestsUnchanged();
+
+    int getWorkQueueDepth();
+
+    int getOutputQueueDepth();
+
+    double getCompilationUnitCacheHitRate();
+
+    double getMethodSummaryCacheHitRate();
+
+    double getTestsPerSecond();
+
+    /**
+     * Estimated seconds until all discovered files are analyzed, or -1 while discovery is still
+     * running or no file has completed yet.
+     */
+    long getEtaSeconds();
+}
@@ -0,0 +1,165 @@
+package edu.stevens.swe.research.java.cli.analyzer.core;
+
+import edu.stevens.swe.research.java.cli.analyzer.ProjectCtx;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Progress counters of a run, updated from the worker threads with lock-free adders and read by the
+ * JMX bean and the status endpoint. Queue depths and cache hit rates are sampled only when read.
+ */
+public class ProgressTracker implements ProgressMXBean {
+
+    /**
+     * Serialized form of the progress, as served by the status endpoint.
+     */
+    public static class Status {
+        public String projectName;
+        public long elapsedSeconds;
+        public boolean discoveryComplete;
+        public long filesDiscovered;
+        public long filesCompleted;
+        public long testsFound;
+        public long testsProcessed;
+        public long testsUnchanged;
+        public int workQueueDepth;
+        public int outputQueueDepth;
+        public double compilationUnitCacheHitRate;
+        public double methodSummaryCacheHitRate;
+        public double testsPerSecond;
+        public long etaSeconds;
+    }
+
+    private static final IntSupplier EMPTY_QUEUE = () -> 0;
+
+    private final ProjectCtx projectCtx;
+    private final long startNanos = System.nanoTime();
+    private final LongAdder filesDiscovered = new LongAdder();
+    private final LongAdder filesCompleted = new LongAdder();
+    private final LongAdder testsFound = new LongAdder();
+    private final LongAdder testsProcessed = new LongAdder();
+    private final LongAdder testsUnchanged = new LongAdder();
+    private volatile boolean discoveryComplete = false;
+    private volatile IntSupplier workQueue = EMPTY_QUEUE;
+    private volatile IntSupplier outputQueue = EMPTY_QUEUE;
+
+    public ProgressTracker(ProjectCtx projectCtx) {
+        this.projectCtx = projectCtx;
+    }
+
+    public void fileDiscovered() { filesDiscovered.increment(); }
+
+    public void filesCompleted(int count) { filesCompleted.add(count); }
+
+    public void testFound() { testsFound.increment(); }
+
+    public void testProcessed() { testsProcessed.increment(); }
+
+    public void testUnchanged() { testsUnchanged.increment(); }
+
+    public void discoveryFinished() { discoveryComplete = true; }
+
+    /**
+     * Sets the source of the pending-job count of the worker pool; null clears it.
+     */
+    public void setWorkQueue(IntSupplier depth) {
+        workQueue = depth != null ? depth : EMPTY_QUEUE;
+    }
+
+    /**
+     * Sets the source of the pending-record count of the output sink; null clears it.
+     */
+    public void setOutputQueue(IntSupplier depth) {
+        outputQueue = depth != null ? depth : EMPTY_QUEUE;
+    }
+
+    @Override
+    public String getProjectName() {
+        return projectCtx.getProjectPath().getFileName() != null ? projectCtx.getProjectPath().getFileName().toString() : projectCtx.getProjectPath().toString();
+    }
+
+    @Override
+    public long getElapsedSeconds() { return (System.nanoTime() - startNanos) / 1_000_000_000L; }
+
+    @Override
+    public boolean isDiscoveryComplete() { return discoveryComplete; }
+
+    @Override
+    public long getFilesDiscovered() { return filesDiscovered.sum(); }
+
+    @Override
+    public long getFilesCompleted() { return filesCompleted.sum(); }
+
+    @Override
+    public long getTestsFound() { return testsFound.sum(); }
+
+    @Override
+    public long getTestsProcessed() { return testsProcessed.sum(); }
+
+    @Override
+    public long getTestsUnchanged() { return testsUnchanged.sum(); }
+
+    @Override
+    public int getWorkQueueDepth() { return workQueue.getAsInt(); }
+
+    @Override
+    public int getOutputQueueDepth() { return outputQueue.getAsInt(); }
+
+    @Override
+    public double getCompilationUnitCacheHitRate() {
+        CompilationUnitCache cache = projectCtx.getCompilationUnitCache();
+        return hitRate(cache.getHits(), cache.getMisses());
+    }
+
+    @Override
+    public double getMethodSummaryCacheHitRate() {
+        MethodSummaryCache cache = projectCtx.getMethodSummaryCache();
+        return hitRate(cache.getHits(), cache.getMisses());
+    }
+
+    @Override
+    public double getTestsPerSecond() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return seconds > 0 ? round(testsProcessed.sum() / seconds) : 0;
+    }
+
+    @Override
+    public long getEtaSeconds() {
+        long completed = filesCompleted.sum();
+        if (!discoveryComplete || completed == 0) {
+            return -1;
+        }
+        long remaining = Math.max(0, filesDiscovered.sum() - completed);
+        double secondsPerFile = (System.nanoTime() - startNanos) / 1e9 / completed;
+        return Math.round(remaining * secondsPerFile);
+    }
+
+    public Status status() {
+        Status status = new Status();
+        status.projectName = getProjectName();
+        status.elapsedSeconds = getElapsedSeconds();
+        status.discoveryComplete = isDiscoveryComplete();
+        status.filesDiscovered = getFilesDiscovered();
+        status.filesCompleted = getFilesCompleted();
+        status.testsFound = getTestsFound();
+        status.testsProcessed = getTestsProcessed();
+        status.testsUnchanged = getTestsUnchanged();
+        status.workQueueDepth = getWorkQueueDepth();
+        status.outputQueueDepth = getOutputQueueDepth();
+        status.compilationUnitCacheHitRate = getCompilationUnitCacheHitRate();
+        status.methodSummaryCacheHitRate = getMethodSummaryCacheHitRate();
+        status.testsPerSecond = getTestsPerSecond();
+        status.etaSeconds = getEtaSeconds();
+        return status;
+    }
+
+    private static double hitRate(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : round((double) hits / total);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
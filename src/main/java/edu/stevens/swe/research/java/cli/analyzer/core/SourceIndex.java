@@ -0,0 +1,370 @@
+package edu.stevens.swe.research.java.cli.analyzer.core;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import edu.stevens.swe.research.java.cli.analyzer.Log;
+import edu.stevens.swe.research.java.cli.analyzer.ProjectCtx;
+import org.eclipse.jdt.core.ToolFactory;
+import org.eclipse.jdt.core.compiler.IScanner;
+import org.eclipse.jdt.core.compiler.ITerminalSymbols;
+import org.eclipse.jdt.core.compiler.InvalidInputException;
+
+import javax.lang.model.SourceVersion;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Project-wide index from fully qualified type names (top-level and nested) to the source file declaring them.
+ * The index is built once per run from the package and type declarations of every .java file,
+ * persisted under {@link ProjectCtx#getTempDir()}, and on later runs only files whose size or
+ * modification time changed are re-scanned. Files are still stat'ed on every run: a directory's
+ * modification time only changes when entries are added, removed or renamed, not when a file is
+ * edited in place, so it cannot tell which directories can be skipped.
+ */
+public class SourceIndex {
+
+    private static final String INDEX_FILE_NAME = "source-index.json";
+    private static final int FORMAT_VERSION = 1;
+
+    private final Map<String, Path> typeToFile = new HashMap<>();
+    private final PersistentForm persistentForm = new PersistentForm();
+    private int rescannedFiles = 0;
+
+    // Serialized layout of the index: directory (relative to the project root) -> file name -> entry
+    private static class PersistentForm {
+        int version = FORMAT_VERSION;
+        Map<String, Map<String, FileEntry>> directories = new TreeMap<>();
+    }
+
+    private static class FileEntry {
+        long lastModified;
+        long size;
+        String packageName;
+        List<String> types = new ArrayList<>();
+    }
+
+    private SourceIndex() {
+    }
+
+    /**
+     * Returns the index attached to the project context, loading or building it on first use.
+     */
+    public static synchronized SourceIndex forProject(ProjectCtx projectCtx) {
+        SourceIndex index = projectCtx.getSourceIndex();
+        if (index == null) {
+            index = build(projectCtx);
+            projectCtx.setSourceIndex(index);
+        }
+        return index;
+    }
+
+    /**
+     * Builds the index for the project, reusing entries of the persisted index for unchanged files.
+     */
+    public static SourceIndex build(ProjectCtx projectCtx) {
+        long start = System.currentTimeMillis();
+        Path projectRoot = projectCtx.getProjectPath();
+        Path indexFile = projectCtx.getTempDir().resolve(INDEX_FILE_NAME);
+        PersistentForm previous = readPersisted(indexFile);
+
+        SourceIndex index = new SourceIndex();
+        Set<Path> modules = ModuleDiscovery.findAllModules(projectRoot);
+        try {
+            Files.walkFileTree(projectRoot, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (!dir.equals(projectRoot) && ModuleDiscovery.isPruned(dir, modules)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && file.getFileName().toString().endsWith(".java")) {
+                        index.addFile(projectRoot, file, attrs, previous);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    Log.warn("Warning: Could not index " + file + ": " + exc.getMessage());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            Log.error("Error building source index for " + projectRoot + ": " + e.getMessage());
+        }
+
+        try {
+            index.writePersisted(indexFile);
+        } catch (IOException e) {
+            Log.warn("Warning: Could not persist source index to " + indexFile + ": " + e.getMessage());
+        }
+        Log.info("Source index ready: " + index.typeToFile.size() + " types, "
+                + index.rescannedFiles + " files (re)scanned in " + (System.currentTimeMillis() - start) + " ms");
+        return index;
+    }
+
+    /**
+     * Returns the source file declaring the given type, or null if the type is not declared in the project.
+     * Parameterized names (e.g. {@code com.example.Box<java.lang.String>}) are looked up by their erasure,
+     * and unknown member names fall back to their closest indexed enclosing type.
+     */
+    public Path lookup(String qualifiedName) {
+        if (qualifiedName == null || qualifiedName.isEmpty()) {
+            return null;
+        }
+        String name = qualifiedName;
+        int typeArgsStart = name.indexOf('<');
+        if (typeArgsStart >= 0) {
+            name = name.substring(0, typeArgsStart);
+        }
+        while (!name.isEmpty()) {
+            Path path = typeToFile.get(name);
+            if (path != null) {
+                return path;
+            }
+            int lastDot = name.lastIndexOf('.');
+            if (lastDot < 0) {
+                break;
+            }
+            name = name.substring(0, lastDot);
+        }
+        return null;
+    }
+
+    public int size() {
+        return typeToFile.size();
+    }
+
+    /**
+     * Returns a hash of the path, size and modification time of every indexed file. Two indexes of the
+     * same project have different fingerprints when a .java file was added, removed or edited in between.
+     */
+    public long getFingerprint() {
+        long fingerprint = 1;
+        for (Map.Entry<String, Map<String, FileEntry>> dir : persistentForm.directories.entrySet()) {
+            for (Map.Entry<String, FileEntry> file : dir.getValue().entrySet()) {
+                fingerprint = 31 * fingerprint + dir.getKey().hashCode();
+                fingerprint = 31 * fingerprint + file.getKey().hashCode();
+                fingerprint = 31 * fingerprint + file.getValue().lastModified;
+                fingerprint = 31 * fingerprint + file.getValue().size;
+            }
+        }
+        return fingerprint;
+    }
+
+    private void addFile(Path projectRoot, Path file, BasicFileAttributes attrs, PersistentForm previous) {
+        String dirKey = projectRoot.relativize(file.getParent()).toString().replace('\\', '/');
+        String fileName = file.getFileName().toString();
+
+        FileEntry entry = null;
+        Map<String, FileEntry> previousDir = previous != null ? previous.directories.get(dirKey) : null;
+        if (previousDir != null) {
+            FileEntry candidate = previousDir.get(fileName);
+            if (candidate != null && candidate.lastModified == attrs.lastModifiedTime().toMillis() && candidate.size == attrs.size()) {
+                entry = candidate;
+            }
+        }
+        if (entry == null) {
+            entry = scan(file, attrs);
+            rescannedFiles++;
+            if (entry == null) {
+                return;
+            }
+        }
+        persistentForm.directories.computeIfAbsent(dirKey, k -> new TreeMap<>()).put(fileName, entry);
+
+        String prefix = entry.packageName == null || entry.packageName.isEmpty() ? "" : entry.packageName + ".";
+        for (String type : entry.types) {
+            register(prefix + type, file);
+        }
+    }
+
+    private void register(String qualifiedName, Path file) {
+        Path existing = typeToFile.get(qualifiedName);
+        // On duplicate declarations (e.g. the same fixture in several modules) prefer production sources,
+        // mirroring the old lookup order that searched src/main/java first.
+        if (existing == null || (!isMainSource(existing) && isMainSource(file))) {
+            typeToFile.put(qualifiedName, file);
+        }
+    }
+
+    private static boolean isMainSource(Path file) {
+        return file.toString().replace('\\', '/').contains("/src/main/");
+    }
+
+    /**
+     * Extracts the package name and the dotted names of all (possibly nested) type declarations with
+     * the JDT scanner, which is much cheaper than building an AST.
+     */
+    private static FileEntry scan(Path file, BasicFileAttributes attrs) {
+        char[] source;
+        try {
+            source = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).toCharArray();
+        } catch (IOException e) {
+            Log.warn("Warning: Could not read " + file + " for source index: " + e.getMessage());
+            return null;
+        }
+
+        FileEntry entry = new FileEntry();
+        entry.lastModified = attrs.lastModifiedTime().toMillis();
+        entry.size = attrs.size();
+
+        IScanner scanner = ToolFactory.createScanner(false, false, false, "21");
+        scanner.setSource(source);
+
+        // Enclosing type names with the brace depth at which their body was opened
+        Deque<String> typeNames = new ArrayDeque<>();
+        Deque<Integer> typeDepths = new ArrayDeque<>();
+        String pendingType = null;
+        // Lookahead state: a type keyword awaiting its name, or a contextual "record" awaiting name and header
+        boolean expectTypeName = false;
+        boolean afterRecordKeyword = false;
+        String recordCandidate = null;
+        int braceDepth = 0;
+        int previousToken = ITerminalSymbols.TokenNameEOF;
+        try {
+            int token;
+            while ((token = scanner.getNextToken()) != ITerminalSymbols.TokenNameEOF) {
+                if (expectTypeName) {
+                    expectTypeName = false;
+                    if (isIdentifier(scanner)) {
+                        pendingType = new String(scanner.getCurrentTokenSource());
+                    }
+                } else if (recordCandidate != null) {
+                    if (token == ITerminalSymbols.TokenNameLPAREN || token == ITerminalSymbols.TokenNameLESS) {
+                        pendingType = recordCandidate;
+                    }
+                    recordCandidate = null;
+                } else if (afterRecordKeyword) {
+                    afterRecordKeyword = false;
+                    if (isIdentifier(scanner)) {
+                        recordCandidate = new String(scanner.getCurrentTokenSource());
+                    }
+                }
+
+                switch (token) {
+                    case ITerminalSymbols.TokenNamepackage:
+                        if (braceDepth == 0 && entry.packageName == null) {
+                            entry.packageName = readQualifiedName(scanner);
+                            token = ITerminalSymbols.TokenNameSEMICOLON;
+                        }
+                        break;
+                    case ITerminalSymbols.TokenNameclass:
+                    case ITerminalSymbols.TokenNameinterface:
+                    case ITerminalSymbols.TokenNameenum:
+                        // Skip class literals such as Foo.class
+                        if (previousToken != ITerminalSymbols.TokenNameDOT) {
+                            expectTypeName = true;
+                        }
+                        break;
+                    case ITerminalSymbols.TokenNameLBRACE:
+                        braceDepth++;
+                        if (pendingType != null) {
+                            String qualified = typeNames.isEmpty() ? pendingType : typeNames.peek() + "." + pendingType;
+                            typeNames.push(qualified);
+                            typeDepths.push(braceDepth);
+                            entry.types.add(qualified);
+                            pendingType = null;
+                        }
+                        break;
+                    case ITerminalSymbols.TokenNameRBRACE:
+                        if (!typeDepths.isEmpty() && typeDepths.peek() == braceDepth) {
+                            typeDepths.pop();
+                            typeNames.pop();
+                        }
+                        braceDepth--;
+                        break;
+                    default:
+                        // "record" is scanned as an identifier unless the scanner recognized the declaration
+                        if (recordCandidate == null && previousToken != ITerminalSymbols.TokenNameDOT
+                                && isToken(scanner, source, "record")) {
+                            afterRecordKeyword = true;
+                        }
+                        break;
+                }
+                previousToken = token;
+            }
+        } catch (InvalidInputException e) {
+            // Keep whatever was found before the lexical error
+            Log.warn("Warning: Lexical error while indexing " + file + ": " + e.getMessage());
+        }
+        return entry;
+    }
+
+    private static String readQualifiedName(IScanner scanner) throws InvalidInputException {
+        StringBuilder name = new StringBuilder();
+        int token;
+        while ((token = scanner.getNextToken()) != ITerminalSymbols.TokenNameEOF && token != ITerminalSymbols.TokenNameSEMICOLON) {
+            if (token == ITerminalSymbols.TokenNameDOT || isIdentifier(scanner)) {
+                name.append(scanner.getCurrentTokenSource());
+            }
+        }
+        return name.toString();
+    }
+
+    /**
+     * Whether the current token is an identifier, contextual keywords such as {@code record} included.
+     * Decided on the token text, as ITerminalSymbols.TokenNameIdentifier is deprecated; only called for
+     * the few tokens that may name a package or type.
+     */
+    private static boolean isIdentifier(IScanner scanner) {
+        String text = new String(scanner.getCurrentTokenSource());
+        return SourceVersion.isIdentifier(text) && !SourceVersion.isKeyword(text);
+    }
+
+    private static boolean isToken(IScanner scanner, char[] source, String text) {
+        int start = scanner.getCurrentTokenStartPosition();
+        if (scanner.getCurrentTokenEndPosition() - start + 1 != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (source[start + i] != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static PersistentForm readPersisted(Path indexFile) {
+        if (!Files.isRegularFile(indexFile)) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            PersistentForm form = new Gson().fromJson(reader, PersistentForm.class);
+            if (form == null || form.version != FORMAT_VERSION || form.directories == null) {
+                return null;
+            }
+            return form;
+        } catch (IOException | JsonParseException e) {
+            Log.warn("Warning: Ignoring unreadable source index " + indexFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writePersisted(Path indexFile) throws IOException {
+        Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+        try (Writer writer = Files.newBufferedWriter(indexFile, StandardCharsets.UTF_8)) {
+            gson.toJson(persistentForm, writer);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package edu.stevens.swe.research.java.cli.analyzer.core;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parsed statement sequence of one test case, held as rows of ints (kind, payload, depth, start line,
+ * end line) instead of one String per statement. The payload is a {@link SymbolTable} ID, or for kinds
+ * that carry source text an index into a small side list.
+ *
+ * Statements are rendered as {@code <indentation><KIND prefix><payload>#[start-end]} only when read,
+ * which normally happens once, while the result is serialized; the list view keeps the JSON output and
+ * existing readers unchanged.
+ */
+public class StatementSequence extends AbstractList<String> {
+
+    /**
+     * Statement kinds with the prefix they are rendered with.
+     */
+    public enum Kind {
+        PRODUCTION(""),
+        GET("GET "),
+        SET("SET "),
+        TEST("TEST "),
+        TEST_GET("TEST GET "),
+        TEST_SET("TEST SET "),
+        THIRD("THIRD "),
+        THIRD_GET("THIRD GET "),
+        THIRD_SET("THIRD SET "),
+        ASSERT("ASSERT "),
+        MOCK("MOCK "),
+        EXPECTEDEXCEPTION_RULE("EXPECTEDEXCEPTION_RULE "),
+        EXPECTEDEXCEPTION_ANNOTATION("EXPECTEDEXCEPTION_ANNOTATION "),
+        NEW("NEW "),
+        NEW_JDK_CLASS("NEW_JDK_CLASS "),
+        NEW_ANONYMOUS_CLASS("NEW ANONYMOUS_CLASS"),
+        METHOD_REF("METHOD_REF "),
+        RECURSIVE_TO_ENTRY("RECURSIVE_TO_ENTRY "),
+        DIRECT_RECURSIVE("DIRECT_RECURSIVE "),
+        UNKNOWN_PROJECT_CODE("UNKNOWN_PROJECT_CODE "),
+        METHOD_NOT_FOUND_IN_SOURCE("METHOD_NOT_FOUND_IN_SOURCE ", true),
+        SOURCE_FILE_NOT_FOUND("SOURCE_FILE_NOT_FOUND ", true),
+        UNRESOLVED_INVOCATION("UNRESOLVED_INVOCATION: ", true),
+        UNRESOLVED_CONSTRUCTOR("UNRESOLVED_CONSTRUCTOR: ", true),
+        UNRESOLVED_METHOD_REF("UNRESOLVED_METHOD_REF: ", true),
+        UNRESOLVED_DECLARING_CLASS("UNRESOLVED_DECLARING_CLASS: "),
+        CYCLE("CYCLE "),
+        TRUNCATED_DEPTH("TRUNCATED_DEPTH "),
+        TRUNCATED_BUDGET("TRUNCATED_BUDGET "),
+        TRUNCATED_TIMEOUT("TRUNCATED_TIMEOUT "),
+        TRUNCATED_CANCELLED("TRUNCATED_CANCELLED "),
+        RAW(""); // A pre-rendered statement added through the List interface
+
+        final String prefix;
+        final boolean unresolved; // Reported as an unresolved invocation in the analysis log
+
+        Kind(String prefix) {
+            this(prefix, false);
+        }
+
+        Kind(String prefix, boolean unresolved) {
+            this.prefix = prefix;
+            this.unresolved = unresolved;
+        }
+
+        /**
+         * Text rendered before the payload, e.g. {@code "THIRD GET "}.
+         */
+        public String getPrefix() {
+            return prefix;
+        }
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+    private static final int KIND = 0, PAYLOAD = 1, DEPTH = 2, START = 3, END = 4, WIDTH = 5;
+    private static final int TEXT_FLAG = 1 << 16; // Set in the kind column when the payload indexes texts
+    private static final String INDENT = "    ";
+
+    private final SymbolTable symbols;
+    private int[] rows = new int[WIDTH * 16];
+    private int size = 0;
+    private List<String> texts; // Payloads of statements that carry source text; created on first use
+
+    public StatementSequence(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * Appends a statement whose payload is a symbol ID.
+     */
+    public void add(Kind kind, int symbol, int depth, int startLine, int endLine) {
+        append(kind.ordinal(), symbol, depth, startLine, endLine);
+    }
+
+    /**
+     * Appends a statement whose payload is source text, such as an unresolved expression.
+     */
+    public void addText(Kind kind, String text, int depth, int startLine, int endLine) {
+        if (texts == null) {
+            texts = new ArrayList<>();
+        }
+        texts.add(text);
+        append(kind.ordinal() | TEXT_FLAG, texts.size() - 1, depth, startLine, endLine);
+    }
+
+    /**
+     * Appends a pre-rendered statement; kept for callers that use the plain List view.
+     */
+    @Override
+    public boolean add(String statement) {
+        addText(Kind.RAW, statement, 0, 0, 0);
+        return true;
+    }
+
+    private void append(int kind, int payload, int depth, int startLine, int endLine) {
+        if ((size + 1) * WIDTH > rows.length) {
+            rows = Arrays.copyOf(rows, rows.length * 2);
+        }
+        int row = size * WIDTH;
+        rows[row + KIND] = kind;
+        rows[row + PAYLOAD] = payload;
+        rows[row + DEPTH] = depth;
+        rows[row + START] = startLine;
+        rows[row + END] = endLine;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Appends statements [from, to) of another sequence with their depth shifted, as a memoized
+     * expansion is replayed at its caller's depth.
+     */
+    public void appendFrom(StatementSequence source, int from, int to, int depthDelta) {
+        for (int i = from; i < to; i++) {
+            int row = i * WIDTH;
+            int kind = source.rows[row + KIND];
+            int payload = source.rows[row + PAYLOAD];
+            if ((kind & TEXT_FLAG) != 0) {
+                if (texts == null) {
+                    texts = new ArrayList<>();
+                }
+                texts.add(source.texts.get(payload));
+                payload = texts.size() - 1;
+            }
+            append(kind, payload, source.rows[row + DEPTH] + depthDelta, source.rows[row + START], source.rows[row + END]);
+        }
+    }
+
+    /**
+     * Copy of statements [from, to) with their depth shifted, sharing this sequence's symbol table.
+     */
+    public StatementSequence slice(int from, int to, int depthDelta) {
+        StatementSequence slice = new StatementSequence(symbols);
+        slice.rows = new int[Math.max(1, to - from) * WIDTH];
+        slice.appendFrom(this, from, to, depthDelta);
+        return slice;
+    }
+
+    public Kind kind(int index) {
+        return KINDS[rows[checked(index) * WIDTH + KIND] & ~TEXT_FLAG];
+    }
+
+    public int depth(int index) {
+        return rows[checked(index) * WIDTH + DEPTH];
+    }
+
+    public int startLine(int index) {
+        return rows[checked(index) * WIDTH + START];
+    }
+
+    public int endLine(int index) {
+        return rows[checked(index) * WIDTH + END];
+    }
+
+    /**
+     * The statement's signature or source text, without kind prefix, indentation or line range.
+     */
+    public String payload(int index) {
+        int row = checked(index) * WIDTH;
+        return (rows[row + KIND] & TEXT_FLAG) != 0 ? texts.get(rows[row + PAYLOAD]) : symbols.name(rows[row + PAYLOAD]);
+    }
+
+    /**
+     * The payload's {@link SymbolTable} ID, or -1 if the statement carries source text.
+     */
+    public int symbol(int index) {
+        int row = checked(index) * WIDTH;
+        return (rows[row + KIND] & TEXT_FLAG) != 0 ? -1 : rows[row + PAYLOAD];
+    }
+
+    /**
+     * Renders the statement without its indentation.
+     */
+    public String render(int index) {
+        return render(checked(index), false);
+    }
+
+    @Override
+    public String get(int index) {
+        return render(checked(index), true);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Rendered statements whose kind marks an unresolved call, in sequence order.
+     */
+    public List<String> unresolvedStatements() {
+        List<String> unresolved = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Kind kind = kind(i);
+            if (kind.unresolved) {
+                unresolved.add(get(i));
+            } else if (kind == Kind.RAW) {
+                String statement = get(i);
+                if (statement.contains("UNRESOLVED_INVOCATION") || statement.contains("UNRESOLVED_CONSTRUCTOR")
+                        || statement.contains("UNRESOLVED_METHOD_REF") || statement.contains("METHOD_NOT_FOUND_IN_SOURCE")
+                        || statement.contains("SOURCE_FILE_NOT_FOUND")) {
+                    unresolved.add(statement);
+                }
+            }
+        }
+        return unresolved;
+    }
+
+    private String render(int index, boolean indented) {
+        int row = index * WIDTH;
+        int kindColumn = rows[row + KIND];
+        Kind kind = KINDS[kindColumn & ~TEXT_FLAG];
+        String payload = (kindColumn & TEXT_FLAG) != 0 ? texts.get(rows[row + PAYLOAD]) : symbols.name(rows[row + PAYLOAD]);
+        if (kind == Kind.RAW) {
+            return payload;
+        }
+        int depth = indented ? rows[row + DEPTH] : 0;
+        StringBuilder statement = new StringBuilder(depth * INDENT.length() + kind.prefix.length() + payload.length() + 12);
+        for (int i = 0; i < depth; i++) {
+            statement.append(INDENT);
+        }
+        return statement.append(kind.prefix).append(payload)
+                .append("#[").append(rows[row + START]).append('-').append(rows[row + END]).append(']')
+                .toString();
+    }
+
+    private int checked(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return index;
+    }
+}
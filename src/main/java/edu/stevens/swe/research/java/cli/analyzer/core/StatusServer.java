@@ -0,0 +1,60 @@
+package edu.stevens.swe.research.java.cli.analyzer.core;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.stevens.swe.research.java.cli.analyzer.Log;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves the progress of a run as JSON on {@code GET /status}. Bound to the loopback interface only,
+ * so the status is visible to local schedulers and tooling but not to the network.
+ */
+public class StatusServer {
+
+    private final HttpServer server;
+    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+    public StatusServer(int port, ProgressTracker progress) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/status", exchange -> {
+            try {
+                if (!"GET".equals(exchange.getRequestMethod())) {
+                    respond(exchange, 405, "{\"error\":\"Method not allowed\"}");
+                } else {
+                    respond(exchange, 200, gson.toJson(progress.status()));
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+    }
+
+    public void start() {
+        server.start();
+        Log.info("Status endpoint: http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/status");
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    private static void respond(HttpExchange exchange, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package edu.stevens.swe.research.java.cli.analyzer.core;
+
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Run-wide table of rendered method signatures, shared by all test cases and worker threads.
+ * Each distinct rendering gets one int ID and one String instance; bindings are mapped to their ID
+ * by binding key, so a signature is rendered once per run instead of once per call site.
+ *
+ * IDs are assigned per rendered string, so two bindings that render alike share an ID and comparing
+ * IDs is equivalent to comparing the rendered signatures. IDs are never reused, which keeps them valid
+ * in memoized method summaries for as long as the project context keeps the table and its summaries.
+ */
+public class SymbolTable {
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>(); // rendered signature -> ID
+    private final Map<String, Integer> methods = new ConcurrentHashMap<>(); // binding key -> ID of Type.name(params)
+    private final Map<String, Integer> declaredMethods = new ConcurrentHashMap<>(); // binding key -> ID of DeclaringType.name(params)
+    private final Map<String, Integer> constructors = new ConcurrentHashMap<>(); // binding key -> ID of Type(params)
+    private final Map<String, Integer> parameterLists = new ConcurrentHashMap<>(); // binding key -> ID of (params)
+    private volatile String[] names = new String[1024];
+    private int size = 0; // guarded by this
+
+    /**
+     * ID of {@code pkg.Type.name(ParamType, ...)} for the binding, as invoked (declaring class may be parameterized).
+     */
+    public int method(IMethodBinding binding) {
+        Integer id = methods.get(binding.getKey());
+        if (id == null) {
+            id = intern(binding.getDeclaringClass().getQualifiedName() + "." + binding.getName() + parameters(binding));
+            methods.put(binding.getKey(), id);
+        }
+        return id;
+    }
+
+    /**
+     * ID of the invoked method named after the class that declares it in source, with the invocation's parameters.
+     */
+    public int declaredMethod(IMethodBinding binding, IMethodBinding declaration) {
+        Integer id = declaredMethods.get(binding.getKey());
+        if (id == null) {
+            id = intern(declaration.getDeclaringClass().getQualifiedName() + "." + declaration.getName() + parameters(binding));
+            declaredMethods.put(binding.getKey(), id);
+        }
+        return id;
+    }
+
+    /**
+     * ID of {@code pkg.Type(ParamType, ...)} for a constructor binding.
+     */
+    public int constructor(IMethodBinding binding) {
+        Integer id = constructors.get(binding.getKey());
+        if (id == null) {
+            id = intern(binding.getDeclaringClass().getQualifiedName() + parameters(binding));
+            constructors.put(binding.getKey(), id);
+        }
+        return id;
+    }
+
+    /**
+     * ID of {@code (ParamType, ...)} for the binding.
+     */
+    public int parameterList(IMethodBinding binding) {
+        Integer id = parameterLists.get(binding.getKey());
+        if (id == null) {
+            id = intern(parameters(binding));
+            parameterLists.put(binding.getKey(), id);
+        }
+        return id;
+    }
+
+    /**
+     * ID of an already rendered name.
+     */
+    public int intern(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(name);
+            if (id == null) {
+                String[] current = names;
+                if (size == current.length) {
+                    current = Arrays.copyOf(current, size * 2);
+                }
+                current[size] = name;
+                names = current; // Published before the ID becomes visible in the map
+                id = size++;
+                ids.put(name, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * The rendered name of an ID returned by this table.
+     */
+    public String name(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * Renders {@code (ParamType, ...)} with simple type names, as used throughout the statement sequence.
+     */
+    public static String parameters(IMethodBinding binding) {
+        if (binding == null) return "(...)";
+        StringBuilder parameters = new StringBuilder("(");
+        ITypeBinding[] paramTypes = binding.getParameterTypes();
+        for (int i = 0; i < paramTypes.length; i++) {
+            parameters.append(paramTypes[i].getName());
+            if (i < paramTypes.length - 1) {
+                parameters.append(", ");
+            }
+        }
+        parameters.append(")");
+        return parameters.toString();
+    }
+}
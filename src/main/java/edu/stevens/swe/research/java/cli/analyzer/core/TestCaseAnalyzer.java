@@ -1,37 +1,63 @@
 package edu.stevens.swe.research.java.cli.analyzer.core;
 
+import edu.stevens.swe.research.java.cli.analyzer.Log;
 import edu.stevens.swe.research.java.cli.analyzer.ProjectCtx;
 import edu.stevens.swe.research.java.cli.analyzer.visitors.GenericMethodVisitor;
 import edu.stevens.swe.research.java.cli.analyzer.visitors.InvocationVisitor;
 import edu.stevens.swe.research.java.parser.core.utils.exceptions.ProjectDetectionException;
 import org.eclipse.jdt.core.dom.*;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.Map;
+import java.util.Set;
 
 public class TestCaseAnalyzer {
 
     private final AstParserUtil astParserUtil;
     private final ProjectCtx projectCtx;
     private final String projectRootPath;
+    private final SourceIndex sourceIndex;
+    private final MethodSummaryCache methodSummaryCache;
+    private final SymbolTable symbols;
+    private final MetricsRegistry.Timer dfsTimer;
+    private final MetricsRegistry.Timer resolveTimer;
+    private final MetricsRegistry.Histogram statementsPerTest;
+    private final MetricsRegistry.Histogram expandedMethodsPerTest;
+    private final MetricsRegistry.Counter sourceLookupMisses;
+    private final MetricsRegistry.Counter truncatedTests;
+    private final int maxDfsDepth;
+    private final int maxExpandedMethods;
+    private final long testTimeoutNanos;
 
     public TestCaseAnalyzer(AstParserUtil astParserUtil, ProjectCtx projectCtx) {
         this.astParserUtil = astParserUtil;
         this.projectCtx = projectCtx;
         this.projectRootPath = projectCtx.getProjectPath().toString();
+        this.sourceIndex = SourceIndex.forProject(projectCtx);
+        this.methodSummaryCache = projectCtx.getMethodSummaryCache();
+        this.symbols = projectCtx.getSymbolTable();
+        MetricsRegistry metrics = projectCtx.getMetricsRegistry();
+        this.dfsTimer = metrics.timer(MetricsRegistry.DFS);
+        this.resolveTimer = metrics.timer(MetricsRegistry.RESOLVE);
+        this.statementsPerTest = metrics.histogram("statementsPerTest");
+        this.expandedMethodsPerTest = metrics.histogram("expandedMethodsPerTest");
+        this.sourceLookupMisses = metrics.counter("sourceLookupMisses");
+        this.truncatedTests = metrics.counter("truncatedTests");
+        this.maxDfsDepth = Math.max(0, projectCtx.getMaxDfsDepth());
+        this.maxExpandedMethods = Math.max(0, projectCtx.getMaxExpandedMethods());
+        this.testTimeoutNanos = Math.max(0, projectCtx.getTestTimeoutMs()) * 1_000_000L;
     }
 
     public static class AnalysisResult {
-        public List<String> parsedStatementsSequence = new ArrayList<>();
+        // Statements are encoded against the run's symbol table and rendered as strings when serialized
+        transient StatementSequence statements;
+        public List<String> parsedStatementsSequence;
         public List<String> productionFunctionImplementations = new ArrayList<>();
         public String testCaseSourceCode = "";
         public List<String> importedPackages = new ArrayList<>();
@@ -43,6 +69,80 @@ public class TestCaseAnalyzer {
         public List<String> afterMethods = new ArrayList<>();
         public List<String> afterAllMethods = new ArrayList<>();
 
+        // Bookkeeping for memoization and incremental runs; transient so it is not serialized
+        transient List<String> invokedSignatureLog = new ArrayList<>(); // every signature the DFS classified
+        transient List<String> dependencyLog = new ArrayList<>(); // every project source file the DFS expanded into
+        transient List<String> expandedMethodLog = new ArrayList<>(); // "file#startLine-endLine" of every declaration found there
+        transient Map<Integer, String> declarationLog = new HashMap<>(); // symbol -> "file#startLine-endLine" of production and test-utility calls
+        transient String entrySignature; // rendered signature of the test method, the root of its call graph
+
+        // Per-test budget state
+        transient List<String> expansionKeyLog = new ArrayList<>(); // binding key of every test-utility body expanded
+        transient List<Integer> expansionLevelLog = new ArrayList<>(); // depth of each of those expansions
+        transient Set<String> expansionPath = new HashSet<>(); // binding keys of the test utilities being expanded
+        transient List<String> truncationLog = new ArrayList<>(); // every TRUNCATED_* or CYCLE marker, unindented
+        transient long deadlineNanos; // System.nanoTime() the analysis must stop at; 0 for no time budget
+        transient boolean stopped; // timed out or cancelled, the rest of the DFS is skipped
+
+        /**
+         * Project source files the analysis expanded into, for incremental invalidation.
+         */
+        public List<String> getDependencyFiles() {
+            return dependencyLog;
+        }
+
+        /**
+         * Declarations the analysis expanded into, as {@code file#startLine-endLine}, for change-scoped runs.
+         */
+        public List<String> getExpandedMethods() {
+            return expandedMethodLog;
+        }
+
+        /**
+         * Source location, as {@code file#startLine-endLine}, of every production and test-utility method
+         * the statement sequence refers to, keyed by the statement's symbol ID.
+         */
+        public Map<Integer, String> getDeclarations() {
+            return declarationLog;
+        }
+
+        /**
+         * Signature of the analyzed test method as it appears in statement sequences.
+         */
+        public String getEntrySignature() {
+            return entrySignature;
+        }
+
+        /**
+         * Marker statements of every place the analysis was cut short by a budget, a call cycle or cancellation.
+         */
+        public List<String> getTruncations() {
+            return truncationLog;
+        }
+
+        public AnalysisResult() {
+            this(new SymbolTable());
+        }
+
+        public AnalysisResult(SymbolTable symbols) {
+            this.statements = new StatementSequence(symbols);
+            this.parsedStatementsSequence = statements;
+        }
+
+        /**
+         * The encoded form of {@link #parsedStatementsSequence}.
+         */
+        public StatementSequence getStatements() {
+            return statements;
+        }
+
+        /**
+         * Statements that could not be resolved or located in source, rendered as in the statement sequence.
+         */
+        public List<String> getUnresolvedStatements() {
+            return statements.unresolvedStatements();
+        }
+
         // Helper to create the JSON filename
         public String getJsonFileName() {
             return projectName + ":" + testClassName + ":" + testCaseName;
@@ -50,7 +150,11 @@ public class TestCaseAnalyzer {
     }
 
     public AnalysisResult analyzeTestCase(CompilationUnit testCu, MethodDeclaration testMethodDeclaration, String originalFileSource) throws IOException, ProjectDetectionException {
-        AnalysisResult result = new AnalysisResult();
+        long start = dfsTimer.start();
+        AnalysisResult result = new AnalysisResult(symbols);
+        if (testTimeoutNanos > 0) {
+            result.deadlineNanos = start + testTimeoutNanos;
+        }
         result.projectName = Paths.get(projectRootPath).getFileName().toString();
         
         if (testMethodDeclaration.resolveBinding() != null && testMethodDeclaration.resolveBinding().getDeclaringClass() != null) {
@@ -67,20 +171,15 @@ public class TestCaseAnalyzer {
         int startPos = testMethodDeclaration.getStartPosition();
         int length = testMethodDeclaration.getLength();
 
-        // DEBUGGING OUTPUT
-        System.out.println("DEBUG: Analyzing method: " + result.testClassName + "." + result.testCaseName);
-        System.out.println("DEBUG: originalFileSource.length(): " + originalFileSource.length());
-        System.out.println("DEBUG: Method startPos (from AST): " + startPos);
-        System.out.println("DEBUG: Method length (from AST): " + length);
-        System.out.println("DEBUG: Calculated end position (startPos + length): " + (startPos + length));
-        // END DEBUGGING OUTPUT
+        Log.debug("DEBUG: Analyzing method: %s.%s (startPos %d, length %d, end %d, file length %d)",
+                result.testClassName, result.testCaseName, startPos, length, startPos + length, originalFileSource.length());
 
         // Use originalFileSource for substring extraction
         if (startPos >= 0 && length > 0 && (startPos + length) <= originalFileSource.length()) {
             result.testCaseSourceCode = originalFileSource.substring(startPos, startPos + length);
         } else {
-            System.err.println("Warning: Invalid start/length for test case source code extraction. Method: " + testMethodDeclaration.getName().getIdentifier() + " in class " + result.testClassName);
-            System.err.println("  Start: " + startPos + ", Length: " + length + ", File Length: " + originalFileSource.length());
+            Log.warn("Warning: Invalid start/length for test case source code extraction. Method: " + testMethodDeclaration.getName().getIdentifier() + " in class " + result.testClassName);
+            Log.warn("  Start: " + startPos + ", Length: " + length + ", File Length: " + originalFileSource.length());
             result.testCaseSourceCode = "// Error extracting source code";
         }
 
@@ -97,11 +196,22 @@ public class TestCaseAnalyzer {
         extractLifecycleMethods(testCu, result, originalFileSource);
 
         // Perform DFS-like analysis for parsed_statements_sequence and production_function_implementations
-        dfsAnalyze(testCu, testMethodDeclaration, 0, result, result.testClassName + "." + result.testCaseName + getParameters(testMethodDeclaration.resolveBinding()), originalFileSource);
+        IMethodBinding testBinding = testMethodDeclaration.resolveBinding();
+        int entrySymbol = testBinding != null && testBinding.getDeclaringClass() != null
+                ? symbols.method(testBinding)
+                : symbols.intern(result.testClassName + "." + result.testCaseName + SymbolTable.parameters(testBinding));
+        result.entrySignature = symbols.name(entrySymbol);
+        dfsAnalyze(testCu, testMethodDeclaration, 0, result, entrySymbol, originalFileSource);
+        dfsTimer.stop(start);
+        if (!result.truncationLog.isEmpty()) {
+            truncatedTests.increment();
+        }
+        statementsPerTest.record(result.parsedStatementsSequence.size());
+        expandedMethodsPerTest.record(result.expandedMethodLog.size());
         return result;
     }
 
-    private void dfsAnalyze(CompilationUnit currentCu, MethodDeclaration currentMethod, int level, AnalysisResult result, String originalEntryMethodSignature, String currentOriginalSource) throws IOException, ProjectDetectionException {
+    private void dfsAnalyze(CompilationUnit currentCu, MethodDeclaration currentMethod, int level, AnalysisResult result, int entrySymbol, String currentOriginalSource) throws IOException, ProjectDetectionException {
         InvocationVisitor visitor = new InvocationVisitor();
         currentMethod.accept(visitor);
 
@@ -113,150 +223,162 @@ public class TestCaseAnalyzer {
         IMethodBinding currentMethodBinding = currentMethod.resolveBinding();
         if (currentMethodBinding == null) { 
             // Cannot resolve binding for currentMethod, skip further analysis of this method
-            System.err.println("Warning: Could not resolve binding for method: " + currentMethod.getName().getIdentifier());
+            Log.warn("Warning: Could not resolve binding for method: " + currentMethod.getName().getIdentifier());
             return; 
         }
-        String currentMethodQualifiedNameAndParam = currentMethodBinding.getDeclaringClass().getQualifiedName() + "." + currentMethod.getName().toString() + getParameters(currentMethodBinding);
+        int currentMethodSymbol = symbols.method(currentMethodBinding);
+        StatementSequence statements = result.statements;
 
         for (ASTNode node : visitor.getMethods()) {
-            String statementPrefix = getSpace(level);
-            String statementDetails = "";
-            String lineNumberRange = getLineNumberRange(currentCu, node);
+            int startLine = currentCu.getLineNumber(node.getStartPosition());
+            int endLine = currentCu.getLineNumber(node.getStartPosition() + node.getLength() - 1);
+            if (outOfTime(result, level, currentMethodSymbol, startLine, endLine)) {
+                return;
+            }
 
             if (node instanceof MethodInvocation) {
                 MethodInvocation mi = (MethodInvocation) node;
                 IMethodBinding binding = mi.resolveMethodBinding();
 
                 if (binding == null) {
-                    statementDetails = "UNRESOLVED_INVOCATION: " + mi.toString();
-                    result.parsedStatementsSequence.add(statementPrefix + statementDetails + "#" + lineNumberRange);
+                    statements.addText(StatementSequence.Kind.UNRESOLVED_INVOCATION, mi.toString(), level, startLine, endLine);
                     continue;
                 }
                 
-                String calledMethodSignature = binding.getDeclaringClass().getQualifiedName() + "." + mi.getName().toString() + getParameters(binding);
+                int calledMethodSymbol = symbols.method(binding);
+                result.invokedSignatureLog.add(symbols.name(calledMethodSymbol));
                  // Recursive call detection (comparing against the very first method in the call chain)
-                if (calledMethodSignature.equals(originalEntryMethodSignature)) {
-                    System.out.println("Recursive call to entry test method detected, adding to sequence and stopping this path: " + calledMethodSignature);
-                    result.parsedStatementsSequence.add(statementPrefix + "RECURSIVE_TO_ENTRY " + calledMethodSignature + "#" + lineNumberRange);
+                if (calledMethodSymbol == entrySymbol) {
+                    Log.debug("Recursive call to entry test method detected, adding to sequence and stopping this path: %s", symbols.name(calledMethodSymbol));
+                    statements.add(StatementSequence.Kind.RECURSIVE_TO_ENTRY, calledMethodSymbol, level, startLine, endLine);
                     continue; 
                 }
                 // Direct recursion for the current method being processed
-                if (calledMethodSignature.equals(currentMethodQualifiedNameAndParam)) {
-                     System.out.println("Direct recursive call detected, adding to sequence and stopping this path: " + calledMethodSignature);
-                    result.parsedStatementsSequence.add(statementPrefix + "DIRECT_RECURSIVE " + calledMethodSignature + "#" + lineNumberRange);
+                if (calledMethodSymbol == currentMethodSymbol) {
+                    Log.debug("Direct recursive call detected, adding to sequence and stopping this path: %s", symbols.name(calledMethodSymbol));
+                    statements.add(StatementSequence.Kind.DIRECT_RECURSIVE, calledMethodSymbol, level, startLine, endLine);
                     continue;
                 }
 
+                StatementSequence.Kind kind;
+                int symbol = calledMethodSymbol;
                 if (isAssert(mi)) {
-                    statementDetails = "ASSERT " + calledMethodSignature;
+                    kind = StatementSequence.Kind.ASSERT;
                 } else if (isJunitExpectedExceptionRule(mi, binding)) {
-                    statementDetails = "EXPECTEDEXCEPTION_RULE " + calledMethodSignature;
+                    kind = StatementSequence.Kind.EXPECTEDEXCEPTION_RULE;
                 } else if (isMockingFramework(mi, binding)) {
-                    statementDetails = "MOCK " + calledMethodSignature;
+                    kind = StatementSequence.Kind.MOCK;
                 } else if (isThirdParty(binding, currentMethodPackageName)) {
                     if (isGetter(mi, binding)) {
-                        statementDetails = "THIRD GET " + calledMethodSignature;
+                        kind = StatementSequence.Kind.THIRD_GET;
                     } else if (isSetter(mi, binding)) {
-                        statementDetails = "THIRD SET " + calledMethodSignature;
+                        kind = StatementSequence.Kind.THIRD_SET;
                     } else {
-                        statementDetails = "THIRD " + calledMethodSignature;
+                        kind = StatementSequence.Kind.THIRD;
                     }
                 } else {
                     // Potentially project code (production or test utility)
                     ITypeBinding declaringClass = binding.getDeclaringClass();
                     if (declaringClass == null) {
-                         statementDetails = "UNRESOLVED_DECLARING_CLASS: " + mi.toString();
-                         result.parsedStatementsSequence.add(statementPrefix + statementDetails + "#" + lineNumberRange);
+                         statements.addText(StatementSequence.Kind.UNRESOLVED_DECLARING_CLASS, mi.toString(), level, startLine, endLine);
                          continue;
                     }
                     String className = declaringClass.getQualifiedName();
+                    // The resolve phase covers the source lookup and the declaration search, not the parse between them
+                    long resolveStart = resolveTimer.start();
                     String sourceFilePath = getSourceFilePathForClass(className, projectRootPath);
+                    long resolveNanos = System.nanoTime() - resolveStart;
 
                     if (sourceFilePath != null) {
                         AstParserUtil.ParseResult expandedParseResultFromUtil = astParserUtil.parse(sourceFilePath);
+                        result.dependencyLog.add(sourceFilePath);
                         CompilationUnit expandedCu = expandedParseResultFromUtil.compilationUnit;
                         String expandedOriginalSource = expandedParseResultFromUtil.originalSource; // Original source for the expandedCu
 
+                        resolveStart = resolveTimer.start();
                         MethodDeclaration md = findMethodDeclaration(binding, expandedCu);
+                        resolveTimer.record(resolveNanos + System.nanoTime() - resolveStart);
 
                         if (md != null) {
+                            String declaration = sourceFilePath + "#" + expandedCu.getLineNumber(md.getStartPosition())
+                                    + "-" + expandedCu.getLineNumber(md.getStartPosition() + md.getLength() - 1);
+                            result.expandedMethodLog.add(declaration);
                             if (isProductionCode(sourceFilePath)) {
-                                String qualifiedName = md.resolveBinding().getDeclaringClass().getQualifiedName() + "." + md.getName().toString();
+                                symbol = symbols.declaredMethod(binding, md.resolveBinding());
+                                result.declarationLog.put(symbol, declaration);
                                 if (isGetter(mi, binding)) {
-                                    statementDetails = "GET " + qualifiedName + getParameters(binding);
+                                    kind = StatementSequence.Kind.GET;
                                 } else if (isSetter(mi, binding)) {
-                                    statementDetails = "SET " + qualifiedName + getParameters(binding);
+                                    kind = StatementSequence.Kind.SET;
                                 } else {
-                                    statementDetails = qualifiedName + getParameters(binding);
+                                    kind = StatementSequence.Kind.PRODUCTION;
                                 }
 
                                 // Add production function implementation using expandedOriginalSource
                                 int prodStartPos = md.getStartPosition();
                                 int prodLength = md.getLength();
 
-                                // DEBUGGING OUTPUT FOR PRODUCTION CODE
-                                System.out.println("DEBUG: Production method: " + qualifiedName);
-                                System.out.println("DEBUG: expandedOriginalSource.length(): " + expandedOriginalSource.length());
-                                System.out.println("DEBUG: Prod method startPos (from AST): " + prodStartPos);
-                                System.out.println("DEBUG: Prod method length (from AST): " + prodLength);
-                                System.out.println("DEBUG: Prod calculated end position (startPos + length): " + (prodStartPos + prodLength));
-                                // END DEBUGGING OUTPUT
+                                Log.debug("DEBUG: Production method: %s (startPos %d, length %d, end %d, file length %d)",
+                                        symbols.name(symbol), prodStartPos, prodLength, prodStartPos + prodLength, expandedOriginalSource.length());
 
                                 if (prodStartPos >=0 && prodLength > 0 && (prodStartPos + prodLength) <= expandedOriginalSource.length()) {
                                     result.productionFunctionImplementations.add(expandedOriginalSource.substring(prodStartPos, prodStartPos + prodLength));
                                 } else {
-                                    System.err.println("Warning: Invalid start/length for production code extraction. Method: " + md.getName().getIdentifier());
-                                    result.productionFunctionImplementations.add("// Error extracting source for " + qualifiedName);
+                                    Log.warn("Warning: Invalid start/length for production code extraction. Method: " + md.getName().getIdentifier());
+                                    result.productionFunctionImplementations.add("// Error extracting source for "
+                                            + md.resolveBinding().getDeclaringClass().getQualifiedName() + "." + md.getName());
                                 }
                             } else if (isTestCode(sourceFilePath)) { // Test utility method
-                                String qualifiedName = md.resolveBinding().getDeclaringClass().getQualifiedName() + "." + md.getName().toString();
+                                symbol = symbols.declaredMethod(binding, md.resolveBinding());
+                                result.declarationLog.put(symbol, declaration);
                                 if (isGetter(mi, binding)) {
-                                    statementDetails = "TEST GET " + qualifiedName + getParameters(binding);
+                                    kind = StatementSequence.Kind.TEST_GET;
                                 } else if (isSetter(mi, binding)) {
-                                    statementDetails = "TEST SET " + qualifiedName + getParameters(binding);
+                                    kind = StatementSequence.Kind.TEST_SET;
                                 } else {
-                                    statementDetails = "TEST " + qualifiedName + getParameters(binding);
+                                    kind = StatementSequence.Kind.TEST;
                                 }
                                 // When recursing into a test utility, pass its own CU and its original source
-                                dfsAnalyze(expandedCu, md, level + 1, result, originalEntryMethodSignature, expandedOriginalSource);
+                                expandTestUtility(expandedCu, md, level + 1, result, entrySymbol, expandedOriginalSource, sourceFilePath,
+                                        calledMethodSymbol, startLine, endLine);
                             } else {
-                                statementDetails = "UNKNOWN_PROJECT_CODE " + calledMethodSignature; 
+                                kind = StatementSequence.Kind.UNKNOWN_PROJECT_CODE;
                             }
                         } else {
-                            statementDetails = "METHOD_NOT_FOUND_IN_SOURCE " + calledMethodSignature;
+                            kind = StatementSequence.Kind.METHOD_NOT_FOUND_IN_SOURCE;
                         }
                     } else {
-                        statementDetails = "SOURCE_FILE_NOT_FOUND " + calledMethodSignature;
+                        resolveTimer.record(resolveNanos);
+                        kind = StatementSequence.Kind.SOURCE_FILE_NOT_FOUND;
                     }
                 }
-                result.parsedStatementsSequence.add(statementPrefix + statementDetails + "#" + lineNumberRange);
+                statements.add(kind, symbol, level, startLine, endLine);
 
             } else if (node instanceof ClassInstanceCreation) {
                 ClassInstanceCreation cic = (ClassInstanceCreation) node;
                 IMethodBinding constructorBinding = cic.resolveConstructorBinding();
                 if (constructorBinding != null && constructorBinding.getDeclaringClass()!=null) {
-                    String declaringClassName = constructorBinding.getDeclaringClass().getQualifiedName();
-                    if (declaringClassName.startsWith("java.")) {
-                        statementDetails = "NEW_JDK_CLASS " + declaringClassName + getParameters(constructorBinding);
-                    } else if (constructorBinding.getDeclaringClass().isAnonymous()){
-                        statementDetails = "NEW ANONYMOUS_CLASS" + getParameters(constructorBinding); // Might need more info for anonymous
-                    }else {
-                        statementDetails = "NEW " + declaringClassName + getParameters(constructorBinding);
+                    ITypeBinding declaringClass = constructorBinding.getDeclaringClass();
+                    if (declaringClass.isAnonymous()) {
+                        statements.add(StatementSequence.Kind.NEW_ANONYMOUS_CLASS, symbols.parameterList(constructorBinding), level, startLine, endLine); // Might need more info for anonymous
+                    } else {
+                        int constructorSymbol = symbols.constructor(constructorBinding);
+                        StatementSequence.Kind kind = symbols.name(constructorSymbol).startsWith("java.")
+                                ? StatementSequence.Kind.NEW_JDK_CLASS : StatementSequence.Kind.NEW;
+                        statements.add(kind, constructorSymbol, level, startLine, endLine);
                     }
                 } else {
-                     statementDetails = "UNRESOLVED_CONSTRUCTOR: " + cic.toString();
+                    statements.addText(StatementSequence.Kind.UNRESOLVED_CONSTRUCTOR, cic.toString(), level, startLine, endLine);
                 }
-                result.parsedStatementsSequence.add(statementPrefix + statementDetails + "#" + lineNumberRange);
 
             } else if (node instanceof ExpressionMethodReference) {
                 ExpressionMethodReference emr = (ExpressionMethodReference) node;
                 IMethodBinding emrBinding = emr.resolveMethodBinding();
                 if (emrBinding != null) {
-                    statementDetails = "METHOD_REF " + emrBinding.getDeclaringClass().getQualifiedName() + "." + emrBinding.getName() + getParameters(emrBinding);
+                    statements.add(StatementSequence.Kind.METHOD_REF, symbols.method(emrBinding), level, startLine, endLine);
                 } else {
-                    statementDetails = "UNRESOLVED_METHOD_REF: " + emr.toString();
+                    statements.addText(StatementSequence.Kind.UNRESOLVED_METHOD_REF, emr.toString(), level, startLine, endLine);
                 }
-                result.parsedStatementsSequence.add(statementPrefix + statementDetails + "#" + lineNumberRange);
 
             } else if (node instanceof NormalAnnotation) {
                 // This logic is from the old InvocationVisitor, check if it's needed for @Test(expected=...)
@@ -266,8 +388,8 @@ public class TestCaseAnalyzer {
                         if ("expected".equals(mvp.getName().getIdentifier())) {
                             ITypeBinding exceptionType = mvp.getValue().resolveTypeBinding();
                             if (exceptionType != null) {
-                                statementDetails = "EXPECTEDEXCEPTION_ANNOTATION " + exceptionType.getQualifiedName();
-                                result.parsedStatementsSequence.add(statementPrefix + statementDetails + "#" + lineNumberRange);
+                                statements.add(StatementSequence.Kind.EXPECTEDEXCEPTION_ANNOTATION, symbols.intern(exceptionType.getQualifiedName()),
+                                        level, startLine, endLine);
                             }
                         }
                     }
@@ -276,6 +398,89 @@ public class TestCaseAnalyzer {
         }
     }
 
+    /**
+     * Expands a test-utility method, replaying its memoized expansion when another test already expanded it.
+     * If the method is already being expanded further up the call chain, or expanding it would exceed the
+     * test's depth or expansion budget, its body is replaced by a single marker statement.
+     */
+    private void expandTestUtility(CompilationUnit utilityCu, MethodDeclaration utilityMethod, int level, AnalysisResult result,
+                                   int entrySymbol, String utilityOriginalSource, String utilitySourceFile,
+                                   int calledMethodSymbol, int startLine, int endLine) throws IOException, ProjectDetectionException {
+        IMethodBinding utilityBinding = utilityMethod.resolveBinding();
+        String bindingKey = utilityBinding != null ? utilityBinding.getKey() : null;
+        if (bindingKey != null && result.expansionPath.contains(bindingKey)) {
+            truncate(result, level, StatementSequence.Kind.CYCLE, calledMethodSymbol, startLine, endLine);
+            return;
+        }
+        if (maxDfsDepth > 0 && level > maxDfsDepth) {
+            truncate(result, level, StatementSequence.Kind.TRUNCATED_DEPTH, calledMethodSymbol, startLine, endLine);
+            return;
+        }
+        if (maxExpandedMethods > 0 && result.expansionKeyLog.size() >= maxExpandedMethods) {
+            truncate(result, level, StatementSequence.Kind.TRUNCATED_BUDGET, calledMethodSymbol, startLine, endLine);
+            return;
+        }
+        if (bindingKey == null) {
+            expandBody(utilityCu, utilityMethod, level, result, entrySymbol, utilityOriginalSource, symbols.name(calledMethodSymbol));
+            return;
+        }
+
+        String entryMethodSignature = symbols.name(entrySymbol);
+        MethodSummaryCache.MethodSummary summary = methodSummaryCache.get(bindingKey);
+        if (summary != null && !summary.dependsOnEntry(entryMethodSignature)
+                && !summary.exceeds(result, level, maxDfsDepth, maxExpandedMethods)) {
+            summary.replay(result, level);
+            return;
+        }
+
+        MethodSummaryCache.Mark mark = methodSummaryCache.mark(result);
+        result.expansionPath.add(bindingKey);
+        try {
+            expandBody(utilityCu, utilityMethod, level, result, entrySymbol, utilityOriginalSource, bindingKey);
+        } finally {
+            result.expansionPath.remove(bindingKey);
+        }
+        methodSummaryCache.capture(bindingKey, result, mark, level, utilitySourceFile, entryMethodSignature);
+    }
+
+    private void expandBody(CompilationUnit utilityCu, MethodDeclaration utilityMethod, int level, AnalysisResult result,
+                            int entrySymbol, String utilityOriginalSource, String expansionKey) throws IOException, ProjectDetectionException {
+        result.expansionKeyLog.add(expansionKey);
+        result.expansionLevelLog.add(level);
+        dfsAnalyze(utilityCu, utilityMethod, level, result, entrySymbol, utilityOriginalSource);
+    }
+
+    /**
+     * Replaces the expansion of a call with a marker statement and records it for the analysis log.
+     */
+    private void truncate(AnalysisResult result, int level, StatementSequence.Kind marker, int symbol, int startLine, int endLine) {
+        result.statements.add(marker, symbol, level, startLine, endLine);
+        String statement = result.statements.render(result.statements.size() - 1);
+        Log.debug("%s in %s.%s", statement, result.testClassName, result.testCaseName);
+        result.truncationLog.add(statement);
+    }
+
+    /**
+     * Checks the test's wall-clock budget and the worker's interrupt flag between statements. The first
+     * time either trips, a marker is added at the current depth and every enclosing expansion stops.
+     */
+    private boolean outOfTime(AnalysisResult result, int level, int currentMethodSymbol, int startLine, int endLine) {
+        if (result.stopped) {
+            return true;
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            result.stopped = true;
+            truncate(result, level, StatementSequence.Kind.TRUNCATED_CANCELLED, currentMethodSymbol, startLine, endLine);
+            return true;
+        }
+        if (result.deadlineNanos != 0 && System.nanoTime() - result.deadlineNanos >= 0) {
+            result.stopped = true;
+            truncate(result, level, StatementSequence.Kind.TRUNCATED_TIMEOUT, currentMethodSymbol, startLine, endLine);
+            return true;
+        }
+        return false;
+    }
+
     private MethodDeclaration findMethodDeclaration(IMethodBinding binding, CompilationUnit cu) {
         MethodDeclaration md = (MethodDeclaration) cu.findDeclaringNode(binding.getKey());
         if (md == null) {
@@ -363,30 +568,6 @@ public class TestCaseAnalyzer {
         return binding.getDeclaringClass().getQualifiedName().equals("org.junit.rules.ExpectedException");
     }
 
-    private String getLineNumberRange(CompilationUnit cu, ASTNode node) {
-        int startLine = cu.getLineNumber(node.getStartPosition());
-        int endLine = cu.getLineNumber(node.getStartPosition() + node.getLength() - 1);
-        return "[" + startLine + "-" + endLine + "]";
-    }
-
-    private String getParameters(IMethodBinding binding) {
-        if (binding == null) return "(...)";
-        StringBuilder parameters = new StringBuilder("(");
-        ITypeBinding[] paramTypes = binding.getParameterTypes();
-        for (int i = 0; i < paramTypes.length; i++) {
-            parameters.append(paramTypes[i].getName());
-            if (i < paramTypes.length - 1) {
-                parameters.append(", ");
-            }
-        }
-        parameters.append(")");
-        return parameters.toString();
-    }
-
-    private String getSpace(int count) {
-        return "    ".repeat(Math.max(0, count));
-    }
-
     // Heuristics to determine if a path is production or test code.
     // These should ideally be configurable or more robustly determined from ProjectCtx.
     private boolean isProductionCode(String filePath) {
@@ -402,76 +583,18 @@ public class TestCaseAnalyzer {
         return normalizedPath.contains("/src/test/");
     }
     
-    // Utility from old MethodAnalyzer to find source file for a class.
-    // This might need to be made more robust or use ProjectCtx information.
+    // Resolves the source file of a project class through the project-wide SourceIndex,
+    // which maps top-level and nested type names to files by their package declaration.
+    // sourceRootPath is kept for API compatibility; the index always covers the whole project.
     public String getSourceFilePathForClass(String className, String sourceRootPath) {
-        // Handle inner classes: for inner classes like "com.example.Outer.Inner", 
-        // we need to find the file for "com.example.Outer.java"
-        String outerClassName = className;
-        if (className.contains(".") && Character.isUpperCase(className.charAt(className.lastIndexOf('.') + 1))) {
-            // This might be an inner class. Find the outer class.
-            // Look for pattern like "package.Class.InnerClass" where the last part starts with uppercase
-            String[] parts = className.split("\\.");
-            StringBuilder outerClassBuilder = new StringBuilder();
-            
-            for (int i = 0; i < parts.length; i++) {
-                if (i > 0 && Character.isUpperCase(parts[i].charAt(0))) {
-                    // Found first part that starts with uppercase, this might be the start of class names
-                    // Check if we already have a class name (outer class)
-                    if (outerClassBuilder.length() > 0 && Character.isUpperCase(parts[i-1].charAt(0))) {
-                        // Previous part was also a class name, so current part is inner class
-                        break;
-                    }
-                }
-                
-                if (outerClassBuilder.length() > 0) {
-                    outerClassBuilder.append(".");
-                }
-                outerClassBuilder.append(parts[i]);
-            }
-            outerClassName = outerClassBuilder.toString();
-        }
-        
-        System.out.println("DEBUG: Looking for source file - Original class: " + className + ", Outer class: " + outerClassName);
-        
-        String classPath = outerClassName.replace('.', File.separatorChar) + ".java";
-        Path effectiveSourceRoot = Paths.get(sourceRootPath); 
-
-        // Attempt to find in standard main/java or test/java if sourceRootPath is project root
-        // This is a heuristic. ProjectCtx should ideally provide specific source roots.
-        List<Path> potentialSourceRoots = new ArrayList<>();
-        if (Files.isDirectory(effectiveSourceRoot.resolve("src").resolve("main").resolve("java"))) {
-            potentialSourceRoots.add(effectiveSourceRoot.resolve("src").resolve("main").resolve("java"));
-        }
-        if (Files.isDirectory(effectiveSourceRoot.resolve("src").resolve("test").resolve("java"))) {
-            potentialSourceRoots.add(effectiveSourceRoot.resolve("src").resolve("test").resolve("java"));
-        }
-        // If no sub-source roots found, use the provided sourceRootPath directly
-        if (potentialSourceRoots.isEmpty()) {
-            potentialSourceRoots.add(effectiveSourceRoot);
-        }
-        // Also consider the project root itself if it's not already covered
-        if (!potentialSourceRoots.contains(Paths.get(this.projectRootPath))){
-             potentialSourceRoots.add(Paths.get(this.projectRootPath));
-        }
-
-        for (Path root : potentialSourceRoots) {
-            try (Stream<Path> pathStream = Files.walk(root)) {
-                List<Path> foundPaths = pathStream
-                        .filter(Files::isRegularFile)
-                        .filter(path -> path.toString().endsWith(classPath))
-                        .collect(Collectors.toList());
-                if (!foundPaths.isEmpty()) {
-                    // Prefer paths that match more closely or handle multiple matches if necessary
-                    System.out.println("DEBUG: Found source file: " + foundPaths.get(0).toString());
-                    return foundPaths.get(0).toString(); 
-                }
-            } catch (IOException e) {
-                System.err.println("Error walking path: " + root + " : " + e.getMessage());
-            }
+        Path sourceFile = sourceIndex.lookup(className);
+        if (sourceFile == null) {
+            sourceLookupMisses.increment();
+            Log.warn("Warning: Source file not found for class %s in source index of %s", className, projectRootPath);
+            return null;
         }
-        System.err.println("Warning: Source file not found for class " + className + " (searched as " + outerClassName + ") under roots: " + potentialSourceRoots);
-        return null;
+        Log.debug("DEBUG: Found source file for %s: %s", className, sourceFile);
+        return sourceFile.toString();
     }
 
     private void extractLifecycleMethods(CompilationUnit testCu, AnalysisResult result, String originalFileSource) {
@@ -496,7 +619,7 @@ public class TestCaseAnalyzer {
                                 "org.junit.jupiter.api.BeforeEach".equals(annotationName) ||
                                 "BeforeEach".equals(annotationName)) {
                                 result.beforeMethods.add(methodSourceCode);
-                                System.out.println("  Found @Before method: " + method.getName().getIdentifier());
+                                Log.debug("  Found @Before method: %s", method.getName().getIdentifier());
                             }
                             
                             // Check for @BeforeAll annotations (JUnit 5)
@@ -505,7 +628,7 @@ public class TestCaseAnalyzer {
                                      "BeforeClass".equals(annotationName) ||
                                      "org.junit.BeforeClass".equals(annotationName)) {
                                 result.beforeAllMethods.add(methodSourceCode);
-                                System.out.println("  Found @BeforeAll/@BeforeClass method: " + method.getName().getIdentifier());
+                                Log.debug("  Found @BeforeAll/@BeforeClass method: %s", method.getName().getIdentifier());
                             }
                             
                             // Check for @After annotations (JUnit 4 and 5)
@@ -514,7 +637,7 @@ public class TestCaseAnalyzer {
                                      "org.junit.jupiter.api.AfterEach".equals(annotationName) ||
                                      "AfterEach".equals(annotationName)) {
                                 result.afterMethods.add(methodSourceCode);
-                                System.out.println("  Found @After method: " + method.getName().getIdentifier());
+                                Log.debug("  Found @After method: %s", method.getName().getIdentifier());
                             }
                             
                             // Check for @AfterAll annotations (JUnit 5)
@@ -523,7 +646,7 @@ public class TestCaseAnalyzer {
                                      "AfterClass".equals(annotationName) ||
                                      "org.junit.AfterClass".equals(annotationName)) {
                                 result.afterAllMethods.add(methodSourceCode);
-                                System.out.println("  Found @AfterAll/@AfterClass method: " + method.getName().getIdentifier());
+                                Log.debug("  Found @AfterAll/@AfterClass method: %s", method.getName().getIdentifier());
                             }
                         }
                     }
@@ -539,7 +662,7 @@ public class TestCaseAnalyzer {
         if (startPos >= 0 && length > 0 && (startPos + length) <= originalFileSource.length()) {
             return originalFileSource.substring(startPos, startPos + length);
         } else {
-            System.err.println("Warning: Invalid start/length for lifecycle method source code extraction. Method: " + method.getName().getIdentifier());
+            Log.warn("Warning: Invalid start/length for lifecycle method source code extraction. Method: " + method.getName().getIdentifier());
             return "// Error extracting source code for " + method.getName().getIdentifier();
         }
     }
@@ -0,0 +1,115 @@
+package edu.stevens.swe.research.java.cli.analyzer.output;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Hands records to a dedicated writer thread through a bounded queue, so analysis threads do not wait
+ * on disk. Callers only block when the queue is full, which keeps memory bounded if the disk falls behind.
+ * A write failure on the writer thread is reported by the next {@link #write} or by {@link #close()}.
+ */
+public class AsyncResultSink implements ResultSink {
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static class Pending {
+        final String name;
+        final Object record;
+
+        Pending(String name, Object record) {
+            this.name = name;
+            this.record = record;
+        }
+    }
+
+    private static final Pending END = new Pending(null, null);
+
+    private final ResultSink delegate;
+    private final BlockingQueue<Pending> queue;
+    private final Thread writerThread;
+    private volatile IOException failure;
+    private volatile boolean closed = false;
+
+    public AsyncResultSink(ResultSink delegate, int capacity) {
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writerThread = new Thread(this::drain, "result-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                Pending pending = queue.take();
+                if (pending == END) {
+                    return;
+                }
+                if (failure == null) {
+                    try {
+                        delegate.write(pending.name, pending.record);
+                    } catch (IOException | RuntimeException e) {
+                        failure = e instanceof IOException ? (IOException) e : new IOException(e);
+                        // Keep draining so producers blocked on a full queue are released
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void write(String name, Object record) throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (closed) {
+            throw new IOException("Result sink is closed");
+        }
+        try {
+            queue.put(new Pending(name, record));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while queueing result " + name, e);
+        }
+    }
+
+    @Override
+    public int pendingRecords() {
+        return queue.size();
+    }
+
+    @Override
+    public String describe(String name) {
+        return delegate.describe(name);
+    }
+
+    @Override
+    public String summarize() {
+        return delegate.summarize();
+    }
+
+    /**
+     * Waits until every queued record is written, then closes the underlying sink.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            queue.put(END);
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while flushing results", e);
+        } finally {
+            delegate.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,440 @@
+package edu.stevens.swe.research.java.cli.analyzer.output;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import edu.stevens.swe.research.java.cli.analyzer.core.StatementSequence;
+import edu.stevens.swe.research.java.cli.analyzer.core.TestCaseAnalyzer;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams analysis results into a directory of column files, so a dataset loader can map whole columns
+ * instead of parsing one JSON document per test. Signatures, statement kinds, class names, imported
+ * packages and method bodies are dictionary-encoded; only the dictionary keys are held in memory, and
+ * method bodies are keyed by a 128-bit digest, so a body is not kept once it has been written.
+ *
+ * Every column is its own file of big-endian values: {@code .i32} and {@code .i64} hold one fixed-width
+ * value per row, string columns hold UTF-8 bytes in {@code .utf8} and each row's end offset in
+ * {@code .off} (int64). {@code schema.json}, written on close, lists the tables, their row counts,
+ * columns and files. Rows of the child tables (statements, implementations, imports, lifecycle) refer
+ * to their test by row number, and each test row stores where its children end in every child table.
+ */
+public class ColumnarSink implements ResultSink {
+
+    public static final String FORMAT = "javalang-columnar";
+    public static final int VERSION = 1;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Description of the dataset, written as schema.json.
+     */
+    static class Schema {
+        String format = FORMAT;
+        int version = VERSION;
+        String byteOrder = "big-endian";
+        String project;
+        Map<String, String> kindPrefixes = new LinkedHashMap<>(); // Statement kind -> rendered prefix, to rebuild statement strings
+        Map<String, Table> tables = new LinkedHashMap<>();
+        Map<String, Table> dictionaries = new LinkedHashMap<>();
+    }
+
+    static class Table {
+        long rows;
+        List<ColumnInfo> columns = new ArrayList<>();
+    }
+
+    static class ColumnInfo {
+        String name;
+        String type; // int32, int64 or string
+        String dictionary; // Dictionary the int32 values index, null for plain values
+        List<String> files = new ArrayList<>();
+    }
+
+    /**
+     * One column being appended to.
+     */
+    private interface Column extends AutoCloseable {
+        ColumnInfo info();
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private final class IntColumn implements Column {
+        private final ColumnInfo info = new ColumnInfo();
+        private final DataOutputStream out;
+
+        IntColumn(String table, String name, String dictionary) throws IOException {
+            info.name = name;
+            info.type = "int32";
+            info.dictionary = dictionary;
+            info.files.add(table + "." + name + ".i32");
+            out = open(info.files.get(0));
+        }
+
+        void add(int value) throws IOException {
+            out.writeInt(value);
+        }
+
+        public ColumnInfo info() { return info; }
+
+        public void close() throws IOException { out.close(); }
+    }
+
+    private final class LongColumn implements Column {
+        private final ColumnInfo info = new ColumnInfo();
+        private final DataOutputStream out;
+
+        LongColumn(String table, String name) throws IOException {
+            info.name = name;
+            info.type = "int64";
+            info.files.add(table + "." + name + ".i64");
+            out = open(info.files.get(0));
+        }
+
+        void add(long value) throws IOException {
+            out.writeLong(value);
+        }
+
+        public ColumnInfo info() { return info; }
+
+        public void close() throws IOException { out.close(); }
+    }
+
+    private final class StringColumn implements Column {
+        private final ColumnInfo info = new ColumnInfo();
+        private final DataOutputStream data;
+        private final DataOutputStream offsets;
+        private long end = 0;
+
+        StringColumn(String table, String name) throws IOException {
+            info.name = name;
+            info.type = "string";
+            info.files.add(table + "." + name + ".utf8");
+            info.files.add(table + "." + name + ".off");
+            data = open(info.files.get(0));
+            offsets = open(info.files.get(1));
+        }
+
+        void add(String value) throws IOException {
+            add((value != null ? value : "").getBytes(StandardCharsets.UTF_8));
+        }
+
+        void add(byte[] bytes) throws IOException {
+            data.write(bytes);
+            end += bytes.length;
+            offsets.writeLong(end);
+        }
+
+        public ColumnInfo info() { return info; }
+
+        public void close() throws IOException {
+            data.close();
+            offsets.close();
+        }
+    }
+
+    /**
+     * First 128 bits of a value's SHA-256, the key of a hashed dictionary.
+     */
+    private static final class Digest {
+        final long high;
+        final long low;
+
+        Digest(byte[] sha256) {
+            long h = 0, l = 0;
+            for (int i = 0; i < 8; i++) {
+                h = (h << 8) | (sha256[i] & 0xFF);
+                l = (l << 8) | (sha256[i + 8] & 0xFF);
+            }
+            high = h;
+            low = l;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Digest && ((Digest) other).high == high && ((Digest) other).low == low;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(high);
+        }
+    }
+
+    /**
+     * Append-only dictionary: a value gets the next ID the first time it is seen and is written immediately.
+     * A hashed dictionary keys the IDs by a digest of the value, so its memory does not grow with value length.
+     */
+    private final class Dictionary {
+        final String name;
+        final Map<Object, Integer> ids = new HashMap<>();
+        final StringColumn values;
+        final MessageDigest sha256; // null unless hashed
+
+        Dictionary(String name, boolean hashed) throws IOException {
+            this.name = name;
+            this.values = new StringColumn("dict", name);
+            try {
+                this.sha256 = hashed ? MessageDigest.getInstance("SHA-256") : null;
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+
+        int id(String value) throws IOException {
+            if (sha256 == null) {
+                Integer id = ids.get(value);
+                if (id == null) {
+                    id = ids.size();
+                    ids.put(value, id);
+                    values.add(value);
+                }
+                return id;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            Digest key = new Digest(sha256.digest(bytes));
+            Integer id = ids.get(key);
+            if (id == null) {
+                id = ids.size();
+                ids.put(key, id);
+                values.add(bytes);
+            }
+            return id;
+        }
+    }
+
+    private final Path directory;
+    private final Schema schema = new Schema();
+    private final List<Column> columns = new ArrayList<>();
+
+    private final Dictionary kinds;
+    private final Dictionary signatures;
+    private final Dictionary classes;
+    private final Dictionary bodies;
+    private final Dictionary packages;
+    private final Dictionary phases;
+
+    private final IntColumn testClass;
+    private final StringColumn testName;
+    private final StringColumn testSource;
+    private final LongColumn testStatementsEnd;
+    private final LongColumn testImplementationsEnd;
+    private final LongColumn testImportsEnd;
+    private final LongColumn testLifecycleEnd;
+
+    private final IntColumn statementTest;
+    private final IntColumn statementKind;
+    private final IntColumn statementSignature;
+    private final IntColumn statementDepth;
+    private final IntColumn statementStartLine;
+    private final IntColumn statementEndLine;
+
+    private final IntColumn implementationTest;
+    private final IntColumn implementationBody;
+
+    private final IntColumn importTest;
+    private final IntColumn importPackage;
+
+    private final IntColumn lifecycleTest;
+    private final IntColumn lifecyclePhase;
+    private final IntColumn lifecycleBody;
+
+    private final StringColumn recordName;
+    private final StringColumn recordJson;
+
+    private final Gson recordGson = new GsonBuilder().disableHtmlEscaping().create();
+    private int tests = 0;
+    private long statements = 0;
+    private long implementations = 0;
+    private long imports = 0;
+    private long lifecycleMethods = 0;
+    private long otherRecords = 0;
+
+    public ColumnarSink(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        for (StatementSequence.Kind kind : StatementSequence.Kind.values()) {
+            schema.kindPrefixes.put(kind.name(), kind.getPrefix());
+        }
+
+        kinds = new Dictionary("kinds", false);
+        signatures = new Dictionary("signatures", false);
+        classes = new Dictionary("classes", false);
+        bodies = new Dictionary("bodies", true);
+        packages = new Dictionary("packages", false);
+        phases = new Dictionary("phases", false);
+
+        testClass = track(new IntColumn("tests", "class", "classes"));
+        testName = track(new StringColumn("tests", "name"));
+        testSource = track(new StringColumn("tests", "source"));
+        testStatementsEnd = track(new LongColumn("tests", "statements_end"));
+        testImplementationsEnd = track(new LongColumn("tests", "implementations_end"));
+        testImportsEnd = track(new LongColumn("tests", "imports_end"));
+        testLifecycleEnd = track(new LongColumn("tests", "lifecycle_end"));
+
+        statementTest = track(new IntColumn("statements", "test", null));
+        statementKind = track(new IntColumn("statements", "kind", "kinds"));
+        statementSignature = track(new IntColumn("statements", "signature", "signatures"));
+        statementDepth = track(new IntColumn("statements", "depth", null));
+        statementStartLine = track(new IntColumn("statements", "start_line", null));
+        statementEndLine = track(new IntColumn("statements", "end_line", null));
+
+        implementationTest = track(new IntColumn("implementations", "test", null));
+        implementationBody = track(new IntColumn("implementations", "body", "bodies"));
+
+        importTest = track(new IntColumn("imports", "test", null));
+        importPackage = track(new IntColumn("imports", "package", "packages"));
+
+        lifecycleTest = track(new IntColumn("lifecycle", "test", null));
+        lifecyclePhase = track(new IntColumn("lifecycle", "phase", "phases"));
+        lifecycleBody = track(new IntColumn("lifecycle", "body", "bodies"));
+
+        recordName = track(new StringColumn("records", "name"));
+        recordJson = track(new StringColumn("records", "json"));
+    }
+
+    @Override
+    public synchronized void write(String name, Object record) throws IOException {
+        if (!(record instanceof TestCaseAnalyzer.AnalysisResult)) {
+            // Records of other tasks have no columnar layout; keep them as compact JSON
+            recordName.add(name);
+            recordJson.add(recordGson.toJson(record));
+            otherRecords++;
+            return;
+        }
+        TestCaseAnalyzer.AnalysisResult result = (TestCaseAnalyzer.AnalysisResult) record;
+        if (schema.project == null) {
+            schema.project = result.projectName;
+        }
+        int test = tests++;
+
+        StatementSequence sequence = result.getStatements();
+        for (int i = 0; i < sequence.size(); i++) {
+            statementTest.add(test);
+            statementKind.add(kinds.id(sequence.kind(i).name()));
+            statementSignature.add(signatures.id(sequence.payload(i)));
+            statementDepth.add(sequence.depth(i));
+            statementStartLine.add(sequence.startLine(i));
+            statementEndLine.add(sequence.endLine(i));
+        }
+        statements += sequence.size();
+
+        for (String implementation : result.productionFunctionImplementations) {
+            implementationTest.add(test);
+            implementationBody.add(bodies.id(implementation));
+        }
+        implementations += result.productionFunctionImplementations.size();
+
+        for (String importedPackage : result.importedPackages) {
+            importTest.add(test);
+            importPackage.add(packages.id(importedPackage));
+        }
+        imports += result.importedPackages.size();
+
+        addLifecycle(test, "before", result.beforeMethods);
+        addLifecycle(test, "beforeAll", result.beforeAllMethods);
+        addLifecycle(test, "after", result.afterMethods);
+        addLifecycle(test, "afterAll", result.afterAllMethods);
+
+        testClass.add(classes.id(result.testClassName));
+        testName.add(result.testCaseName);
+        testSource.add(result.testCaseSourceCode);
+        testStatementsEnd.add(statements);
+        testImplementationsEnd.add(implementations);
+        testImportsEnd.add(imports);
+        testLifecycleEnd.add(lifecycleMethods);
+    }
+
+    private void addLifecycle(int test, String phase, List<String> methods) throws IOException {
+        for (String method : methods) {
+            lifecycleTest.add(test);
+            lifecyclePhase.add(phases.id(phase));
+            lifecycleBody.add(bodies.id(method));
+        }
+        lifecycleMethods += methods.size();
+    }
+
+    @Override
+    public String describe(String name) {
+        return directory + " (" + name + ")";
+    }
+
+    @Override
+    public synchronized String summarize() {
+        String written = String.format("Wrote %d tests", tests);
+        if (otherRecords > 0) {
+            written += String.format(" and %d other records", otherRecords);
+        }
+        return written + " as columns to " + directory.getFileName();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        IOException failure = null;
+        for (Column column : columns) {
+            try {
+                column.close();
+            } catch (IOException e) {
+                failure = failure != null ? failure : e;
+            }
+        }
+        for (Dictionary dictionary : List.of(kinds, signatures, classes, bodies, packages, phases)) {
+            try {
+                dictionary.values.close();
+            } catch (IOException e) {
+                failure = failure != null ? failure : e;
+            }
+            Table table = new Table();
+            table.rows = dictionary.ids.size();
+            table.columns.add(dictionary.values.info());
+            schema.dictionaries.put(dictionary.name, table);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+
+        describeTable("tests", tests);
+        describeTable("statements", statements);
+        describeTable("implementations", implementations);
+        describeTable("imports", imports);
+        describeTable("lifecycle", lifecycleMethods);
+        describeTable("records", otherRecords);
+        try (Writer writer = Files.newBufferedWriter(directory.resolve("schema.json"), StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create().toJson(schema, writer);
+        }
+    }
+
+    private void describeTable(String name, long rows) {
+        Table table = new Table();
+        table.rows = rows;
+        for (Column column : columns) {
+            if (column.info().files.get(0).startsWith(name + ".")) {
+                table.columns.add(column.info());
+            }
+        }
+        schema.tables.put(name, table);
+    }
+
+    private <C extends Column> C track(C column) {
+        columns.add(column);
+        return column;
+    }
+
+    private DataOutputStream open(String fileName) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(directory.resolve(fileName)), BUFFER_SIZE));
+    }
+}
@@ -0,0 +1,209 @@
+package edu.stevens.swe.research.java.cli.analyzer.output;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import edu.stevens.swe.research.java.cli.analyzer.core.TestCaseAnalyzer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decorates another sink so that method bodies, lifecycle methods and statement sequences are stored
+ * once in a content-addressed object store and referenced by hash from each test record.
+ *
+ * An object lives at {@code objects/<first two hex digits>/<sha256>}: method bodies as their UTF-8 source
+ * text, statement sequences as a compact JSON array. References have the form {@code sha256:<hex>}.
+ * Objects are never rewritten, so a store can be shared by consecutive runs into the same directory.
+ * Hashing and object writes happen on the calling worker thread; only the small record reaches the delegate.
+ */
+public class DedupingResultSink implements ResultSink {
+
+    public static final String REFERENCE_PREFIX = "sha256:";
+
+    /**
+     * An analysis result whose bulky fields are replaced by object references; other fields are copied.
+     */
+    public static class DedupedRecord {
+        public String parsedStatementsSequenceRef;
+        public List<String> productionFunctionImplementationRefs = new ArrayList<>();
+        public String testCaseSourceCode;
+        public List<String> importedPackages;
+        public String testClassName;
+        public String testCaseName;
+        public String projectName;
+        public List<String> beforeMethodRefs = new ArrayList<>();
+        public List<String> beforeAllMethodRefs = new ArrayList<>();
+        public List<String> afterMethodRefs = new ArrayList<>();
+        public List<String> afterAllMethodRefs = new ArrayList<>();
+    }
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final ResultSink delegate;
+    private final Path objectDir;
+    private final Map<String, FutureTask<Void>> stored = new ConcurrentHashMap<>(); // Object writes by hash, done once the object is in place
+    private final Gson sequenceGson = new GsonBuilder().disableHtmlEscaping().create();
+    private final AtomicLong references = new AtomicLong();
+    private final AtomicLong objectsWritten = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    public DedupingResultSink(ResultSink delegate, Path objectDir) throws IOException {
+        this.delegate = delegate;
+        this.objectDir = Files.createDirectories(objectDir);
+    }
+
+    @Override
+    public void write(String name, Object record) throws IOException {
+        if (!(record instanceof TestCaseAnalyzer.AnalysisResult)) {
+            delegate.write(name, record);
+            return;
+        }
+        TestCaseAnalyzer.AnalysisResult result = (TestCaseAnalyzer.AnalysisResult) record;
+        DedupedRecord deduped = new DedupedRecord();
+        deduped.parsedStatementsSequenceRef = store(sequenceGson.toJson(result.parsedStatementsSequence));
+        storeAll(result.productionFunctionImplementations, deduped.productionFunctionImplementationRefs);
+        deduped.testCaseSourceCode = result.testCaseSourceCode;
+        deduped.importedPackages = result.importedPackages;
+        deduped.testClassName = result.testClassName;
+        deduped.testCaseName = result.testCaseName;
+        deduped.projectName = result.projectName;
+        storeAll(result.beforeMethods, deduped.beforeMethodRefs);
+        storeAll(result.beforeAllMethods, deduped.beforeAllMethodRefs);
+        storeAll(result.afterMethods, deduped.afterMethodRefs);
+        storeAll(result.afterAllMethods, deduped.afterAllMethodRefs);
+        delegate.write(name, deduped);
+    }
+
+    private void storeAll(List<String> contents, List<String> refs) throws IOException {
+        for (String content : contents) {
+            refs.add(store(content));
+        }
+    }
+
+    /**
+     * Stores the content unless an object with the same hash exists and returns its reference.
+     * The reference is returned only once the object is in place, also when another worker is writing it.
+     */
+    private String store(String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        String hash = HexFormat.of().formatHex(SHA_256.get().digest(bytes));
+        references.incrementAndGet();
+        Path object = objectDir.resolve(hash.substring(0, 2)).resolve(hash);
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            if (!Files.exists(object)) {
+                writeObject(object, bytes);
+            }
+            return null;
+        });
+        FutureTask<Void> existing = stored.putIfAbsent(hash, task);
+        if (existing != null) {
+            await(existing);
+            return REFERENCE_PREFIX + hash;
+        }
+        task.run();
+        try {
+            await(task);
+        } catch (IOException | RuntimeException e) {
+            stored.remove(hash, task); // Let a later record retry
+            throw e;
+        }
+        return REFERENCE_PREFIX + hash;
+    }
+
+    private static void await(FutureTask<Void> task) throws IOException {
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for an object write", e);
+        } catch (CancellationException e) {
+            throw new IOException("Object write was cancelled", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private void writeObject(Path object, byte[] bytes) throws IOException {
+        Files.createDirectories(object.getParent());
+        // Written aside and moved into place, so a reader never sees a partial object
+        Path temporary = Files.createTempFile(object.getParent(), object.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporary, bytes);
+            try {
+                Files.move(temporary, object, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, object);
+            }
+            objectsWritten.incrementAndGet();
+            bytesWritten.addAndGet(bytes.length);
+        } catch (FileAlreadyExistsException e) {
+            // Another process stored the same content first
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    @Override
+    public String describe(String name) {
+        return delegate.describe(name);
+    }
+
+    @Override
+    public String summarize() {
+        return String.format("%s with %d object references", delegate.summarize(), references.get());
+    }
+
+    @Override
+    public int pendingRecords() {
+        return delegate.pendingRecords();
+    }
+
+    /**
+     * References handed out so far; each one would otherwise have embedded its content in a record.
+     */
+    public long getReferences() {
+        return references.get();
+    }
+
+    public long getObjectsWritten() {
+        return objectsWritten.get();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
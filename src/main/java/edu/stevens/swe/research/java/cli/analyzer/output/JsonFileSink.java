@@ -0,0 +1,48 @@
+package edu.stevens.swe.research.java.cli.analyzer.output;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes each record as its own pretty-printed JSON file in the output directory (the default format).
+ */
+public class JsonFileSink implements ResultSink {
+    private final Path outputDir;
+    private final AtomicInteger filesWritten = new AtomicInteger();
+    private final Gson gson = new GsonBuilder()
+            .setPrettyPrinting()
+            .disableHtmlEscaping()
+            .create();
+
+    public JsonFileSink(Path outputDir) {
+        this.outputDir = outputDir;
+    }
+
+    @Override
+    public void write(String name, Object record) throws IOException {
+        try (FileWriter writer = new FileWriter(outputDir.resolve(name).toFile())) {
+            gson.toJson(record, writer);
+        }
+        filesWritten.incrementAndGet();
+    }
+
+    @Override
+    public String describe(String name) {
+        return outputDir.resolve(name).toString();
+    }
+
+    @Override
+    public String summarize() {
+        return String.format("Generated %d JSON files", filesWritten.get());
+    }
+
+    @Override
+    public void close() {
+        // Every record is closed as soon as it is written
+    }
+}
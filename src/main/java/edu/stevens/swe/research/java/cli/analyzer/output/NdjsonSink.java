@@ -0,0 +1,53 @@
+package edu.stevens.swe.research.java.cli.analyzer.output;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Streams records as newline-delimited compact JSON into a single file.
+ * Records carry their own project, class and test names, so the record name is not written.
+ */
+public class NdjsonSink implements ResultSink {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final Path file;
+    private final BufferedWriter writer;
+    private int records = 0;
+    private final Gson gson = new GsonBuilder()
+            .disableHtmlEscaping()
+            .create();
+
+    public NdjsonSink(Path file) throws IOException {
+        this.file = file;
+        this.writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    @Override
+    public synchronized void write(String name, Object record) throws IOException {
+        gson.toJson(record, writer);
+        writer.write('\n');
+        records++;
+    }
+
+    @Override
+    public String describe(String name) {
+        return file + " (" + name + ")";
+    }
+
+    @Override
+    public synchronized String summarize() {
+        return String.format("Wrote %d records to %s", records, file.getFileName());
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
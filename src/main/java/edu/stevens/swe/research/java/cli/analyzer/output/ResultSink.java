@@ -0,0 +1,80 @@
+package edu.stevens.swe.research.java.cli.analyzer.output;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Destination for the per-test-case records a task produces. Implementations must be safe to call
+ * from several worker threads; {@link #close()} flushes everything that was written.
+ */
+public interface ResultSink extends Closeable {
+
+    /**
+     * Writes one record.
+     *
+     * @param name file-system safe record name, e.g. {@code project_Class_test.json}
+     * @param record object serialized with Gson
+     */
+    void write(String name, Object record) throws IOException;
+
+    /**
+     * Human-readable location of a written record, used in progress output.
+     */
+    default String describe(String name) {
+        return name;
+    }
+
+    /**
+     * What the sink produced, e.g. {@code Generated 12 JSON files}, used in the task's summary.
+     * Complete only after {@link #close()}.
+     */
+    String summarize();
+
+    /**
+     * Records accepted but not yet written, reported as the output queue depth of a running analysis.
+     */
+    default int pendingRecords() {
+        return 0;
+    }
+
+    /**
+     * Creates the sink for an output format: {@code ndjson} streams compact records into one
+     * {@code <project>-results.ndjson}, {@code zip} packs the pretty-printed records into one
+     * {@code <project>-results.zip}, {@code columnar} writes dictionary-encoded column files into
+     * {@code <project>-results.columnar/}, anything else writes one pretty-printed JSON file per record.
+     * Single-file sinks are written on a dedicated thread.
+     */
+    static ResultSink forFormat(String format, Path outputDir, String projectName) throws IOException {
+        return forFormat(format, outputDir, projectName, false);
+    }
+
+    /**
+     * Creates the sink for an output format; with {@code dedupe}, method bodies and statement sequences
+     * go to the content-addressed store in {@code <outputDir>/objects} and records reference them by hash.
+     * The columnar format is dictionary-encoded already and ignores {@code dedupe}.
+     */
+    static ResultSink forFormat(String format, Path outputDir, String projectName, boolean dedupe) throws IOException {
+        ResultSink sink = forFormatUndeduped(format, outputDir, projectName);
+        if (dedupe && !(format != null && format.equalsIgnoreCase("columnar"))) {
+            // Outside the async writer, so hashing runs on the analysis threads and only small records are queued
+            sink = new DedupingResultSink(sink, outputDir.resolve("objects"));
+        }
+        return sink;
+    }
+
+    private static ResultSink forFormatUndeduped(String format, Path outputDir, String projectName) throws IOException {
+        String baseName = projectName.replaceAll("[^a-zA-Z0-9._-]", "_") + "-results";
+        String normalized = format != null ? format.toLowerCase() : "json";
+        switch (normalized) {
+            case "ndjson":
+                return new AsyncResultSink(new NdjsonSink(outputDir.resolve(baseName + ".ndjson")), AsyncResultSink.DEFAULT_CAPACITY);
+            case "zip":
+                return new AsyncResultSink(new ZipSink(outputDir.resolve(baseName + ".zip")), AsyncResultSink.DEFAULT_CAPACITY);
+            case "columnar":
+                return new AsyncResultSink(new ColumnarSink(outputDir.resolve(baseName + ".columnar")), AsyncResultSink.DEFAULT_CAPACITY);
+            default:
+                return new JsonFileSink(outputDir);
+        }
+    }
+}
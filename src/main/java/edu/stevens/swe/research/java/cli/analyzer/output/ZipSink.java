@@ -0,0 +1,68 @@
+package edu.stevens.swe.research.java.cli.analyzer.output;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import edu.stevens.swe.research.java.cli.analyzer.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Packs the pretty-printed records into a single zip archive, one entry per record,
+ * with the same names and content the per-file format would produce.
+ */
+public class ZipSink implements ResultSink {
+    private final Path file;
+    private final ZipOutputStream zip;
+    private final Writer writer;
+    private final Set<String> entryNames = new HashSet<>();
+    private int entries = 0;
+    private final Gson gson = new GsonBuilder()
+            .setPrettyPrinting()
+            .disableHtmlEscaping()
+            .create();
+
+    public ZipSink(Path file) throws IOException {
+        this.file = file;
+        this.zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+        this.writer = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public synchronized void write(String name, Object record) throws IOException {
+        if (!entryNames.add(name)) {
+            // The per-file format would overwrite; an archive cannot, so keep the first record
+            Log.warn("Warning: Duplicate result name " + name + " in " + file + "; skipping later record.");
+            return;
+        }
+        zip.putNextEntry(new ZipEntry(name));
+        gson.toJson(record, writer);
+        writer.flush();
+        zip.closeEntry();
+        entries++;
+    }
+
+    @Override
+    public String describe(String name) {
+        return file + "!/" + name;
+    }
+
+    @Override
+    public synchronized String summarize() {
+        return String.format("Packed %d JSON files into %s", entries, file.getFileName());
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
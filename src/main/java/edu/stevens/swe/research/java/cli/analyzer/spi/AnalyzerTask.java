@@ -15,6 +15,8 @@ public interface AnalyzerTask {
 
     /**
      * Executes the analysis task.
+     * Cases can be streamed while the task runs through {@link ProjectCtx#getCaseWriter()} when it is set;
+     * the returned result then carries only the cases that were not streamed and the summary.
      *
      * @param projectCtx The context of the project being analyzed.
      * @return The result of the task execution.
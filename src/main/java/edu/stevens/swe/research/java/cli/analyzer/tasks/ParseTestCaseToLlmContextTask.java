@@ -1,11 +1,21 @@
 package edu.stevens.swe.research.java.cli.analyzer.tasks;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import edu.stevens.swe.research.java.cli.analyzer.Log;
 import edu.stevens.swe.research.java.cli.analyzer.ProjectCtx;
+import edu.stevens.swe.research.java.cli.analyzer.ResultFormatter;
 import edu.stevens.swe.research.java.cli.analyzer.TaskResult;
+import edu.stevens.swe.research.java.cli.analyzer.core.AnalysisManifest;
 import edu.stevens.swe.research.java.cli.analyzer.core.AstParserUtil;
+import edu.stevens.swe.research.java.cli.analyzer.core.CallGraphIndex;
+import edu.stevens.swe.research.java.cli.analyzer.core.CompilationUnitCache;
+import edu.stevens.swe.research.java.cli.analyzer.core.GitChangeSet;
+import edu.stevens.swe.research.java.cli.analyzer.core.MethodSummaryCache;
+import edu.stevens.swe.research.java.cli.analyzer.core.MetricsRegistry;
+import edu.stevens.swe.research.java.cli.analyzer.core.ModuleDiscovery;
+import edu.stevens.swe.research.java.cli.analyzer.core.ProgressTracker;
 import edu.stevens.swe.research.java.cli.analyzer.core.TestCaseAnalyzer;
+import edu.stevens.swe.research.java.cli.analyzer.output.DedupingResultSink;
+import edu.stevens.swe.research.java.cli.analyzer.output.ResultSink;
 import edu.stevens.swe.research.java.cli.analyzer.spi.AnalyzerTask;
 import edu.stevens.swe.research.java.cli.analyzer.visitors.MethodVisitor;
 import edu.stevens.swe.research.java.parser.core.utils.exceptions.ProjectDetectionException;
@@ -16,19 +26,60 @@ import org.eclipse.jdt.core.dom.Annotation;
 import org.eclipse.jdt.core.dom.MarkerAnnotation;
 import org.eclipse.jdt.core.dom.NormalAnnotation;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 public class ParseTestCaseToLlmContextTask implements AnalyzerTask {
     private static final String TASK_NAME = "ParseTestCaseToLlmContext";
 
+    /**
+     * State shared by all per-file jobs of one task execution. Everything in here is thread-safe.
+     */
+    private static class RunState {
+        final ProjectCtx projectCtx;
+        final AstParserUtil astParserUtil;
+        final TestCaseAnalyzer testCaseAnalyzer;
+        final ResultSink sink;
+        final Path outputDir;
+        final AnalysisManifest manifest; // null unless running incrementally or scoped to a git range
+        final GitChangeSet changes; // null unless scoped to a git range
+        final boolean reuseOutputs; // incremental mode: skip tests whose inputs hash the same
+        final CallGraphIndex.Update callGraph; // null unless the call graph index is kept
+        final AtomicInteger testCasesFound = new AtomicInteger();
+        final AtomicInteger testCasesProcessed = new AtomicInteger();
+        final AtomicInteger testCasesUnchanged = new AtomicInteger();
+        final MetricsRegistry.Timer writeTimer;
+        final MetricsRegistry.Counter filesAnalyzed;
+        final ProgressTracker progress;
+
+        RunState(ProjectCtx projectCtx, AstParserUtil astParserUtil, TestCaseAnalyzer testCaseAnalyzer, ResultSink sink,
+                 Path outputDir, AnalysisManifest manifest, GitChangeSet changes, boolean reuseOutputs) {
+            this.projectCtx = projectCtx;
+            this.astParserUtil = astParserUtil;
+            this.testCaseAnalyzer = testCaseAnalyzer;
+            this.sink = sink;
+            this.outputDir = outputDir;
+            this.manifest = manifest;
+            this.changes = changes;
+            this.reuseOutputs = reuseOutputs;
+            this.callGraph = projectCtx.isCallGraphIndex() ? CallGraphIndex.update(projectCtx) : null;
+            this.writeTimer = projectCtx.getMetricsRegistry().timer(MetricsRegistry.WRITE);
+            this.filesAnalyzed = projectCtx.getMetricsRegistry().counter("testFilesAnalyzed");
+            this.progress = projectCtx.getProgressTracker();
+        }
+    }
+
     @Override
     public String getName() {
         return TASK_NAME;
@@ -36,135 +87,509 @@ public class ParseTestCaseToLlmContextTask implements AnalyzerTask {
 
     @Override
     public TaskResult execute(ProjectCtx projectCtx) {
-        System.out.println("Executing task: " + TASK_NAME);
+        Log.debug("Executing task: " + TASK_NAME);
         AstParserUtil astParserUtil = new AstParserUtil(projectCtx);
         TestCaseAnalyzer testCaseAnalyzer = new TestCaseAnalyzer(astParserUtil, projectCtx);
         LogData logData = projectCtx.getLogData(); // Get log data from project context
-        Gson gson = new GsonBuilder()
-            .setPrettyPrinting()
-            .disableHtmlEscaping()
-            .create();
-        List<String> processedFiles = new ArrayList<>();
-        int testCasesFound = 0;
-        int testCasesProcessed = 0;
-
         // Get output directory from ProjectCtx
         Path outputDir = projectCtx.getOutputDirectory();
         if (outputDir == null) {
             // Fallback to default if not set (should not happen with current implementation)
             outputDir = projectCtx.getProjectPath().resolve("AAA");
         }
-        System.out.println("Using output directory: " + outputDir);
+        Log.debug("Using output directory: " + outputDir);
 
         try {
             Files.createDirectories(outputDir);
         } catch (IOException e) {
-            System.err.println("Error creating output directory: " + outputDir + " - " + e.getMessage());
+            Log.error("Error creating output directory: " + outputDir + " - " + e.getMessage());
             return new TaskResult(projectCtx.getProjectPath().toString(), TASK_NAME + " [Failed to create output directory]");
         }
 
-        // Find all test directories in the project (supports mono repo)
-        List<Path> testSourceRoots = findAllTestDirectories(projectCtx.getProjectPath());
-        if (testSourceRoots.isEmpty()) {
-            System.out.println("No test source roots found in project: " + projectCtx.getProjectPath() + ". Skipping task.");
-            if (logData != null) {
-                logData.setTotalTestCases(0);
-                logData.setProcessedTestCases(0);
+        GitChangeSet changes = null;
+        if (projectCtx.getGitRange() != null) {
+            try {
+                changes = GitChangeSet.compute(projectCtx.getProjectPath(), projectCtx.getGitRange());
+                Log.info("Git range " + changes.getRange() + " changes " + changes.getChangedFileCount() + " Java files.");
+            } catch (IOException e) {
+                Log.error("Error reading git changes for " + projectCtx.getGitRange() + ": " + e.getMessage());
+                return new TaskResult(projectCtx.getProjectPath().toString(), TASK_NAME + " [Failed to read git changes]");
             }
-            return new TaskResult(projectCtx.getProjectPath().toString(), TASK_NAME + " [No test source roots found]");
         }
 
-        System.out.println("Found " + testSourceRoots.size() + " test source directories:");
-        for (Path testRoot : testSourceRoots) {
-            System.out.println("  - " + testRoot);
+        boolean reuseOutputs = false;
+        if (projectCtx.isIncremental() && changes == null) {
+            if ("json".equalsIgnoreCase(projectCtx.getOutputFormat())) {
+                reuseOutputs = true;
+            } else {
+                Log.warn("Warning: --incremental needs the per-file json format; analyzing all tests.");
+            }
         }
+        // Git-scoped runs need the manifest too: it records which declarations each test expanded into
+        AnalysisManifest manifest = reuseOutputs || changes != null ? AnalysisManifest.load(projectCtx) : null;
 
-        // Process all test directories
-        for (Path testSourceRoot : testSourceRoots) {
-            try (Stream<Path> javaFiles = Files.walk(testSourceRoot)
-                    .filter(Files::isRegularFile)
-                    .filter(path -> path.toString().endsWith(".java"))) {
-                
-                for (Path javaFile : javaFiles.collect(java.util.stream.Collectors.toList())) {
-                    System.out.println("Processing file: " + javaFile);
-                    try {
-                        AstParserUtil.ParseResult parseResult = astParserUtil.parse(javaFile.toString());
-                        CompilationUnit cu = parseResult.compilationUnit;
-                        String originalSource = parseResult.originalSource;
+        ResultSink sink;
+        try {
+            sink = ResultSink.forFormat(projectCtx.getOutputFormat(), outputDir, projectCtx.getProjectPath().getFileName().toString(),
+                    projectCtx.isDedupeOutput());
+        } catch (IOException e) {
+            Log.error("Error opening " + projectCtx.getOutputFormat() + " output in " + outputDir + ": " + e.getMessage());
+            return new TaskResult(projectCtx.getProjectPath().toString(), TASK_NAME + " [Failed to open output]");
+        }
 
-                        if (cu == null) {
-                            System.err.println("Failed to parse file: " + javaFile);
-                            continue;
-                        }
+        if (projectCtx.isMemoryBounded() && logData != null) {
+            try {
+                logData.spillCases(projectCtx.getTempDir());
+            } catch (IOException e) {
+                Log.warn("Warning: Could not open spill files in " + projectCtx.getTempDir() + ", keeping unresolved and truncated cases in memory: " + e.getMessage());
+            }
+        }
 
-                        MethodVisitor methodVisitor = new MethodVisitor();
-                        cu.accept(methodVisitor);
-
-                        for (MethodDeclaration md : methodVisitor.getMethods()) {
-                            if (isTestMethod(md)) {
-                                testCasesFound++;
-                                System.out.println("  Found test method: " + md.getName().getIdentifier());
-                                
-                                try {
-                                    TestCaseAnalyzer.AnalysisResult analysisResult = testCaseAnalyzer.analyzeTestCase(cu, md, originalSource);
-                                    
-                                    // Check for unresolved invocations
-                                    List<String> unresolvedInvocations = findUnresolvedInvocations(analysisResult);
-                                    if (!unresolvedInvocations.isEmpty() && logData != null) {
-                                        String className = analysisResult.testClassName;
-                                        String methodName = analysisResult.testCaseName;
-                                        // Use relative path to avoid Windows path separator issues in JSON
-                                        String fileName = projectCtx.getProjectPath().relativize(javaFile).toString();
-                                        int startLine = cu.getLineNumber(md.getStartPosition());
-                                        int endLine = cu.getLineNumber(md.getStartPosition() + md.getLength() - 1);
-                                        
-                                        logData.addUnresolvedCase(className, methodName, fileName, startLine, endLine, unresolvedInvocations);
-                                        System.out.println("    Found " + unresolvedInvocations.size() + " unresolved invocations");
-                                    }
-                                    
-                                    // Enhanced filename sanitization for Windows compatibility
-                                    String jsonFileName = analysisResult.getJsonFileName().replaceAll("[^a-zA-Z0-9._-]", "_") + ".json";
-                                    Path outputPath = outputDir.resolve(jsonFileName);
-
-                                    try (FileWriter writer = new FileWriter(outputPath.toFile())) {
-                                        gson.toJson(analysisResult, writer);
-                                        processedFiles.add(outputPath.toString());
-                                        testCasesProcessed++;
-                                        System.out.println("    Successfully wrote: " + outputPath);
-                                    } catch (IOException e) {
-                                        System.err.println("    Error writing JSON for " + analysisResult.getJsonFileName() + ": " + e.getMessage());
-                                    }
-                                } catch (Exception e) {
-                                    System.err.println("    Error analyzing test method " + md.getName().getIdentifier() + ": " + e.getMessage());
-                                }
-                            }
-                        }
-                    } catch (IOException | ProjectDetectionException e) {
-                        System.err.println("Error processing file " + javaFile + ": " + e.getMessage());
-                    }
+        RunState run = new RunState(projectCtx, astParserUtil, testCaseAnalyzer, sink, outputDir, manifest, changes, reuseOutputs);
+        run.progress.setOutputQueue(sink::pendingRecords);
+
+        // Find all test directories in the project (supports mono repo) and hand their files to the
+        // analysis while the walk continues. When TaskManager provided a worker pool, each file (or batch
+        // of files) is parsed and analyzed on its own worker.
+        ExecutorService executor = projectCtx.getExecutorService();
+        List<Future<?>> pending = new ArrayList<>();
+        List<Path> testSourceRoots = findAllTestDirectories(projectCtx.getProjectPath(), run, job -> {
+            if (executor == null) {
+                job.run();
+            } else {
+                pending.add(executor.submit(job));
+            }
+        });
+
+        if (executor != null) {
+            for (Future<?> future : pending) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    Log.error("Error processing test file: " + e.getCause());
+                } catch (InterruptedException e) {
+                    Log.error("Interrupted while waiting for test files to be processed.");
+                    pending.forEach(f -> f.cancel(true));
+                    Thread.currentThread().interrupt();
+                    break;
                 }
-            } catch (IOException e) {
-                System.err.println("Error walking through test source files in " + testSourceRoot + ": " + e.getMessage());
             }
         }
 
+        try {
+            sink.close(); // Waits for queued records of single-file formats
+        } catch (IOException e) {
+            Log.error("Error finishing output in " + outputDir + ": " + e.getMessage());
+        }
+        if (sink instanceof DedupingResultSink) {
+            DedupingResultSink store = (DedupingResultSink) sink;
+            Log.info("Object store: " + store.getReferences() + " references, " + store.getObjectsWritten() + " new objects ("
+                    + store.getBytesWritten() / 1024 + " KB) in " + outputDir.resolve("objects"));
+        }
+        run.progress.setOutputQueue(null);
+
+        if (testSourceRoots.isEmpty()) {
+            Log.info("No test source roots found in project: " + projectCtx.getProjectPath() + ". Skipping task.");
+            if (logData != null) {
+                logData.setTotalTestCases(0);
+                logData.setProcessedTestCases(0);
+            }
+            return new TaskResult(projectCtx.getProjectPath().toString(), TASK_NAME + " [No test source roots found]");
+        }
+
+        if (manifest != null && !Thread.currentThread().isInterrupted()) {
+            if ("json".equalsIgnoreCase(projectCtx.getOutputFormat())) {
+                deleteStaleOutputs(manifest, outputDir);
+            }
+            manifest.save(projectCtx);
+        }
+        if (run.callGraph != null && !Thread.currentThread().isInterrupted()) {
+            saveCallGraph(run.callGraph);
+        }
+
         // Update log data with statistics
         if (logData != null) {
-            logData.setTotalTestCases(testCasesFound);
-            logData.setProcessedTestCases(testCasesProcessed);
+            logData.setTotalTestCases(run.testCasesFound.get());
+            logData.setProcessedTestCases(run.testCasesProcessed.get());
+            logData.setUnchangedTestCases(run.testCasesUnchanged.get());
+            CompilationUnitCache cuCache = astParserUtil.getCompilationUnitCache();
+            logData.setCompilationUnitCache(new LogData.CacheStats(cuCache.getHits(), cuCache.getMisses(), cuCache.getEvictions()));
+            MethodSummaryCache summaryCache = projectCtx.getMethodSummaryCache();
+            logData.setMethodSummaryCache(new LogData.CacheStats(summaryCache.getHits(), summaryCache.getMisses(), summaryCache.getEvictions()));
+            logData.setMetrics(projectCtx.getMetricsRegistry().snapshot());
         }
 
         // TaskResult might need to be enhanced to store these details
         // For now, just returning a basic success/failure message based on file processing.
-        String summaryMessage = String.format("%s: Found %d test cases in %d directories, Generated %d JSON files. Output dir: %s", 
-                                        TASK_NAME, testCasesFound, testSourceRoots.size(), processedFiles.size(), outputDir.toString());
-        boolean success = !processedFiles.isEmpty() || testCasesFound == 0; // Consider success if files were made or no tests to process
+        String summaryMessage = String.format("%s: Found %d test cases in %d directories, %s. Output dir: %s", 
+                                        TASK_NAME, run.testCasesFound.get(), testSourceRoots.size(), sink.summarize(), outputDir.toString());
+        if (manifest != null) {
+            summaryMessage += String.format(" (%d unchanged test cases reused)", run.testCasesUnchanged.get());
+        }
         
         TaskResult result = new TaskResult(projectCtx.getProjectPath().toString(), summaryMessage);
-        System.out.println(summaryMessage);
+        Log.info(summaryMessage);
         return result;
     }
 
+    /**
+     * Parses a group of test files with one shared JDT environment and analyzes each file as soon as
+     * its compilation unit is ready. Files the batch could not deliver are parsed individually.
+     */
+    private void processBatch(List<Path> javaFiles, RunState run) {
+        if (run.manifest != null) {
+            javaFiles = javaFiles.stream().filter(javaFile -> !skipUnchangedFile(javaFile, run)).collect(java.util.stream.Collectors.toList());
+            if (javaFiles.isEmpty()) {
+                return;
+            }
+        }
+        Log.debug("Batch parsing %d files starting with: %s", javaFiles.size(), javaFiles.get(0));
+        List<Path> remaining = javaFiles;
+        try {
+            remaining = run.astParserUtil.parseBatch(javaFiles, (javaFile, parseResult) -> analyzeParsedFile(javaFile, parseResult, run));
+        } catch (ProjectDetectionException e) {
+            Log.error("Error batch parsing files: " + e.getMessage());
+        }
+        for (Path javaFile : remaining) {
+            processFile(javaFile, run);
+        }
+    }
+
+    /**
+     * Parses a single test file and writes one result record per test method found in it.
+     * Runs on a TaskManager worker thread, so all shared state is passed in as thread-safe counters.
+     */
+    private void processFile(Path javaFile, RunState run) {
+        if (run.manifest != null && skipUnchangedFile(javaFile, run)) {
+            return;
+        }
+        Log.debug("Processing file: %s", javaFile);
+        try {
+            AstParserUtil.ParseResult parseResult = run.astParserUtil.parse(javaFile.toString());
+            analyzeParsedFile(javaFile, parseResult, run);
+        } catch (IOException | ProjectDetectionException e) {
+            Log.error("Error processing file " + javaFile + ": " + e.getMessage());
+        }
+    }
+
+    private boolean skipUnchangedFile(Path javaFile, RunState run) {
+        if (run.changes != null) {
+            return keepUnaffectedFile(javaFile, run);
+        }
+        return run.reuseOutputs && reuseUnchangedFile(javaFile, run);
+    }
+
+    /**
+     * In a git-scoped run, skips a test file that the range did not touch and none of whose tests
+     * expanded into a changed declaration, keeping the previous run's entries for it.
+     */
+    private boolean keepUnaffectedFile(Path javaFile, RunState run) {
+        AnalysisManifest.FileEntry previous = run.manifest.previousFile(javaFile);
+        String relativePath = run.manifest.relativize(javaFile);
+        if (previous == null || run.changes.isChanged(relativePath)) {
+            return false;
+        }
+        for (AnalysisManifest.TestEntry test : previous.tests.values()) {
+            if (reachesChange(test, relativePath, run.changes)) {
+                return false;
+            }
+        }
+        run.manifest.recordFile(javaFile);
+        for (AnalysisManifest.TestEntry test : previous.tests.values()) {
+            reuseTest(javaFile, carryOverChanged(javaFile, test, test.key, test.startLine, test.endLine, run), run);
+        }
+        return true;
+    }
+
+    /**
+     * Carries a previous test entry over at its current lines, with the spans of its expanded declarations
+     * moved to where the diff put them, so that the next range is compared with this tree.
+     */
+    private AnalysisManifest.TestEntry carryOverChanged(Path javaFile, AnalysisManifest.TestEntry previous, String key,
+                                                        int startLine, int endLine, RunState run) {
+        AnalysisManifest.TestEntry moved = run.manifest.carryOver(javaFile, previous, key, startLine, endLine);
+        List<String> expandedMethods = new ArrayList<>(previous.expandedMethods.size());
+        for (String method : previous.expandedMethods) {
+            int separator = method.lastIndexOf('#');
+            int dash = method.indexOf('-', separator);
+            String file = method.substring(0, separator);
+            expandedMethods.add(file + "#" + run.changes.toNewLine(file, Integer.parseInt(method.substring(separator + 1, dash)))
+                    + "-" + run.changes.toNewLine(file, Integer.parseInt(method.substring(dash + 1))));
+        }
+        moved.expandedMethods = expandedMethods;
+        return moved;
+    }
+
+    /**
+     * True if the test's previous analysis expanded into a declaration that was changed, or depends on a
+     * changed file in which no expanded declaration was recorded. The recorded spans are from the previous
+     * run; they are followed to the new side of the diff before being compared with its changes.
+     */
+    private boolean reachesChange(AnalysisManifest.TestEntry test, String testFile, GitChangeSet changes) {
+        Set<String> filesWithSpans = new HashSet<>();
+        for (String method : test.expandedMethods) {
+            int separator = method.lastIndexOf('#');
+            int dash = method.indexOf('-', separator);
+            String file = method.substring(0, separator);
+            filesWithSpans.add(file);
+            if (changes.touchesOld(file, Integer.parseInt(method.substring(separator + 1, dash)), Integer.parseInt(method.substring(dash + 1)))) {
+                return true;
+            }
+        }
+        for (String dependency : test.dependencies.keySet()) {
+            if (!dependency.equals(testFile) && !filesWithSpans.contains(dependency) && changes.isChanged(dependency)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * In incremental mode, skips a test file whose content and recorded dependencies are unchanged
+     * without parsing it. Its unresolved cases are re-reported so the log stays complete.
+     */
+    private boolean reuseUnchangedFile(Path javaFile, RunState run) {
+        AnalysisManifest.FileEntry entry = run.manifest.reuseFile(javaFile, run.outputDir);
+        if (entry == null) {
+            return false;
+        }
+        Log.debug("Unchanged file, reusing %d test outputs: %s", entry.tests.size(), javaFile);
+        for (AnalysisManifest.TestEntry test : entry.tests.values()) {
+            reuseTest(javaFile, test, run);
+        }
+        return true;
+    }
+
+    private void reuseTest(Path javaFile, AnalysisManifest.TestEntry test, RunState run) {
+        if (run.callGraph != null) {
+            run.callGraph.keepTest(test.signature, test.startLine, test.endLine);
+        }
+        run.testCasesFound.incrementAndGet();
+        run.testCasesUnchanged.incrementAndGet();
+        run.progress.testFound();
+        run.progress.testUnchanged();
+        LogData logData = run.projectCtx.getLogData();
+        String fileName = run.projectCtx.getProjectPath().relativize(javaFile).toString();
+        if (!test.unresolvedInvocations.isEmpty() && logData != null) {
+            logData.addUnresolvedCase(test.className, test.methodName, fileName, test.startLine, test.endLine, test.unresolvedInvocations);
+        }
+        reportCase(run, test.className, test.methodName, fileName, test.startLine, test.endLine, test.unresolvedInvocations, List.of());
+    }
+
+    /**
+     * Streams the test to the command's result as soon as it is done, with every unresolved invocation and
+     * truncation as an issue. Without a case writer (e.g. in a benchmark) nothing is collected.
+     */
+    private void reportCase(RunState run, String className, String methodName, String fileName, int startLine, int endLine,
+                            List<String> unresolvedInvocations, List<String> truncations) {
+        ResultFormatter.CaseWriter cases = run.projectCtx.getCaseWriter();
+        if (cases == null) {
+            return;
+        }
+        TaskResult.TestCaseResult testCase = new TaskResult.TestCaseResult(className, methodName, fileName, startLine, endLine);
+        for (String statement : unresolvedInvocations) {
+            testCase.addIssue(issueOf(statement));
+        }
+        for (String statement : truncations) {
+            testCase.addIssue(issueOf(statement));
+        }
+        try {
+            cases.writeCase(testCase);
+        } catch (IOException e) {
+            Log.error("    Error writing result case for " + className + "." + methodName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Splits a rendered statement such as {@code UNRESOLVED_INVOCATION: missing(x)#[45-45]} into its text and lines.
+     */
+    private static TaskResult.Issue issueOf(String statement) {
+        String text = statement.trim();
+        int lines = text.lastIndexOf("#[");
+        int dash = lines < 0 ? -1 : text.indexOf('-', lines + 2);
+        if (dash < 0 || !text.endsWith("]")) {
+            return new TaskResult.Issue(text, 0, 0);
+        }
+        try {
+            return new TaskResult.Issue(text.substring(0, lines), Integer.parseInt(text.substring(lines + 2, dash)),
+                    Integer.parseInt(text.substring(dash + 1, text.length() - 1)));
+        } catch (NumberFormatException e) {
+            return new TaskResult.Issue(text, 0, 0);
+        }
+    }
+
+    private void saveCallGraph(CallGraphIndex.Update callGraph) {
+        long start = System.nanoTime();
+        try {
+            CallGraphIndex index = callGraph.save();
+            Log.info("Call graph index: " + index.size() + " methods, " + index.edgeCount() + " calls, " + index.tests().cardinality()
+                    + " tests in " + index.getFile() + " (" + (System.nanoTime() - start) / 1_000_000 + " ms)");
+        } catch (IOException e) {
+            Log.error("Error writing call graph index: " + e.getMessage());
+        }
+    }
+
+    private void deleteStaleOutputs(AnalysisManifest manifest, Path outputDir) {
+        for (String outputName : manifest.staleOutputs()) {
+            try {
+                if (Files.deleteIfExists(outputDir.resolve(outputName))) {
+                    Log.debug("Deleted output of removed test: %s", outputName);
+                }
+            } catch (IOException e) {
+                Log.error("Error deleting stale output " + outputName + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void analyzeParsedFile(Path javaFile, AstParserUtil.ParseResult parseResult, RunState run) {
+        LogData logData = run.projectCtx.getLogData();
+        CompilationUnit cu = parseResult.compilationUnit;
+        String originalSource = parseResult.originalSource;
+
+        if (cu == null) {
+            Log.warn("Failed to parse file: " + javaFile);
+            return;
+        }
+        run.filesAnalyzed.increment();
+
+        MethodVisitor methodVisitor = new MethodVisitor();
+        cu.accept(methodVisitor);
+
+        List<MethodDeclaration> testMethods = new ArrayList<>();
+        for (MethodDeclaration md : methodVisitor.getMethods()) {
+            if (isTestMethod(md)) {
+                testMethods.add(md);
+            }
+        }
+        if (run.manifest != null) {
+            run.manifest.recordFile(javaFile);
+        }
+        if (run.callGraph != null) {
+            run.callGraph.recordFile(javaFile);
+        }
+
+        // In a git-scoped run, changes outside every test method (imports, fields, lifecycle or helper
+        // methods) can alter the output of every test in the file
+        String relativePath = null;
+        AnalysisManifest.FileEntry previousFile = null;
+        boolean changedOutsideTests = false;
+        if (run.changes != null) {
+            relativePath = run.manifest.relativize(javaFile);
+            previousFile = run.manifest.previousFile(javaFile);
+            List<int[]> testSpans = new ArrayList<>();
+            for (MethodDeclaration md : testMethods) {
+                testSpans.add(new int[]{cu.getLineNumber(md.getStartPosition()), cu.getLineNumber(md.getStartPosition() + md.getLength() - 1)});
+            }
+            changedOutsideTests = run.changes.hasChangesOutside(relativePath, testSpans);
+        }
+
+        for (MethodDeclaration md : testMethods) {
+            if (Thread.currentThread().isInterrupted()) {
+                Log.debug("  Cancelled, skipping the remaining tests of %s", javaFile);
+                break;
+            }
+            int startLine = cu.getLineNumber(md.getStartPosition());
+            int endLine = cu.getLineNumber(md.getStartPosition() + md.getLength() - 1);
+            String testKey = md.getName().getIdentifier() + ":" + startLine;
+            if (run.reuseOutputs) {
+                AnalysisManifest.TestEntry unchanged = run.manifest.reuseTest(javaFile, testKey, run.outputDir);
+                if (unchanged != null) {
+                    Log.debug("  Unchanged test method: %s", md.getName().getIdentifier());
+                    reuseTest(javaFile, unchanged, run);
+                    continue;
+                }
+            } else if (run.changes != null && !changedOutsideTests && !run.changes.touchesNew(relativePath, startLine, endLine)) {
+                AnalysisManifest.TestEntry previous = findPreviousTest(previousFile, relativePath, md.getName().getIdentifier(), startLine, run.changes);
+                if (previous != null && !reachesChange(previous, relativePath, run.changes)) {
+                    Log.debug("  Test method not affected by %s: %s", run.changes.getRange(), md.getName().getIdentifier());
+                    reuseTest(javaFile, carryOverChanged(javaFile, previous, testKey, startLine, endLine, run), run);
+                    continue;
+                }
+            }
+            run.testCasesFound.incrementAndGet();
+            run.progress.testFound();
+            Log.debug("  Found test method: %s", md.getName().getIdentifier());
+            
+            try {
+                TestCaseAnalyzer.AnalysisResult analysisResult = run.testCaseAnalyzer.analyzeTestCase(cu, md, originalSource);
+                
+                // Check for unresolved invocations
+                List<String> unresolvedInvocations = findUnresolvedInvocations(analysisResult);
+                if (!unresolvedInvocations.isEmpty() && logData != null) {
+                    String className = analysisResult.testClassName;
+                    String methodName = analysisResult.testCaseName;
+                    // Use relative path to avoid Windows path separator issues in JSON
+                    String fileName = run.projectCtx.getProjectPath().relativize(javaFile).toString();
+                    
+                    logData.addUnresolvedCase(className, methodName, fileName, startLine, endLine, unresolvedInvocations);
+                    Log.debug("    Found %d unresolved invocations", unresolvedInvocations.size());
+                }
+                if (!analysisResult.getTruncations().isEmpty() && logData != null) {
+                    String fileName = run.projectCtx.getProjectPath().relativize(javaFile).toString();
+                    logData.addTruncatedCase(analysisResult.testClassName, analysisResult.testCaseName, fileName, startLine, endLine,
+                            analysisResult.getTruncations());
+                }
+                reportCase(run, analysisResult.testClassName, analysisResult.testCaseName,
+                        run.projectCtx.getProjectPath().relativize(javaFile).toString(), startLine, endLine,
+                        unresolvedInvocations, analysisResult.getTruncations());
+                if (run.callGraph != null) {
+                    run.callGraph.recordTest(javaFile, startLine, endLine, analysisResult);
+                }
+                
+                // Enhanced filename sanitization for Windows compatibility
+                String jsonFileName = analysisResult.getJsonFileName().replaceAll("[^a-zA-Z0-9._-]", "_") + ".json";
+
+                try {
+                    long writeStart = run.writeTimer.start();
+                    run.sink.write(jsonFileName, analysisResult);
+                    run.writeTimer.stop(writeStart);
+                    run.testCasesProcessed.incrementAndGet();
+                    run.progress.testProcessed();
+                    if (Log.isDebugEnabled()) {
+                        Log.debug("    Successfully wrote: " + run.sink.describe(jsonFileName));
+                    }
+                    if (run.manifest != null) {
+                        AnalysisManifest.TestEntry entry = run.manifest.newTestEntry(testKey, jsonFileName,
+                                analysisResult.getDependencyFiles(), analysisResult.getExpandedMethods());
+                        entry.className = analysisResult.testClassName;
+                        entry.methodName = analysisResult.testCaseName;
+                        entry.signature = analysisResult.getEntrySignature();
+                        entry.startLine = startLine;
+                        entry.endLine = endLine;
+                        entry.unresolvedInvocations = unresolvedInvocations;
+                        run.manifest.record(javaFile, entry);
+                    }
+                } catch (IOException e) {
+                    Log.error("    Error writing JSON for " + analysisResult.getJsonFileName() + ": " + e.getMessage());
+                }
+            } catch (Exception e) {
+                Log.error("    Error analyzing test method " + md.getName().getIdentifier() + ": " + e.getMessage());
+            }
+        }
+
+        if (run.projectCtx.isMemoryBounded()) {
+            // All tests of the file are emitted; only DFS expansions from other test files could reuse its AST
+            run.astParserUtil.getCompilationUnitCache().invalidate(javaFile);
+        }
+    }
+
+    /**
+     * Finds the previous entry of a test: same name, recorded at the line the diff moved to its current start line.
+     */
+    private AnalysisManifest.TestEntry findPreviousTest(AnalysisManifest.FileEntry previousFile, String relativePath, String methodName,
+                                                        int startLine, GitChangeSet changes) {
+        if (previousFile == null) {
+            return null;
+        }
+        // The previous run recorded old-side lines; the test sits at startLine of the current parse
+        for (AnalysisManifest.TestEntry test : previousFile.tests.values()) {
+            if (methodName.equals(test.methodName) && changes.toNewLine(relativePath, test.startLine) == startLine) {
+                return test;
+            }
+        }
+        return null;
+    }
+
     private boolean isTestMethod(MethodDeclaration md) {
         // Check for @Test annotation (JUnit 4 & 5, TestNG)
         // This is a simplified check. A more robust check would resolve bindings to ensure it's the correct @Test annotation.
@@ -176,7 +601,7 @@ public class ParseTestCaseToLlmContextTask implements AnalyzerTask {
                 
                 // Check for @Disabled (JUnit 5)
                 if ("Disabled".equals(annotationName) || "org.junit.jupiter.api.Disabled".equals(annotationName)) {
-                    System.out.println("  Skipping disabled test method: " + md.getName().getIdentifier() + " due to @Disabled annotation.");
+                    Log.debug("  Skipping disabled test method: %s due to @Disabled annotation.", md.getName().getIdentifier());
                     return false; // Explicitly not a test method to be processed if disabled
                 }
                 
@@ -194,106 +619,73 @@ public class ParseTestCaseToLlmContextTask implements AnalyzerTask {
     }
 
     /**
-     * Recursively find all test directories in the project.
-     * Supports mono repo by searching for all directories matching test patterns.
+     * Find all test directories in the project and submit a job for each of their test files as soon as
+     * the walk reaches it. Supports mono repos: modules come from the build files, and build output,
+     * VCS and other excluded directories are skipped without being traversed.
+     * In batch mode, files of one test directory are grouped into jobs of up to the batch size.
      */
-    private List<Path> findAllTestDirectories(Path projectRoot) {
+    private List<Path> findAllTestDirectories(Path projectRoot, RunState run, Consumer<Runnable> submit) {
         List<Path> testDirectories = new ArrayList<>();
-        
-        try (Stream<Path> paths = Files.walk(projectRoot)) {
-            List<Path> candidateDirectories = paths.filter(Files::isDirectory)
-                 .filter(this::isTestDirectory)
-                 .collect(java.util.stream.Collectors.toList());
-            
-            // Remove nested directories - only keep the most specific src/test/java directories
-            for (Path candidate : candidateDirectories) {
-                boolean isNested = false;
-                for (Path other : candidateDirectories) {
-                    if (!candidate.equals(other) && candidate.startsWith(other)) {
-                        isNested = true;
-                        break;
-                    }
+        int batchSize = run.projectCtx.getParseBatchSize();
+
+        ModuleDiscovery.walkTestSources(projectRoot, new ModuleDiscovery.TestSourceListener() {
+            private List<Path> batch = new ArrayList<>();
+
+            @Override
+            public void testDirectoryStarted(Path testRoot) {
+                testDirectories.add(testRoot);
+                Log.debug("Found test source directory: %s", testRoot);
+            }
+
+            @Override
+            public void testFile(Path testRoot, Path javaFile) {
+                run.progress.fileDiscovered();
+                if (batchSize <= 1) {
+                    submit.accept(() -> {
+                        try {
+                            processFile(javaFile, run);
+                        } finally {
+                            run.progress.filesCompleted(1);
+                        }
+                    });
+                    return;
                 }
-                if (!isNested) {
-                    testDirectories.add(candidate);
+                batch.add(javaFile);
+                if (batch.size() >= batchSize) {
+                    submitBatch();
                 }
             }
-        } catch (IOException e) {
-            System.err.println("Error walking project directory: " + e.getMessage());
-        }
-        
-        return testDirectories;
-    }
 
-    /**
-     * Check if a directory is a test directory based on common patterns.
-     */
-    private boolean isTestDirectory(Path dir) {
-        String dirName = dir.getFileName().toString();
-        String pathString = dir.toString();
-        
-        // Normalize path separators for cross-platform compatibility
-        String normalizedPath = pathString.replace('\\', '/');
-        
-        // Skip hidden directories and common non-source directories
-        if (dirName.startsWith(".") || 
-            normalizedPath.contains("/.") ||
-            normalizedPath.contains("/target/") ||
-            normalizedPath.contains("/build/") ||
-            normalizedPath.contains("/bin/") ||
-            normalizedPath.contains("/out/") ||
-            normalizedPath.contains("/node_modules/") ||
-            normalizedPath.contains("/.git/") ||
-            normalizedPath.contains("/.gradle/") ||
-            normalizedPath.contains("/.m2/")) {
-            return false;
-        }
-        
-        // Standard Maven/Gradle test directory patterns (cross-platform)
-        if (normalizedPath.endsWith("/src/test/java")) {
-            return true;
-        }
-        
-        // Additional test directory patterns for different project structures
-        // Be more specific to avoid false positives
-        if (normalizedPath.contains("/src/test/") && normalizedPath.endsWith("/java") && 
-            !normalizedPath.contains("/build/") && !normalizedPath.contains("/target/")) {
-            return true;
-        }
-        
-        // Check for Maven/Gradle multi-module patterns like module-name/src/test/java
-        if (dirName.equals("java")) {
-            Path parent = dir.getParent();
-            if (parent != null && parent.getFileName().toString().equals("test")) {
-                Path srcParent = parent.getParent();
-                if (srcParent != null && srcParent.getFileName().toString().equals("src")) {
-                    // Ensure it's not in a build directory (using normalized path)
-                    if (!normalizedPath.contains("/build/") && !normalizedPath.contains("/target/") && !normalizedPath.contains("/bin/")) {
-                        return true;
-                    }
+            @Override
+            public void testDirectoryFinished(Path testRoot) {
+                if (!batch.isEmpty()) {
+                    submitBatch();
                 }
             }
-        }
-        
-        return false;
+
+            private void submitBatch() {
+                // Batch mode: each job parses up to batchSize files of one test root with a single createASTs call
+                List<Path> files = batch;
+                batch = new ArrayList<>();
+                submit.accept(() -> {
+                    try {
+                        processBatch(files, run);
+                    } finally {
+                        run.progress.filesCompleted(files.size());
+                    }
+                });
+            }
+        });
+        run.progress.discoveryFinished();
+
+        Log.info("Found " + testDirectories.size() + " test source directories.");
+        return testDirectories;
     }
 
     /**
      * Find unresolved invocations in the analysis result
      */
     private List<String> findUnresolvedInvocations(TestCaseAnalyzer.AnalysisResult analysisResult) {
-        List<String> unresolvedInvocations = new ArrayList<>();
-        
-        for (String statement : analysisResult.parsedStatementsSequence) {
-            if (statement.contains("UNRESOLVED_INVOCATION") || 
-                statement.contains("UNRESOLVED_CONSTRUCTOR") ||
-                statement.contains("UNRESOLVED_METHOD_REF") ||
-                statement.contains("METHOD_NOT_FOUND_IN_SOURCE") ||
-                statement.contains("SOURCE_FILE_NOT_FOUND")) {
-                unresolvedInvocations.add(statement);
-            }
-        }
-        
-        return unresolvedInvocations;
+        return analysisResult.getUnresolvedStatements();
     }
 } 
\ No newline at end of file
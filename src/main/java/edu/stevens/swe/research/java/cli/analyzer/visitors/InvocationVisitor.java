@@ -3,25 +3,40 @@ package edu.stevens.swe.research.java.cli.analyzer.visitors;
 import org.eclipse.jdt.core.dom.*;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
-
+import java.util.Map;
+
+/**
+ * Collects invocations in execution order: nested calls (callers, arguments, lambda bodies) come before
+ * the call that consumes them.
+ *
+ * Each node gets the ordinal of its first appearance in the execution order, kept in an identity map,
+ * so membership checks are O(1) and the final ordering is a single bucket pass over those ordinals.
+ */
 public class InvocationVisitor extends ASTVisitor {
     private final List<ASTNode> methods = new ArrayList<>();
-    private final List<ASTNode> order = new ArrayList<>();
+    private final Map<ASTNode, Integer> order = new IdentityHashMap<>();
 
     @Override
     public boolean visit(MethodInvocation node) {
         methods.add(node);
-        if (!order.contains(node)) {
-            order.addAll(getPotential(node));
+        if (!order.containsKey(node)) {
+            addPotential(node);
         }
         return true;
     }
 
-    private List<ASTNode> getPotential(ASTNode node) {
-        List<ASTNode> invocations = new ArrayList<>();
+    private void addToOrder(ASTNode node) {
+        if (!order.containsKey(node)) {
+            order.put(node, order.size());
+        }
+    }
+
+    /**
+     * Appends the callables of the expression to the execution order, innermost first.
+     */
+    private void addPotential(ASTNode node) {
         Expression caller = null;
         List<Expression> arguments = null; // Changed to List<Expression> for JDT
 
@@ -44,24 +59,24 @@ public class InvocationVisitor extends ASTVisitor {
                 for (Statement stmt : (List<Statement>) block.statements()) {
                     if (stmt instanceof ExpressionStatement) {
                         Expression expr = ((ExpressionStatement) stmt).getExpression();
-                        invocations.addAll(getPotential(expr));
+                        addPotential(expr);
                     }
                 }
             } else if (body instanceof Expression) {
                 Expression exprBody = (Expression) body;
-                invocations.addAll(getPotential(exprBody));
+                addPotential(exprBody);
             }
         } else if (node instanceof InfixExpression) {
             InfixExpression ie = (InfixExpression) node;
             Expression leftOperand = ie.getLeftOperand();
             Expression rightOperand = ie.getRightOperand();
-            invocations.addAll(getPotential(leftOperand));
-            invocations.addAll(getPotential(rightOperand));
+            addPotential(leftOperand);
+            addPotential(rightOperand);
             // Add extended operands for InfixExpression if any
             if (ie.hasExtendedOperands()) {
                 for (Object extOp : ie.extendedOperands()) {
                     if (extOp instanceof Expression) {
-                        invocations.addAll(getPotential((Expression) extOp));
+                        addPotential((Expression) extOp);
                     }
                 }
             }
@@ -74,7 +89,7 @@ public class InvocationVisitor extends ASTVisitor {
                 caller.getNodeType() == ASTNode.LAMBDA_EXPRESSION ||
                 caller.getNodeType() == ASTNode.INFIX_EXPRESSION
         )) {
-            invocations.addAll(getPotential(caller));
+            addPotential(caller);
         }
 
         if (arguments != null) {
@@ -85,7 +100,7 @@ public class InvocationVisitor extends ASTVisitor {
                     arg.getNodeType() == ASTNode.LAMBDA_EXPRESSION || // Added Lambda and Infix to argument check
                     arg.getNodeType() == ASTNode.INFIX_EXPRESSION
                 ) {
-                    invocations.addAll(getPotential(arg));
+                    addPotential(arg);
                 }
             }
         }
@@ -95,33 +110,39 @@ public class InvocationVisitor extends ASTVisitor {
             node instanceof ClassInstanceCreation || 
             node instanceof ExpressionMethodReference || 
             node instanceof NormalAnnotation) { // Added NormalAnnotation as per original logic
-            invocations.add(node);
+            addToOrder(node);
         }
-
-        return invocations;
     }
 
-    private void sortMethods() {
-        // Ensure all elements in 'methods' are also in 'order' to avoid indexOf returning -1
-        // This can happen if 'getPotential' doesn't add the node itself for certain types
-        // or if 'methods.add(node)' happens for nodes not processed by 'getPotential' in the same way.
-        order.removeIf(item -> !methods.contains(item)); // Clean up order list
-        methods.removeIf(item -> !order.contains(item)); // Ensure consistency
-
-        // Custom comparator to handle items in 'methods' that might not be in 'order'
-        // (though the above cleanup should prevent this)
-        // Nodes not found in 'order' will be placed at the end.
-        Collections.sort(methods, Comparator.comparingInt(n -> {
-            int index = order.indexOf(n);
-            return index == -1 ? Integer.MAX_VALUE : index;
-        }));
+    /**
+     * Orders the visited nodes by their position in the execution order. Nodes that never entered the
+     * execution order are dropped; repeated visits of a node are kept.
+     */
+    private List<ASTNode> sortMethods() {
+        int[] counts = new int[order.size()];
+        ASTNode[] nodes = new ASTNode[order.size()];
+        for (ASTNode node : methods) {
+            Integer position = order.get(node);
+            if (position != null) {
+                counts[position]++;
+                nodes[position] = node;
+            }
+        }
+
+        List<ASTNode> sorted = new ArrayList<>(methods.size());
+        for (int position = 0; position < nodes.length; position++) {
+            for (int i = 0; i < counts[position]; i++) {
+                sorted.add(nodes[position]);
+            }
+        }
+        return sorted;
     }
 
     @Override
     public boolean visit(ExpressionMethodReference node) {
         methods.add(node);
-        if (!order.contains(node)) {
-            order.addAll(getPotential(node));
+        if (!order.containsKey(node)) {
+            addPotential(node);
         }
         return true;
     }
@@ -129,8 +150,8 @@ public class InvocationVisitor extends ASTVisitor {
     @Override
     public boolean visit(ClassInstanceCreation node) {
         methods.add(node);
-        if (!order.contains(node)) {
-            order.addAll(getPotential(node));
+        if (!order.containsKey(node)) {
+            addPotential(node);
         }
         return true;
     }
@@ -143,9 +164,7 @@ public class InvocationVisitor extends ASTVisitor {
                 if ("expected".equals(v.getName().toString())) {
                     methods.add(node); // Only add if it's the specific expected annotation
                     // Not running getPotential for annotations as they are not typically nested calls
-                    if (!order.contains(node)) {
-                         order.add(node); // Add to order for sorting if needed
-                    }
+                    addToOrder(node); // Add to order for sorting if needed
                 }
             }
         }
@@ -153,7 +172,6 @@ public class InvocationVisitor extends ASTVisitor {
     }
 
     public List<ASTNode> getMethods() {
-        sortMethods();
-        return new ArrayList<>(methods); // Return a copy
+        return sortMethods(); // Already a fresh list
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,94 @@
+package edu.stevens.swe.research.java.cli.analyzer;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LogDataTest {
+
+    @TempDir
+    Path dir;
+
+    private static LogData logData() {
+        LogData logData = new LogData("demo", "ParseTestCaseToLlmContext");
+        logData.setStartTime(LocalDateTime.of(2024, 1, 1, 12, 0));
+        return logData;
+    }
+
+    // Reports cases before and after spilling starts; passes a null directory to keep them in memory
+    private static LogData report(LogData logData, Path spillDirectory) throws IOException {
+        logData.addUnresolvedCase("a.CalcTest", "early", "CalcTest.java", 1, 2, List.of("missing(\"\u00fc\")"));
+        logData.addTruncatedCase("a.CalcTest", "deep", "CalcTest.java", 3, 4, List.of("TRUNCATED_DEPTH: a.CalcTest.helper()#[10-11]"));
+        if (spillDirectory != null) {
+            logData.spillCases(spillDirectory);
+        }
+        logData.addUnresolvedCase("a.CalcTest", "late", "CalcTest.java", 5, 6, List.of("other()", "third()"));
+        logData.addTruncatedCase("a.CalcTest", "looping", "CalcTest.java", 7, 8, List.of("CYCLE: a.CalcTest.loop()#[12-13]"));
+        logData.setEndTime(LocalDateTime.of(2024, 1, 1, 12, 5));
+        return logData;
+    }
+
+    private JsonObject write(LogData logData, String name) throws IOException {
+        Path outputDir = Files.createDirectories(dir.resolve(name));
+        logData.writeToFile(outputDir, "demo");
+        return JsonParser.parseString(Files.readString(outputDir.resolve("demo-log.json"))).getAsJsonObject();
+    }
+
+    private List<Path> spillFiles(Path spillDirectory) throws IOException {
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            return files.toList();
+        }
+    }
+
+    @Test
+    void testSpilledLogMatchesTheInMemoryLog() throws IOException {
+        JsonObject expected = write(report(logData(), null), "memory");
+        Path spillDirectory = Files.createDirectories(dir.resolve("spill"));
+        LogData spilled = report(logData(), spillDirectory);
+        assertEquals(2, spillFiles(spillDirectory).size());
+        assertEquals(List.of(), spilled.getUnresolvedCases());
+
+        assertEquals(expected, write(spilled, "spilled"));
+        assertEquals(3, expected.get("unresolvedInvocationCount").getAsInt());
+        assertEquals(2, expected.getAsJsonArray("truncatedCases").size());
+        assertEquals(List.of(), spillFiles(spillDirectory));
+    }
+
+    @Test
+    void testSpillWithoutTruncationsLogsNoTruncatedCases() throws IOException {
+        Path spillDirectory = Files.createDirectories(dir.resolve("spill"));
+        LogData logData = logData();
+        logData.spillCases(spillDirectory);
+        logData.addUnresolvedCase("a.CalcTest", "late", "CalcTest.java", 5, 6, List.of("other()"));
+
+        JsonObject log = write(logData, "out");
+        assertEquals(1, log.getAsJsonArray("unresolvedCases").size());
+        assertFalse(log.has("truncatedCases"));
+        assertEquals(List.of(), spillFiles(spillDirectory));
+    }
+
+    @Test
+    void testSpillFilesAreDeletedWhenTheLogCannotBeWritten() throws IOException {
+        Path spillDirectory = Files.createDirectories(dir.resolve("spill"));
+        LogData logData = report(logData(), spillDirectory);
+
+        assertThrows(IOException.class, () -> logData.writeToFile(dir.resolve("missing"), "demo"));
+        assertEquals(List.of(), spillFiles(spillDirectory));
+
+        // Cases reported afterwards are kept in memory and still reach the log
+        logData.addUnresolvedCase("a.CalcTest", "last", "CalcTest.java", 9, 10, List.of("gone()"));
+        assertEquals("last", write(logData, "out").getAsJsonArray("unresolvedCases").get(0).getAsJsonObject().get("methodName").getAsString());
+    }
+}
@@ -0,0 +1,98 @@
+package edu.stevens.swe.research.java.cli.analyzer;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResultFormatterTest {
+
+    private static final String CLASS_NAME = "a.\"Quoted\"Test";
+    private static final String METHOD_NAME = "adds,`twice`|again";
+    private static final String FILE_NAME = "src/test/java/a/Line\nBreak.java";
+    private static final String RULE = "UNRESOLVED_INVOCATION: m(\"x\", `y`) | z\r\nnext";
+
+    private static TaskResult result(String summary) {
+        TaskResult result = new TaskResult("/projects/p,1", summary);
+        TaskResult.TestCaseResult testCase = new TaskResult.TestCaseResult(CLASS_NAME, METHOD_NAME, FILE_NAME, 3, 9);
+        testCase.addIssue(new TaskResult.Issue(RULE, 5, 6));
+        result.addCase(testCase);
+        result.addCase(new TaskResult.TestCaseResult("a.OtherTest", "plain", "src/test/java/a/OtherTest.java", 1, 2));
+        return result;
+    }
+
+    private static String format(String type, TaskResult result) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ResultFormatter(type).format(result, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testJsonKeepsQuotesAndLineBreaks() throws IOException {
+        JsonObject document = JsonParser.parseString(format("json", result("Task \"T\"\nfinished"))).getAsJsonObject();
+
+        assertEquals("/projects/p,1", document.get("project").getAsString());
+        assertEquals("Task \"T\"\nfinished", document.get("task").getAsString());
+        assertFalse(document.has("summary")); // Same as the task named in the header
+        JsonArray cases = document.getAsJsonArray("cases");
+        assertEquals(2, cases.size());
+        JsonObject first = cases.get(0).getAsJsonObject();
+        assertEquals(CLASS_NAME, first.get("class").getAsString());
+        assertEquals(METHOD_NAME, first.get("method").getAsString());
+        assertEquals(FILE_NAME, first.get("file").getAsString());
+        assertEquals(3, first.get("startLine").getAsInt());
+        JsonObject issue = first.getAsJsonArray("issues").get(0).getAsJsonObject();
+        assertEquals(RULE, issue.get("rule").getAsString());
+        assertEquals(6, issue.get("endLine").getAsInt());
+        assertEquals(0, cases.get(1).getAsJsonObject().getAsJsonArray("issues").size());
+    }
+
+    @Test
+    void testCsvQuotesCommasQuotesAndLineBreaks() throws IOException {
+        List<String> rows = format("csv", result("T")).lines().toList();
+
+        assertEquals(3, rows.size()); // Header and one row per case; line breaks never split a row
+        assertEquals("\"/projects/p,1\",T,\"a.\"\"Quoted\"\"Test\",\"adds,`twice`|again\",\"src/test/java/a/Line Break.java\",3,9,"
+                + "\"UNRESOLVED_INVOCATION: m(\"\"x\"\", `y`) | z next\",5,6", rows.get(1));
+        assertEquals("\"/projects/p,1\",T,a.OtherTest,plain,src/test/java/a/OtherTest.java,1,2,,,", rows.get(2)); // Three empty issue columns
+    }
+
+    @Test
+    void testMarkdownEscapesPipesAndBackticks() throws IOException {
+        String markdown = format("md", result("Task | done"));
+
+        assertTrue(markdown.contains("## Task: Task \\| done\n"), markdown);
+        // The code span fence is longer than the backtick run inside it
+        assertTrue(markdown.contains("### Case: `` a.\"Quoted\"Test::adds,`twice`|again ``\n"), markdown);
+        assertTrue(markdown.contains("- **File**: `src/test/java/a/Line Break.java`\n"), markdown);
+        assertTrue(markdown.contains("  | UNRESOLVED_INVOCATION: m(\"x\", \\`y\\`) \\| z next | 5          | 6          |\n"), markdown);
+        assertFalse(markdown.contains("## Summary"));
+    }
+
+    @Test
+    void testCasesAreWrittenAsTheyArePushed() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ResultFormatter.CaseWriter cases = new ResultFormatter("json").open(out, "p", "Task");
+        cases.writeCase(new TaskResult.TestCaseResult("a.FirstTest", "first", "A.java", 1, 2));
+
+        String written = out.toString(StandardCharsets.UTF_8);
+        assertTrue(written.contains("\"a.FirstTest\""), written);
+        assertEquals(1, cases.getCaseCount());
+
+        cases.finish("Task: 1 test");
+        cases.close();
+        JsonObject document = JsonParser.parseString(out.toString(StandardCharsets.UTF_8)).getAsJsonObject();
+        assertEquals("Task", document.get("task").getAsString());
+        assertEquals("Task: 1 test", document.get("summary").getAsString());
+        assertEquals(1, document.getAsJsonArray("cases").size());
+    }
+}
@@ -0,0 +1,128 @@
+package edu.stevens.swe.research.java.cli.analyzer.core;
+
+import edu.stevens.swe.research.java.cli.analyzer.ProjectCtx;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class AnalysisManifestTest {
+
+    @TempDir
+    Path project;
+
+    @TempDir
+    Path outputDir;
+
+    private Path testFile;
+    private Path mainFile;
+
+    @BeforeEach
+    void writeProject() throws IOException {
+        mainFile = write("src/main/java/p/Calc.java", "package p;\nclass Calc { int add(int a, int b) { return a + b; } }\n");
+        testFile = write("src/test/java/p/CalcTest.java", "package p;\nclass CalcTest { void adds() {} void other() {} }\n");
+        Files.writeString(outputDir.resolve("p_CalcTest_adds.json"), "{}");
+        Files.writeString(outputDir.resolve("p_CalcTest_other.json"), "{}");
+    }
+
+    private Path write(String relativePath, String content) throws IOException {
+        Path file = project.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        return file;
+    }
+
+    private AnalysisManifest.TestEntry record(AnalysisManifest manifest, String method, int startLine) {
+        AnalysisManifest.TestEntry entry = manifest.newTestEntry(method + "@" + startLine, "p_CalcTest_" + method + ".json",
+                List.of(testFile.toString(), mainFile.toString(), mainFile.toString()),
+                List.of(mainFile + "#2-2", mainFile + "#2-2"));
+        entry.className = "CalcTest";
+        entry.methodName = method;
+        entry.startLine = startLine;
+        entry.endLine = startLine;
+        entry.unresolvedInvocations = List.of("missing()");
+        manifest.record(testFile, entry);
+        return entry;
+    }
+
+    /**
+     * Runs a first analysis that records both tests and saves the manifest.
+     */
+    private void saveFirstRun() {
+        ProjectCtx projectCtx = new ProjectCtx(project, "java");
+        AnalysisManifest manifest = AnalysisManifest.load(projectCtx);
+        record(manifest, "adds", 2);
+        record(manifest, "other", 2);
+        manifest.save(projectCtx);
+    }
+
+    @Test
+    void testSavedEntriesAreReusedAfterReload() {
+        saveFirstRun();
+
+        AnalysisManifest reloaded = AnalysisManifest.load(new ProjectCtx(project, "java"));
+        AnalysisManifest.FileEntry file = reloaded.reuseFile(testFile, outputDir);
+        assertNotNull(file);
+        assertEquals(reloaded.contentHash(testFile), file.hash);
+        assertEquals(Set.of("adds@2", "other@2"), file.tests.keySet());
+
+        AnalysisManifest.TestEntry adds = file.tests.get("adds@2");
+        assertEquals("p_CalcTest_adds.json", adds.outputName);
+        assertEquals("CalcTest", adds.className);
+        assertEquals("adds", adds.methodName);
+        assertEquals(2, adds.startLine);
+        assertEquals(Set.of("src/main/java/p/Calc.java", "src/test/java/p/CalcTest.java"), adds.dependencies.keySet());
+        assertEquals(List.of("src/main/java/p/Calc.java#2-2"), adds.expandedMethods);
+        assertEquals(List.of("missing()"), adds.unresolvedInvocations);
+        assertEquals(Set.of(), reloaded.staleOutputs());
+    }
+
+    @Test
+    void testChangedDependencyOrMissingOutputIsNotReused() throws IOException {
+        saveFirstRun();
+        Files.writeString(mainFile, "package p;\nclass Calc { int add(int a, int b) { return b + a; } }\n");
+
+        AnalysisManifest reloaded = AnalysisManifest.load(new ProjectCtx(project, "java"));
+        assertNull(reloaded.reuseFile(testFile, outputDir));
+        assertNull(reloaded.reuseTest(testFile, "adds@2", outputDir));
+
+        saveFirstRun();
+        Files.delete(outputDir.resolve("p_CalcTest_other.json"));
+        reloaded = AnalysisManifest.load(new ProjectCtx(project, "java"));
+        assertNull(reloaded.reuseFile(testFile, outputDir));
+        assertNotNull(reloaded.reuseTest(testFile, "adds@2", outputDir));
+        assertNull(reloaded.reuseTest(testFile, "other@2", outputDir));
+    }
+
+    @Test
+    void testTestsNotCarriedOverAreStale() {
+        saveFirstRun();
+
+        AnalysisManifest reloaded = AnalysisManifest.load(new ProjectCtx(project, "java"));
+        AnalysisManifest.TestEntry previous = reloaded.previousFile(testFile).tests.get("adds@2");
+        AnalysisManifest.TestEntry moved = reloaded.carryOver(testFile, previous, "adds@3", 3, 3);
+        assertEquals("p_CalcTest_adds.json", moved.outputName);
+        assertEquals(previous.dependencies, moved.dependencies);
+        assertEquals(Set.of("p_CalcTest_other.json"), reloaded.staleOutputs());
+    }
+
+    @Test
+    void testManifestOfAnotherProjectIsIgnored(@TempDir Path otherProject) throws IOException {
+        saveFirstRun();
+        Path manifest = project.resolve(".analyzer-temp/analysis-manifest.json");
+        ProjectCtx other = new ProjectCtx(otherProject, "java");
+        Files.copy(manifest, other.getTempDir().resolve("analysis-manifest.json"));
+
+        AnalysisManifest loaded = AnalysisManifest.load(other);
+        assertNull(loaded.previousFile(otherProject.resolve("src/test/java/p/CalcTest.java")));
+    }
+}
@@ -0,0 +1,203 @@
+package edu.stevens.swe.research.java.cli.analyzer.core;
+
+import edu.stevens.swe.research.java.cli.analyzer.ProjectCtx;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CallGraphIndexTest {
+
+    @TempDir
+    Path project;
+
+    private SymbolTable symbols;
+    private Path calcFile;
+    private Path calcTestFile;
+    private Path otherTestFile;
+
+    @BeforeEach
+    void writeProject() throws IOException {
+        symbols = new SymbolTable();
+        calcFile = write("src/main/java/a/Calc.java");
+        calcTestFile = write("src/test/java/a/CalcTest.java");
+        otherTestFile = write("src/test/java/a/OtherTest.java");
+    }
+
+    private Path write(String relativePath) throws IOException {
+        Path file = project.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "class X {}\n");
+        return file;
+    }
+
+    private TestCaseAnalyzer.AnalysisResult result(String entrySignature) {
+        TestCaseAnalyzer.AnalysisResult result = new TestCaseAnalyzer.AnalysisResult(symbols);
+        result.entrySignature = entrySignature;
+        return result;
+    }
+
+    /**
+     * Appends a call; production and test-utility calls are declared at the given span of the file.
+     */
+    private void call(TestCaseAnalyzer.AnalysisResult result, StatementSequence.Kind kind, String signature, int depth, int line,
+                      Path declaringFile, int declarationStart, int declarationEnd) {
+        int symbol = symbols.intern(signature);
+        result.getStatements().add(kind, symbol, depth, line, line);
+        if (declaringFile != null) {
+            result.getDeclarations().put(symbol, declaringFile + "#" + declarationStart + "-" + declarationEnd);
+        }
+    }
+
+    /**
+     * A test that calls Calc.add and a helper, whose body asserts and calls Calc.add again.
+     */
+    private TestCaseAnalyzer.AnalysisResult addsTest(String entrySignature, int line) {
+        TestCaseAnalyzer.AnalysisResult result = result(entrySignature);
+        call(result, StatementSequence.Kind.PRODUCTION, "a.Calc.add(int, int)", 0, line + 1, calcFile, 3, 5);
+        call(result, StatementSequence.Kind.ASSERT, "org.junit.Assert.assertEquals(long, long)", 1, 40, null, 0, 0);
+        call(result, StatementSequence.Kind.PRODUCTION, "a.Calc.add(int, int)", 1, 41, calcFile, 3, 5);
+        call(result, StatementSequence.Kind.TEST, "a.CalcTest.check(int)", 0, line + 2, calcTestFile, 39, 42);
+        return result;
+    }
+
+    private List<String> calls(CallGraphIndex index, String signature) {
+        int node = index.find(signature);
+        List<String> calls = new ArrayList<>();
+        for (int edge = index.edgeStart(node); edge < index.edgeEnd(node); edge++) {
+            calls.add(index.kind(edge) + " " + index.name(index.target(edge)) + "#" + index.edgeStartLine(edge));
+        }
+        return calls;
+    }
+
+    @Test
+    void testGraphIsRebuiltFromTheStatementSequence() throws IOException {
+        ProjectCtx projectCtx = new ProjectCtx(project, "java");
+        CallGraphIndex.Update update = CallGraphIndex.update(projectCtx);
+        update.recordFile(calcTestFile);
+        update.recordTest(calcTestFile, 10, 14, addsTest("a.CalcTest.adds()", 10));
+        CallGraphIndex index = update.save();
+
+        assertEquals(4, index.size());
+        assertEquals(4, index.edgeCount());
+        int test = index.find("a.CalcTest.adds()");
+        assertEquals(CallGraphIndex.TEST, index.flags(test));
+        assertEquals("src/test/java/a/CalcTest.java", index.file(test));
+        assertEquals(10, index.startLine(test));
+        assertEquals(14, index.endLine(test));
+        assertEquals(List.of("PRODUCTION a.Calc.add(int, int)#11", "TEST a.CalcTest.check(int)#12"), calls(index, "a.CalcTest.adds()"));
+        assertEquals(List.of("ASSERT org.junit.Assert.assertEquals(long, long)#40", "PRODUCTION a.Calc.add(int, int)#41"),
+                calls(index, "a.CalcTest.check(int)"));
+
+        int helper = index.find("a.CalcTest.check(int)");
+        assertEquals(CallGraphIndex.TEST_UTILITY, index.flags(helper));
+        int add = index.find("a.Calc.add(int, int)");
+        assertEquals(CallGraphIndex.PRODUCTION, index.flags(add));
+        assertEquals("src/main/java/a/Calc.java", index.file(add));
+        assertEquals(List.of(), calls(index, "a.Calc.add(int, int)"));
+        int assertion = index.find("org.junit.Assert.assertEquals(long, long)");
+        assertNull(index.file(assertion));
+
+        assertEquals(4, index.reachableFrom(test).cardinality());
+        BitSet tests = new BitSet();
+        tests.set(test);
+        assertEquals(tests, index.testsReaching(index.declaredIn("src/main/java/a/Calc.java", 4, 4)));
+        assertEquals(tests, CallGraphIndex.load(projectCtx).testsReaching(index.declaredIn("src/test/java/a/CalcTest.java", 40, 40)));
+    }
+
+    @Test
+    void testMergeKeepsOverloadsBySignature() throws IOException {
+        ProjectCtx projectCtx = new ProjectCtx(project, "java");
+        CallGraphIndex.Update first = CallGraphIndex.update(projectCtx);
+        first.recordTest(calcTestFile, 10, 14, addsTest("a.CalcTest.adds()", 10));
+        first.recordTest(calcTestFile, 20, 24, addsTest("a.CalcTest.adds(int)", 20));
+        first.recordTest(calcTestFile, 30, 34, addsTest("a.CalcTest.adds(long)", 30));
+        first.recordTest(otherTestFile, 5, 9, addsTest("a.OtherTest.other()", 5));
+        first.save();
+
+        // The file changed: adds() is analyzed again, adds(int) moved without changes, adds(long) was removed
+        CallGraphIndex.Update second = CallGraphIndex.update(projectCtx);
+        second.recordFile(calcTestFile);
+        TestCaseAnalyzer.AnalysisResult changed = result("a.CalcTest.adds()");
+        call(changed, StatementSequence.Kind.PRODUCTION, "a.Calc.sub(int, int)", 0, 11, calcFile, 7, 9);
+        second.recordTest(calcTestFile, 10, 13, changed);
+        second.keepTest("a.CalcTest.adds(int)", 25, 29);
+        CallGraphIndex index = second.save();
+
+        assertEquals(-1, index.find("a.CalcTest.adds(long)"));
+        assertEquals(List.of("PRODUCTION a.Calc.sub(int, int)#11"), calls(index, "a.CalcTest.adds()"));
+        int kept = index.find("a.CalcTest.adds(int)");
+        assertEquals(25, index.startLine(kept));
+        assertEquals(29, index.endLine(kept));
+        assertEquals(List.of("PRODUCTION a.Calc.add(int, int)#21", "TEST a.CalcTest.check(int)#22"), calls(index, "a.CalcTest.adds(int)"));
+        // The helper was not expanded in this run, so its calls come from the previous index
+        assertEquals(List.of("ASSERT org.junit.Assert.assertEquals(long, long)#40", "PRODUCTION a.Calc.add(int, int)#41"),
+                calls(index, "a.CalcTest.check(int)"));
+        int other = index.find("a.OtherTest.other()");
+        assertEquals(5, index.startLine(other));
+
+        Files.delete(otherTestFile);
+        CallGraphIndex third = CallGraphIndex.update(projectCtx).save();
+        assertEquals(-1, third.find("a.OtherTest.other()"));
+        assertEquals(2, third.tests().cardinality()); // adds() and adds(int) remain
+    }
+
+    @Test
+    void testBinarySearchFindsEveryNode() throws IOException {
+        CallGraphIndex.Update update = CallGraphIndex.update(new ProjectCtx(project, "java"));
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            names.add("a.CalcTest.t" + i + "()");
+        }
+        names.add("a.CalcTest.t\u00fc()");
+        names.add("a.CalcTest.t()");
+        for (String name : names) {
+            update.recordTest(calcTestFile, 1, 2, result(name));
+        }
+        CallGraphIndex index = update.save();
+
+        assertEquals(names.size(), index.size());
+        for (String name : names) {
+            int node = index.find(name);
+            assertNotEquals(-1, node, name);
+            assertEquals(name, index.name(node));
+        }
+        for (int node = 1; node < index.size(); node++) {
+            assertTrue(index.name(node - 1).compareTo(index.name(node)) < 0);
+        }
+        assertEquals(-1, index.find(""));
+        assertEquals(-1, index.find("a.CalcTest.t"));
+        assertEquals(-1, index.find("a.CalcTest.t1"));
+        assertEquals(-1, index.find("z"));
+    }
+
+    @Test
+    void testCountsThatOverflowTheFileAreRejected() throws IOException {
+        ProjectCtx projectCtx = new ProjectCtx(project, "java");
+        CallGraphIndex.Update update = CallGraphIndex.update(projectCtx);
+        update.recordTest(calcTestFile, 10, 14, addsTest("a.CalcTest.adds()", 10));
+        Path file = update.save().getFile();
+        byte[] valid = Files.readAllBytes(file);
+
+        // 2^28 nodes take 2^32 bytes, which wraps around to 0 in int arithmetic
+        for (int[] header : new int[][]{{8, 1 << 28}, {12, 1 << 28}, {16, 1 << 30}, {8, -1}, {20, -4}}) {
+            ByteBuffer damaged = ByteBuffer.wrap(valid.clone());
+            damaged.putInt(header[0], header[1]);
+            Files.write(file, damaged.array());
+            assertThrows(IOException.class, () -> CallGraphIndex.open(file), header[0] + ": " + header[1]);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package edu.stevens.swe.research.java.cli.analyzer.core;
+
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class CompilationUnitCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private final AtomicInteger parses = new AtomicInteger();
+
+    private Path write(String name, String source) throws IOException {
+        Path file = dir.resolve(name);
+        Files.writeString(file, source);
+        return file;
+    }
+
+    private CompilationUnitCache.Loader loaderFor(Path file) {
+        return () -> {
+            parses.incrementAndGet();
+            String source = Files.readString(file);
+            ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+            parser.setKind(ASTParser.K_COMPILATION_UNIT);
+            parser.setSource(source.toCharArray());
+            return new AstParserUtil.ParseResult((CompilationUnit) parser.createAST(null), source);
+        };
+    }
+
+    @Test
+    void testLeastRecentlyUsedIsEvictedByWeight() throws Exception {
+        Path a = write("A.java", "class A {}"); // Each source weighs 10 characters
+        Path b = write("B.java", "class B {}");
+        Path c = write("C.java", "class C {}");
+        CompilationUnitCache cache = new CompilationUnitCache(25);
+
+        AstParserUtil.ParseResult first = cache.get(a, loaderFor(a));
+        cache.get(b, loaderFor(b));
+        assertSame(first, cache.get(a, loaderFor(a))); // A is now the most recently used
+        cache.get(c, loaderFor(c));
+
+        assertEquals(2, cache.size());
+        assertEquals(20, cache.getCurrentWeight());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(3, parses.get());
+        assertSame(first, cache.get(a, loaderFor(a)));
+        cache.get(b, loaderFor(b)); // B was evicted and is parsed again
+        assertEquals(4, parses.get());
+    }
+
+    @Test
+    void testOversizedUnitIsNotCached() throws Exception {
+        Path big = write("Big.java", "class Big { int field; }");
+        CompilationUnitCache cache = new CompilationUnitCache(10);
+
+        cache.get(big, loaderFor(big));
+        cache.get(big, loaderFor(big));
+        assertEquals(0, cache.size());
+        assertEquals(2, parses.get());
+    }
+
+    @Test
+    void testModifiedFileIsParsedAgain() throws Exception {
+        Path a = write("A.java", "class A {}");
+        CompilationUnitCache cache = new CompilationUnitCache();
+        AstParserUtil.ParseResult first = cache.get(a, loaderFor(a));
+
+        Files.writeString(a, "class A { void m() {} }");
+        Files.setLastModifiedTime(a, FileTime.fromMillis(Files.getLastModifiedTime(a).toMillis() + 2000));
+        AstParserUtil.ParseResult second = cache.get(a, loaderFor(a));
+
+        assertNotSame(first, second);
+        assertEquals("class A { void m() {} }", second.originalSource);
+        assertEquals(1, cache.size());
+        assertEquals(23, cache.getCurrentWeight());
+    }
+
+    @Test
+    void testInvalidateAndClearReleaseWeight() throws Exception {
+        Path a = write("A.java", "class A {}");
+        Path b = write("B.java", "class B {}");
+        CompilationUnitCache cache = new CompilationUnitCache();
+        cache.get(a, loaderFor(a));
+        cache.get(b, loaderFor(b));
+
+        cache.invalidate(dir.resolve("./A.java")); // Keys are normalized
+        assertEquals(1, cache.size());
+        assertEquals(10, cache.getCurrentWeight());
+        cache.get(a, loaderFor(a));
+        assertEquals(3, parses.get());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getCurrentWeight());
+    }
+}
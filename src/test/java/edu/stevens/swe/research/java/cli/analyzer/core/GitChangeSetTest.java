@@ -0,0 +1,117 @@
+package edu.stevens.swe.research.java.cli.analyzer.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GitChangeSetTest {
+
+    private static GitChangeSet parse(String... lines) throws IOException {
+        return GitChangeSet.parse("HEAD~1..HEAD", new BufferedReader(new StringReader(String.join("\n", lines) + "\n")));
+    }
+
+    @Test
+    void testContentLinesLookingLikeFileHeadersStayInTheirHunk() throws IOException {
+        GitChangeSet changes = parse(
+                "diff --git a/src/A.java b/src/A.java",
+                "index 1111111..2222222 100644",
+                "--- a/src/A.java",
+                "+++ b/src/A.java",
+                "@@ -10,2 +10,2 @@ class A {",
+                "--- b/src/Other.java",       // removed line "-- b/src/Other.java" of a text block
+                "-    int i = 0;",
+                "+++ b/src/Other.java",       // added line "++ b/src/Other.java"
+                "+    int i = 1;",
+                "@@ -30 +30 @@ class A {",
+                "-    // old",
+                "\\ No newline at end of file",
+                "+    // new",
+                "diff --git a/src/B.java b/src/B.java",
+                "--- a/src/B.java",
+                "+++ b/src/B.java",
+                "@@ -5,0 +6,2 @@ class B {",
+                "+    void added() {",
+                "+    }");
+
+        assertEquals(2, changes.getChangedFileCount());
+        assertFalse(changes.isChanged("src/Other.java"));
+        assertTrue(changes.touchesNew("src/A.java", 11, 11));
+        assertTrue(changes.touchesNew("src/A.java", 30, 30));
+        assertFalse(changes.touchesNew("src/A.java", 12, 29));
+        assertTrue(changes.touchesNew("src/B.java", 6, 7));
+        assertFalse(changes.touchesNew("src/B.java", 1, 4));
+    }
+
+    @Test
+    void testOldLinesAreFollowedToTheNewSide() throws IOException {
+        GitChangeSet changes = parse(
+                "--- a/src/A.java",
+                "+++ b/src/A.java",
+                "@@ -3,0 +4,3 @@",       // three lines inserted after line 3
+                "+import a.B;",
+                "+import a.C;",
+                "+import a.D;",
+                "@@ -20,2 +22,0 @@",      // lines 20-21 deleted, now between lines 22 and 23
+                "-    int x;",
+                "-    int y;",
+                "@@ -40 +41,2 @@",
+                "-    return 1;",
+                "+    int z = 1;",
+                "+    return z;");
+
+        assertEquals(3, changes.toNewLine("src/A.java", 3));
+        assertEquals(7, changes.toNewLine("src/A.java", 4));
+        assertEquals(22, changes.toNewLine("src/A.java", 19));
+        assertEquals(22, changes.toNewLine("src/A.java", 20)); // Deleted, mapped to the line before the deletion
+        assertEquals(23, changes.toNewLine("src/A.java", 22));
+        assertEquals(41, changes.toNewLine("src/A.java", 40));
+        assertEquals(43, changes.toNewLine("src/A.java", 41));
+        assertEquals(17, changes.toNewLine("src/Unchanged.java", 17));
+
+        // A method recorded at old lines 8-15 now sits at 11-18 and was not changed
+        assertFalse(changes.touchesOld("src/A.java", 8, 15));
+        assertTrue(changes.touchesOld("src/A.java", 15, 25));
+        assertTrue(changes.touchesOld("src/A.java", 38, 40));
+        // Lines after the last hunk are shifted past its new side
+        assertFalse(changes.touchesOld("src/A.java", 41, 45));
+        assertFalse(changes.touchesOld("src/Unchanged.java", 1, 100));
+    }
+
+    @Test
+    void testDeletedAndRenamedFilesAreChangedEverywhere() throws IOException {
+        GitChangeSet changes = parse(
+                "diff --git a/src/Gone.java b/src/Gone.java",
+                "deleted file mode 100644",
+                "--- a/src/Gone.java",
+                "+++ /dev/null",
+                "@@ -1,3 +0,0 @@",
+                "-class Gone {",
+                "-    void m() {}",
+                "-}",
+                "diff --git a/src/Old.java b/src/New.java",
+                "similarity index 100%",
+                "rename from src/Old.java",
+                "rename to src/New.java",
+                "diff --git a/src/Added.java b/src/Added.java",
+                "new file mode 100644",
+                "--- /dev/null",
+                "+++ b/src/Added.java",
+                "@@ -0,0 +1 @@",
+                "+class Added {}");
+
+        assertEquals(3, changes.getChangedFileCount());
+        assertTrue(changes.touchesOld("src/Gone.java", 2, 2));
+        assertTrue(changes.isChanged("src/Old.java"));
+        assertTrue(changes.touchesOld("src/Old.java", 1, 1));
+        assertTrue(changes.isChanged("src/Added.java"));
+        assertTrue(changes.hasChangesOutside("src/Added.java", List.of()));
+        assertFalse(changes.hasChangesOutside("src/Added.java", List.of(new int[]{1, 1})));
+    }
+}
@@ -0,0 +1,174 @@
+package edu.stevens.swe.research.java.cli.analyzer.core;
+
+import edu.stevens.swe.research.java.cli.analyzer.ProjectCtx;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MethodSummaryCacheTest {
+
+    @TempDir
+    Path project;
+
+    private Path testFile;
+
+    @BeforeEach
+    void writeProject() throws Exception {
+        Path main = Files.createDirectories(project.resolve("src/main/java/p"));
+        Path test = Files.createDirectories(project.resolve("src/test/java/p"));
+        Files.writeString(main.resolve("Calc.java"), String.join("\n",
+                "package p;",
+                "public class Calc {",
+                "    public int add(int a, int b) { return a + b; }",
+                "    public int twice(int a) { return add(a, a); }",
+                "}",
+                ""));
+        testFile = test.resolve("CalcTest.java");
+        Files.writeString(testFile, String.join("\n",
+                "package p;",
+                "public class CalcTest {",
+                "    private final Calc calc = new Calc();",
+                "    void direct() { check(calc.add(1, 2)); }",
+                "    void nested() { wrap(3); }",
+                "    private void wrap(int value) {",
+                "        check(calc.twice(value));",
+                "    }",
+                "    private void check(int value) {",
+                "        if (value < 0) {",
+                "            throw new IllegalStateException(\"negative \" + calc.add(value, 0));",
+                "        }",
+                "    }",
+                "}",
+                ""));
+    }
+
+    private ProjectCtx newProject() {
+        ProjectCtx projectCtx = new ProjectCtx(project, "java");
+        projectCtx.setParserConfig(ParserConfig.forSourceRoots(project,
+                List.of(project.resolve("src/main/java"), project.resolve("src/test/java"))));
+        return projectCtx;
+    }
+
+    private static List<String> analyze(TestCaseAnalyzer analyzer, AstParserUtil parser, Path file, String method) throws Exception {
+        AstParserUtil.ParseResult parsed = parser.parse(file.toString());
+        TypeDeclaration type = (TypeDeclaration) parsed.compilationUnit.types().get(0);
+        for (MethodDeclaration declaration : type.getMethods()) {
+            if (declaration.getName().getIdentifier().equals(method)) {
+                TestCaseAnalyzer.AnalysisResult result = analyzer.analyzeTestCase(parsed.compilationUnit, declaration, parsed.originalSource);
+                List<String> output = new ArrayList<>(result.getStatements());
+                output.add("implementations=" + result.productionFunctionImplementations);
+                return output;
+            }
+        }
+        throw new AssertionError("No method " + method + " in " + ((AbstractTypeDeclaration) type).getName());
+    }
+
+    @Test
+    void testReplayedSummaryMatchesFreshExpansion() throws Exception {
+        ProjectCtx fresh = newProject();
+        AstParserUtil freshParser = new AstParserUtil(fresh);
+        List<String> expected = analyze(new TestCaseAnalyzer(freshParser, fresh), freshParser, testFile, "nested");
+
+        // check() is memoized at depth 1 by direct() and replayed at depth 2 inside wrap()
+        ProjectCtx memoized = newProject();
+        AstParserUtil memoParser = new AstParserUtil(memoized);
+        TestCaseAnalyzer memoAnalyzer = new TestCaseAnalyzer(memoParser, memoized);
+        analyze(memoAnalyzer, memoParser, testFile, "direct");
+        long hitsBefore = memoized.getMethodSummaryCache().getHits();
+        List<String> replayed = analyze(memoAnalyzer, memoParser, testFile, "nested");
+
+        assertTrue(memoized.getMethodSummaryCache().getHits() > hitsBefore);
+        assertTrue(expected.stream().anyMatch(statement -> statement.startsWith("        ")), "check() is expanded at depth 2");
+        assertEquals(expected, replayed);
+    }
+
+    @Test
+    void testSummaryOfChangedFileIsDroppedInTheNextRun() throws Exception {
+        ProjectCtx projectCtx = newProject();
+        AstParserUtil parser = new AstParserUtil(projectCtx);
+        TestCaseAnalyzer analyzer = new TestCaseAnalyzer(parser, projectCtx);
+        analyze(analyzer, parser, testFile, "nested");
+        MethodSummaryCache cache = projectCtx.getMethodSummaryCache();
+        int stored = cache.size();
+        assertTrue(stored > 0);
+        assertTrue(cache.getCurrentWeight() > 0);
+
+        // Within a run, the stamps taken when the summaries were stored are trusted
+        Files.setLastModifiedTime(testFile, FileTime.fromMillis(Files.getLastModifiedTime(testFile).toMillis() + 2000));
+        analyze(analyzer, parser, testFile, "nested");
+        assertEquals(0, cache.getEvictions());
+
+        cache.beginRun();
+        analyze(new TestCaseAnalyzer(parser, projectCtx), parser, testFile, "nested");
+        assertEquals(stored, cache.getEvictions());
+    }
+
+    @Test
+    void testChangedSourcesDropTheParseCachesInTheNextRun() throws Exception {
+        ProjectCtx projectCtx = newProject();
+        AstParserUtil parser = new AstParserUtil(projectCtx);
+        List<String> before = analyze(new TestCaseAnalyzer(parser, projectCtx), parser, testFile, "direct");
+        assertTrue(before.stream().anyMatch(statement -> statement.contains("p.Calc.add(int, int)")), before.toString());
+
+        // Nothing changed: the daemon's next request reuses the warm caches
+        CompilationUnitCache asts = projectCtx.getCompilationUnitCache();
+        MethodSummaryCache summaries = projectCtx.getMethodSummaryCache();
+        SymbolTable symbols = projectCtx.getSymbolTable();
+        projectCtx.beginRun();
+        assertSame(asts, projectCtx.getCompilationUnitCache());
+        assertSame(summaries, projectCtx.getMethodSummaryCache());
+        assertSame(symbols, projectCtx.getSymbolTable());
+
+        // Calc.add is renamed; CalcTest itself is unchanged, but its cached AST binds calc.add to the old method
+        Path calcFile = project.resolve("src/main/java/p/Calc.java");
+        Files.writeString(calcFile, Files.readString(calcFile).replace("add(", "plus("));
+        Files.setLastModifiedTime(calcFile, FileTime.fromMillis(Files.getLastModifiedTime(calcFile).toMillis() + 2000));
+        new AstParserUtil(projectCtx).parse(testFile.toString()); // Still served from the cache within this run
+        projectCtx.beginRun();
+        assertNotSame(asts, projectCtx.getCompilationUnitCache());
+        assertNotSame(summaries, projectCtx.getMethodSummaryCache());
+        assertNotSame(symbols, projectCtx.getSymbolTable());
+
+        parser = new AstParserUtil(projectCtx);
+        List<String> after = analyze(new TestCaseAnalyzer(parser, projectCtx), parser, testFile, "direct");
+        ProjectCtx cold = newProject();
+        AstParserUtil coldParser = new AstParserUtil(cold);
+        assertEquals(analyze(new TestCaseAnalyzer(coldParser, cold), coldParser, testFile, "direct"), after);
+        assertNotEquals(before, after);
+    }
+
+    @Test
+    void testCachesAreRebuiltWhenTheMemoryCeilingChanges() {
+        ProjectCtx projectCtx = newProject();
+        projectCtx.setMaxMemoryMb(256);
+        CompilationUnitCache asts = projectCtx.getCompilationUnitCache();
+        MethodSummaryCache summaries = projectCtx.getMethodSummaryCache();
+        assertEquals(256L * 1024 * 1024 / 8, summaries.getMaxWeight());
+
+        projectCtx.setMaxMemoryMb(256);
+        assertSame(asts, projectCtx.getCompilationUnitCache());
+
+        projectCtx.setMaxMemoryMb(64);
+        assertEquals(CompilationUnitCache.weightForHeapBytes(64L * 1024 * 1024 / 4), projectCtx.getCompilationUnitCache().getMaxWeight());
+        assertEquals(64L * 1024 * 1024 / 8, projectCtx.getMethodSummaryCache().getMaxWeight());
+
+        projectCtx.setMaxMemoryMb(0);
+        assertEquals(CompilationUnitCache.DEFAULT_MAX_WEIGHT, projectCtx.getCompilationUnitCache().getMaxWeight());
+        assertEquals(MethodSummaryCache.DEFAULT_MAX_WEIGHT, projectCtx.getMethodSummaryCache().getMaxWeight());
+    }
+}
@@ -0,0 +1,116 @@
+package edu.stevens.swe.research.java.cli.analyzer.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ModuleDiscoveryTest {
+
+    @TempDir
+    Path dir;
+
+    private Path write(String relativePath, String content) throws IOException {
+        Path file = dir.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        return file;
+    }
+
+    @Test
+    void testGradleSettingsIncludes() throws IOException {
+        Path root = dir.resolve("root");
+        write("root/settings.gradle", String.join("\n",
+                "rootProject.name = 'demo'",
+                "include 'app', ':lib:core'",
+                "include(\"web\")",
+                "include \"cli\",",
+                "        \"tools\"",
+                "// include 'commented'",
+                "/* include 'blocked' */",
+                "includeFlat 'sibling'",
+                "includeBuild 'plugins/build'",
+                "project(':renamed').projectDir = file('libs/renamed')",
+                "project(\":other\").projectDir = new File(settingsDir, \"libs/other\")",
+                ""));
+        write("root/settings.gradle.kts", "include(\":kts\")\n");
+
+        assertEquals(List.of(
+                root.resolve("app"), root.resolve("lib/core"), root.resolve("web"), root.resolve("cli"), root.resolve("tools"),
+                dir.resolve("sibling"), root.resolve("plugins/build"),
+                root.resolve("libs/renamed"), root.resolve("libs/other"),
+                root.resolve("kts")),
+                ModuleDiscovery.declaredModules(root));
+    }
+
+    @Test
+    void testMavenModules() throws IOException {
+        write("pom.xml", String.join("\n",
+                "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">",
+                "  <modules>",
+                "    <module>core</module>",
+                "    <module>",
+                "      build",
+                "    </module>",
+                "    <!-- <module>disabled</module> -->",
+                "    <module>../shared</module>",
+                "  </modules>",
+                "  <profiles><profile><modules><module>extra/it</module></modules></profile></profiles>",
+                "</project>",
+                ""));
+
+        assertEquals(List.of(dir.resolve("core"), dir.resolve("build"), dir.getParent().resolve("shared"), dir.resolve("extra/it")),
+                ModuleDiscovery.declaredModules(dir));
+    }
+
+    @Test
+    void testDeclaredModulesAreWalkedEvenWhenNestedOrNamedLikeBuildOutput() throws IOException {
+        write("pom.xml", "<project><modules><module>parent</module><module>build</module><module>tools/out/gen</module></modules></project>");
+        write("parent/pom.xml", "<project><modules><module>child</module></modules></project>");
+        write("src/test/java/RootTest.java", "class RootTest {}");
+        write("parent/src/test/java/ParentTest.java", "class ParentTest {}");
+        write("parent/child/src/test/java/ChildTest.java", "class ChildTest {}");
+        write("build/src/test/java/BuildModuleTest.java", "class BuildModuleTest {}");
+        write("tools/out/gen/src/test/java/GeneratedTest.java", "class GeneratedTest {}");
+        write("parent/target/src/test/java/CopiedTest.java", "class CopiedTest {}");
+        write("tools/out/classes/src/test/java/StaleTest.java", "class StaleTest {}");
+
+        List<String> found = new ArrayList<>();
+        ModuleDiscovery.walkTestSources(dir, new ModuleDiscovery.TestSourceListener() {
+            @Override
+            public void testDirectoryStarted(Path testRoot) {
+            }
+
+            @Override
+            public void testFile(Path testRoot, Path javaFile) {
+                found.add(javaFile.getFileName().toString());
+            }
+
+            @Override
+            public void testDirectoryFinished(Path testRoot) {
+            }
+        });
+
+        found.sort(null);
+        assertEquals(List.of("BuildModuleTest.java", "ChildTest.java", "GeneratedTest.java", "ParentTest.java", "RootTest.java"), found);
+    }
+
+    @Test
+    void testExcludedDirectoryIsKeptAboveDeclaredModule() {
+        Set<Path> modules = Set.of(dir.toAbsolutePath().normalize(), dir.resolve("tools/out/gen").toAbsolutePath().normalize());
+
+        assertFalse(ModuleDiscovery.isPruned(dir.resolve("tools/out"), modules));
+        assertFalse(ModuleDiscovery.isPruned(dir.resolve("tools"), modules));
+        assertTrue(ModuleDiscovery.isPruned(dir.resolve("build"), modules));
+        assertTrue(ModuleDiscovery.isPruned(dir.resolve("tools/out/gen/.git"), modules));
+    }
+}
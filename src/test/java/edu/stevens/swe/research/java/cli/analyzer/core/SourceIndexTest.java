@@ -0,0 +1,76 @@
+package edu.stevens.swe.research.java.cli.analyzer.core;
+
+import edu.stevens.swe.research.java.cli.analyzer.ProjectCtx;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class SourceIndexTest {
+
+    @TempDir
+    Path project;
+
+    private Path write(String relativePath, String content) throws IOException {
+        Path file = project.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        return file;
+    }
+
+    @Test
+    void testNestedRecordEnumAndLocalTypesAreIndexedByPackage() throws IOException {
+        // The file name does not match the type, so only the package and type declarations can place it
+        Path outer = write("src/main/java/a/b/Types.java", String.join("\n",
+                "package a.b;",
+                "import java.util.List;",
+                "public class Outer {",
+                "    static class Inner { interface Deep {} }",
+                "    record Pair<A, B>(A first, B second) { static class InRecord {} }",
+                "    enum Color { RED { void paint() {} }, GREEN }",
+                "    void record(int record) { Class<?> c = Outer.class; }",
+                "    void run() {",
+                "        class Local {}",
+                "        Runnable r = new Runnable() { public void run() {} };",
+                "    }",
+                "}",
+                "@interface Marker {}",
+                ""));
+
+        SourceIndex index = SourceIndex.build(new ProjectCtx(project, "java"));
+
+        assertEquals(outer, index.lookup("a.b.Outer"));
+        assertEquals(outer, index.lookup("a.b.Outer.Inner"));
+        assertEquals(outer, index.lookup("a.b.Outer.Inner.Deep"));
+        assertEquals(outer, index.lookup("a.b.Outer.Pair"));
+        assertEquals(outer, index.lookup("a.b.Outer.Pair.InRecord"));
+        assertEquals(outer, index.lookup("a.b.Outer.Color"));
+        assertEquals(outer, index.lookup("a.b.Outer.Local"));
+        assertEquals(outer, index.lookup("a.b.Marker"));
+        assertEquals(outer, index.lookup("a.b.Outer.Pair<java.lang.String, java.lang.Integer>"));
+        assertNull(index.lookup("a.b.Types"));
+        assertNull(index.lookup("a.b.record"));
+        assertEquals(8, index.size());
+    }
+
+    @Test
+    void testMainSourcePreferredOverTestDuplicate() throws IOException {
+        write("src/test/java/a/Fixture.java", "package a;\npublic class Fixture {}\n");
+        Path main = write("src/main/java/a/Fixture.java", "package a;\npublic class Fixture {}\n");
+        Path testOnly = write("src/test/java/a/Helper.java", "package a;\nclass Helper {}\n");
+
+        SourceIndex index = SourceIndex.build(new ProjectCtx(project, "java"));
+        assertEquals(main, index.lookup("a.Fixture"));
+        assertEquals(testOnly, index.lookup("a.Helper"));
+
+        // Reloaded from the persisted index, without re-scanning, the preference is the same
+        SourceIndex reloaded = SourceIndex.build(new ProjectCtx(project, "java"));
+        assertEquals(main, reloaded.lookup("a.Fixture"));
+        assertEquals(testOnly, reloaded.lookup("a.Helper"));
+    }
+}
@@ -0,0 +1,209 @@
+package edu.stevens.swe.research.java.cli.analyzer.core;
+
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.ClassInstanceCreation;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class StatementSequenceTest {
+
+    /**
+     * Statements as the string-based analyzer built them: indentation, details, '#', line range.
+     */
+    private static String baseline(int level, String statementDetails, int startLine, int endLine) {
+        return "    ".repeat(Math.max(0, level)) + statementDetails + "#" + "[" + startLine + "-" + endLine + "]";
+    }
+
+    /**
+     * Parameter rendering of the string-based analyzer.
+     */
+    private static String baselineParameters(IMethodBinding binding) {
+        if (binding == null) return "(...)";
+        StringBuilder parameters = new StringBuilder("(");
+        ITypeBinding[] paramTypes = binding.getParameterTypes();
+        for (int i = 0; i < paramTypes.length; i++) {
+            parameters.append(paramTypes[i].getName());
+            if (i < paramTypes.length - 1) {
+                parameters.append(", ");
+            }
+        }
+        parameters.append(")");
+        return parameters.toString();
+    }
+
+    @Test
+    void testEveryKindRendersLikeTheStringBasedAnalyzer() {
+        SymbolTable symbols = new SymbolTable();
+        int signature = symbols.intern("a.b.Calc.add(int, int)");
+        int parameters = symbols.intern("(String)");
+        StatementSequence sequence = new StatementSequence(symbols);
+        List<String> expected = new ArrayList<>();
+
+        sequence.add(StatementSequence.Kind.PRODUCTION, signature, 0, 3, 3);
+        expected.add(baseline(0, "a.b.Calc.add(int, int)", 3, 3));
+        String[][] prefixed = {
+                {"GET", "GET "}, {"SET", "SET "}, {"TEST", "TEST "}, {"TEST_GET", "TEST GET "}, {"TEST_SET", "TEST SET "},
+                {"THIRD", "THIRD "}, {"THIRD_GET", "THIRD GET "}, {"THIRD_SET", "THIRD SET "}, {"ASSERT", "ASSERT "},
+                {"MOCK", "MOCK "}, {"EXPECTEDEXCEPTION_RULE", "EXPECTEDEXCEPTION_RULE "},
+                {"EXPECTEDEXCEPTION_ANNOTATION", "EXPECTEDEXCEPTION_ANNOTATION "}, {"NEW", "NEW "},
+                {"NEW_JDK_CLASS", "NEW_JDK_CLASS "}, {"METHOD_REF", "METHOD_REF "},
+                {"RECURSIVE_TO_ENTRY", "RECURSIVE_TO_ENTRY "}, {"DIRECT_RECURSIVE", "DIRECT_RECURSIVE "},
+                {"UNKNOWN_PROJECT_CODE", "UNKNOWN_PROJECT_CODE "}, {"METHOD_NOT_FOUND_IN_SOURCE", "METHOD_NOT_FOUND_IN_SOURCE "},
+                {"SOURCE_FILE_NOT_FOUND", "SOURCE_FILE_NOT_FOUND "}};
+        int line = 4;
+        for (String[] kind : prefixed) {
+            sequence.add(StatementSequence.Kind.valueOf(kind[0]), signature, line % 3, line, line + 1);
+            expected.add(baseline(line % 3, kind[1] + "a.b.Calc.add(int, int)", line, line + 1));
+            line++;
+        }
+        sequence.add(StatementSequence.Kind.NEW_ANONYMOUS_CLASS, parameters, 1, 40, 44);
+        expected.add(baseline(1, "NEW ANONYMOUS_CLASS" + "(String)", 40, 44));
+        sequence.addText(StatementSequence.Kind.UNRESOLVED_INVOCATION, "missing(x)", 2, 45, 45);
+        expected.add(baseline(2, "UNRESOLVED_INVOCATION: " + "missing(x)", 45, 45));
+        sequence.addText(StatementSequence.Kind.UNRESOLVED_CONSTRUCTOR, "new Missing()", 0, 46, 46);
+        expected.add(baseline(0, "UNRESOLVED_CONSTRUCTOR: " + "new Missing()", 46, 46));
+        sequence.addText(StatementSequence.Kind.UNRESOLVED_METHOD_REF, "this::missing", 0, 47, 47);
+        expected.add(baseline(0, "UNRESOLVED_METHOD_REF: " + "this::missing", 47, 47));
+        sequence.addText(StatementSequence.Kind.UNRESOLVED_DECLARING_CLASS, "x.m()", 3, 48, 49);
+        expected.add(baseline(3, "UNRESOLVED_DECLARING_CLASS: " + "x.m()", 48, 49));
+        sequence.add("    already rendered#[1-2]");
+        expected.add("    already rendered#[1-2]");
+
+        assertEquals(expected, new ArrayList<>(sequence));
+        assertEquals("GET a.b.Calc.add(int, int)#[4-5]", sequence.render(1));
+        assertEquals("a.b.Calc.add(int, int)", sequence.payload(1));
+        assertEquals(signature, sequence.symbol(1));
+        assertEquals(-1, sequence.symbol(sequence.size() - 2));
+        assertEquals(List.of(expected.get(19), expected.get(20), expected.get(22), expected.get(23), expected.get(24)),
+                sequence.unresolvedStatements());
+    }
+
+    @Test
+    void testReplayedSliceKeepsTextsAndShiftsDepth() {
+        SymbolTable symbols = new SymbolTable();
+        StatementSequence sequence = new StatementSequence(symbols);
+        sequence.add(StatementSequence.Kind.TEST, symbols.intern("a.CalcTest.check(int)"), 0, 5, 5);
+        sequence.add(StatementSequence.Kind.ASSERT, symbols.intern("org.junit.Assert.assertTrue(boolean)"), 1, 9, 9);
+        sequence.addText(StatementSequence.Kind.UNRESOLVED_INVOCATION, "fail(value)", 1, 10, 10);
+
+        StatementSequence slice = sequence.slice(1, 3, 0);
+        StatementSequence replayed = new StatementSequence(symbols);
+        replayed.addText(StatementSequence.Kind.UNRESOLVED_INVOCATION, "other()", 0, 1, 1);
+        replayed.appendFrom(slice, 0, slice.size(), 2);
+
+        assertEquals(List.of(
+                baseline(1, "ASSERT org.junit.Assert.assertTrue(boolean)", 9, 9),
+                baseline(1, "UNRESOLVED_INVOCATION: fail(value)", 10, 10)), slice);
+        assertEquals(List.of(
+                baseline(0, "UNRESOLVED_INVOCATION: other()", 1, 1),
+                baseline(3, "ASSERT org.junit.Assert.assertTrue(boolean)", 9, 9),
+                baseline(3, "UNRESOLVED_INVOCATION: fail(value)", 10, 10)), replayed);
+    }
+
+    @Test
+    void testSignaturesRenderLikeTheStringBasedAnalyzer() {
+        String source = String.join("\n",
+                "package a.b;",
+                "import java.util.*;",
+                "class Calc<T> {",
+                "    int add(int a, int b) { return a + b; }",
+                "    <E> void put(Map<String, List<E>> map, T[] values, int... rest) {}",
+                "    Calc(String name) {}",
+                "    void use(Calc<String> calc) {",
+                "        calc.add(1, 2);",
+                "        calc.put(new HashMap<String, List<Integer>>(), new String[0]);",
+                "        new Calc<Long>(\"x\");",
+                "        new ArrayList<String>(3).add(\"y\");",
+                "    }",
+                "}");
+        ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        parser.setSource(source.toCharArray());
+        parser.setUnitName("/a/b/Calc.java");
+        parser.setEnvironment(null, null, null, true);
+        parser.setResolveBindings(true);
+        Map<String, String> options = JavaCore.getOptions();
+        JavaCore.setComplianceOptions(JavaCore.latestSupportedJavaVersion(), options);
+        parser.setCompilerOptions(options);
+        CompilationUnit cu = (CompilationUnit) parser.createAST(null);
+
+        SymbolTable symbols = new SymbolTable();
+        List<String> expected = new ArrayList<>();
+        List<String> rendered = new ArrayList<>();
+        cu.accept(new ASTVisitor() {
+            @Override
+            public boolean visit(MethodInvocation mi) {
+                IMethodBinding binding = mi.resolveMethodBinding();
+                expected.add(binding.getDeclaringClass().getQualifiedName() + "." + mi.getName().toString() + baselineParameters(binding));
+                rendered.add(symbols.name(symbols.method(binding)));
+                return true;
+            }
+
+            @Override
+            public boolean visit(ClassInstanceCreation cic) {
+                IMethodBinding binding = cic.resolveConstructorBinding();
+                expected.add(binding.getDeclaringClass().getQualifiedName() + baselineParameters(binding));
+                rendered.add(symbols.name(symbols.constructor(binding)));
+                expected.add(baselineParameters(binding));
+                rendered.add(symbols.name(symbols.parameterList(binding)));
+                return true;
+            }
+        });
+
+        assertEquals(List.of("a.b.Calc<java.lang.String>.add(int, int)",
+                        "a.b.Calc<java.lang.String>.put(Map<String,List<Integer>>, String[], int[])"),
+                List.of(expected.get(0), expected.get(1)));
+        assertEquals(expected, rendered);
+    }
+
+    @Test
+    void testEqualRenderingsShareOneIdAcrossThreads() throws Exception {
+        SymbolTable symbols = new SymbolTable();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        Set<String> mismatches = ConcurrentHashMap.newKeySet();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 3000; i++) { // Grows the name array past its initial capacity
+                        String name = "p.T.m" + i + "()";
+                        if (!name.equals(symbols.name(symbols.intern(name)))) {
+                            mismatches.add(name);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(Set.of(), mismatches);
+        assertEquals(3000, symbols.size());
+        int id = symbols.intern("p.T.m7()");
+        assertEquals(id, symbols.intern(new String("p.T.m7()")));
+        assertSame(symbols.name(id), symbols.name(symbols.intern("p.T.m7()")));
+        assertNotEquals(id, symbols.intern("p.T.m8()"));
+    }
+}
@@ -1,13 +1,31 @@
 package edu.stevens.swe.research.java.cli.analyzer.core;
 
+import edu.stevens.swe.research.java.cli.analyzer.ProjectCtx;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestCaseAnalyzerTest {
 
+    private static final int LONG_HELPER_CALLS = 3000;
+
+    @TempDir
+    Path project;
+
+    private Path testFile;
+
     @BeforeAll
     static void setUpBeforeClass() {
         System.out.println("Setting up before all tests");
@@ -17,6 +35,65 @@ public class TestCaseAnalyzerTest {
     void setUp() {
         System.out.println("Setting up before each test");
     }
+
+    @BeforeEach
+    void writeProject() throws Exception {
+        Path main = Files.createDirectories(project.resolve("src/main/java/p"));
+        Path test = Files.createDirectories(project.resolve("src/test/java/p"));
+        Files.writeString(main.resolve("Calc.java"), String.join("\n",
+                "package p;",
+                "public class Calc {",
+                "    public int add(int a, int b) { return a + b; }",
+                "}",
+                ""));
+        StringBuilder longHelper = new StringBuilder();
+        for (int i = 0; i < LONG_HELPER_CALLS; i++) {
+            longHelper.append("        calc.add(").append(i).append(", 1);\n");
+        }
+        testFile = test.resolve("LoopTest.java");
+        Files.writeString(testFile, String.join("\n",
+                "package p;",
+                "public class LoopTest {",
+                "    private final Calc calc = new Calc();",
+                "    void recursive() { ping(3); }",
+                "    private void ping(int n) {",
+                "        if (n > 0) {",
+                "            pong(n - 1);",
+                "        }",
+                "    }",
+                "    private void pong(int n) { ping(n); }",
+                "    void nested() { outer(); }",
+                "    private void outer() { middle(); }",
+                "    private void middle() { inner(); }",
+                "    private void inner() { calc.add(1, 2); }",
+                "    void wide() { first(); second(); third(); }",
+                "    private void first() { calc.add(1, 1); }",
+                "    private void second() { calc.add(2, 2); }",
+                "    private void third() { calc.add(3, 3); }",
+                "    void slow() { longHelper(); }",
+                "    private void longHelper() {",
+                longHelper + "    }",
+                "}",
+                ""));
+    }
+
+    private TestCaseAnalyzer.AnalysisResult analyze(String method, int maxDfsDepth, int maxExpandedMethods, long testTimeoutMs) throws Exception {
+        ProjectCtx projectCtx = new ProjectCtx(project, "java");
+        projectCtx.setParserConfig(ParserConfig.forSourceRoots(project,
+                List.of(project.resolve("src/main/java"), project.resolve("src/test/java"))));
+        projectCtx.setMaxDfsDepth(maxDfsDepth);
+        projectCtx.setMaxExpandedMethods(maxExpandedMethods);
+        projectCtx.setTestTimeoutMs(testTimeoutMs);
+        AstParserUtil parser = new AstParserUtil(projectCtx);
+        AstParserUtil.ParseResult parsed = parser.parse(testFile.toString());
+        TypeDeclaration type = (TypeDeclaration) parsed.compilationUnit.types().get(0);
+        for (MethodDeclaration declaration : type.getMethods()) {
+            if (declaration.getName().getIdentifier().equals(method)) {
+                return new TestCaseAnalyzer(parser, projectCtx).analyzeTestCase(parsed.compilationUnit, declaration, parsed.originalSource);
+            }
+        }
+        throw new AssertionError("No method " + method);
+    }
     
     @AfterEach
     void tearDown() {
@@ -39,4 +116,55 @@ public class TestCaseAnalyzerTest {
         // Another test method to verify multiple tests work
         System.out.println("Running another test method");
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testMutualRecursionEndsInACycleMarker() throws Exception {
+        TestCaseAnalyzer.AnalysisResult result = analyze("recursive", 0, 0, 0);
+
+        assertEquals(List.of(
+                "            CYCLE p.LoopTest.ping(int)#[10-10]",
+                "        TEST p.LoopTest.ping(int)#[10-10]",
+                "    TEST p.LoopTest.pong(int)#[7-7]",
+                "TEST p.LoopTest.ping(int)#[4-4]"), result.getStatements());
+        assertEquals(List.of("CYCLE p.LoopTest.ping(int)#[10-10]"), result.getTruncations());
+    }
+
+    @Test
+    void testDepthLimitTruncatesTheDeepestHelper() throws Exception {
+        assertEquals(List.of(), analyze("nested", 0, 0, 0).getTruncations());
+
+        TestCaseAnalyzer.AnalysisResult result = analyze("nested", 2, 0, 0);
+        assertEquals(List.of(
+                "            TRUNCATED_DEPTH p.LoopTest.inner()#[13-13]",
+                "        TEST p.LoopTest.inner()#[13-13]",
+                "    TEST p.LoopTest.middle()#[12-12]",
+                "TEST p.LoopTest.outer()#[11-11]"), result.getStatements());
+        assertEquals(List.of("TRUNCATED_DEPTH p.LoopTest.inner()#[13-13]"), result.getTruncations());
+    }
+
+    @Test
+    void testExpansionBudgetTruncatesLaterHelpers() throws Exception {
+        TestCaseAnalyzer.AnalysisResult result = analyze("wide", 0, 2, 0);
+
+        assertEquals(List.of(
+                "    p.Calc.add(int, int)#[16-16]",
+                "TEST p.LoopTest.first()#[15-15]",
+                "    p.Calc.add(int, int)#[17-17]",
+                "TEST p.LoopTest.second()#[15-15]",
+                "    TRUNCATED_BUDGET p.LoopTest.third()#[15-15]",
+                "TEST p.LoopTest.third()#[15-15]"), result.getStatements());
+        assertEquals(List.of("TRUNCATED_BUDGET p.LoopTest.third()#[15-15]"), result.getTruncations());
+    }
+
+    @Test
+    void testTimeoutStopsTheExpansion() throws Exception {
+        // A 1 ms budget runs out long before the helper's calls are all resolved
+        TestCaseAnalyzer.AnalysisResult result = analyze("slow", 0, 0, 1);
+
+        List<String> truncations = result.getTruncations();
+        assertEquals(1, truncations.size(), truncations.toString());
+        assertTrue(truncations.get(0).startsWith("TRUNCATED_TIMEOUT "), truncations.get(0));
+        assertTrue(result.getStatements().size() < LONG_HELPER_CALLS);
+        assertTrue(result.getStatements().stream().anyMatch(statement -> statement.trim().startsWith("TRUNCATED_TIMEOUT ")));
+    }
+}
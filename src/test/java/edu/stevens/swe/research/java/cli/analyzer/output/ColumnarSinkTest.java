@@ -0,0 +1,156 @@
+package edu.stevens.swe.research.java.cli.analyzer.output;
+
+import com.google.gson.Gson;
+import edu.stevens.swe.research.java.cli.analyzer.core.StatementSequence;
+import edu.stevens.swe.research.java.cli.analyzer.core.SymbolTable;
+import edu.stevens.swe.research.java.cli.analyzer.core.TestCaseAnalyzer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ColumnarSinkTest {
+
+    @TempDir
+    Path dir;
+
+    private static TestCaseAnalyzer.AnalysisResult result(SymbolTable symbols, String className, String testName) {
+        TestCaseAnalyzer.AnalysisResult result = new TestCaseAnalyzer.AnalysisResult(symbols);
+        result.projectName = "demo";
+        result.testClassName = className;
+        result.testCaseName = testName;
+        result.testCaseSourceCode = "@Test void " + testName + "() { \u00fc }";
+        return result;
+    }
+
+    private long[] longs(String file) throws IOException {
+        List<Long> values = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(dir.resolve(file))))) {
+            while (true) {
+                values.add(in.readLong());
+            }
+        } catch (EOFException end) {
+            return values.stream().mapToLong(Long::longValue).toArray();
+        }
+    }
+
+    private int[] ints(String file) throws IOException {
+        List<Integer> values = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(dir.resolve(file))))) {
+            while (true) {
+                values.add(in.readInt());
+            }
+        } catch (EOFException end) {
+            return values.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    private List<String> strings(String prefix) throws IOException {
+        byte[] data = Files.readAllBytes(dir.resolve(prefix + ".utf8"));
+        List<String> values = new ArrayList<>();
+        long start = 0;
+        for (long end : longs(prefix + ".off")) {
+            values.add(new String(data, (int) start, (int) (end - start), StandardCharsets.UTF_8));
+            start = end;
+        }
+        return values;
+    }
+
+    @Test
+    void testColumnsRebuildTheWrittenResults() throws IOException {
+        SymbolTable symbols = new SymbolTable();
+        String body = "int add(int a, int b) {\n    return a + b; // \u00fc\n}";
+        TestCaseAnalyzer.AnalysisResult first = result(symbols, "a.CalcTest", "adds");
+        StatementSequence statements = first.getStatements();
+        statements.add(StatementSequence.Kind.PRODUCTION, symbols.intern("a.Calc.add(int, int)"), 0, 5, 5);
+        statements.add(StatementSequence.Kind.TEST, symbols.intern("a.CalcTest.check(int)"), 0, 6, 6);
+        statements.add(StatementSequence.Kind.ASSERT, symbols.intern("org.junit.Assert.assertEquals(long, long)"), 1, 20, 20);
+        statements.addText(StatementSequence.Kind.UNRESOLVED_INVOCATION, "missing(1)", 0, 7, 7);
+        first.productionFunctionImplementations.add(body);
+        first.importedPackages.add("a");
+        first.beforeMethods.add("@Before void setUp() {}");
+
+        TestCaseAnalyzer.AnalysisResult second = result(symbols, "a.CalcTest", "addsTwice");
+        second.getStatements().add(StatementSequence.Kind.PRODUCTION, symbols.intern("a.Calc.add(int, int)"), 0, 9, 10);
+        second.productionFunctionImplementations.add(body);
+        second.productionFunctionImplementations.add(new String(body)); // Same content, another instance
+        second.beforeMethods.add("@Before void setUp() {}");
+        second.afterAllMethods.add("@AfterAll static void done() {}");
+
+        try (ColumnarSink sink = new ColumnarSink(dir)) {
+            sink.write("a.json", first);
+            sink.write("other.json", Map.of("key", "value"));
+            sink.write("b.json", second);
+        }
+
+        ColumnarSink.Schema schema = new Gson().fromJson(Files.readString(dir.resolve("schema.json")), ColumnarSink.Schema.class);
+        assertEquals("demo", schema.project);
+        assertEquals(2, schema.tables.get("tests").rows);
+        assertEquals(5, schema.tables.get("statements").rows);
+        assertEquals(1, schema.tables.get("records").rows);
+        assertEquals(3, schema.dictionaries.get("bodies").rows); // The method body and two lifecycle methods
+
+        List<String> kinds = strings("dict.kinds");
+        List<String> signatures = strings("dict.signatures");
+        List<String> bodies = strings("dict.bodies");
+        List<String> classes = strings("dict.classes");
+        List<String> phases = strings("dict.phases");
+        int[] statementTest = ints("statements.test.i32");
+        int[] statementKind = ints("statements.kind.i32");
+        int[] statementSignature = ints("statements.signature.i32");
+        int[] statementDepth = ints("statements.depth.i32");
+        int[] statementStart = ints("statements.start_line.i32");
+        int[] statementEnd = ints("statements.end_line.i32");
+        int[] implementationBody = ints("implementations.body.i32");
+        int[] lifecyclePhase = ints("lifecycle.phase.i32");
+        int[] lifecycleBody = ints("lifecycle.body.i32");
+        long[] statementsEnd = longs("tests.statements_end.i64");
+        long[] implementationsEnd = longs("tests.implementations_end.i64");
+        long[] lifecycleEnd = longs("tests.lifecycle_end.i64");
+        int[] testClass = ints("tests.class.i32");
+
+        List<TestCaseAnalyzer.AnalysisResult> written = List.of(first, second);
+        for (int test = 0; test < written.size(); test++) {
+            TestCaseAnalyzer.AnalysisResult expected = written.get(test);
+            List<String> rebuilt = new ArrayList<>();
+            for (int row = test == 0 ? 0 : (int) statementsEnd[test - 1]; row < statementsEnd[test]; row++) {
+                assertEquals(test, statementTest[row]);
+                String prefix = schema.kindPrefixes.get(kinds.get(statementKind[row]));
+                rebuilt.add("    ".repeat(statementDepth[row]) + prefix + signatures.get(statementSignature[row])
+                        + "#[" + statementStart[row] + "-" + statementEnd[row] + "]");
+            }
+            assertEquals(expected.parsedStatementsSequence, rebuilt);
+
+            List<String> implementations = new ArrayList<>();
+            for (int row = test == 0 ? 0 : (int) implementationsEnd[test - 1]; row < implementationsEnd[test]; row++) {
+                implementations.add(bodies.get(implementationBody[row]));
+            }
+            assertEquals(expected.productionFunctionImplementations, implementations);
+
+            List<String> lifecycle = new ArrayList<>();
+            for (int row = test == 0 ? 0 : (int) lifecycleEnd[test - 1]; row < lifecycleEnd[test]; row++) {
+                lifecycle.add(phases.get(lifecyclePhase[row]) + ":" + bodies.get(lifecycleBody[row]));
+            }
+            List<String> expectedLifecycle = new ArrayList<>();
+            expected.beforeMethods.forEach(method -> expectedLifecycle.add("before:" + method));
+            expected.afterAllMethods.forEach(method -> expectedLifecycle.add("afterAll:" + method));
+            assertEquals(expectedLifecycle, lifecycle);
+            assertEquals(expected.testClassName, classes.get(testClass[test]));
+        }
+        assertEquals(List.of("adds", "addsTwice"), strings("tests.name"));
+        assertEquals(List.of(first.testCaseSourceCode, second.testCaseSourceCode), strings("tests.source"));
+        assertEquals(List.of("other.json"), strings("records.name"));
+        assertEquals(List.of("{\"key\":\"value\"}"), strings("records.json"));
+    }
+}
@@ -0,0 +1,142 @@
+package edu.stevens.swe.research.java.cli.analyzer.output;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import edu.stevens.swe.research.java.cli.analyzer.core.StatementSequence;
+import edu.stevens.swe.research.java.cli.analyzer.core.SymbolTable;
+import edu.stevens.swe.research.java.cli.analyzer.core.TestCaseAnalyzer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DedupingResultSinkTest {
+
+    @TempDir
+    Path dir;
+
+    private static TestCaseAnalyzer.AnalysisResult result(SymbolTable symbols, String testName, String body) {
+        TestCaseAnalyzer.AnalysisResult result = new TestCaseAnalyzer.AnalysisResult(symbols);
+        result.projectName = "demo";
+        result.testClassName = "a.CalcTest";
+        result.testCaseName = testName;
+        result.testCaseSourceCode = "@Test void " + testName + "() {}";
+        result.importedPackages.add("a");
+        StatementSequence statements = result.getStatements();
+        statements.add(StatementSequence.Kind.PRODUCTION, symbols.intern("a.Calc.add(int, int)"), 0, 5, 5);
+        statements.addText(StatementSequence.Kind.UNRESOLVED_INVOCATION, "missing(\"\u00fc\")", 1, 6, 6);
+        result.productionFunctionImplementations.add(body);
+        result.beforeMethods.add("@Before void setUp() {}");
+        result.afterAllMethods.add("@AfterAll static void done() {}");
+        return result;
+    }
+
+    private String resolve(String reference) throws IOException {
+        assertTrue(reference.startsWith(DedupingResultSink.REFERENCE_PREFIX), reference);
+        String hash = reference.substring(DedupingResultSink.REFERENCE_PREFIX.length());
+        return Files.readString(dir.resolve("objects").resolve(hash.substring(0, 2)).resolve(hash), StandardCharsets.UTF_8);
+    }
+
+    private List<String> resolveAll(List<String> references) throws IOException {
+        List<String> contents = new ArrayList<>();
+        for (String reference : references) {
+            contents.add(resolve(reference));
+        }
+        return contents;
+    }
+
+    @Test
+    void testReferencesResolveToTheWrittenContent() throws IOException {
+        SymbolTable symbols = new SymbolTable();
+        String body = "int add(int a, int b) {\n    return a + b; // \u00fc\n}";
+        TestCaseAnalyzer.AnalysisResult first = result(symbols, "adds", body);
+        TestCaseAnalyzer.AnalysisResult second = result(symbols, "addsAgain", new String(body));
+
+        DedupingResultSink sink = new DedupingResultSink(new JsonFileSink(dir), dir.resolve("objects"));
+        try (sink) {
+            sink.write("adds.json", first);
+            sink.write("addsAgain.json", second);
+            sink.write("other.json", Map.of("key", "value"));
+        }
+
+        for (TestCaseAnalyzer.AnalysisResult expected : List.of(first, second)) {
+            DedupingResultSink.DedupedRecord record = new Gson().fromJson(
+                    Files.readString(dir.resolve(expected.testCaseName + ".json")), DedupingResultSink.DedupedRecord.class);
+            List<String> statements = new Gson().fromJson(resolve(record.parsedStatementsSequenceRef), new TypeToken<List<String>>() {}.getType());
+            assertEquals(expected.parsedStatementsSequence, statements);
+            assertEquals(expected.productionFunctionImplementations, resolveAll(record.productionFunctionImplementationRefs));
+            assertEquals(expected.beforeMethods, resolveAll(record.beforeMethodRefs));
+            assertEquals(List.of(), record.beforeAllMethodRefs);
+            assertEquals(List.of(), record.afterMethodRefs);
+            assertEquals(expected.afterAllMethods, resolveAll(record.afterAllMethodRefs));
+            assertEquals(expected.testCaseSourceCode, record.testCaseSourceCode);
+            assertEquals(expected.importedPackages, record.importedPackages);
+            assertEquals(expected.testClassName, record.testClassName);
+            assertEquals(expected.projectName, record.projectName);
+        }
+        assertEquals("{\"key\":\"value\"}", Files.readString(dir.resolve("other.json")).replaceAll("\\s", ""));
+        assertEquals(8, sink.getReferences());
+        assertEquals(4, sink.getObjectsWritten()); // One statement sequence, the body and two lifecycle methods
+
+        // A later run into the same directory finds every object in place
+        DedupingResultSink rerun = new DedupingResultSink(new JsonFileSink(dir), dir.resolve("objects"));
+        try (rerun) {
+            rerun.write("adds.json", first);
+        }
+        assertEquals(4, rerun.getReferences());
+        assertEquals(0, rerun.getObjectsWritten());
+    }
+
+    @Test
+    void testConcurrentWritersOnlySeeStoredObjects() throws Exception {
+        DedupingResultSink sink = new DedupingResultSink(new JsonFileSink(dir), dir.resolve("objects"));
+        SymbolTable symbols = new SymbolTable();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        Set<String> missing = ConcurrentHashMap.newKeySet();
+        try (sink) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                int worker = thread;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        // Every worker stores the same bodies, so most stores race for an object another one is writing
+                        TestCaseAnalyzer.AnalysisResult result = result(symbols, "t" + worker + "_" + i, "void m" + i % 50 + "() {}");
+                        String name = result.testCaseName + ".json";
+                        sink.write(name, result);
+                        DedupingResultSink.DedupedRecord record = new Gson().fromJson(
+                                Files.readString(dir.resolve(name)), DedupingResultSink.DedupedRecord.class);
+                        for (String reference : record.productionFunctionImplementationRefs) {
+                            String hash = reference.substring(DedupingResultSink.REFERENCE_PREFIX.length());
+                            if (!Files.exists(dir.resolve("objects").resolve(hash.substring(0, 2)).resolve(hash))) {
+                                missing.add(reference);
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(Set.of(), missing);
+        assertEquals(53, sink.getObjectsWritten()); // 50 bodies, the statement sequence and two lifecycle methods
+    }
+}
@@ -0,0 +1,53 @@
+package edu.stevens.swe.research.java.cli.analyzer.visitors;
+
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class InvocationVisitorTest {
+
+    private static List<String> invocationsOf(String methodBody) {
+        ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        parser.setSource(("class T { void m() { " + methodBody + " } }").toCharArray());
+        CompilationUnit cu = (CompilationUnit) parser.createAST(null);
+        MethodDeclaration method = ((TypeDeclaration) cu.types().get(0)).getMethods()[0];
+
+        InvocationVisitor visitor = new InvocationVisitor();
+        method.accept(visitor);
+        return visitor.getMethods().stream().map(ASTNode::toString).collect(Collectors.toList());
+    }
+
+    @Test
+    void testNestedCallsComeBeforeTheirConsumer() {
+        assertEquals(List.of("a.x()", "b()", "c(b())", "a.x().y(c(b()))"),
+                invocationsOf("a.x().y(c(b()));"));
+    }
+
+    @Test
+    void testLambdaBodyAndInfixOperandsAreOrdered() {
+        assertEquals(List.of("f()", "g()", "new R(() -> f() + g())", "run(new R(() -> f() + g()))"),
+                invocationsOf("run(new R(() -> f() + g()));"));
+    }
+
+    @Test
+    void testLargeMethodKeepsStatementOrder() {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            body.append("assertEquals(f").append(i).append("(), g(").append(i).append("));");
+        }
+        List<String> invocations = invocationsOf(body.toString());
+        assertEquals(15000, invocations.size());
+        assertEquals("f4999()", invocations.get(14997));
+        assertEquals("assertEquals(f4999(),g(4999))", invocations.get(14999));
+    }
+}